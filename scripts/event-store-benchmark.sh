@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+#
+# Compares the mapped event storage engine with the JPA engine on a file-based H2 database.
+#
+# Usage: scripts/event-store-benchmark.sh [seconds] [clients]
+#
+# Runs EventStoreBenchmark, which appends events from the given number of client threads (default four per core) for
+# the given number of seconds per engine (default 10), then sources orders of 200 events and reads all events as a
+# tracking processor would, below target/event-store-benchmark. Compiles the test classes with "mvn test-compile"
+# first.
+
+set -euo pipefail
+
+SECONDS_PER_RUN="${1:-10}"
+CLIENTS="${2:-$((4 * $(nproc)))}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSPATH_FILE="${PROJECT_DIR}/target/benchmark.classpath"
+
+cd "${PROJECT_DIR}"
+./mvnw -B -q test-compile dependency:build-classpath -Dmdep.outputFile="${CLASSPATH_FILE}"
+CLASSPATH="${PROJECT_DIR}/target/test-classes:${PROJECT_DIR}/target/classes:$(cat "${CLASSPATH_FILE}")"
+
+java -Xms1g -Xmx1g -Ddisable-axoniq-console-message=true -cp "${CLASSPATH}" \
+    com.hendisantika.springbootaxonsample1.eventstore.EventStoreBenchmark "${SECONDS_PER_RUN}" "${CLIENTS}" \
+    "${PROJECT_DIR}/target/event-store-benchmark"
@@ -0,0 +1,66 @@
+#!/usr/bin/env bash
+#
+# Measures command throughput of the Order service when many clients edit the same order at once.
+#
+# Usage: scripts/hot-order-benchmark.sh [unbatched|batched] [commands] [clients]
+#
+#   unbatched  every command loads the order, runs its handler and appends its events on its own
+#   batched    starts with order.commands.batching.enabled=true, commands queued for the same order share one load
+#              and one append
+#
+# Creates one order with one product, then sends the given number of increment commands for that product from the
+# given number of concurrent clients and reports the elapsed time, the throughput and the number of failed requests.
+# Uses target/spring-boot-axon-sample1-0.0.1-SNAPSHOT.jar as built by "mvn package"; the event store (Axon Server by
+# default) has to be running.
+
+set -euo pipefail
+
+MODE="${1:-unbatched}"
+COMMANDS="${2:-5000}"
+CLIENTS="${3:-64}"
+PORT="${PORT:-8080}"
+BASE_URL="http://localhost:${PORT}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAR="${PROJECT_DIR}/target/spring-boot-axon-sample1-0.0.1-SNAPSHOT.jar"
+
+case "${MODE}" in
+    unbatched)
+        JAVA_OPTS=(-Dorder.commands.batching.enabled=false)
+        ;;
+    batched)
+        JAVA_OPTS=(-Dorder.commands.batching.enabled=true)
+        ;;
+    *)
+        echo "Unknown mode [${MODE}], expected [unbatched] or [batched]" >&2
+        exit 1
+        ;;
+esac
+
+if [[ ! -f "${JAR}" ]]; then
+    echo "No application jar found at [${JAR}], build the project first" >&2
+    exit 1
+fi
+
+now_millis() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+java "${JAVA_OPTS[@]}" -Dserver.port="${PORT}" -jar "${JAR}" > /dev/null 2>&1 &
+pid=$!
+trap 'kill "${pid}"; wait "${pid}" 2> /dev/null || true' EXIT
+
+order_id="$(cat /proc/sys/kernel/random/uuid)"
+until curl -sf -X POST "${BASE_URL}/order/${order_id}" > /dev/null; do
+    sleep 0.1
+done
+curl -sf -X POST "${BASE_URL}/order/${order_id}/product/deluxe-chair" > /dev/null
+
+start="$(now_millis)"
+failures="$(seq 1 "${COMMANDS}" \
+    | xargs -P "${CLIENTS}" -I{} \
+        curl -s -o /dev/null -w '%{http_code}\n' -X POST "${BASE_URL}/order/${order_id}/product/deluxe-chair/increment" \
+    | grep -cv '^200$' || true)"
+elapsed=$(($(now_millis) - start))
+
+echo "${MODE}: ${COMMANDS} commands from ${CLIENTS} clients in ${elapsed} ms," \
+    "$((COMMANDS * 1000 / (elapsed > 0 ? elapsed : 1))) commands/s, ${failures} failed"
@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+#
+# Measures how the command side copes with orders holding many lines.
+#
+# Usage: scripts/large-order-benchmark.sh [seconds] [line counts...]
+#
+# Runs LargeOrderBenchmark, which places one order per line count (default 10 1000 50000) on an in-memory event store,
+# increments random lines for the given number of seconds (default 5) and confirms it, reporting the time of placing,
+# the mean time per increment and the time of confirming. Compiles the test classes with "mvn test-compile" first.
+
+set -euo pipefail
+
+SECONDS_PER_RUN="${1:-5}"
+shift 1 || true
+LINES="${*:-10 1000 50000}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSPATH_FILE="${PROJECT_DIR}/target/benchmark.classpath"
+
+cd "${PROJECT_DIR}"
+./mvnw -B -q test-compile dependency:build-classpath -Dmdep.outputFile="${CLASSPATH_FILE}"
+CLASSPATH="${PROJECT_DIR}/target/test-classes:${PROJECT_DIR}/target/classes:$(cat "${CLASSPATH_FILE}")"
+
+# shellcheck disable=SC2086
+java -Xms2g -Xmx2g -Ddisable-axoniq-console-message=true -cp "${CLASSPATH}" \
+    com.hendisantika.springbootaxonsample1.order.LargeOrderBenchmark "${SECONDS_PER_RUN}" ${LINES}
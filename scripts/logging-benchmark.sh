@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+#
+# Measures command throughput with every handled command logged, for the logging configuration before the
+# asynchronous JSON pipeline and for the current one.
+#
+# Usage: scripts/logging-benchmark.sh [seconds] [clients]
+#
+# Runs LoggingBenchmark for the given number of seconds per configuration (default 10) with the given number of
+# client threads (default four per core). The logs are written to target/logging-benchmark.log, as a console would
+# be redirected to a file in production; the results are printed. Compiles the test classes with
+# "mvn test-compile" first.
+
+set -euo pipefail
+
+SECONDS_PER_RUN="${1:-10}"
+CLIENTS="${2:-$((4 * $(nproc)))}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSPATH_FILE="${PROJECT_DIR}/target/benchmark.classpath"
+
+cd "${PROJECT_DIR}"
+./mvnw -B -q test-compile dependency:build-classpath -Dmdep.outputFile="${CLASSPATH_FILE}"
+CLASSPATH="${PROJECT_DIR}/target/test-classes:${PROJECT_DIR}/target/classes:$(cat "${CLASSPATH_FILE}")"
+
+java -Xms1g -Xmx1g -Ddisable-axoniq-console-message=true -cp "${CLASSPATH}" \
+    com.hendisantika.springbootaxonsample1.logging.LoggingBenchmark "${SECONDS_PER_RUN}" "${CLIENTS}" \
+    "${PROJECT_DIR}/target/logging-benchmark.log"
@@ -0,0 +1,24 @@
+#!/usr/bin/env bash
+#
+# Compares getting an order as of a past sequence number from its nearest snapshot with replaying all its events.
+#
+# Usage: scripts/order-history-benchmark.sh [events] [snapshot-threshold]
+#
+# Runs OrderHistoryBenchmark, which appends one order of the given number of events (default 100000), snapshotted
+# every snapshot-threshold events (default 250), below target/order-history-benchmark and asks for it as of several
+# points along its stream. Compiles the test classes with "mvn test-compile" first.
+
+set -euo pipefail
+
+EVENTS="${1:-100000}"
+SNAPSHOT_THRESHOLD="${2:-250}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSPATH_FILE="${PROJECT_DIR}/target/benchmark.classpath"
+
+cd "${PROJECT_DIR}"
+./mvnw -B -q test-compile dependency:build-classpath -Dmdep.outputFile="${CLASSPATH_FILE}"
+CLASSPATH="${PROJECT_DIR}/target/test-classes:${PROJECT_DIR}/target/classes:$(cat "${CLASSPATH_FILE}")"
+
+java -Xms1g -Xmx1g -Ddisable-axoniq-console-message=true -cp "${CLASSPATH}" \
+    com.hendisantika.springbootaxonsample1.order.OrderHistoryBenchmark "${EVENTS}" "${SNAPSHOT_THRESHOLD}" \
+    "${PROJECT_DIR}/target/order-history-benchmark"
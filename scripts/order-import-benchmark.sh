@@ -0,0 +1,25 @@
+#!/usr/bin/env bash
+#
+# Compares importing orders in batched transactions with appending each order in a transaction of its own.
+#
+# Usage: scripts/order-import-benchmark.sh [orders] [batch-size]
+#
+# Runs OrderImportBenchmark, which generates an NDJSON file of the given number of orders (default 50000) below
+# target/order-import-benchmark and imports it into a synced mapped event store, once per order and then with 1, 2
+# and 4 workers appending batch-size events (default 5000) per transaction. Compiles the test classes with
+# "mvn test-compile" first.
+
+set -euo pipefail
+
+ORDERS="${1:-50000}"
+BATCH_SIZE="${2:-5000}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSPATH_FILE="${PROJECT_DIR}/target/benchmark.classpath"
+
+cd "${PROJECT_DIR}"
+./mvnw -B -q test-compile dependency:build-classpath -Dmdep.outputFile="${CLASSPATH_FILE}"
+CLASSPATH="${PROJECT_DIR}/target/test-classes:${PROJECT_DIR}/target/classes:$(cat "${CLASSPATH_FILE}")"
+
+java -Xms1g -Xmx1g -Ddisable-axoniq-console-message=true -cp "${CLASSPATH}" \
+    com.hendisantika.springbootaxonsample1.migration.OrderImportBenchmark "${ORDERS}" "${BATCH_SIZE}" \
+    "${PROJECT_DIR}/target/order-import-benchmark"
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+#
+# Measures the throughput of the orders projection shared by a growing number of instances.
+#
+# Usage: scripts/projection-benchmark.sh [orders] [instance counts...]
+#
+# Runs SharedProjectionBenchmark, which starts the given numbers of instances (default 1 2 4) in one JVM against a
+# file-based H2 database below target/shared-projection-benchmark, appends the events of the given number of orders
+# (default 20000) and prints the events projected per second. Every instance runs one processor thread, so the
+# figures only grow with the instances on a machine with at least as many cores. Compiles the test classes with
+# "mvn test-compile" first.
+
+set -euo pipefail
+
+ORDERS="${1:-20000}"
+shift || true
+INSTANCES="${*:-1 2 4}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSPATH_FILE="${PROJECT_DIR}/target/benchmark.classpath"
+
+cd "${PROJECT_DIR}"
+./mvnw -B -q test-compile dependency:build-classpath -Dmdep.outputFile="${CLASSPATH_FILE}"
+CLASSPATH="${PROJECT_DIR}/target/test-classes:${PROJECT_DIR}/target/classes:$(cat "${CLASSPATH_FILE}")"
+
+# shellcheck disable=SC2086
+java -cp "${CLASSPATH}" com.hendisantika.springbootaxonsample1.querymodel.SharedProjectionBenchmark \
+    "${ORDERS}" ${INSTANCES}
@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+#
+# Compares the heap and the memory-mapped read model store.
+#
+# Usage: scripts/read-model-benchmark.sh [orders] [queries] [heap]
+#
+# Runs OrderStoreBenchmark once per store, each in its own JVM with the given fixed heap (default 2g), and prints
+# the live heap after filling the store with the given number of orders, the mapped bytes, the findAll latency and
+# the garbage collection pauses while the store is queried. Compiles the test classes with "mvn test-compile" first.
+
+set -euo pipefail
+
+ORDERS="${1:-1000000}"
+QUERIES="${2:-20}"
+HEAP="${3:-2g}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSPATH_FILE="${PROJECT_DIR}/target/benchmark.classpath"
+
+cd "${PROJECT_DIR}"
+./mvnw -B -q test-compile dependency:build-classpath -Dmdep.outputFile="${CLASSPATH_FILE}"
+CLASSPATH="${PROJECT_DIR}/target/test-classes:${PROJECT_DIR}/target/classes:$(cat "${CLASSPATH_FILE}")"
+
+for STORE in heap mapped; do
+    java -Xms"${HEAP}" -Xmx"${HEAP}" -cp "${CLASSPATH}" \
+        com.hendisantika.springbootaxonsample1.querymodel.OrderStoreBenchmark "${STORE}" "${ORDERS}" "${QUERIES}"
+done
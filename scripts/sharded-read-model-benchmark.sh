@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+#
+# Measures update and query throughput of the sharded read model store as the number of shards grows.
+#
+# Usage: scripts/sharded-read-model-benchmark.sh [orders] [seconds] [shard counts...]
+#
+# Runs ShardedOrderStoreBenchmark with the given number of orders (default 200000), querying for the given number of
+# seconds (default 10) per shard count (default 1 2 4 8 16), with a writer thread per core. Shards only pay off with
+# several cores. Compiles the test classes with "mvn test-compile" first.
+
+set -euo pipefail
+
+ORDERS="${1:-200000}"
+SECONDS_PER_RUN="${2:-10}"
+shift 2 || shift $# || true
+SHARDS="${*:-1 2 4 8 16}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSPATH_FILE="${PROJECT_DIR}/target/benchmark.classpath"
+
+cd "${PROJECT_DIR}"
+./mvnw -B -q test-compile dependency:build-classpath -Dmdep.outputFile="${CLASSPATH_FILE}"
+CLASSPATH="${PROJECT_DIR}/target/test-classes:${PROJECT_DIR}/target/classes:$(cat "${CLASSPATH_FILE}")"
+
+# shellcheck disable=SC2086
+java -Xms2g -Xmx2g -cp "${CLASSPATH}" com.hendisantika.springbootaxonsample1.querymodel.ShardedOrderStoreBenchmark \
+    "${ORDERS}" "${SECONDS_PER_RUN}" ${SHARDS}
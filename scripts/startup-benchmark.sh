@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-successful-command and time-to-first-query of the Order service.
+#
+# Usage: scripts/startup-benchmark.sh [default|fast-startup] [runs]
+#
+#   default       starts target/spring-boot-axon-sample1-0.0.1-SNAPSHOT.jar as built by "mvn package"
+#   fast-startup  starts the AOT-processed application with its CDS archive as built by "mvn -Pfast-startup package"
+#
+# Both timings are measured from process launch: the first is the moment a POST /order/{order-id} succeeds, the second
+# the moment GET /all-orders returns that order. The event store (Axon Server by default) has to be running.
+
+set -euo pipefail
+
+MODE="${1:-default}"
+RUNS="${2:-5}"
+PORT="${PORT:-8080}"
+BASE_URL="http://localhost:${PORT}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+JAR_NAME="spring-boot-axon-sample1-0.0.1-SNAPSHOT.jar"
+
+case "${MODE}" in
+    default)
+        WORK_DIR="${PROJECT_DIR}/target"
+        JAVA_OPTS=()
+        ;;
+    fast-startup)
+        WORK_DIR="${PROJECT_DIR}/target/fast-startup"
+        JAVA_OPTS=(-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true)
+        ;;
+    *)
+        echo "Unknown mode [${MODE}], expected [default] or [fast-startup]" >&2
+        exit 1
+        ;;
+esac
+
+if [[ ! -f "${WORK_DIR}/${JAR_NAME}" ]]; then
+    echo "No application jar found in [${WORK_DIR}], build the project first" >&2
+    exit 1
+fi
+
+now_millis() {
+    echo $(($(date +%s%N) / 1000000))
+}
+
+for run in $(seq 1 "${RUNS}"); do
+    order_id="$(cat /proc/sys/kernel/random/uuid)"
+
+    start="$(now_millis)"
+    (cd "${WORK_DIR}" && exec java "${JAVA_OPTS[@]}" -Dserver.port="${PORT}" -jar "${JAR_NAME}") > /dev/null 2>&1 &
+    pid=$!
+
+    until curl -sf -X POST "${BASE_URL}/order/${order_id}" > /dev/null; do
+        sleep 0.01
+    done
+    first_command="$(now_millis)"
+
+    until curl -sf "${BASE_URL}/all-orders" | grep -q "${order_id}"; do
+        sleep 0.01
+    done
+    first_query="$(now_millis)"
+
+    kill "${pid}"
+    wait "${pid}" 2> /dev/null || true
+
+    echo "${MODE} run ${run}: first command after $((first_command - start)) ms, first query after $((first_query - start)) ms"
+done
@@ -0,0 +1,27 @@
+#!/usr/bin/env bash
+#
+# Compares the request latencies of the first minute after the Order service reports ready, with and without the
+# warm-up.
+#
+# Usage: scripts/warm-up-benchmark.sh [seconds] [orders-per-second]
+#
+# Runs WarmUpBenchmark, which starts the service twice on a mapped event store below target/warm-up-benchmark, once
+# with order.warm-up.enabled=false and once with it true. From the moment /actuator/health/readiness is up it creates,
+# fills, confirms and finds the given number of orders per second (default 10, five requests each) for the given
+# number of seconds (default 60), and prints the latency percentiles of the first ten seconds and the whole run.
+# Compiles the test classes with "mvn test-compile" first.
+
+set -euo pipefail
+
+SECONDS_OF_TRAFFIC="${1:-60}"
+RATE="${2:-10}"
+PROJECT_DIR="$(cd "$(dirname "$0")/.." && pwd)"
+CLASSPATH_FILE="${PROJECT_DIR}/target/benchmark.classpath"
+
+cd "${PROJECT_DIR}"
+./mvnw -B -q test-compile dependency:build-classpath -Dmdep.outputFile="${CLASSPATH_FILE}"
+CLASSPATH="${PROJECT_DIR}/target/test-classes:${PROJECT_DIR}/target/classes:$(cat "${CLASSPATH_FILE}")"
+
+java -Xms1g -Xmx1g -Ddisable-axoniq-console-message=true -cp "${CLASSPATH}" \
+    com.hendisantika.springbootaxonsample1.warmup.WarmUpBenchmark "${SECONDS_OF_TRAFFIC}" "${RATE}" \
+    "${PROJECT_DIR}/target/warm-up-benchmark"
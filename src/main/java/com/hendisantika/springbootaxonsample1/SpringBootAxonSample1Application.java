@@ -1,5 +1,6 @@
 package com.hendisantika.springbootaxonsample1;
 
+import com.hendisantika.springbootaxonsample1.order.OrderStreamTelemetry;
 import org.axonframework.eventsourcing.EventCountSnapshotTriggerDefinition;
 import org.axonframework.eventsourcing.SnapshotTriggerDefinition;
 import org.axonframework.eventsourcing.Snapshotter;
@@ -17,8 +18,9 @@ public class SpringBootAxonSample1Application {
 
     @Bean
     public SnapshotTriggerDefinition orderAggregateSnapshotTriggerDefinition(Snapshotter snapshotter,
+                                                                             OrderStreamTelemetry telemetry,
                                                                              @Value("${axon.aggregate.order" +
                                                                                      ".snapshot-threshold:250}") int threshold) {
-        return new EventCountSnapshotTriggerDefinition(snapshotter, threshold);
+        return telemetry.instrument(new EventCountSnapshotTriggerDefinition(snapshotter, threshold));
     }
 }
@@ -0,0 +1,133 @@
+package com.hendisantika.springbootaxonsample1.coreapi;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 19.50
+ * <p>
+ * Identifier of an order or a product. An identifier in the canonical lower case UUID form is kept as its two longs,
+ * 32 bytes per instance instead of the 80 of its string, and is hashed and compared without touching characters. Any
+ * other string is kept as it is. Either way {@link #toString()} returns exactly the string the identifier was created
+ * from, which is also its JSON form.
+ */
+public final class Id implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final int UUID_LENGTH = 36;
+
+    private final long mostSignificantBits;
+    private final long leastSignificantBits;
+    private final String value;
+
+    private Id(long mostSignificantBits, long leastSignificantBits, String value) {
+        this.mostSignificantBits = mostSignificantBits;
+        this.leastSignificantBits = leastSignificantBits;
+        this.value = value;
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Id of(String value) {
+        Objects.requireNonNull(value, "An identifier cannot be null");
+        if (!isCanonicalUuid(value)) {
+            return new Id(0, 0, value);
+        }
+        long mostSignificantBits = hex(value, 0, 8) << 32 | hex(value, 9, 13) << 16 | hex(value, 14, 18);
+        long leastSignificantBits = hex(value, 19, 23) << 48 | hex(value, 24, 36);
+        return new Id(mostSignificantBits, leastSignificantBits, null);
+    }
+
+    public static Id of(UUID uuid) {
+        return of(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    public static Id of(long mostSignificantBits, long leastSignificantBits) {
+        return new Id(mostSignificantBits, leastSignificantBits, null);
+    }
+
+    public static Id random() {
+        return of(UUID.randomUUID());
+    }
+
+    /**
+     * Whether this identifier is a UUID, in which case it is fully described by its two longs.
+     */
+    public boolean isUuid() {
+        return value == null;
+    }
+
+    public long getMostSignificantBits() {
+        return mostSignificantBits;
+    }
+
+    public long getLeastSignificantBits() {
+        return leastSignificantBits;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Id that = (Id) o;
+        return value == null
+                ? that.value == null
+                        && mostSignificantBits == that.mostSignificantBits
+                        && leastSignificantBits == that.leastSignificantBits
+                : value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value == null ? Long.hashCode(mostSignificantBits ^ leastSignificantBits) : value.hashCode();
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        return value == null ? new UUID(mostSignificantBits, leastSignificantBits).toString() : value;
+    }
+
+    /**
+     * Only the form {@link UUID#toString()} produces, so that parsing and printing give back the same string.
+     */
+    private static boolean isCanonicalUuid(String value) {
+        if (value.length() != UUID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < UUID_LENGTH; i++) {
+            char c = value.charAt(i);
+            boolean valid = i == 8 || i == 13 || i == 18 || i == 23
+                    ? c == '-'
+                    : (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f');
+            if (!valid) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hex(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            result = result << 4 | Character.digit(value.charAt(i), 16);
+        }
+        return result;
+    }
+}
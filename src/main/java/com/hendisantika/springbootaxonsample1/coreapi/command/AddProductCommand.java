@@ -1,5 +1,6 @@
 package com.hendisantika.springbootaxonsample1.coreapi.command;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
 import org.axonframework.modelling.command.TargetAggregateIdentifier;
 
 import java.util.Objects;
@@ -15,19 +16,19 @@ import java.util.Objects;
  */
 public class AddProductCommand {
     @TargetAggregateIdentifier
-    private final String orderId;
-    private final String productId;
+    private final Id orderId;
+    private final Id productId;
 
-    public AddProductCommand(String orderId, String productId) {
+    public AddProductCommand(Id orderId, Id productId) {
         this.orderId = orderId;
         this.productId = productId;
     }
 
-    public String getOrderId() {
+    public Id getOrderId() {
         return orderId;
     }
 
-    public String getProductId() {
+    public Id getProductId() {
         return productId;
     }
 
@@ -0,0 +1,63 @@
+package com.hendisantika.springbootaxonsample1.coreapi.command;
+
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.20
+ * <p>
+ * Why one command of a {@link BatchOrderCommand} failed: the class name and message of the exception its handler threw.
+ * Batch results travel back to the sender like any other command result, so they hold only what every serializer can
+ * read rather than the exception itself.
+ */
+public class BatchCommandFailure {
+    private final String type;
+    private final String message;
+
+    public BatchCommandFailure(String type, String message) {
+        this.type = type;
+        this.message = message;
+    }
+
+    public static BatchCommandFailure of(Throwable exception) {
+        return new BatchCommandFailure(exception.getClass().getName(), exception.getMessage());
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BatchCommandFailure that = (BatchCommandFailure) o;
+        return Objects.equals(type, that.type) && Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, message);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchCommandFailure{" +
+                "type='" + type + '\'' +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
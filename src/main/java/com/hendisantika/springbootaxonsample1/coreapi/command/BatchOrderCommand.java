@@ -0,0 +1,67 @@
+package com.hendisantika.springbootaxonsample1.coreapi.command;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import org.axonframework.modelling.command.TargetAggregateIdentifier;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 14.20
+ * <p>
+ * Runs commands for one existing order in sequence against a single loaded aggregate, storing all resulting events in
+ * one append. The result lists, per command, {@code null} if it succeeded or the {@link BatchCommandFailure} it failed
+ * with; a failed command leaves the order as it was and does not affect the others.
+ * <p>
+ * The handler interceptors see the batch as one command: the order id index checks its order once, and the telemetry
+ * and message log count it once, under its own type.
+ */
+public class BatchOrderCommand {
+    @TargetAggregateIdentifier
+    private final Id orderId;
+    private final List<Object> commands;
+
+    public BatchOrderCommand(Id orderId, List<?> commands) {
+        this.orderId = orderId;
+        this.commands = List.copyOf(commands);
+    }
+
+    public Id getOrderId() {
+        return orderId;
+    }
+
+    public List<Object> getCommands() {
+        return commands;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BatchOrderCommand that = (BatchOrderCommand) o;
+        return Objects.equals(orderId, that.orderId) && Objects.equals(commands, that.commands);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, commands);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchOrderCommand{" +
+                "orderId='" + orderId + '\'' +
+                ", commands=" + commands +
+                '}';
+    }
+}
@@ -1,5 +1,6 @@
 package com.hendisantika.springbootaxonsample1.coreapi.command;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
 import org.axonframework.modelling.command.TargetAggregateIdentifier;
 
 import java.util.Objects;
@@ -15,13 +16,13 @@ import java.util.Objects;
  */
 public class CreateOrderCommand {
     @TargetAggregateIdentifier
-    private final String orderId;
+    private final Id orderId;
 
-    public CreateOrderCommand(String orderId) {
+    public CreateOrderCommand(Id orderId) {
         this.orderId = orderId;
     }
 
-    public String getOrderId() {
+    public Id getOrderId() {
         return orderId;
     }
 
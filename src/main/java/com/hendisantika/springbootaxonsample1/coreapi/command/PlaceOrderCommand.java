@@ -0,0 +1,80 @@
+package com.hendisantika.springbootaxonsample1.coreapi.command;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import org.axonframework.modelling.command.TargetAggregateIdentifier;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 12.15
+ * <p>
+ * Creates an order, adds its products and optionally confirms and ships it within a single unit of work, so all
+ * resulting events are stored in one append. The same rules apply as for the individual commands.
+ */
+public class PlaceOrderCommand {
+    @TargetAggregateIdentifier
+    private final Id orderId;
+    private final List<Id> productIds;
+    private final boolean confirm;
+    private final boolean ship;
+
+    public PlaceOrderCommand(Id orderId, List<Id> productIds, boolean confirm, boolean ship) {
+        this.orderId = orderId;
+        this.productIds = List.copyOf(productIds);
+        this.confirm = confirm;
+        this.ship = ship;
+    }
+
+    public Id getOrderId() {
+        return orderId;
+    }
+
+    public List<Id> getProductIds() {
+        return productIds;
+    }
+
+    public boolean isConfirm() {
+        return confirm;
+    }
+
+    public boolean isShip() {
+        return ship;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        PlaceOrderCommand that = (PlaceOrderCommand) o;
+        return confirm == that.confirm
+                && ship == that.ship
+                && Objects.equals(orderId, that.orderId)
+                && Objects.equals(productIds, that.productIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, productIds, confirm, ship);
+    }
+
+    @Override
+    public String toString() {
+        return "PlaceOrderCommand{" +
+                "orderId='" + orderId + '\'' +
+                ", productIds=" + productIds +
+                ", confirm=" + confirm +
+                ", ship=" + ship +
+                '}';
+    }
+}
@@ -1,5 +1,8 @@
 package com.hendisantika.springbootaxonsample1.coreapi.events;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import org.axonframework.serialization.Revision;
+
 import java.util.Objects;
 
 /**
@@ -11,14 +14,15 @@ import java.util.Objects;
  * Date: 16/11/21
  * Time: 06.10
  */
+@Revision("2")
 public class OrderConfirmedEvent {
-    private final String orderId;
+    private final Id orderId;
 
-    public OrderConfirmedEvent(String orderId) {
+    public OrderConfirmedEvent(Id orderId) {
         this.orderId = orderId;
     }
 
-    public String getOrderId() {
+    public Id getOrderId() {
         return orderId;
     }
 
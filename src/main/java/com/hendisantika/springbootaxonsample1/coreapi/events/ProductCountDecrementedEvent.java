@@ -1,5 +1,8 @@
 package com.hendisantika.springbootaxonsample1.coreapi.events;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import org.axonframework.serialization.Revision;
+
 import java.util.Objects;
 
 /**
@@ -11,20 +14,21 @@ import java.util.Objects;
  * Date: 16/11/21
  * Time: 06.12
  */
+@Revision("2")
 public class ProductCountDecrementedEvent {
-    private final String orderId;
-    private final String productId;
+    private final Id orderId;
+    private final Id productId;
 
-    public ProductCountDecrementedEvent(String orderId, String productId) {
+    public ProductCountDecrementedEvent(Id orderId, Id productId) {
         this.orderId = orderId;
         this.productId = productId;
     }
 
-    public String getOrderId() {
+    public Id getOrderId() {
         return orderId;
     }
 
-    public String getProductId() {
+    public Id getProductId() {
         return productId;
     }
 
@@ -1,5 +1,7 @@
 package com.hendisantika.springbootaxonsample1.coreapi.exceptions;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+
 /**
  * Created by IntelliJ IDEA.
  * Project : spring-boot-axon-sample1
@@ -11,7 +13,7 @@ package com.hendisantika.springbootaxonsample1.coreapi.exceptions;
  */
 public class DuplicateOrderLineException extends IllegalStateException {
 
-    public DuplicateOrderLineException(String productId) {
+    public DuplicateOrderLineException(Id productId) {
         super("Cannot duplicate order line for product identifier [" + productId + "]");
     }
 }
@@ -1,5 +1,7 @@
 package com.hendisantika.springbootaxonsample1.coreapi.exceptions;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+
 /**
  * Created by IntelliJ IDEA.
  * Project : spring-boot-axon-sample1
@@ -11,7 +13,7 @@ package com.hendisantika.springbootaxonsample1.coreapi.exceptions;
  */
 public class OrderAlreadyConfirmedException extends IllegalStateException {
 
-    public OrderAlreadyConfirmedException(String orderId) {
+    public OrderAlreadyConfirmedException(Id orderId) {
         super("Cannot perform operation because order [" + orderId + "] is already confirmed.");
     }
 }
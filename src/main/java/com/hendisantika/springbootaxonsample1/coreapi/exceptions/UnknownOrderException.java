@@ -0,0 +1,19 @@
+package com.hendisantika.springbootaxonsample1.coreapi.exceptions;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 10.03
+ */
+public class UnknownOrderException extends IllegalStateException {
+
+    public UnknownOrderException(Id orderId) {
+        super("Cannot perform operation because order [" + orderId + "] does not exist.");
+    }
+}
@@ -0,0 +1,77 @@
+package com.hendisantika.springbootaxonsample1.coreapi.queries;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 17.20
+ * <p>
+ * Asks for an order as it was at the given time, or after the event with the given sequence number. The answer is
+ * empty when the order did not exist yet.
+ */
+public class FindOrderAsOfQuery {
+    private final Id orderId;
+    private final Instant timestamp;
+    private final Long sequenceNumber;
+
+    public FindOrderAsOfQuery(Id orderId, Instant timestamp, Long sequenceNumber) {
+        if ((timestamp == null) == (sequenceNumber == null)) {
+            throw new IllegalArgumentException("Either a timestamp or a sequence number is required, but not both");
+        }
+        if (sequenceNumber != null && sequenceNumber < 0) {
+            throw new IllegalArgumentException("Sequence number must not be negative, but was [" + sequenceNumber
+                                                       + "]");
+        }
+        this.orderId = orderId;
+        this.timestamp = timestamp;
+        this.sequenceNumber = sequenceNumber;
+    }
+
+    public Id getOrderId() {
+        return orderId;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public Long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FindOrderAsOfQuery that = (FindOrderAsOfQuery) o;
+        return Objects.equals(orderId, that.orderId)
+                && Objects.equals(timestamp, that.timestamp)
+                && Objects.equals(sequenceNumber, that.sequenceNumber);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, timestamp, sequenceNumber);
+    }
+
+    @Override
+    public String toString() {
+        return "FindOrderAsOfQuery{" +
+                "orderId='" + orderId + '\'' +
+                ", timestamp=" + timestamp +
+                ", sequenceNumber=" + sequenceNumber +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package com.hendisantika.springbootaxonsample1.coreapi.queries;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 16.21
+ * <p>
+ * Asks for order lifecycle rates and confirm-to-ship latencies over the given window up to now. Windows up to an hour
+ * are counted per second, longer ones per minute.
+ */
+public class FindOrderStatisticsQuery {
+    private final Duration window;
+
+    public FindOrderStatisticsQuery(Duration window) {
+        if (window.compareTo(Duration.ofSeconds(1)) < 0) {
+            throw new IllegalArgumentException("Window must be at least a second, but was [" + window + "]");
+        }
+        this.window = window;
+    }
+
+    public Duration getWindow() {
+        return window;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FindOrderStatisticsQuery that = (FindOrderStatisticsQuery) o;
+        return Objects.equals(window, that.window);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(window);
+    }
+
+    @Override
+    public String toString() {
+        return "FindOrderStatisticsQuery{" +
+                "window=" + window +
+                '}';
+    }
+}
@@ -0,0 +1,64 @@
+package com.hendisantika.springbootaxonsample1.coreapi.queries;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 08.10
+ * <p>
+ * Asks for the orders in the given status holding the given product; either criterion may be left out.
+ */
+public class FindOrdersQuery {
+    private final OrderStatus orderStatus;
+    private final Id productId;
+
+    public FindOrdersQuery(OrderStatus orderStatus, Id productId) {
+        this.orderStatus = orderStatus;
+        this.productId = productId;
+    }
+
+    public OrderStatus getOrderStatus() {
+        return orderStatus;
+    }
+
+    public Id getProductId() {
+        return productId;
+    }
+
+    public boolean matches(Order order) {
+        return (orderStatus == null || orderStatus == order.getOrderStatus())
+                && (productId == null || order.getProducts().containsKey(productId));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FindOrdersQuery that = (FindOrdersQuery) o;
+        return orderStatus == that.orderStatus && Objects.equals(productId, that.productId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderStatus, productId);
+    }
+
+    @Override
+    public String toString() {
+        return "FindOrdersQuery{" +
+                "orderStatus=" + orderStatus +
+                ", productId=" + productId +
+                '}';
+    }
+}
@@ -0,0 +1,53 @@
+package com.hendisantika.springbootaxonsample1.coreapi.queries;
+
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 14.55
+ * <p>
+ * Asks for the most ordered products by total quantity over all orders, most ordered first.
+ */
+public class FindTopProductsQuery {
+    private final int limit;
+
+    public FindTopProductsQuery(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1, but was [" + limit + "]");
+        }
+        this.limit = limit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        FindTopProductsQuery that = (FindTopProductsQuery) o;
+        return limit == that.limit;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(limit);
+    }
+
+    @Override
+    public String toString() {
+        return "FindTopProductsQuery{" +
+                "limit=" + limit +
+                '}';
+    }
+}
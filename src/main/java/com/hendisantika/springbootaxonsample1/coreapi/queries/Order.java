@@ -1,5 +1,7 @@
 package com.hendisantika.springbootaxonsample1.coreapi.queries;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -14,21 +16,21 @@ import java.util.Objects;
  * Time: 06.15
  */
 public class Order {
-    private final String orderId;
-    private final Map<String, Integer> products;
+    private final Id orderId;
+    private final Map<Id, Integer> products;
     private OrderStatus orderStatus;
 
-    public Order(String orderId) {
+    public Order(Id orderId) {
         this.orderId = orderId;
         this.products = new HashMap<>();
         orderStatus = OrderStatus.CREATED;
     }
 
-    public String getOrderId() {
+    public Id getOrderId() {
         return orderId;
     }
 
-    public Map<String, Integer> getProducts() {
+    public Map<Id, Integer> getProducts() {
         return products;
     }
 
@@ -36,20 +38,24 @@ public class Order {
         return orderStatus;
     }
 
-    public void addProduct(String productId) {
+    public void addProduct(Id productId) {
         products.putIfAbsent(productId, 1);
     }
 
-    public void incrementProductInstance(String productId) {
+    public void addProduct(Id productId, int count) {
+        products.putIfAbsent(productId, count);
+    }
+
+    public void incrementProductInstance(Id productId) {
         products.computeIfPresent(productId, (id, count) -> ++count);
     }
 
-    public void decrementProductInstance(String productId) {
+    public void decrementProductInstance(Id productId) {
         products.computeIfPresent(productId, (id, count) -> --count);
     }
 
 
-    public void removeProduct(String productId) {
+    public void removeProduct(Id productId) {
         products.remove(productId);
     }
 
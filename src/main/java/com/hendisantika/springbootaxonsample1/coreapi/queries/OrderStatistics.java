@@ -0,0 +1,143 @@
+package com.hendisantika.springbootaxonsample1.coreapi.queries;
+
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 16.24
+ * <p>
+ * Order lifecycle counts within a window, and the confirm-to-ship latencies of the orders shipped in it. Latency
+ * percentiles are upper bounds, at most 25% above the actual value.
+ */
+public class OrderStatistics {
+    private final long windowSeconds;
+    private final long created;
+    private final long confirmed;
+    private final long shipped;
+    private final long confirmToShipSamples;
+    private final long confirmToShipP50Millis;
+    private final long confirmToShipP90Millis;
+    private final long confirmToShipP99Millis;
+    private final long confirmToShipMaxMillis;
+
+    public OrderStatistics(long windowSeconds, long created, long confirmed, long shipped, long confirmToShipSamples,
+                           long confirmToShipP50Millis, long confirmToShipP90Millis, long confirmToShipP99Millis,
+                           long confirmToShipMaxMillis) {
+        this.windowSeconds = windowSeconds;
+        this.created = created;
+        this.confirmed = confirmed;
+        this.shipped = shipped;
+        this.confirmToShipSamples = confirmToShipSamples;
+        this.confirmToShipP50Millis = confirmToShipP50Millis;
+        this.confirmToShipP90Millis = confirmToShipP90Millis;
+        this.confirmToShipP99Millis = confirmToShipP99Millis;
+        this.confirmToShipMaxMillis = confirmToShipMaxMillis;
+    }
+
+    public long getWindowSeconds() {
+        return windowSeconds;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getConfirmed() {
+        return confirmed;
+    }
+
+    public long getShipped() {
+        return shipped;
+    }
+
+    public double getCreatedPerSecond() {
+        return (double) created / windowSeconds;
+    }
+
+    public double getConfirmedPerSecond() {
+        return (double) confirmed / windowSeconds;
+    }
+
+    public double getShippedPerSecond() {
+        return (double) shipped / windowSeconds;
+    }
+
+    public double getCreatedPerMinute() {
+        return getCreatedPerSecond() * 60;
+    }
+
+    public double getConfirmedPerMinute() {
+        return getConfirmedPerSecond() * 60;
+    }
+
+    public double getShippedPerMinute() {
+        return getShippedPerSecond() * 60;
+    }
+
+    public long getConfirmToShipSamples() {
+        return confirmToShipSamples;
+    }
+
+    public long getConfirmToShipP50Millis() {
+        return confirmToShipP50Millis;
+    }
+
+    public long getConfirmToShipP90Millis() {
+        return confirmToShipP90Millis;
+    }
+
+    public long getConfirmToShipP99Millis() {
+        return confirmToShipP99Millis;
+    }
+
+    public long getConfirmToShipMaxMillis() {
+        return confirmToShipMaxMillis;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        OrderStatistics that = (OrderStatistics) o;
+        return windowSeconds == that.windowSeconds
+                && created == that.created
+                && confirmed == that.confirmed
+                && shipped == that.shipped
+                && confirmToShipSamples == that.confirmToShipSamples
+                && confirmToShipP50Millis == that.confirmToShipP50Millis
+                && confirmToShipP90Millis == that.confirmToShipP90Millis
+                && confirmToShipP99Millis == that.confirmToShipP99Millis
+                && confirmToShipMaxMillis == that.confirmToShipMaxMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(windowSeconds, created, confirmed, shipped, confirmToShipSamples,
+                            confirmToShipP50Millis, confirmToShipP90Millis, confirmToShipP99Millis,
+                            confirmToShipMaxMillis);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderStatistics{" +
+                "windowSeconds=" + windowSeconds +
+                ", created=" + created +
+                ", confirmed=" + confirmed +
+                ", shipped=" + shipped +
+                ", confirmToShipSamples=" + confirmToShipSamples +
+                ", confirmToShipP50Millis=" + confirmToShipP50Millis +
+                ", confirmToShipP90Millis=" + confirmToShipP90Millis +
+                ", confirmToShipP99Millis=" + confirmToShipP99Millis +
+                ", confirmToShipMaxMillis=" + confirmToShipMaxMillis +
+                '}';
+    }
+}
@@ -0,0 +1,66 @@
+package com.hendisantika.springbootaxonsample1.coreapi.queries;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 14.57
+ */
+public class ProductPopularity {
+    private final Id productId;
+    private final long quantity;
+    private final long orders;
+
+    public ProductPopularity(Id productId, long quantity, long orders) {
+        this.productId = productId;
+        this.quantity = quantity;
+        this.orders = orders;
+    }
+
+    public Id getProductId() {
+        return productId;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public long getOrders() {
+        return orders;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ProductPopularity that = (ProductPopularity) o;
+        return quantity == that.quantity
+                && orders == that.orders
+                && Objects.equals(productId, that.productId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productId, quantity, orders);
+    }
+
+    @Override
+    public String toString() {
+        return "ProductPopularity{" +
+                "productId='" + productId + '\'' +
+                ", quantity=" + quantity +
+                ", orders=" + orders +
+                '}';
+    }
+}
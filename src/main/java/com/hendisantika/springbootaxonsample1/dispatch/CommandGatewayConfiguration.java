@@ -0,0 +1,32 @@
+package com.hendisantika.springbootaxonsample1.dispatch;
+
+import com.hendisantika.springbootaxonsample1.tracing.CommandDispatchTimestampInterceptor;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 21.45
+ */
+@Configuration
+public class CommandGatewayConfiguration {
+
+    @Bean
+    public CommandGateway commandGateway(CommandBus commandBus, OrderConflictRetryScheduler retryScheduler) {
+        // Stamped before the retry scheduler sees the command, so every attempt carries the time of the first one,
+        // whichever message the command bus hands back for the retry. The command bus interceptor keeps the stamp.
+        return DefaultCommandGateway.builder()
+                .commandBus(commandBus)
+                .retryScheduler(retryScheduler)
+                .dispatchInterceptors(new CommandDispatchTimestampInterceptor())
+                .build();
+    }
+}
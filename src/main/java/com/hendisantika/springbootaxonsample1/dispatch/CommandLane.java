@@ -0,0 +1,36 @@
+package com.hendisantika.springbootaxonsample1.dispatch;
+
+import com.hendisantika.springbootaxonsample1.coreapi.command.AddProductCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.DecrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 13.05
+ */
+public enum CommandLane {
+
+    /**
+     * Commands moving an order through its lifecycle, which clients are waiting on.
+     */
+    PRIORITY,
+
+    /**
+     * Order line edits, which may arrive in floods.
+     */
+    BULK;
+
+    public static CommandLane of(Object command) {
+        if (command instanceof AddProductCommand
+                || command instanceof IncrementProductCountCommand
+                || command instanceof DecrementProductCountCommand) {
+            return BULK;
+        }
+        return PRIORITY;
+    }
+}
@@ -0,0 +1,44 @@
+package com.hendisantika.springbootaxonsample1.dispatch;
+
+import java.time.Duration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 13.08
+ */
+public class CommandRejectedException extends RuntimeException {
+
+    private final Reason reason;
+    private final Duration retryAfter;
+
+    public CommandRejectedException(Reason reason, CommandLane lane, Duration retryAfter) {
+        super("Command rejected from lane [" + lane + "]: " + reason.description);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public enum Reason {
+        OVERLOADED("the service cannot handle it within its latency budget"),
+        ORDER_OVERLOADED("too many commands are queued for this order"),
+        SHUTTING_DOWN("the service is shutting down");
+
+        private final String description;
+
+        Reason(String description) {
+            this.description = description;
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.hendisantika.springbootaxonsample1.dispatch;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.BatchCommandFailure;
+import com.hendisantika.springbootaxonsample1.coreapi.command.BatchOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.CreateOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.PlaceOrderCommand;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.axonframework.commandhandling.CommandExecutionException;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.modelling.command.AnnotationCommandTargetResolver;
+import org.axonframework.modelling.command.CommandTargetResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 13.12
+ * <p>
+ * Admission control in front of the command gateway. Commands wait in bounded queues, one per {@link CommandLane},
+ * and are rejected straight away when their estimated queueing time exceeds the latency budget. Workers serve the
+ * priority lane first, but take a bulk command after every few priority ones so that lane cannot starve. Within a
+ * lane, orders take turns, one command each, and an order never has two commands in flight, so a hot order cannot
+ * crowd out the others. The commands of one order run in the order they arrived in: while an order has commands
+ * queued, its next one joins their lane, whichever lane it belongs in.
+ * <p>
+ * With batching enabled, a worker picking up a command for an existing order first lets it sit for the batching window,
+ * then takes the commands queued behind it for the same order along and sends them as one {@link BatchOrderCommand}:
+ * the order is loaded once and all their events are stored in one append.
+ */
+@Component
+public class OrderCommandDispatcher {
+
+    /**
+     * Number of priority commands served in a row while bulk commands are waiting.
+     */
+    private static final int PRIORITY_WEIGHT = 4;
+
+    private final CommandGateway commandGateway;
+    private final CommandTargetResolver targetResolver = AnnotationCommandTargetResolver.builder().build();
+    private final int workers;
+    private final int laneCapacity;
+    private final int orderCapacity;
+    private final long latencyBudgetNanos;
+    private final boolean batching;
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition workAvailable = lock.newCondition();
+    private final Map<CommandLane, Lane> lanes = new EnumMap<>(CommandLane.class);
+    private final Set<Id> busyOrders = new HashSet<>();
+    private final AtomicLong averageServiceNanos = new AtomicLong(Duration.ofMillis(1).toNanos());
+    private final ExecutorService executor;
+    private int priorityStreak;
+    private volatile boolean running = true;
+
+    @Autowired
+    public OrderCommandDispatcher(CommandGateway commandGateway,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${order.commands.workers:8}") int workers,
+                                  @Value("${order.commands.lane-capacity:10000}") int laneCapacity,
+                                  @Value("${order.commands.order-capacity:100}") int orderCapacity,
+                                  @Value("${order.commands.latency-budget:PT2S}") Duration latencyBudget,
+                                  @Value("${order.commands.batching.enabled:false}") boolean batching,
+                                  @Value("${order.commands.batching.window:PT0.002S}") Duration batchWindow,
+                                  @Value("${order.commands.batching.max-size:64}") int maxBatchSize) {
+        this.commandGateway = commandGateway;
+        this.workers = workers;
+        this.laneCapacity = laneCapacity;
+        this.orderCapacity = orderCapacity;
+        this.latencyBudgetNanos = latencyBudget.toNanos();
+        this.batching = batching;
+        this.batchWindowNanos = batchWindow.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchSize = DistributionSummary.builder("orders.commands.batch.size")
+                .description("Commands sent to an order aggregate at once")
+                .register(meterRegistry);
+        for (CommandLane lane : CommandLane.values()) {
+            lanes.put(lane, new Lane(lane, meterRegistry));
+        }
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "order-commands-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.execute(this::work);
+        }
+    }
+
+    /**
+     * Queues the command in its lane. The returned future fails with a {@link CommandRejectedException} if the
+     * command was not admitted, or waited longer than the latency budget after all.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> send(Object command) {
+        Id orderId = orderIdOf(command);
+        Task task;
+        lock.lock();
+        try {
+            Lane lane = laneFor(orderId, CommandLane.of(command));
+            if (!running) {
+                return CompletableFuture.failedFuture(new CommandRejectedException(
+                        CommandRejectedException.Reason.SHUTTING_DOWN, lane.lane, Duration.ZERO));
+            }
+            task = new Task(command, orderId, lane.lane);
+            CommandRejectedException rejection = admit(lane, task.orderId);
+            if (rejection != null) {
+                lane.rejected(rejection.getReason()).increment();
+                return CompletableFuture.failedFuture(rejection);
+            }
+            lane.enqueue(task, !busyOrders.contains(task.orderId));
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        return (CompletableFuture<R>) task.result;
+    }
+
+    /**
+     * Stops the workers. Commands still queued fail with a {@link CommandRejectedException}, commands in flight with
+     * the interruption of their worker.
+     */
+    @PreDestroy
+    public void shutdown() {
+        List<Task> abandoned = new ArrayList<>();
+        lock.lock();
+        try {
+            running = false;
+            for (Lane lane : lanes.values()) {
+                lane.drainTo(abandoned);
+            }
+            workAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        executor.shutdownNow();
+        for (Task task : abandoned) {
+            task.result.completeExceptionally(new CommandRejectedException(
+                    CommandRejectedException.Reason.SHUTTING_DOWN, task.lane, Duration.ZERO));
+        }
+    }
+
+    /**
+     * The lane the order's commands are queued in, if any, so a priority command cannot overtake the bulk commands
+     * sent before it for the same order, and the other way around.
+     */
+    private Lane laneFor(Id orderId, CommandLane commandLane) {
+        for (Lane lane : lanes.values()) {
+            if (lane.depth(orderId) > 0) {
+                return lane;
+            }
+        }
+        return lanes.get(commandLane);
+    }
+
+    private Id orderIdOf(Object command) {
+        return (Id) targetResolver.resolveTarget(asCommandMessage(command)).getIdentifierValue();
+    }
+
+    private CommandRejectedException admit(Lane lane, Id orderId) {
+        long serviceNanos = averageServiceNanos.get();
+        int queuedForOrder = 0;
+        for (Lane each : lanes.values()) {
+            queuedForOrder += each.depth(orderId);
+        }
+        // Commands of one order run one at a time, commands of different orders spread over all workers.
+        long orderWaitNanos = (queuedForOrder + 1) * serviceNanos;
+        int ahead = lane.lane == CommandLane.BULK ? lane.size + lanes.get(CommandLane.PRIORITY).size : lane.size;
+        long laneWaitNanos = (ahead + 1) * serviceNanos / workers;
+
+        if (queuedForOrder >= orderCapacity || orderWaitNanos > latencyBudgetNanos) {
+            return new CommandRejectedException(CommandRejectedException.Reason.ORDER_OVERLOADED, lane.lane,
+                                                Duration.ofNanos(orderWaitNanos));
+        }
+        if (lane.size >= laneCapacity || laneWaitNanos > latencyBudgetNanos) {
+            return new CommandRejectedException(CommandRejectedException.Reason.OVERLOADED, lane.lane,
+                                                Duration.ofNanos(laneWaitNanos));
+        }
+        return null;
+    }
+
+    private void work() {
+        while (running) {
+            Task task;
+            lock.lock();
+            try {
+                while ((task = next()) == null) {
+                    if (!running) {
+                        return;
+                    }
+                    workAvailable.await();
+                }
+                busyOrders.add(task.orderId);
+                for (Lane lane : lanes.values()) {
+                    lane.ready.remove(task.orderId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lock.unlock();
+            }
+            execute(batchFor(task));
+        }
+    }
+
+    private static boolean batchable(Object command) {
+        // Commands creating an order are handled by a constructor, there is no loaded aggregate to batch them on.
+        return !(command instanceof CreateOrderCommand || command instanceof PlaceOrderCommand);
+    }
+
+    /**
+     * Takes the commands queued behind the given one for the same order in the same lane along, up to the maximum
+     * batch size. The order is busy meanwhile, so no other worker takes them.
+     */
+    private List<Task> batchFor(Task first) {
+        List<Task> batch = new ArrayList<>();
+        batch.add(first);
+        if (!batching || !batchable(first.command)) {
+            return batch;
+        }
+        // Under load the command already waited longer than the window, and is not held up any further.
+        long remainingNanos = first.enqueuedAt + batchWindowNanos - System.nanoTime();
+        if (remainingNanos > 0) {
+            LockSupport.parkNanos(remainingNanos);
+        }
+        lock.lock();
+        try {
+            Lane lane = lanes.get(first.lane);
+            while (batch.size() < maxBatchSize) {
+                Task next = lane.pollFor(first.orderId, OrderCommandDispatcher::batchable);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return batch;
+    }
+
+    private Task next() {
+        Lane priority = lanes.get(CommandLane.PRIORITY);
+        Lane bulk = lanes.get(CommandLane.BULK);
+        if (priority.hasReady() && (!bulk.hasReady() || priorityStreak < PRIORITY_WEIGHT)) {
+            priorityStreak++;
+            return priority.poll();
+        }
+        if (bulk.hasReady()) {
+            priorityStreak = 0;
+            return bulk.poll();
+        }
+        return null;
+    }
+
+    private void execute(List<Task> tasks) {
+        Id orderId = tasks.get(0).orderId;
+        List<Task> admitted = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            Lane lane = lanes.get(task.lane);
+            long waitedNanos = System.nanoTime() - task.enqueuedAt;
+            lane.waitTime.record(Duration.ofNanos(waitedNanos));
+            if (waitedNanos > latencyBudgetNanos) {
+                // The estimate at admission was off; shed the command rather than answer later than the client waits.
+                lane.rejected(CommandRejectedException.Reason.OVERLOADED).increment();
+                task.result.completeExceptionally(new CommandRejectedException(
+                        CommandRejectedException.Reason.OVERLOADED, task.lane, Duration.ofNanos(waitedNanos)));
+            } else {
+                admitted.add(task);
+            }
+        }
+        if (admitted.isEmpty()) {
+            release(orderId);
+            return;
+        }
+
+        Object command = admitted.size() == 1
+                ? admitted.get(0).command
+                : new BatchOrderCommand(orderId, admitted.stream().map(task -> task.command).toList());
+        batchSize.record(admitted.size());
+        // Workers wait for the outcome, so no more commands are in flight than there are workers.
+        long start = System.nanoTime();
+        Object value = null;
+        Throwable failure = null;
+        try {
+            value = commandGateway.send(command).get();
+        } catch (ExecutionException e) {
+            failure = e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        long serviceNanos = (System.nanoTime() - start) / admitted.size();
+        averageServiceNanos.updateAndGet(average -> average + (serviceNanos - average) / 8);
+        // Free the order first, a client chaining its next command onto the result must not find it busy.
+        release(orderId);
+
+        if (failure != null) {
+            for (Task task : admitted) {
+                task.result.completeExceptionally(failure);
+            }
+        } else if (admitted.size() == 1) {
+            admitted.get(0).result.complete(value);
+        } else {
+            // Each command fails on its own, with the failure of its handler as details, as a remote command would.
+            List<?> failures = (List<?>) value;
+            for (int i = 0; i < admitted.size(); i++) {
+                BatchCommandFailure commandFailure = (BatchCommandFailure) failures.get(i);
+                if (commandFailure == null) {
+                    admitted.get(i).result.complete(null);
+                } else {
+                    admitted.get(i).result.completeExceptionally(
+                            new CommandExecutionException(commandFailure.getMessage(), null, commandFailure));
+                }
+            }
+        }
+    }
+
+    private void release(Id orderId) {
+        lock.lock();
+        try {
+            busyOrders.remove(orderId);
+            for (Lane lane : lanes.values()) {
+                if (lane.depth(orderId) > 0) {
+                    lane.ready.add(orderId);
+                    workAvailable.signal();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class Task {
+        private final Object command;
+        private final Id orderId;
+        private final CommandLane lane;
+        private final long enqueuedAt = System.nanoTime();
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        private Task(Object command, Id orderId, CommandLane lane) {
+            this.command = command;
+            this.orderId = orderId;
+            this.lane = lane;
+        }
+    }
+
+    /**
+     * Queued commands of one lane, per order. Orders with queued commands and none in flight are ready; they are
+     * served round-robin. Guarded by the dispatcher's lock, except for the size read by the gauge.
+     */
+    private static final class Lane {
+        private final CommandLane lane;
+        private final Map<Id, ArrayDeque<Task>> queues = new HashMap<>();
+        private final LinkedHashSet<Id> ready = new LinkedHashSet<>();
+        private final Map<CommandRejectedException.Reason, Counter> rejections =
+                new EnumMap<>(CommandRejectedException.Reason.class);
+        private final Timer waitTime;
+        private volatile int size;
+
+        private Lane(CommandLane lane, MeterRegistry meterRegistry) {
+            this.lane = lane;
+            String tag = lane.name().toLowerCase();
+            Gauge.builder("orders.commands.queue.depth", this, queue -> queue.size)
+                    .description("Commands waiting for a worker")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            for (CommandRejectedException.Reason reason : CommandRejectedException.Reason.values()) {
+                rejections.put(reason, Counter.builder("orders.commands.rejected")
+                        .description("Commands rejected by admission control")
+                        .tag("lane", tag)
+                        .tag("reason", reason.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+            this.waitTime = Timer.builder("orders.commands.queue.wait")
+                    .description("Time commands spent queued before a worker picked them up")
+                    .tag("lane", tag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private void enqueue(Task task, boolean orderIdle) {
+            queues.computeIfAbsent(task.orderId, orderId -> new ArrayDeque<>()).add(task);
+            if (orderIdle) {
+                ready.add(task.orderId);
+            }
+            size++;
+        }
+
+        private boolean hasReady() {
+            return !ready.isEmpty();
+        }
+
+        private Task poll() {
+            Iterator<Id> iterator = ready.iterator();
+            Id orderId = iterator.next();
+            iterator.remove();
+            ArrayDeque<Task> queue = queues.get(orderId);
+            Task task = queue.poll();
+            if (queue.isEmpty()) {
+                queues.remove(orderId);
+            }
+            size--;
+            return task;
+        }
+
+        private Task pollFor(Id orderId, Predicate<Object> accepts) {
+            ArrayDeque<Task> queue = queues.get(orderId);
+            if (queue == null || !accepts.test(queue.peek().command)) {
+                return null;
+            }
+            Task task = queue.poll();
+            if (queue.isEmpty()) {
+                queues.remove(orderId);
+            }
+            size--;
+            return task;
+        }
+
+        private void drainTo(List<Task> tasks) {
+            for (ArrayDeque<Task> queue : queues.values()) {
+                tasks.addAll(queue);
+            }
+            queues.clear();
+            ready.clear();
+            size = 0;
+        }
+
+        private int depth(Id orderId) {
+            ArrayDeque<Task> queue = queues.get(orderId);
+            return queue == null ? 0 : queue.size();
+        }
+
+        private Counter rejected(CommandRejectedException.Reason reason) {
+            return rejections.get(reason);
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.hendisantika.springbootaxonsample1.dispatch;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.gateway.RetryScheduler;
+import org.axonframework.modelling.command.AggregateStreamCreationException;
+import org.axonframework.modelling.command.AnnotationCommandTargetResolver;
+import org.axonframework.modelling.command.CommandTargetResolver;
+import org.axonframework.modelling.command.ConcurrencyException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 21.30
+ * <p>
+ * Retries commands that lost a race to modify the same order, and nothing else: only a {@link ConcurrencyException}
+ * is transient here, and one raised while creating an order is not, as that order already exists. Retries back off
+ * exponentially with full jitter, so the commands that collided spread over the interval instead of colliding again,
+ * and a command is retried a bounded number of times.
+ * <p>
+ * On top of that every order has a retry budget per window. An order that keeps conflicting has its commands fail
+ * once the budget is spent rather than have them retried in turn, which would only add to the contention; such an
+ * order is logged once per window.
+ * <p>
+ * With a local command bus a retried command is handled on the thread it was scheduled on, so retries run on a small
+ * pool of their own rather than one thread, where the commands retried under contention would queue up behind each
+ * other.
+ */
+@Component
+public class OrderConflictRetryScheduler implements RetryScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderConflictRetryScheduler.class);
+
+    /**
+     * Caps the exponent, so the backoff ceiling cannot overflow before it reaches the maximum backoff.
+     */
+    private static final int MAX_DOUBLINGS = 20;
+
+    private final CommandTargetResolver targetResolver = AnnotationCommandTargetResolver.builder().build();
+    private final MeterRegistry meterRegistry;
+    private final int maxRetries;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final int orderBudget;
+    private final long budgetWindowNanos;
+    private final int maxTrackedOrders;
+    private final LongSupplier nanoTime;
+    private final ScheduledExecutorService executor;
+    private final Map<Id, Budget> budgets = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter attemptsExhausted;
+    private final Counter budgetExhausted;
+
+    @Autowired
+    public OrderConflictRetryScheduler(MeterRegistry meterRegistry,
+                                       @Value("${order.commands.retry.max-retries:3}") int maxRetries,
+                                       @Value("${order.commands.retry.initial-backoff:PT0.01S}") Duration backoff,
+                                       @Value("${order.commands.retry.max-backoff:PT0.2S}") Duration maxBackoff,
+                                       @Value("${order.commands.retry.order-budget:10}") int orderBudget,
+                                       @Value("${order.commands.retry.budget-window:PT1S}") Duration budgetWindow,
+                                       @Value("${order.commands.retry.max-tracked-orders:10000}") int trackedOrders,
+                                       @Value("${order.commands.retry.threads:4}") int threads) {
+        this(meterRegistry, maxRetries, backoff, maxBackoff, orderBudget, budgetWindow, trackedOrders,
+             System::nanoTime, retryExecutor(threads));
+    }
+
+    OrderConflictRetryScheduler(MeterRegistry meterRegistry, int maxRetries, Duration initialBackoff,
+                                Duration maxBackoff, int orderBudget, Duration budgetWindow, int maxTrackedOrders,
+                                LongSupplier nanoTime, ScheduledExecutorService executor) {
+        this.meterRegistry = meterRegistry;
+        this.maxRetries = maxRetries;
+        this.initialBackoffNanos = initialBackoff.toNanos();
+        this.maxBackoffNanos = maxBackoff.toNanos();
+        this.orderBudget = orderBudget;
+        this.budgetWindowNanos = budgetWindow.toNanos();
+        this.maxTrackedOrders = maxTrackedOrders;
+        this.nanoTime = nanoTime;
+        this.executor = executor;
+        this.attemptsExhausted = exhaustedCounter("attempts");
+        this.budgetExhausted = exhaustedCounter("order-budget");
+        Gauge.builder("orders.commands.retry.contended", this, OrderConflictRetryScheduler::contendedOrders)
+                .description("Orders that had commands retried within the current budget window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Schedules the next attempt of a command that failed with a concurrency conflict. Returns false, so the command
+     * fails with its last failure, for any other failure and once the retries of the command or the budget of its
+     * order are used up.
+     */
+    @Override
+    public boolean scheduleRetry(CommandMessage commandMessage,
+                                 RuntimeException lastFailure,
+                                 List<Class<? extends Throwable>[]> failures,
+                                 Runnable commandDispatch) {
+        if (!isConflict(lastFailure)) {
+            return false;
+        }
+        String command = commandMessage.getPayloadType().getSimpleName();
+        Counter.builder("orders.commands.conflicts")
+                .description("Commands that failed because the order was modified concurrently")
+                .tag("command", command)
+                .register(meterRegistry)
+                .increment();
+
+        int retry = failures.size();
+        if (retry > maxRetries) {
+            attemptsExhausted.increment();
+            return false;
+        }
+        Id orderId = (Id) targetResolver.resolveTarget(commandMessage).getIdentifierValue();
+        if (!spendBudget(orderId)) {
+            budgetExhausted.increment();
+            return false;
+        }
+        try {
+            executor.schedule(commandDispatch, backoffNanos(retry), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        Counter.builder("orders.commands.retries")
+                .description("Command attempts scheduled after a concurrency conflict")
+                .tag("command", command)
+                .register(meterRegistry)
+                .increment();
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ScheduledExecutorService retryExecutor(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "order-command-retries-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Random delay up to the exponential backoff of the given retry, counting from 1, limited to the maximum backoff.
+     */
+    long backoffNanos(int retry) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(retry - 1, MAX_DOUBLINGS));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    static boolean isConflict(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AggregateStreamCreationException) {
+                return false;
+            }
+            if (cause instanceof ConcurrencyException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized boolean spendBudget(Id orderId) {
+        long now = nanoTime.getAsLong();
+        Budget budget = budgets.get(orderId);
+        if (budget == null || now - budget.windowStart >= budgetWindowNanos) {
+            budget = new Budget(now);
+            budgets.put(orderId, budget);
+            evictOverflow();
+        }
+        if (budget.spent >= orderBudget) {
+            if (!budget.reported) {
+                budget.reported = true;
+                logger.warn("Order {} spent its budget of {} retries within {} ms, failing its conflicting commands",
+                            orderId, orderBudget, TimeUnit.NANOSECONDS.toMillis(budgetWindowNanos));
+            }
+            return false;
+        }
+        budget.spent++;
+        return true;
+    }
+
+    /**
+     * Forgets the orders that conflicted least recently; they start with a full budget should they conflict again.
+     */
+    private void evictOverflow() {
+        Iterator<Budget> iterator = budgets.values().iterator();
+        while (budgets.size() > maxTrackedOrders && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private synchronized int contendedOrders() {
+        long now = nanoTime.getAsLong();
+        int contended = 0;
+        for (Budget budget : budgets.values()) {
+            if (now - budget.windowStart < budgetWindowNanos) {
+                contended++;
+            }
+        }
+        return contended;
+    }
+
+    private Counter exhaustedCounter(String reason) {
+        return Counter.builder("orders.commands.retries.exhausted")
+                .description("Conflicting commands failed without a further retry")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static final class Budget {
+        private final long windowStart;
+        private int spent;
+        private boolean reported;
+
+        private Budget(long windowStart) {
+            this.windowStart = windowStart;
+        }
+    }
+}
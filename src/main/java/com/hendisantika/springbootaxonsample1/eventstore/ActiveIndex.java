@@ -0,0 +1,137 @@
+package com.hendisantika.springbootaxonsample1.eventstore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 14.55
+ * <p>
+ * The aggregate index of the segment being appended to, in memory: per aggregate the sequence number of its first
+ * event in the segment and the offsets of its events, which follow each other without gaps in sequence number. Once
+ * the segment is sealed, it is written out as a {@link SegmentIndex}.
+ * <p>
+ * Only the appending thread adds to it; it publishes every offset before the new count, so readers see whole runs.
+ */
+final class ActiveIndex {
+
+    private final EventSegment segment;
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+    private int size;
+
+    ActiveIndex(EventSegment segment) {
+        this.segment = segment;
+    }
+
+    /**
+     * Indexes the domain events the segment already holds, after it was recovered.
+     */
+    static ActiveIndex rebuild(EventSegment segment) {
+        ActiveIndex index = new ActiveIndex(segment);
+        for (int offset = EventSegment.HEADER_SIZE; offset < segment.end(); offset = segment.next(offset)) {
+            if (segment.isDomainEvent(offset)) {
+                index.add(segment.aggregateIdentifier(offset), segment.sequenceNumber(offset), offset);
+            }
+        }
+        return index;
+    }
+
+    void add(String aggregateIdentifier, long sequenceNumber, int offset) {
+        Run run = runs.get(aggregateIdentifier);
+        if (run == null || sequenceNumber != run.firstSequenceNumber + run.count) {
+            // A gap in sequence numbers, which the JPA engine accepts as well, starts a new run after the previous one.
+            Run next = new Run(sequenceNumber);
+            next.previous = run;
+            run = next;
+            runs.put(aggregateIdentifier, run);
+        }
+        run.add(offset);
+        size++;
+    }
+
+    /**
+     * Passes the offsets of the events of the given aggregate from the given sequence number on, below the given
+     * offset, to the given consumer, in order.
+     */
+    void collect(String aggregateIdentifier, long firstSequenceNumber, int limit, IntConsumer offsets) {
+        Run run = runs.get(aggregateIdentifier);
+        if (run != null) {
+            run.collect(firstSequenceNumber, limit, offsets);
+        }
+    }
+
+    /**
+     * Returns the highest sequence number of the given aggregate in the segment, or -1 when it has none there.
+     */
+    long lastSequenceNumber(String aggregateIdentifier) {
+        Run run = runs.get(aggregateIdentifier);
+        return run == null ? -1 : run.firstSequenceNumber + run.count - 1;
+    }
+
+    /**
+     * Writes the index out for the segment, which must be sealed.
+     */
+    SegmentIndex seal() {
+        List<String> aggregateIdentifiers = new ArrayList<>(size);
+        long[] sequenceNumbers = new long[size];
+        int[] offsets = new int[size];
+        runs.forEach((aggregateIdentifier, last) -> {
+            for (Run run = last; run != null; run = run.previous) {
+                for (int i = 0; i < run.count; i++) {
+                    sequenceNumbers[aggregateIdentifiers.size()] = run.firstSequenceNumber + i;
+                    offsets[aggregateIdentifiers.size()] = run.offsets[i];
+                    aggregateIdentifiers.add(aggregateIdentifier);
+                }
+            }
+        });
+        return SegmentIndex.write(segment, aggregateIdentifiers, sequenceNumbers, offsets);
+    }
+
+    EventSegment segment() {
+        return segment;
+    }
+
+    private static final class Run {
+        private final long firstSequenceNumber;
+        private Run previous;
+        private volatile int[] offsets = new int[4];
+        private volatile int count;
+
+        private Run(long firstSequenceNumber) {
+            this.firstSequenceNumber = firstSequenceNumber;
+        }
+
+        private void add(int offset) {
+            int[] current = offsets;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, count * 2);
+            }
+            current[count] = offset;
+            offsets = current;
+            count++;
+        }
+
+        private void collect(long firstSequenceNumber, int limit, IntConsumer offsets) {
+            if (previous != null) {
+                previous.collect(firstSequenceNumber, limit, offsets);
+            }
+            int available = count;
+            int[] current = this.offsets;
+            for (int i = (int) Math.max(0, firstSequenceNumber - this.firstSequenceNumber); i < available; i++) {
+                if (current[i] >= limit) {
+                    return;
+                }
+                offsets.accept(current[i]);
+            }
+        }
+    }
+}
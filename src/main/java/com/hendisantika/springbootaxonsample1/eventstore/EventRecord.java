@@ -0,0 +1,94 @@
+package com.hendisantika.springbootaxonsample1.eventstore;
+
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.TrackedEventData;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+
+import java.time.Instant;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 14.10
+ * <p>
+ * A serialized event as it is kept in an {@link EventSegment}. Like the JPA entries, an event not published by an
+ * aggregate is kept with its own identifier as aggregate identifier, sequence number 0 and no type, and is left out of
+ * the aggregate index.
+ */
+final class EventRecord extends GenericDomainEventEntry<byte[]> implements TrackedEventData<byte[]> {
+
+    private final long globalIndex;
+    private final Instant timestamp;
+
+    EventRecord(long globalIndex, String type, String aggregateIdentifier, long sequenceNumber,
+                String eventIdentifier, Instant timestamp, String payloadType, String payloadRevision,
+                byte[] payload, byte[] metaData) {
+        super(type, aggregateIdentifier, sequenceNumber, eventIdentifier, timestamp, payloadType, payloadRevision,
+              payload, metaData);
+        this.globalIndex = globalIndex;
+        this.timestamp = timestamp;
+    }
+
+    static EventRecord of(EventMessage<?> event, Serializer serializer) {
+        SerializedObject<byte[]> payload = event.serializePayload(serializer, byte[].class);
+        SerializedObject<byte[]> metaData = event.serializeMetaData(serializer, byte[].class);
+        String type = null;
+        String aggregateIdentifier = event.getIdentifier();
+        long sequenceNumber = 0;
+        if (event instanceof DomainEventMessage<?> domainEvent) {
+            type = domainEvent.getType();
+            aggregateIdentifier = domainEvent.getAggregateIdentifier();
+            sequenceNumber = domainEvent.getSequenceNumber();
+        }
+        return new EventRecord(-1, type, aggregateIdentifier, sequenceNumber, event.getIdentifier(),
+                               event.getTimestamp(), payload.getType().getName(), payload.getType().getRevision(),
+                               payload.getData(), metaData.getData());
+    }
+
+    /**
+     * Returns the position of the event in the log, or -1 when it has not been written yet.
+     */
+    long getGlobalIndex() {
+        return globalIndex;
+    }
+
+    /**
+     * Returns whether the event was published by an aggregate, and so is part of the aggregate index.
+     */
+    boolean isDomainEvent() {
+        return getType() != null;
+    }
+
+    /**
+     * Returns the timestamp as read, without formatting and parsing it again as the superclass does.
+     */
+    @Override
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public TrackingToken trackingToken() {
+        return new GlobalSequenceTrackingToken(globalIndex);
+    }
+
+    @Override
+    public String toString() {
+        return "EventRecord{" +
+                "globalIndex=" + globalIndex +
+                ", type='" + getType() + '\'' +
+                ", aggregateIdentifier='" + getAggregateIdentifier() + '\'' +
+                ", sequenceNumber=" + getSequenceNumber() +
+                ", payloadType='" + getPayload().getType().getName() + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,475 @@
+package com.hendisantika.springbootaxonsample1.eventstore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 14.20
+ * <p>
+ * A file of a fixed size, mapped into memory as a whole, holding a header followed by event records. A record is its
+ * body length, the CRC32C of its body and the body itself; the first byte of the body holds flags, of which
+ * {@link #COMMIT} marks the last record of an appended batch. The free space after the last record is zero, so a
+ * length of zero marks the end of a segment that was not sealed.
+ * <p>
+ * Sealing writes the end and the record count into the header. An unsealed segment is recovered by reading its
+ * records until one is torn or fails its checksum, and dropping everything after the last committed batch, so a batch
+ * is kept either whole or not at all.
+ * <p>
+ * Only one thread appends at a time; any thread may read the records below an offset it learned from the appending
+ * one, through absolute reads that never move the position of the shared buffer.
+ */
+final class EventSegment implements Closeable {
+
+    static final int HEADER_SIZE = 64;
+    static final int COMMIT = 1;
+
+    private static final int MAGIC = 0x4f455647;
+    private static final int VERSION = 1;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int FIXED_BODY_SIZE = 1 + 8 + 8 + 8 + 4 + 5 * 2 + 2 * 4;
+    private static final int SEQUENCE_NUMBER = 9;
+    private static final int EPOCH_SECOND = 17;
+    private static final int STRINGS = 29;
+    private static final int CHECKPOINT_SHIFT = 6;
+    private static final long CHECKPOINT_MASK = (1 << CHECKPOINT_SHIFT) - 1;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long number;
+    private final long baseIndex;
+    private volatile int end = HEADER_SIZE;
+    private volatile long count;
+    private volatile boolean sealed;
+    private volatile int[] checkpoints = new int[16];
+    private volatile int checkpointCount;
+
+    private EventSegment(Path file, FileChannel channel, MappedByteBuffer buffer, long number, long baseIndex) {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.number = number;
+        this.baseIndex = baseIndex;
+    }
+
+    /**
+     * Creates an empty segment, with its header on disk before it is returned.
+     */
+    static EventSegment create(Path file, long number, long baseIndex, int size) {
+        EventSegment segment = map(file, number, baseIndex, size, true);
+        segment.buffer.putInt(0, MAGIC);
+        segment.buffer.putInt(4, VERSION);
+        segment.buffer.putLong(8, number);
+        segment.buffer.putLong(16, baseIndex);
+        segment.buffer.force(0, HEADER_SIZE);
+        return segment;
+    }
+
+    /**
+     * Opens an existing segment, recovering it when it was not sealed. Returns {@code null} when the file does not
+     * even hold a valid header, which happens when a crash interrupted its creation.
+     */
+    static EventSegment open(Path file) {
+        long size;
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the size of segment [" + file + "]", e);
+        }
+        if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+            return null;
+        }
+        EventSegment probe = map(file, -1, -1, (int) size, false);
+        if (probe.buffer.getInt(0) != MAGIC || probe.buffer.getInt(4) != VERSION) {
+            probe.close();
+            return null;
+        }
+        EventSegment segment = new EventSegment(file, probe.channel, probe.buffer, probe.buffer.getLong(8),
+                                                probe.buffer.getLong(16));
+        int sealedEnd = segment.buffer.getInt(24);
+        if (sealedEnd >= HEADER_SIZE) {
+            segment.end = sealedEnd;
+            segment.count = segment.buffer.getLong(32);
+            segment.sealed = true;
+        } else {
+            segment.recover();
+        }
+        return segment;
+    }
+
+    private static EventSegment map(Path file, long number, long baseIndex, int size, boolean create) {
+        FileChannel channel = null;
+        try {
+            channel = create
+                    ? FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                                       StandardOpenOption.WRITE)
+                    : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new EventSegment(file, channel, buffer, number, baseIndex);
+        } catch (IOException e) {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+            throw new UncheckedIOException("Cannot map segment [" + file + "]", e);
+        }
+    }
+
+    /**
+     * Returns the number of bytes a record takes in a segment.
+     */
+    static int sizeOf(EventRecord record) {
+        return RECORD_HEADER_SIZE + FIXED_BODY_SIZE + utf8Length(record.getType())
+                + utf8Length(record.getAggregateIdentifier()) + utf8Length(record.getEventIdentifier())
+                + utf8Length(record.getPayload().getType().getName())
+                + utf8Length(record.getPayload().getType().getRevision())
+                + record.getPayload().getData().length + record.getMetaData().getData().length;
+    }
+
+    /**
+     * Returns the largest batch, in bytes, that fits in an empty segment of the given size.
+     */
+    static int capacity(int size) {
+        return size - HEADER_SIZE;
+    }
+
+    /**
+     * Writes a record at the end of the segment, which must have room for it, and returns its offset.
+     */
+    int append(EventRecord record, long globalIndex, boolean commit) {
+        int offset = end;
+        int position = offset + RECORD_HEADER_SIZE;
+        buffer.put(position, (byte) (commit ? COMMIT : 0));
+        buffer.putLong(position + 1, globalIndex);
+        buffer.putLong(position + SEQUENCE_NUMBER, record.getSequenceNumber());
+        Instant timestamp = record.getTimestamp();
+        buffer.putLong(position + EPOCH_SECOND, timestamp.getEpochSecond());
+        buffer.putInt(position + EPOCH_SECOND + 8, timestamp.getNano());
+        position += STRINGS;
+        position = putString(position, record.getType());
+        position = putString(position, record.getAggregateIdentifier());
+        position = putString(position, record.getEventIdentifier());
+        position = putString(position, record.getPayload().getType().getName());
+        position = putString(position, record.getPayload().getType().getRevision());
+        position = putBytes(position, record.getPayload().getData());
+        position = putBytes(position, record.getMetaData().getData());
+        int length = position - offset - RECORD_HEADER_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + RECORD_HEADER_SIZE, length));
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        buffer.putInt(offset, length);
+        if (((globalIndex - baseIndex) & CHECKPOINT_MASK) == 0) {
+            addCheckpoint(offset);
+        }
+        end = position;
+        count = globalIndex - baseIndex + 1;
+        return offset;
+    }
+
+    /**
+     * Drops the records from the given offset on, such as those of a batch that failed halfway, leaving the given
+     * number of records.
+     */
+    void truncate(int offset, long records) {
+        zero(offset, end);
+        end = offset;
+        count = records;
+        dropCheckpointsFrom(offset);
+    }
+
+    /**
+     * Records the end and the record count in the header and forces the segment to disk; no records are appended
+     * after this.
+     */
+    void seal() {
+        buffer.putLong(32, count);
+        buffer.putInt(24, end);
+        buffer.force();
+        sealed = true;
+    }
+
+    /**
+     * Forces the given range of the segment to disk.
+     */
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+
+    /**
+     * Returns the offset of the record following the one at the given offset.
+     */
+    int next(int offset) {
+        return offset + RECORD_HEADER_SIZE + buffer.getInt(offset);
+    }
+
+    long globalIndex(int offset) {
+        return buffer.getLong(offset + RECORD_HEADER_SIZE + 1);
+    }
+
+    long sequenceNumber(int offset) {
+        return buffer.getLong(offset + RECORD_HEADER_SIZE + SEQUENCE_NUMBER);
+    }
+
+    Instant timestamp(int offset) {
+        int position = offset + RECORD_HEADER_SIZE + EPOCH_SECOND;
+        return Instant.ofEpochSecond(buffer.getLong(position), buffer.getInt(position + 8));
+    }
+
+    /**
+     * Returns the aggregate identifier of the record at the given offset without reading the rest of it.
+     */
+    String aggregateIdentifier(int offset) {
+        int position = offset + RECORD_HEADER_SIZE + STRINGS;
+        position = skipString(position);
+        return getString(position);
+    }
+
+    /**
+     * Returns whether the record at the given offset was published by an aggregate.
+     */
+    boolean isDomainEvent(int offset) {
+        return buffer.getShort(offset + RECORD_HEADER_SIZE + STRINGS) >= 0;
+    }
+
+    EventRecord read(int offset) {
+        int position = offset + RECORD_HEADER_SIZE + STRINGS;
+        String type = getString(position);
+        position = skipString(position);
+        String aggregateIdentifier = getString(position);
+        position = skipString(position);
+        String eventIdentifier = getString(position);
+        position = skipString(position);
+        String payloadType = getString(position);
+        position = skipString(position);
+        String payloadRevision = getString(position);
+        position = skipString(position);
+        byte[] payload = getBytes(position);
+        position += 4 + payload.length;
+        byte[] metaData = getBytes(position);
+        return new EventRecord(globalIndex(offset), type, aggregateIdentifier, sequenceNumber(offset),
+                               eventIdentifier, timestamp(offset), payloadType, payloadRevision, payload, metaData);
+    }
+
+    /**
+     * Returns the offset of the record with the given global index, which must be in this segment.
+     */
+    int offsetOf(long globalIndex) {
+        ensureCheckpoints();
+        long ordinal = globalIndex - baseIndex;
+        int checkpoint = (int) Math.min(ordinal >>> CHECKPOINT_SHIFT, checkpointCount - 1);
+        int offset = checkpoints[checkpoint];
+        for (long skip = ordinal - ((long) checkpoint << CHECKPOINT_SHIFT); skip > 0; skip--) {
+            offset = next(offset);
+        }
+        return offset;
+    }
+
+    long number() {
+        return number;
+    }
+
+    /**
+     * Returns the global index of the first record, whether or not the segment holds any.
+     */
+    long baseIndex() {
+        return baseIndex;
+    }
+
+    /**
+     * Returns the global index the next record appended to this segment gets.
+     */
+    long nextIndex() {
+        return baseIndex + count;
+    }
+
+    int end() {
+        return end;
+    }
+
+    int remaining() {
+        return buffer.capacity() - end;
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    @Override
+    public void close() {
+        // The mapping is released once the buffer is garbage collected; closing the channel does not unmap it.
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close segment [" + file + "]", e);
+        }
+    }
+
+    private void recover() {
+        int committedEnd = HEADER_SIZE;
+        long committedCount = 0;
+        int offset = HEADER_SIZE;
+        long records = 0;
+        CRC32C crc = new CRC32C();
+        while (offset <= buffer.capacity() - RECORD_HEADER_SIZE) {
+            int length = buffer.getInt(offset);
+            if (length < FIXED_BODY_SIZE || length > buffer.capacity() - offset - RECORD_HEADER_SIZE) {
+                break;
+            }
+            crc.reset();
+            crc.update(buffer.slice(offset + RECORD_HEADER_SIZE, length));
+            if ((int) crc.getValue() != buffer.getInt(offset + 4) || globalIndex(offset) != baseIndex + records) {
+                break;
+            }
+            if ((records & CHECKPOINT_MASK) == 0) {
+                addCheckpoint(offset);
+            }
+            boolean commit = (buffer.get(offset + RECORD_HEADER_SIZE) & COMMIT) != 0;
+            records++;
+            offset = next(offset);
+            if (commit) {
+                committedEnd = offset;
+                committedCount = records;
+            }
+        }
+        if (committedEnd <= buffer.capacity() - 4 && buffer.getInt(committedEnd) != 0) {
+            zero(committedEnd, buffer.capacity());
+            buffer.force();
+        }
+        end = committedEnd;
+        count = committedCount;
+        dropCheckpointsFrom(committedEnd);
+    }
+
+    private void ensureCheckpoints() {
+        if (checkpointCount > 0 || isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            if (checkpointCount > 0) {
+                return;
+            }
+            long records = 0;
+            for (int offset = HEADER_SIZE; offset < end; offset = next(offset), records++) {
+                if ((records & CHECKPOINT_MASK) == 0) {
+                    addCheckpoint(offset);
+                }
+            }
+        }
+    }
+
+    private void addCheckpoint(int offset) {
+        int[] current = checkpoints;
+        int size = checkpointCount;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = offset;
+        checkpoints = current;
+        checkpointCount = size + 1;
+    }
+
+    private void dropCheckpointsFrom(int offset) {
+        int keep = checkpointCount;
+        while (keep > 0 && checkpoints[keep - 1] >= offset) {
+            keep--;
+        }
+        checkpointCount = keep;
+    }
+
+    private void zero(int from, int to) {
+        byte[] zeros = new byte[Math.min(to - from, 64 * 1024)];
+        for (int position = from; position < to; position += zeros.length) {
+            buffer.put(position, zeros, 0, Math.min(zeros.length, to - position));
+        }
+    }
+
+    private int putString(int position, String value) {
+        if (value == null) {
+            buffer.putShort(position, (short) -1);
+            return position + 2;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes is too long for a segment");
+        }
+        buffer.putShort(position, (short) bytes.length);
+        buffer.put(position + 2, bytes);
+        return position + 2 + bytes.length;
+    }
+
+    private int putBytes(int position, byte[] bytes) {
+        buffer.putInt(position, bytes.length);
+        buffer.put(position + 4, bytes);
+        return position + 4 + bytes.length;
+    }
+
+    private String getString(int position) {
+        short length = buffer.getShort(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int skipString(int position) {
+        return position + 2 + Math.max(0, buffer.getShort(position));
+    }
+
+    private byte[] getBytes(int position) {
+        byte[] bytes = new byte[buffer.getInt(position)];
+        buffer.get(position + 4, bytes);
+        return bytes;
+    }
+
+    private static int utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
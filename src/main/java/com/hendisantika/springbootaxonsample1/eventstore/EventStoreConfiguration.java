@@ -0,0 +1,71 @@
+package com.hendisantika.springbootaxonsample1.eventstore;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 16.10
+ * <p>
+ * Keeps the events of a single node in a {@link MappedEventStorageEngine} below {@code order.event-store.directory},
+ * which the order aggregates are sourced from and the event processors track. Axon Server has to be disabled for it
+ * with {@code axon.axonserver.enabled=false}, as it would otherwise still route commands and queries.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.event-store.type", havingValue = "mapped")
+public class EventStoreConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public MappedEventStorageEngine eventStorageEngine(
+            @Qualifier("serializer") Serializer serializer,
+            @Qualifier("eventSerializer") Serializer eventSerializer,
+            org.axonframework.config.Configuration configuration,
+            @Value("${order.event-store.directory}") Path directory,
+            @Value("${order.event-store.segment-size:64MB}") DataSize segmentSize,
+            @Value("${order.event-store.sync:true}") boolean sync) {
+        return MappedEventStorageEngine.builder()
+                .snapshotSerializer(serializer)
+                .eventSerializer(eventSerializer)
+                .upcasterChain(configuration.upcasterChain())
+                .snapshotFilter(configuration.snapshotFilter())
+                .directory(directory)
+                .segmentSize(Math.toIntExact(segmentSize.toBytes()))
+                .sync(sync)
+                .build();
+    }
+
+    @Bean(destroyMethod = "shutDown")
+    public EventStore eventStore(MappedEventStorageEngine eventStorageEngine) {
+        return EmbeddedEventStore.builder().storageEngine(eventStorageEngine).build();
+    }
+
+    @Bean
+    public MeterBinder eventStoreMetrics(MappedEventStorageEngine eventStorageEngine) {
+        return registry -> {
+            FunctionCounter.builder("orders.event-store.syncs", eventStorageEngine,
+                                    MappedEventStorageEngine::getSyncCount)
+                    .description("Times appended events were forced to disk")
+                    .register(registry);
+            FunctionCounter.builder("orders.event-store.batches", eventStorageEngine,
+                                    MappedEventStorageEngine::getBatchCount)
+                    .description("Batches of events appended, one per unit of work")
+                    .register(registry);
+        };
+    }
+}
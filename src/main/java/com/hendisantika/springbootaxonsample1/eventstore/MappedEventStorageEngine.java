@@ -0,0 +1,442 @@
+package com.hendisantika.springbootaxonsample1.eventstore;
+
+import org.axonframework.common.AxonConfigurationException;
+import org.axonframework.eventhandling.DomainEventData;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.TrackedEventData;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventsourcing.EventStreamUtils;
+import org.axonframework.eventsourcing.eventstore.AbstractEventStorageEngine;
+import org.axonframework.eventsourcing.eventstore.DomainEventStream;
+import org.axonframework.eventsourcing.snapshotting.SnapshotFilter;
+import org.axonframework.modelling.command.AggregateStreamCreationException;
+import org.axonframework.modelling.command.ConcurrencyException;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.upcasting.event.EventUpcaster;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 15.40
+ * <p>
+ * Stores events in memory-mapped segment files for a single node, in place of a database or Axon Server. Events go
+ * to one {@link SegmentLog}, where their global index is the position of tracking processors, and snapshots to
+ * another. The events of an aggregate are found through an index per sealed segment and one in memory for the segment
+ * being appended to; the snapshots of every aggregate are found through a map built on opening.
+ * <p>
+ * Appends are serialized, which is where concurrent modifications of an aggregate are detected: an event whose
+ * sequence number is already taken is rejected as the JPA engine rejects a duplicate key. The batch of a unit of work
+ * is written as a whole, and its thread waits for the group commit that puts it on disk.
+ * <p>
+ * The last sequence number of every aggregate appended to or asked for since opening is kept in memory. Snapshot
+ * segments are never compacted, so they hold every snapshot ever taken, and past states can be sourced from the one
+ * nearest to them through {@link #readSnapshot(String, long, Instant)}.
+ */
+public class MappedEventStorageEngine extends AbstractEventStorageEngine implements Closeable {
+
+    private final SegmentLog events;
+    private final SegmentLog snapshots;
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final Object snapshotLock = new Object();
+    private final Map<String, Long> lastSequenceNumbers = new ConcurrentHashMap<>();
+    // Addresses of the snapshots of every aggregate, oldest first.
+    private final Map<String, long[]> snapshotAddresses = new ConcurrentHashMap<>();
+    private final SnapshotFilter snapshotFilter;
+    private volatile Indexes indexes;
+
+    protected MappedEventStorageEngine(Builder builder) {
+        super(builder);
+        this.snapshotFilter = builder.snapshotFilter;
+        this.events = new SegmentLog(builder.directory.resolve("events"), "events", builder.segmentSize,
+                                     builder.sync, new SegmentLog.Listener() {
+            @Override
+            public void appended(EventSegment segment, int offset, EventRecord record) {
+                if (record.isDomainEvent()) {
+                    indexes.active.add(record.getAggregateIdentifier(), record.getSequenceNumber(), offset);
+                }
+            }
+
+            @Override
+            public void rolled(EventSegment sealed, EventSegment next) {
+                // Rolling while opening happens before there are indexes, which are then built for every segment.
+                if (indexes != null) {
+                    indexes = indexes.roll(indexes.active.seal(), new ActiveIndex(next));
+                }
+            }
+        });
+        this.snapshots = new SegmentLog(builder.directory.resolve("snapshots"), "snapshots", builder.segmentSize,
+                                        builder.sync, new SegmentLog.Listener() {
+            @Override
+            public void appended(EventSegment segment, int offset, EventRecord record) {
+                addSnapshot(record.getAggregateIdentifier(), address(segment, offset));
+            }
+
+            @Override
+            public void rolled(EventSegment sealed, EventSegment next) {
+            }
+        });
+        this.indexes = openIndexes();
+        snapshots.forEach((segment, offset) -> addSnapshot(segment.aggregateIdentifier(offset),
+                                                           address(segment, offset)));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private Indexes openIndexes() {
+        List<EventSegment> segments = events.segments();
+        List<SegmentIndex> sealed = new ArrayList<>(segments.size() - 1);
+        for (EventSegment segment : segments.subList(0, segments.size() - 1)) {
+            SegmentIndex index = SegmentIndex.open(segment);
+            sealed.add(index != null ? index : ActiveIndex.rebuild(segment).seal());
+        }
+        return new Indexes(List.copyOf(sealed), ActiveIndex.rebuild(segments.get(segments.size() - 1)));
+    }
+
+    @Override
+    protected void appendEvents(List<? extends EventMessage<?>> events, Serializer serializer) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<EventRecord> records = new ArrayList<>(events.size());
+        for (EventMessage<?> event : events) {
+            records.add(EventRecord.of(event, serializer));
+        }
+        SegmentLog.Position position;
+        appendLock.lock();
+        try {
+            Map<String, Long> appended = new HashMap<>();
+            for (EventRecord record : records) {
+                if (record.isDomainEvent()) {
+                    String aggregateIdentifier = record.getAggregateIdentifier();
+                    Long last = appended.get(aggregateIdentifier);
+                    long lastSequenceNumber = last != null ? last : lastSequenceNumber(aggregateIdentifier);
+                    if (record.getSequenceNumber() <= lastSequenceNumber) {
+                        throw conflict(record);
+                    }
+                    appended.put(aggregateIdentifier, record.getSequenceNumber());
+                }
+            }
+            position = this.events.append(records);
+            lastSequenceNumbers.putAll(appended);
+        } finally {
+            appendLock.unlock();
+        }
+        this.events.awaitDurable(position);
+    }
+
+    private static RuntimeException conflict(EventRecord record) {
+        if (record.getSequenceNumber() == 0) {
+            return new AggregateStreamCreationException(String.format(
+                    "Cannot reuse aggregate identifier [%s] to create aggregate [%s] since identifiers need to be "
+                            + "unique.", record.getAggregateIdentifier(), record.getType()));
+        }
+        return new ConcurrencyException(String.format(
+                "An event for aggregate [%s] at sequence [%d] was already inserted", record.getAggregateIdentifier(),
+                record.getSequenceNumber()));
+    }
+
+    @Override
+    protected void storeSnapshot(DomainEventMessage<?> snapshot, Serializer serializer) {
+        EventRecord record = EventRecord.of(snapshot, serializer);
+        SegmentLog.Position position;
+        synchronized (snapshotLock) {
+            position = snapshots.append(List.of(record));
+        }
+        snapshots.awaitDurable(position);
+    }
+
+    @Override
+    protected Stream<? extends DomainEventData<?>> readEventData(String aggregateIdentifier,
+                                                                 long firstSequenceNumber) {
+        // Only the addresses are collected up front, so events are read as far as the stream is consumed.
+        Indexes current = indexes;
+        Addresses addresses = new Addresses();
+        for (SegmentIndex index : current.sealed) {
+            index.collect(aggregateIdentifier, firstSequenceNumber, offset -> addresses.add(index.segment(), offset));
+        }
+        EventSegment active = current.active.segment();
+        current.active.collect(aggregateIdentifier, firstSequenceNumber, events.readableEnd(active),
+                               offset -> addresses.add(active, offset));
+        return IntStream.range(0, addresses.size).mapToObj(i -> read(events, addresses.values[i]));
+    }
+
+    @Override
+    protected Stream<? extends TrackedEventData<?>> readEventData(TrackingToken trackingToken, boolean mayBlock) {
+        return events.readFrom(nextIndex(trackingToken));
+    }
+
+    @Override
+    protected Stream<? extends DomainEventData<?>> readSnapshotData(String aggregateIdentifier) {
+        long[] addresses = snapshotAddresses.get(aggregateIdentifier);
+        if (addresses == null) {
+            return Stream.empty();
+        }
+        return Stream.of(read(snapshots, addresses[addresses.length - 1]));
+    }
+
+    /**
+     * Returns the latest snapshot of the given aggregate that covers no event after the given sequence number and was
+     * taken no later than the given time, skipping those the snapshot filter rejects. Snapshots are only read in full
+     * once their sequence number and time match.
+     */
+    public Optional<DomainEventMessage<?>> readSnapshot(String aggregateIdentifier, long maxSequenceNumber,
+                                                        Instant maxTimestamp) {
+        long[] addresses = snapshotAddresses.getOrDefault(aggregateIdentifier, new long[0]);
+        for (int i = addresses.length - 1; i >= 0; i--) {
+            EventSegment segment = snapshots.segment(addresses[i] >>> 32);
+            int offset = (int) addresses[i];
+            if (segment.sequenceNumber(offset) > maxSequenceNumber
+                    || segment.timestamp(offset).isAfter(maxTimestamp)) {
+                continue;
+            }
+            EventRecord snapshot = segment.read(offset);
+            if (snapshotFilter.allow(snapshot)) {
+                DomainEventStream stream = EventStreamUtils.upcastAndDeserializeDomainEvents(
+                        Stream.of(snapshot), getSnapshotSerializer(), upcasterChain);
+                if (stream.hasNext()) {
+                    return Optional.of(stream.next());
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Long> lastSequenceNumberFor(String aggregateIdentifier) {
+        long lastSequenceNumber = lastSequenceNumber(aggregateIdentifier);
+        return lastSequenceNumber < 0 ? Optional.empty() : Optional.of(lastSequenceNumber);
+    }
+
+    @Override
+    public TrackingToken createTailToken() {
+        return null;
+    }
+
+    @Override
+    public TrackingToken createHeadToken() {
+        return tokenBefore(events.durableIndex());
+    }
+
+    @Override
+    public TrackingToken createTokenAt(Instant dateTime) {
+        List<EventSegment> segments = events.segments();
+        for (int i = 0; i < segments.size(); i++) {
+            EventSegment segment = segments.get(i);
+            int limit = events.readableEnd(segment);
+            // Skips a segment when the next one starts before the given time, as timestamps mostly increase.
+            if (i < segments.size() - 1 && events.readableEnd(segments.get(i + 1)) > EventSegment.HEADER_SIZE
+                    && segments.get(i + 1).timestamp(EventSegment.HEADER_SIZE).isBefore(dateTime)) {
+                continue;
+            }
+            for (int offset = EventSegment.HEADER_SIZE; offset < limit; offset = segment.next(offset)) {
+                if (!segment.timestamp(offset).isBefore(dateTime)) {
+                    return tokenBefore(segment.globalIndex(offset));
+                }
+            }
+        }
+        return tokenBefore(events.durableIndex());
+    }
+
+    /**
+     * Returns the number of times events were forced to disk, each for one or more appended batches.
+     */
+    public long getSyncCount() {
+        return events.getSyncCount();
+    }
+
+    /**
+     * Returns the number of batches of events appended.
+     */
+    public long getBatchCount() {
+        return events.getBatchCount();
+    }
+
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            synchronized (snapshotLock) {
+                events.close();
+                snapshots.close();
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long lastSequenceNumber(String aggregateIdentifier) {
+        return lastSequenceNumbers.computeIfAbsent(aggregateIdentifier, this::findLastSequenceNumber);
+    }
+
+    private long findLastSequenceNumber(String aggregateIdentifier) {
+        Indexes current = indexes;
+        long lastSequenceNumber = current.active.lastSequenceNumber(aggregateIdentifier);
+        for (int i = current.sealed.size() - 1; lastSequenceNumber < 0 && i >= 0; i--) {
+            lastSequenceNumber = current.sealed.get(i).lastSequenceNumber(aggregateIdentifier);
+        }
+        return lastSequenceNumber;
+    }
+
+    /**
+     * Returns the token of a processor that handled every event before the given global index, which is no token at
+     * all before the first event.
+     */
+    private TrackingToken tokenBefore(long globalIndex) {
+        return globalIndex == events.firstIndex() ? null : new GlobalSequenceTrackingToken(globalIndex - 1);
+    }
+
+    private static long nextIndex(TrackingToken trackingToken) {
+        if (trackingToken == null) {
+            return 0;
+        }
+        if (!(trackingToken instanceof GlobalSequenceTrackingToken globalSequenceToken)) {
+            throw new IllegalArgumentException("Tokens of type [" + trackingToken.getClass().getName()
+                                                       + "] are not supported by this storage engine");
+        }
+        return globalSequenceToken.getGlobalIndex() + 1;
+    }
+
+    private void addSnapshot(String aggregateIdentifier, long address) {
+        snapshotAddresses.merge(aggregateIdentifier, new long[]{address}, (addresses, added) -> {
+            long[] merged = Arrays.copyOf(addresses, addresses.length + 1);
+            merged[addresses.length] = added[0];
+            return merged;
+        });
+    }
+
+    private static long address(EventSegment segment, int offset) {
+        return segment.number() << 32 | offset;
+    }
+
+    private static EventRecord read(SegmentLog log, long address) {
+        return log.segment(address >>> 32).read((int) address);
+    }
+
+    /**
+     * The aggregate indexes of the sealed segments and the one of the segment being appended to, replaced as a whole
+     * when a segment is sealed so readers always see a consistent set.
+     */
+    private static final class Indexes {
+        private final List<SegmentIndex> sealed;
+        private final ActiveIndex active;
+
+        private Indexes(List<SegmentIndex> sealed, ActiveIndex active) {
+            this.sealed = sealed;
+            this.active = active;
+        }
+
+        private Indexes roll(SegmentIndex sealedIndex, ActiveIndex next) {
+            List<SegmentIndex> rolled = new ArrayList<>(sealed);
+            rolled.add(sealedIndex);
+            return new Indexes(List.copyOf(rolled), next);
+        }
+    }
+
+    /**
+     * A growing array of the addresses of records, each the number of its segment and its offset in it.
+     */
+    private static final class Addresses {
+        private long[] values = new long[16];
+        private int size;
+
+        private void add(EventSegment segment, int offset) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = address(segment, offset);
+        }
+    }
+
+    /**
+     * Builds a {@link MappedEventStorageEngine}. The directory is required; segments default to 64 MB, which bounds
+     * the size of the events a unit of work may append at once, and syncing to disk defaults to on.
+     */
+    public static class Builder extends AbstractEventStorageEngine.Builder {
+
+        private Path directory;
+        private int segmentSize = 64 * 1024 * 1024;
+        private boolean sync = true;
+        private SnapshotFilter snapshotFilter = SnapshotFilter.allowAll();
+
+        @Override
+        public Builder snapshotSerializer(Serializer snapshotSerializer) {
+            super.snapshotSerializer(snapshotSerializer);
+            return this;
+        }
+
+        @Override
+        public Builder upcasterChain(EventUpcaster upcasterChain) {
+            super.upcasterChain(upcasterChain);
+            return this;
+        }
+
+        @Override
+        public Builder eventSerializer(Serializer eventSerializer) {
+            super.eventSerializer(eventSerializer);
+            return this;
+        }
+
+        @Override
+        public Builder snapshotFilter(SnapshotFilter snapshotFilter) {
+            super.snapshotFilter(snapshotFilter);
+            this.snapshotFilter = snapshotFilter;
+            return this;
+        }
+
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        public Builder segmentSize(int segmentSize) {
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Sets whether appends wait for their events to be forced to disk.
+         */
+        public Builder sync(boolean sync) {
+            this.sync = sync;
+            return this;
+        }
+
+        @Override
+        protected void validate() throws AxonConfigurationException {
+            super.validate();
+            if (directory == null) {
+                throw new AxonConfigurationException("The directory of a MappedEventStorageEngine is required");
+            }
+            if (segmentSize < 4096) {
+                throw new AxonConfigurationException("Segments must be at least 4 KB, but were [" + segmentSize
+                                                             + "] bytes");
+            }
+        }
+
+        public MappedEventStorageEngine build() {
+            return new MappedEventStorageEngine(this);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.hendisantika.springbootaxonsample1.eventstore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 14.40
+ * <p>
+ * The aggregate index of a sealed {@link EventSegment}, in a file next to it: an entry per domain event holding a
+ * hash of its aggregate identifier, its sequence number and its offset in the segment, sorted by hash and sequence
+ * number, so the events of an aggregate are found by binary search. Entries only identify an aggregate by hash, so
+ * the identifier of every record found is compared before it is used.
+ * <p>
+ * The file is written next to its final name and moved into place once it is on disk, so an index file is either
+ * whole or missing; a missing one is rebuilt from its segment.
+ */
+final class SegmentIndex {
+
+    private static final int MAGIC = 0x4f454958;
+    private static final int HEADER_SIZE = 16;
+    private static final int ENTRY_SIZE = 20;
+
+    private final EventSegment segment;
+    private final ByteBuffer entries;
+    private final int size;
+
+    private SegmentIndex(EventSegment segment, ByteBuffer entries, int size) {
+        this.segment = segment;
+        this.entries = entries;
+        this.size = size;
+    }
+
+    /**
+     * Opens the index of the given segment, or returns {@code null} when it has none.
+     */
+    static SegmentIndex open(EventSegment segment) {
+        Path file = fileOf(segment);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC || buffer.getLong(4) != segment.number()
+                    || buffer.capacity() != HEADER_SIZE + (long) buffer.getInt(12) * ENTRY_SIZE) {
+                return null;
+            }
+            return new SegmentIndex(segment, buffer, buffer.getInt(12));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open index [" + file + "]", e);
+        }
+    }
+
+    /**
+     * Writes the index of the given sealed segment from its entries, in any order.
+     */
+    static SegmentIndex write(EventSegment segment, List<String> aggregateIdentifiers, long[] sequenceNumbers,
+                              int[] offsets) {
+        int size = aggregateIdentifiers.size();
+        long[] hashes = new long[size];
+        for (int i = 0; i < size; i++) {
+            hashes[i] = hash(aggregateIdentifiers.get(i));
+        }
+        int[] order = IntStream.range(0, size).boxed()
+                .sorted((a, b) -> hashes[a] != hashes[b]
+                        ? Long.compare(hashes[a], hashes[b])
+                        : Long.compare(sequenceNumbers[a], sequenceNumbers[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + size * ENTRY_SIZE);
+        buffer.putInt(MAGIC).putLong(segment.number()).putInt(size);
+        for (int i : order) {
+            buffer.putLong(hashes[i]).putLong(sequenceNumbers[i]).putInt(offsets[i]);
+        }
+        buffer.flip();
+        Path file = fileOf(segment);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write index [" + temporary + "]", e);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot move index [" + temporary + "] to [" + file + "]", e);
+        }
+        return new SegmentIndex(segment, buffer.position(0), size);
+    }
+
+    /**
+     * Passes the offsets of the events of the given aggregate from the given sequence number on to the given consumer,
+     * in order.
+     */
+    void collect(String aggregateIdentifier, long firstSequenceNumber, IntConsumer offsets) {
+        long hash = hash(aggregateIdentifier);
+        for (int i = lowerBound(hash, firstSequenceNumber); i < size && hashAt(i) == hash; i++) {
+            int offset = offsetAt(i);
+            if (aggregateIdentifier.equals(segment.aggregateIdentifier(offset))) {
+                offsets.accept(offset);
+            }
+        }
+    }
+
+    /**
+     * Returns the highest sequence number of the given aggregate in the segment, or -1 when it has none there.
+     */
+    long lastSequenceNumber(String aggregateIdentifier) {
+        long hash = hash(aggregateIdentifier);
+        for (int i = lowerBound(hash, Long.MAX_VALUE) - 1; i >= 0 && hashAt(i) == hash; i--) {
+            if (aggregateIdentifier.equals(segment.aggregateIdentifier(offsetAt(i)))) {
+                return sequenceNumberAt(i);
+            }
+        }
+        return -1;
+    }
+
+    EventSegment segment() {
+        return segment;
+    }
+
+    /**
+     * Returns the first entry not below the given hash and sequence number.
+     */
+    private int lowerBound(long hash, long sequenceNumber) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long middleHash = hashAt(middle);
+            if (middleHash < hash || middleHash == hash && sequenceNumberAt(middle) < sequenceNumber) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long hashAt(int entry) {
+        return entries.getLong(HEADER_SIZE + entry * ENTRY_SIZE);
+    }
+
+    private long sequenceNumberAt(int entry) {
+        return entries.getLong(HEADER_SIZE + entry * ENTRY_SIZE + 8);
+    }
+
+    private int offsetAt(int entry) {
+        return entries.getInt(HEADER_SIZE + entry * ENTRY_SIZE + 16);
+    }
+
+    static Path fileOf(EventSegment segment) {
+        String name = segment.file().getFileName().toString();
+        return segment.file().resolveSibling(name.substring(0, name.lastIndexOf('.')) + ".idx");
+    }
+
+    /**
+     * A 64-bit FNV-1a hash of the characters of the identifier, with a final mix to spread the low bits.
+     */
+    static long hash(String aggregateIdentifier) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < aggregateIdentifier.length(); i++) {
+            hash ^= aggregateIdentifier.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ hash >>> 33;
+    }
+}
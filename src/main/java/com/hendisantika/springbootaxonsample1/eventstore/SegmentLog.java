@@ -0,0 +1,405 @@
+package com.hendisantika.springbootaxonsample1.eventstore;
+
+import org.axonframework.eventsourcing.eventstore.EventStoreException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 15.10
+ * <p>
+ * An append-only log of event records over {@link EventSegment}s in one directory, named after a prefix and their
+ * number. Every record gets the next global index; a batch never straddles two segments, so a new segment is started
+ * once the next batch does not fit in the current one, after sealing it. On opening, the last segment is recovered
+ * from its torn tail, if any.
+ * <p>
+ * Appends must not run concurrently. Their records are read only once on disk: an append returns the position after
+ * its batch, and {@link #awaitDurable} waits until that is forced to disk with a group commit, in which the first
+ * waiting thread forces everything appended so far on behalf of all the others, while those arriving meanwhile queue
+ * up for the next one. With syncing off, appended records are readable at once and left to the operating system to
+ * write out, which survives the process crashing but not the machine.
+ */
+final class SegmentLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentLog.class);
+
+    private final Path directory;
+    private final String prefix;
+    private final Pattern fileNames;
+    private final int segmentSize;
+    private final boolean sync;
+    private final Listener listener;
+    private final Object commitMonitor = new Object();
+    private final LongAdder syncs = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile List<EventSegment> segments;
+    private volatile Position written;
+    private volatile Position durable;
+    private boolean syncing;
+
+    SegmentLog(Path directory, String prefix, int segmentSize, boolean sync, Listener listener) {
+        this.directory = directory;
+        this.prefix = prefix;
+        this.fileNames = Pattern.compile(Pattern.quote(prefix) + "-(\\d+)\\.log");
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        this.listener = listener;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create directory [" + directory + "]", e);
+        }
+        List<EventSegment> opened = open();
+        if (opened.isEmpty()) {
+            opened.add(EventSegment.create(fileOf(0), 0, 0, segmentSize));
+        }
+        EventSegment last = opened.get(opened.size() - 1);
+        this.segments = List.copyOf(opened);
+        if (last.isSealed()) {
+            // A crash came between sealing the last segment and creating the next one.
+            last = roll(last);
+        }
+        this.written = new Position(last.number(), last.end(), last.nextIndex());
+        this.durable = written;
+    }
+
+    private List<EventSegment> open() {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, prefix + "-*.log")) {
+            stream.forEach(files::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list segments in [" + directory + "]", e);
+        }
+        files.removeIf(file -> !fileNames.matcher(file.getFileName().toString()).matches());
+        files.sort(null);
+        List<EventSegment> opened = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            EventSegment segment = EventSegment.open(file);
+            if (segment == null && i == files.size() - 1) {
+                logger.warn("Deleting segment [{}], whose creation did not complete", file);
+                delete(file);
+                continue;
+            }
+            if (segment == null || segment.number() != numberOf(file)) {
+                throw new IllegalStateException("Segment [" + file + "] is corrupt");
+            }
+            if (!opened.isEmpty() && opened.get(opened.size() - 1).nextIndex() != segment.baseIndex()) {
+                throw new IllegalStateException("Segment [" + file + "] does not follow the one before it");
+            }
+            if (!segment.isSealed() && i < files.size() - 1) {
+                segment.seal();
+            }
+            opened.add(segment);
+        }
+        return opened;
+    }
+
+    /**
+     * Appends the records as one batch and returns the position after it. A batch that does not fit in an empty
+     * segment is rejected.
+     */
+    Position append(List<EventRecord> records) {
+        long size = 0;
+        for (EventRecord record : records) {
+            size += EventSegment.sizeOf(record);
+        }
+        if (size > EventSegment.capacity(segmentSize)) {
+            throw new IllegalArgumentException("A batch of " + size + " bytes does not fit in segments of "
+                                                       + segmentSize + " bytes");
+        }
+        EventSegment active = segments.get(segments.size() - 1);
+        if (size > active.remaining()) {
+            active = roll(active);
+        }
+        int start = active.end();
+        long startIndex = active.nextIndex();
+        int[] offsets = new int[records.size()];
+        try {
+            for (int i = 0; i < records.size(); i++) {
+                offsets[i] = active.append(records.get(i), startIndex + i, i == records.size() - 1);
+            }
+        } catch (RuntimeException e) {
+            active.truncate(start, startIndex - active.baseIndex());
+            throw e;
+        }
+        for (int i = 0; i < records.size(); i++) {
+            listener.appended(active, offsets[i], records.get(i));
+        }
+        Position position = new Position(active.number(), active.end(), active.nextIndex());
+        written = position;
+        if (!sync) {
+            durable = position;
+        }
+        batches.increment();
+        return position;
+    }
+
+    /**
+     * Waits until the log is on disk up to the given position, forcing it there if no other thread is doing so.
+     */
+    void awaitDurable(Position position) {
+        while (true) {
+            Position from;
+            Position to;
+            synchronized (commitMonitor) {
+                while (syncing && durable.compareTo(position) < 0) {
+                    try {
+                        commitMonitor.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new EventStoreException("Interrupted while waiting for events to reach the disk", e);
+                    }
+                }
+                if (durable.compareTo(position) >= 0) {
+                    return;
+                }
+                syncing = true;
+                from = durable;
+                to = written;
+            }
+            boolean forced = false;
+            try {
+                force(from, to);
+                forced = true;
+                syncs.increment();
+            } finally {
+                synchronized (commitMonitor) {
+                    syncing = false;
+                    if (forced && durable.compareTo(to) < 0) {
+                        durable = to;
+                    }
+                    commitMonitor.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the records from the given global index on, up to what is on disk when called.
+     */
+    Stream<EventRecord> readFrom(long globalIndex) {
+        Position limit = durable;
+        List<EventSegment> current = segments;
+        long from = Math.max(globalIndex, current.get(0).baseIndex());
+        if (from >= limit.nextIndex) {
+            return Stream.empty();
+        }
+        int first = 0;
+        while (first < current.size() - 1 && current.get(first + 1).baseIndex() <= from) {
+            first++;
+        }
+        int start = current.get(first).offsetOf(from);
+        int firstSegment = first;
+        Spliterator<EventRecord> records = new Spliterators.AbstractSpliterator<>(
+                limit.nextIndex - from, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED) {
+            private int segment = firstSegment;
+            private int offset = start;
+            private long next = from;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super EventRecord> action) {
+                while (next < limit.nextIndex) {
+                    EventSegment eventSegment = current.get(segment);
+                    if (offset >= readableEnd(eventSegment, limit)) {
+                        segment++;
+                        offset = EventSegment.HEADER_SIZE;
+                        continue;
+                    }
+                    EventRecord record = eventSegment.read(offset);
+                    offset = eventSegment.next(offset);
+                    next++;
+                    action.accept(record);
+                    return true;
+                }
+                return false;
+            }
+        };
+        return StreamSupport.stream(records, false);
+    }
+
+    /**
+     * Visits every record on disk, by segment and offset.
+     */
+    void forEach(ObjIntConsumer<EventSegment> visitor) {
+        Position limit = durable;
+        for (EventSegment segment : segments) {
+            int end = readableEnd(segment, limit);
+            for (int offset = EventSegment.HEADER_SIZE; offset < end; offset = segment.next(offset)) {
+                visitor.accept(segment, offset);
+            }
+        }
+    }
+
+    /**
+     * Returns the end of what may be read from the given segment.
+     */
+    int readableEnd(EventSegment segment) {
+        return readableEnd(segment, durable);
+    }
+
+    private static int readableEnd(EventSegment segment, Position limit) {
+        if (segment.number() < limit.segment) {
+            return segment.end();
+        }
+        return segment.number() == limit.segment ? limit.offset : EventSegment.HEADER_SIZE;
+    }
+
+    /**
+     * Returns the segment with the given number, which must exist.
+     */
+    EventSegment segment(long number) {
+        List<EventSegment> current = segments;
+        return current.get((int) (number - current.get(0).number()));
+    }
+
+    List<EventSegment> segments() {
+        return segments;
+    }
+
+    /**
+     * Returns the global index of the first record, whether or not the log holds any.
+     */
+    long firstIndex() {
+        return segments.get(0).baseIndex();
+    }
+
+    /**
+     * Returns the global index after the last record on disk.
+     */
+    long durableIndex() {
+        return durable.nextIndex;
+    }
+
+    /**
+     * Returns the number of times the log was forced to disk.
+     */
+    long getSyncCount() {
+        return syncs.sum();
+    }
+
+    /**
+     * Returns the number of batches appended.
+     */
+    long getBatchCount() {
+        return batches.sum();
+    }
+
+    @Override
+    public void close() {
+        List<EventSegment> current = segments;
+        EventSegment last = current.get(current.size() - 1);
+        last.force(EventSegment.HEADER_SIZE, last.end());
+        for (EventSegment segment : current) {
+            segment.close();
+        }
+    }
+
+    private EventSegment roll(EventSegment active) {
+        active.seal();
+        EventSegment next = EventSegment.create(fileOf(active.number() + 1), active.number() + 1,
+                                                active.nextIndex(), segmentSize);
+        List<EventSegment> rolled = new ArrayList<>(segments);
+        rolled.add(next);
+        segments = List.copyOf(rolled);
+        synchronized (commitMonitor) {
+            // Sealing forced the whole segment, so everything written so far is on disk.
+            Position sealedEnd = new Position(active.number(), active.end(), active.nextIndex());
+            if (durable == null || durable.compareTo(sealedEnd) < 0) {
+                durable = sealedEnd;
+            }
+        }
+        listener.rolled(active, next);
+        return next;
+    }
+
+    private void force(Position from, Position to) {
+        for (long number = from.segment; number <= to.segment; number++) {
+            EventSegment segment = segment(number);
+            segment.force(number == from.segment ? from.offset : EventSegment.HEADER_SIZE,
+                          number == to.segment ? to.offset : segment.end());
+        }
+    }
+
+    private Path fileOf(long number) {
+        return directory.resolve(String.format("%s-%010d.log", prefix, number));
+    }
+
+    private long numberOf(Path file) {
+        Matcher matcher = fileNames.matcher(file.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.delete(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete [" + file + "]", e);
+        }
+    }
+
+    /**
+     * Learns of the records appended, to index them, while the appending thread still holds them.
+     */
+    interface Listener {
+
+        void appended(EventSegment segment, int offset, EventRecord record);
+
+        void rolled(EventSegment sealed, EventSegment next);
+    }
+
+    /**
+     * A position in the log: a segment, an offset in it and the global index of the record there.
+     */
+    static final class Position implements Comparable<Position> {
+
+        private final long segment;
+        private final int offset;
+        private final long nextIndex;
+
+        Position(long segment, int offset, long nextIndex) {
+            this.segment = segment;
+            this.offset = offset;
+            this.nextIndex = nextIndex;
+        }
+
+        @Override
+        public int compareTo(Position other) {
+            return segment != other.segment
+                    ? Long.compare(segment, other.segment)
+                    : Integer.compare(offset, other.offset);
+        }
+
+        @Override
+        public String toString() {
+            return "Position{" +
+                    "segment=" + segment +
+                    ", offset=" + offset +
+                    ", nextIndex=" + nextIndex +
+                    '}';
+        }
+    }
+}
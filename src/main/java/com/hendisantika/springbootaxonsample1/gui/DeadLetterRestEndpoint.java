@@ -0,0 +1,58 @@
+package com.hendisantika.springbootaxonsample1.gui;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.querymodel.DeadLetterSummary;
+import com.hendisantika.springbootaxonsample1.querymodel.OrdersDeadLetters;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 22.45
+ * <p>
+ * Operates the dead-letter queue of the orders read model: lists the parked events, hands those of an order or of
+ * all orders to the event handlers again, or drops them.
+ */
+@RestController
+public class DeadLetterRestEndpoint {
+
+    private final OrdersDeadLetters deadLetters;
+
+    public DeadLetterRestEndpoint(OrdersDeadLetters deadLetters) {
+        this.deadLetters = deadLetters;
+    }
+
+    @GetMapping("/dead-letters")
+    public List<DeadLetterSummary> findDeadLetters(
+            @RequestParam(name = "max-orders", defaultValue = "100") int maxOrders) {
+        return deadLetters.list(maxOrders);
+    }
+
+    @PostMapping("/dead-letters/{order-id}/retry")
+    public boolean retry(@PathVariable("order-id") Id orderId) {
+        return deadLetters.retry(orderId);
+    }
+
+    @PostMapping("/dead-letters/retry")
+    public int retryAll() {
+        return deadLetters.retryAll();
+    }
+
+    @DeleteMapping("/dead-letters/{order-id}")
+    public ResponseEntity<Integer> evict(@PathVariable("order-id") Id orderId) {
+        int evicted = deadLetters.evict(orderId);
+        return evicted == 0 ? ResponseEntity.notFound().build() : ResponseEntity.ok(evicted);
+    }
+}
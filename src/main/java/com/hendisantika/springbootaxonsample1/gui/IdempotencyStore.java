@@ -0,0 +1,168 @@
+package com.hendisantika.springbootaxonsample1.gui;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 09.05
+ */
+@Component
+public class IdempotencyStore {
+
+    private final int maxEntries;
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final Map<Key, Entry> entries = new LinkedHashMap<>();
+
+    @Autowired
+    public IdempotencyStore(@Value("${order.idempotency.max-entries:100000}") int maxEntries,
+                            @Value("${order.idempotency.time-to-live:PT10M}") Duration timeToLive) {
+        this(maxEntries, timeToLive, Clock.systemUTC());
+    }
+
+    IdempotencyStore(int maxEntries, Duration timeToLive, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    /**
+     * Runs the given operation once per idempotency key and request. Concurrent and later duplicates receive the
+     * result of the first invocation until it expires. Failed invocations are forgotten, so they can be retried.
+     */
+    public <R> CompletableFuture<R> execute(String idempotencyKey,
+                                            Object request,
+                                            Supplier<CompletableFuture<R>> operation) {
+        Key key = new Key(idempotencyKey, request);
+        Entry entry;
+        synchronized (entries) {
+            Instant now = clock.instant();
+            evictExpired(now);
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                return existing.result();
+            }
+            entry = new Entry(now.plus(timeToLive));
+            entries.put(key, entry);
+            evictOverflow();
+        }
+
+        try {
+            operation.get().whenComplete((value, failure) -> {
+                if (failure != null) {
+                    forget(key, entry);
+                    entry.result.completeExceptionally(failure);
+                } else {
+                    entry.result.complete(value);
+                    // Entries in flight are never evicted, so the store may have grown past its bound meanwhile.
+                    synchronized (entries) {
+                        evictOverflow();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            forget(key, entry);
+            entry.result.completeExceptionally(e);
+        }
+        return entry.result();
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void forget(Key key, Entry entry) {
+        synchronized (entries) {
+            entries.remove(key, entry);
+        }
+    }
+
+    /**
+     * Entries are kept in the order they expire in. Entries still in flight are skipped: a duplicate arriving while
+     * the first invocation runs has to find it, or it would send the command a second time.
+     */
+    private void evictExpired(Instant now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.expiresAt.isAfter(now)) {
+                return;
+            }
+            if (entry.result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().result.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String idempotencyKey;
+        private final Object request;
+
+        private Key(String idempotencyKey, Object request) {
+            this.idempotencyKey = idempotencyKey;
+            this.request = request;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return Objects.equals(idempotencyKey, that.idempotencyKey) && Objects.equals(request, that.request);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(idempotencyKey, request);
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final Instant expiresAt;
+
+        private Entry(Instant expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        /**
+         * Hands out a copy, so a caller cancelling or completing its future cannot affect the stored result.
+         */
+        @SuppressWarnings("unchecked")
+        private <R> CompletableFuture<R> result() {
+            return (CompletableFuture<R>) result.copy();
+        }
+    }
+}
@@ -1,24 +1,45 @@
 package com.hendisantika.springbootaxonsample1.gui;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
 import com.hendisantika.springbootaxonsample1.coreapi.command.AddProductCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.CreateOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.DecrementProductCountCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.PlaceOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.ShipOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.queries.FindAllOrderedProductsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrderAsOfQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrderStatisticsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrdersQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindTopProductsQuery;
 import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
-import org.axonframework.commandhandling.gateway.CommandGateway;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatistics;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.ProductPopularity;
+import com.hendisantika.springbootaxonsample1.dispatch.OrderCommandDispatcher;
+import com.hendisantika.springbootaxonsample1.querymodel.OrdersProjectionProgress;
+import jakarta.annotation.PreDestroy;
+import org.axonframework.eventsourcing.eventstore.EventStore;
 import org.axonframework.messaging.responsetypes.ResponseTypes;
 import org.axonframework.queryhandling.QueryGateway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Created by IntelliJ IDEA.
@@ -28,76 +49,193 @@ import java.util.concurrent.CompletableFuture;
  * Telegram : @hendisantika34
  * Date: 16/11/21
  * Time: 06.17
+ * <p>
+ * Commands are answered with the position of the last stored event in the {@value #EVENT_POSITION} header. Passed
+ * back as {@code min-position}, it makes {@code /all-orders} and {@code /orders} wait until the orders read model holds
+ * the events of the command. Reading the position is a round trip to the event store, so it is done on threads of its
+ * own rather than on the dispatcher worker that completed the command.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class OrderRestEndpoint {
 
-    private final CommandGateway commandGateway;
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String EVENT_POSITION = "Event-Position";
+
+    private final OrderCommandDispatcher commandDispatcher;
     private final QueryGateway queryGateway;
+    private final IdempotencyStore idempotencyStore;
+    private final EventStore eventStore;
+    private final OrdersProjectionProgress ordersProjectionProgress;
+    private final ExecutorService eventPositionExecutor;
 
-    public OrderRestEndpoint(CommandGateway commandGateway, QueryGateway queryGateway) {
-        this.commandGateway = commandGateway;
+    public OrderRestEndpoint(OrderCommandDispatcher commandDispatcher,
+                             QueryGateway queryGateway,
+                             IdempotencyStore idempotencyStore,
+                             EventStore eventStore,
+                             OrdersProjectionProgress ordersProjectionProgress,
+                             @Value("${order.consistency.event-position-threads:4}") int eventPositionThreads) {
+        this.commandDispatcher = commandDispatcher;
         this.queryGateway = queryGateway;
+        this.idempotencyStore = idempotencyStore;
+        this.eventStore = eventStore;
+        this.ordersProjectionProgress = ordersProjectionProgress;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.eventPositionExecutor = Executors.newFixedThreadPool(eventPositionThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-event-position-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eventPositionExecutor.shutdownNow();
     }
 
     @PostMapping("/ship-order")
-    public CompletableFuture<Void> shipOrder() {
-        String orderId = UUID.randomUUID().toString();
-        return commandGateway.send(new CreateOrderCommand(orderId))
-                .thenCompose(result -> commandGateway.send(new AddProductCommand(orderId, "Deluxe Chair")))
-                .thenCompose(result -> commandGateway.send(new ConfirmOrderCommand(orderId)))
-                .thenCompose(result -> commandGateway.send(new ShipOrderCommand(orderId)));
+    public CompletableFuture<ResponseEntity<Void>> shipOrder() {
+        Id orderId = Id.random();
+        return withEventPosition(commandDispatcher.send(
+                new PlaceOrderCommand(orderId, List.of(Id.of("Deluxe Chair")), true, true)).thenApply(result -> null));
     }
 
     @PostMapping("/ship-unconfirmed-order")
     public CompletableFuture<Void> shipUnconfirmedOrder() {
-        String orderId = UUID.randomUUID().toString();
-        return commandGateway.send(new CreateOrderCommand(orderId))
-                .thenCompose(result -> commandGateway.send(new AddProductCommand(orderId, "Deluxe Chair")))
+        Id orderId = Id.random();
+        return commandDispatcher.send(new CreateOrderCommand(orderId))
+                .thenCompose(result -> commandDispatcher.send(new AddProductCommand(orderId, Id.of("Deluxe Chair"))))
                 // This throws an exception, as an Order cannot be shipped if it has not been confirmed yet.
-                .thenCompose(result -> commandGateway.send(new ShipOrderCommand(orderId)));
+                .thenCompose(result -> commandDispatcher.send(new ShipOrderCommand(orderId)));
     }
 
     @PostMapping("/order")
-    public CompletableFuture<String> createOrder() {
-        return createOrder(UUID.randomUUID().toString());
+    public CompletableFuture<ResponseEntity<String>> createOrder(
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return withEventPosition(createOrder(Id.random()));
+        }
+        // The generated identifier is part of the cached result, so a retry gets the order created the first time.
+        return withEventPosition(idempotencyStore.execute(idempotencyKey, "POST /order",
+                                                          () -> createOrder(Id.random())));
     }
 
     @PostMapping("/order/{order-id}")
-    public CompletableFuture<String> createOrder(@PathVariable("order-id") String orderId) {
-        return commandGateway.send(new CreateOrderCommand(orderId));
+    public CompletableFuture<ResponseEntity<String>> createOrder(
+            @PathVariable("order-id") Id orderId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        // The command answers with the Id of the order, returned as the plain identifier string it always was.
+        return withEventPosition(this.<Id>send(idempotencyKey, new CreateOrderCommand(orderId))
+                                         .thenApply(Id::toString));
     }
 
     @PostMapping("/order/{order-id}/product/{product-id}")
-    public CompletableFuture<Void> addProduct(@PathVariable("order-id") String orderId,
-                                              @PathVariable("product-id") String productId) {
-        return commandGateway.send(new AddProductCommand(orderId, productId));
+    public CompletableFuture<ResponseEntity<Void>> addProduct(
+            @PathVariable("order-id") Id orderId,
+            @PathVariable("product-id") Id productId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return withEventPosition(send(idempotencyKey, new AddProductCommand(orderId, productId)));
     }
 
     @PostMapping("/order/{order-id}/product/{product-id}/increment")
-    public CompletableFuture<Void> incrementProduct(@PathVariable("order-id") String orderId,
-                                                    @PathVariable("product-id") String productId) {
-        return commandGateway.send(new IncrementProductCountCommand(orderId, productId));
+    public CompletableFuture<ResponseEntity<Void>> incrementProduct(
+            @PathVariable("order-id") Id orderId,
+            @PathVariable("product-id") Id productId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return withEventPosition(send(idempotencyKey, new IncrementProductCountCommand(orderId, productId)));
     }
 
     @PostMapping("/order/{order-id}/product/{product-id}/decrement")
-    public CompletableFuture<Void> decrementProduct(@PathVariable("order-id") String orderId,
-                                                    @PathVariable("product-id") String productId) {
-        return commandGateway.send(new DecrementProductCountCommand(orderId, productId));
+    public CompletableFuture<ResponseEntity<Void>> decrementProduct(
+            @PathVariable("order-id") Id orderId,
+            @PathVariable("product-id") Id productId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return withEventPosition(send(idempotencyKey, new DecrementProductCountCommand(orderId, productId)));
     }
 
     @PostMapping("/order/{order-id}/confirm")
-    public CompletableFuture<Void> confirmOrder(@PathVariable("order-id") String orderId) {
-        return commandGateway.send(new ConfirmOrderCommand(orderId));
+    public CompletableFuture<ResponseEntity<Void>> confirmOrder(
+            @PathVariable("order-id") Id orderId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return withEventPosition(send(idempotencyKey, new ConfirmOrderCommand(orderId)));
     }
 
     @PostMapping("/order/{order-id}/ship")
-    public CompletableFuture<Void> shipOrder(@PathVariable("order-id") String orderId) {
-        return commandGateway.send(new ShipOrderCommand(orderId));
+    public CompletableFuture<ResponseEntity<Void>> shipOrder(
+            @PathVariable("order-id") Id orderId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return withEventPosition(send(idempotencyKey, new ShipOrderCommand(orderId)));
     }
 
     @GetMapping("/all-orders")
-    public CompletableFuture<List<Order>> findAllOrders() {
-        return queryGateway.query(new FindAllOrderedProductsQuery(), ResponseTypes.multipleInstancesOf(Order.class));
+    public CompletableFuture<List<Order>> findAllOrders(
+            @RequestParam(name = "min-position", required = false) Long minPosition) {
+        return awaitPosition(minPosition).thenCompose(reached -> queryGateway.query(
+                new FindAllOrderedProductsQuery(), ResponseTypes.multipleInstancesOf(Order.class)));
+    }
+
+    @GetMapping("/orders")
+    public CompletableFuture<List<Order>> findOrders(
+            @RequestParam(name = "status", required = false) OrderStatus status,
+            @RequestParam(name = "product-id", required = false) Id productId,
+            @RequestParam(name = "min-position", required = false) Long minPosition) {
+        return awaitPosition(minPosition).thenCompose(reached -> queryGateway.query(
+                new FindOrdersQuery(status, productId), ResponseTypes.multipleInstancesOf(Order.class)));
+    }
+
+    @GetMapping("/top-products")
+    public CompletableFuture<List<ProductPopularity>> findTopProducts(
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return queryGateway.query(new FindTopProductsQuery(limit),
+                                  ResponseTypes.multipleInstancesOf(ProductPopularity.class));
+    }
+
+    @GetMapping("/order/{order-id}/as-of")
+    public CompletableFuture<ResponseEntity<Order>> findOrderAsOf(
+            @PathVariable("order-id") Id orderId,
+            @RequestParam(name = "timestamp", required = false) Instant timestamp,
+            @RequestParam(name = "sequence-number", required = false) Long sequenceNumber) {
+        return queryGateway.query(new FindOrderAsOfQuery(orderId, timestamp, sequenceNumber),
+                                  ResponseTypes.optionalInstanceOf(Order.class))
+                .thenApply(order -> order.map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/order-statistics")
+    public CompletableFuture<OrderStatistics> findOrderStatistics(
+            @RequestParam(name = "window", defaultValue = "PT1M") Duration window) {
+        return queryGateway.query(new FindOrderStatisticsQuery(window), OrderStatistics.class);
+    }
+
+    private CompletableFuture<String> createOrder(Id orderId) {
+        return commandDispatcher.<Id>send(new CreateOrderCommand(orderId)).thenApply(Id::toString);
+    }
+
+    /**
+     * Waits for the orders read model to hold every event up to the given position, if one is given.
+     */
+    private CompletableFuture<Void> awaitPosition(Long minPosition) {
+        return minPosition == null
+                ? CompletableFuture.completedFuture(null)
+                : ordersProjectionProgress.awaitPosition(minPosition);
+    }
+
+    /**
+     * The head of the event store is read once the command completed, so its events lie at or before the position.
+     */
+    private <R> CompletableFuture<ResponseEntity<R>> withEventPosition(CompletableFuture<R> result) {
+        return result.thenApplyAsync(body -> ResponseEntity.ok()
+                .header(EVENT_POSITION, Long.toString(OrdersProjectionProgress.headPosition(eventStore)))
+                .body(body), eventPositionExecutor);
+    }
+
+    /**
+     * Retried requests carrying the same idempotency key are answered from the {@link IdempotencyStore}, without
+     * dispatching the command again.
+     */
+    private <R> CompletableFuture<R> send(String idempotencyKey, Object command) {
+        if (idempotencyKey == null) {
+            return commandDispatcher.send(command);
+        }
+        return idempotencyStore.execute(idempotencyKey, command, () -> commandDispatcher.send(command));
     }
 }
@@ -0,0 +1,45 @@
+package com.hendisantika.springbootaxonsample1.gui;
+
+import com.hendisantika.springbootaxonsample1.dispatch.CommandRejectedException;
+import com.hendisantika.springbootaxonsample1.querymodel.ProjectionLagException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 13.40
+ * <p>
+ * Answers commands shed by admission control right away: 429 when the client keeps a single order too busy, 503 when
+ * the service as a whole is overloaded. Both tell the client when to retry. A query whose min-position the orders read
+ * model did not reach in time is answered with 503 as well.
+ */
+@RestControllerAdvice
+public class OrderRestExceptionHandler {
+
+    @ExceptionHandler(CommandRejectedException.class)
+    public ResponseEntity<String> handleCommandRejected(CommandRejectedException exception) {
+        HttpStatus status = exception.getReason() == CommandRejectedException.Reason.ORDER_OVERLOADED
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        // Retry-After is in whole seconds, round up so clients never come back before the queue drained.
+        long retryAfterSeconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(exception.getMessage());
+    }
+
+    @ExceptionHandler(ProjectionLagException.class)
+    public ResponseEntity<String> handleProjectionLag(ProjectionLagException exception) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exception.getMessage());
+    }
+}
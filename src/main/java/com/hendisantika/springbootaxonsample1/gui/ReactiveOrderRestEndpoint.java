@@ -0,0 +1,229 @@
+package com.hendisantika.springbootaxonsample1.gui;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.AddProductCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.CreateOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.DecrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.PlaceOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ShipOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindAllOrderedProductsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrderAsOfQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrderStatisticsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrdersQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindTopProductsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatistics;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.ProductPopularity;
+import com.hendisantika.springbootaxonsample1.dispatch.OrderCommandDispatcher;
+import com.hendisantika.springbootaxonsample1.querymodel.OrdersProjectionProgress;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.extensions.reactor.queryhandling.gateway.ReactorQueryGateway;
+import org.axonframework.messaging.responsetypes.ResponseTypes;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static com.hendisantika.springbootaxonsample1.gui.OrderRestEndpoint.EVENT_POSITION;
+import static com.hendisantika.springbootaxonsample1.gui.OrderRestEndpoint.IDEMPOTENCY_KEY;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 11.42
+ * <p>
+ * Non-blocking variant of {@link OrderRestEndpoint}, serving the same routes when the application runs with
+ * {@code spring.main.web-application-type=reactive}. {@code /all-orders} and {@code /orders} are streaming queries:
+ * the query handler reads all matching orders from the store at once, and they are then written only as fast as the
+ * client reads them.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOrderRestEndpoint {
+
+    private final OrderCommandDispatcher commandDispatcher;
+    private final ReactorQueryGateway queryGateway;
+    private final IdempotencyStore idempotencyStore;
+    private final EventStore eventStore;
+    private final OrdersProjectionProgress ordersProjectionProgress;
+
+    public ReactiveOrderRestEndpoint(OrderCommandDispatcher commandDispatcher,
+                                     ReactorQueryGateway queryGateway,
+                                     IdempotencyStore idempotencyStore,
+                                     EventStore eventStore,
+                                     OrdersProjectionProgress ordersProjectionProgress) {
+        this.commandDispatcher = commandDispatcher;
+        this.queryGateway = queryGateway;
+        this.idempotencyStore = idempotencyStore;
+        this.eventStore = eventStore;
+        this.ordersProjectionProgress = ordersProjectionProgress;
+    }
+
+    @PostMapping("/ship-order")
+    public Mono<ResponseEntity<Void>> shipOrder() {
+        Id orderId = Id.random();
+        return withEventPosition(send(new PlaceOrderCommand(orderId, List.of(Id.of("Deluxe Chair")), true, true))
+                                         .then());
+    }
+
+    @PostMapping("/ship-unconfirmed-order")
+    public Mono<Void> shipUnconfirmedOrder() {
+        Id orderId = Id.random();
+        return send(new CreateOrderCommand(orderId))
+                .then(send(new AddProductCommand(orderId, Id.of("Deluxe Chair"))))
+                // This throws an exception, as an Order cannot be shipped if it has not been confirmed yet.
+                .then(send(new ShipOrderCommand(orderId)));
+    }
+
+    @PostMapping("/order")
+    public Mono<ResponseEntity<String>> createOrder(
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return withEventPosition(this.<Id>send(new CreateOrderCommand(Id.random())).map(Id::toString));
+        }
+        // The generated identifier is part of the cached result, so a retry gets the order created the first time.
+        return withEventPosition(Mono.fromFuture(() -> idempotencyStore.execute(
+                idempotencyKey, "POST /order",
+                () -> this.<Id>send(new CreateOrderCommand(Id.random())).map(Id::toString).toFuture())));
+    }
+
+    @PostMapping("/order/{order-id}")
+    public Mono<ResponseEntity<String>> createOrder(
+            @PathVariable("order-id") Id orderId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        // The command answers with the Id of the order, returned as the plain identifier string it always was.
+        return withEventPosition(this.<Id>send(idempotencyKey, new CreateOrderCommand(orderId)).map(Id::toString));
+    }
+
+    @PostMapping("/order/{order-id}/product/{product-id}")
+    public Mono<ResponseEntity<Void>> addProduct(
+            @PathVariable("order-id") Id orderId,
+            @PathVariable("product-id") Id productId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return withEventPosition(send(idempotencyKey, new AddProductCommand(orderId, productId)));
+    }
+
+    @PostMapping("/order/{order-id}/product/{product-id}/increment")
+    public Mono<ResponseEntity<Void>> incrementProduct(
+            @PathVariable("order-id") Id orderId,
+            @PathVariable("product-id") Id productId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return withEventPosition(send(idempotencyKey, new IncrementProductCountCommand(orderId, productId)));
+    }
+
+    @PostMapping("/order/{order-id}/product/{product-id}/decrement")
+    public Mono<ResponseEntity<Void>> decrementProduct(
+            @PathVariable("order-id") Id orderId,
+            @PathVariable("product-id") Id productId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return withEventPosition(send(idempotencyKey, new DecrementProductCountCommand(orderId, productId)));
+    }
+
+    @PostMapping("/order/{order-id}/confirm")
+    public Mono<ResponseEntity<Void>> confirmOrder(
+            @PathVariable("order-id") Id orderId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return withEventPosition(send(idempotencyKey, new ConfirmOrderCommand(orderId)));
+    }
+
+    @PostMapping("/order/{order-id}/ship")
+    public Mono<ResponseEntity<Void>> shipOrder(
+            @PathVariable("order-id") Id orderId,
+            @RequestHeader(name = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
+        return withEventPosition(send(idempotencyKey, new ShipOrderCommand(orderId)));
+    }
+
+    @GetMapping(value = "/all-orders",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Order> findAllOrders(@RequestParam(name = "min-position", required = false) Long minPosition) {
+        return awaitPosition(minPosition)
+                .thenMany(queryGateway.streamingQuery(new FindAllOrderedProductsQuery(), Order.class));
+    }
+
+    @GetMapping(value = "/orders", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Order> findOrders(@RequestParam(name = "status", required = false) OrderStatus status,
+                                  @RequestParam(name = "product-id", required = false) Id productId,
+                                  @RequestParam(name = "min-position", required = false) Long minPosition) {
+        return awaitPosition(minPosition)
+                .thenMany(queryGateway.streamingQuery(new FindOrdersQuery(status, productId), Order.class));
+    }
+
+    @GetMapping("/top-products")
+    public Mono<List<ProductPopularity>> findTopProducts(
+            @RequestParam(name = "limit", defaultValue = "10") int limit) {
+        return queryGateway.query(new FindTopProductsQuery(limit),
+                                  ResponseTypes.multipleInstancesOf(ProductPopularity.class));
+    }
+
+    @GetMapping("/order/{order-id}/as-of")
+    public Mono<ResponseEntity<Order>> findOrderAsOf(
+            @PathVariable("order-id") Id orderId,
+            @RequestParam(name = "timestamp", required = false) Instant timestamp,
+            @RequestParam(name = "sequence-number", required = false) Long sequenceNumber) {
+        return queryGateway.query(new FindOrderAsOfQuery(orderId, timestamp, sequenceNumber),
+                                  ResponseTypes.optionalInstanceOf(Order.class))
+                .map(order -> order.map(ResponseEntity::ok)
+                        .orElseGet(() -> ResponseEntity.notFound().build()));
+    }
+
+    @GetMapping("/order-statistics")
+    public Mono<OrderStatistics> findOrderStatistics(
+            @RequestParam(name = "window", defaultValue = "PT1M") Duration window) {
+        return queryGateway.query(new FindOrderStatisticsQuery(window), OrderStatistics.class);
+    }
+
+    private Mono<Void> awaitPosition(Long minPosition) {
+        return minPosition == null
+                ? Mono.empty()
+                : Mono.fromFuture(() -> ordersProjectionProgress.awaitPosition(minPosition));
+    }
+
+    /**
+     * Reading the head of the event store may block, so it is kept off the event loop.
+     */
+    private <R> Mono<ResponseEntity<R>> withEventPosition(Mono<R> result) {
+        return result.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(body -> Mono.fromCallable(() -> OrdersProjectionProgress.headPosition(eventStore))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .map(position -> ResponseEntity.ok()
+                                .header(EVENT_POSITION, Long.toString(position))
+                                .body(body.orElse(null))));
+    }
+
+    private <R> Mono<R> send(String idempotencyKey, Object command) {
+        if (idempotencyKey == null) {
+            return send(command);
+        }
+        return Mono.fromFuture(() -> idempotencyStore.execute(idempotencyKey, command,
+                                                              () -> this.<R>send(command).toFuture()));
+    }
+
+    /**
+     * Command handlers load and store aggregates with blocking I/O. The dispatcher runs them on its own workers, so
+     * they never block the event loop that serves the HTTP connections.
+     */
+    private <R> Mono<R> send(Object command) {
+        return Mono.fromFuture(() -> commandDispatcher.<R>send(command));
+    }
+}
@@ -0,0 +1,200 @@
+package com.hendisantika.springbootaxonsample1.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 12.10
+ * <p>
+ * Hands log events to its appenders on a worker thread through a bounded queue, without ever blocking the thread that
+ * logs. Once fewer than the discarding threshold of free places are left, events of level INFO and below are
+ * discarded; once the queue is full, every event is. Both are counted, so they can be published as metrics.
+ * <p>
+ * The message is formatted and the thread name and MDC are captured on the logging thread, before the event is queued,
+ * so that it is written as it was when logged, even if its arguments change afterwards.
+ */
+public class BoundedAsyncAppender extends UnsynchronizedAppenderBase<ILoggingEvent>
+        implements AppenderAttachable<ILoggingEvent> {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private int queueSize = 8192;
+    private int discardingThreshold = -1;
+    private int maxFlushTime = 1000;
+    private BlockingQueue<ILoggingEvent> queue;
+    private Thread worker;
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (queueSize < 1) {
+            addError("Invalid queue size [" + queueSize + "]");
+            return;
+        }
+        if (!appenders.iteratorForAppenders().hasNext()) {
+            addError("No appender attached to [" + getName() + "]");
+            return;
+        }
+        if (discardingThreshold < 0) {
+            discardingThreshold = queueSize / 5;
+        }
+        queue = new ArrayBlockingQueue<>(queueSize);
+        worker = new Thread(this::drain, "BoundedAsyncAppender-" + getName());
+        worker.setDaemon(true);
+        super.start();
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        worker.interrupt();
+        try {
+            worker.join(maxFlushTime);
+            if (worker.isAlive()) {
+                addWarn("Could not flush the events queued for [" + getName() + "] within " + maxFlushTime + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (queue.remainingCapacity() < discardingThreshold && event.getLevel().toInt() <= Level.INFO_INT) {
+            discarded.increment();
+            return;
+        }
+        event.prepareForDeferredProcessing();
+        if (!queue.offer(event)) {
+            overflowed.increment();
+        }
+    }
+
+    private void drain() {
+        List<ILoggingEvent> batch = new ArrayList<>(BATCH_SIZE);
+        while (isStarted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                break;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            appendAll(batch);
+        }
+        // Clears the interrupt of stop(), which would otherwise close interruptible channels the appenders write to.
+        Thread.interrupted();
+        queue.drainTo(batch);
+        appendAll(batch);
+    }
+
+    private void appendAll(List<ILoggingEvent> batch) {
+        for (ILoggingEvent event : batch) {
+            appenders.appendLoopOnAppenders(event);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Returns the number of events of level INFO and below discarded while the queue was nearly full.
+     */
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    /**
+     * Returns the number of events dropped because the queue was full.
+     */
+    public long getOverflowedCount() {
+        return overflowed.sum();
+    }
+
+    public int getQueuedCount() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public int getQueueSize() {
+        return queueSize;
+    }
+
+    public void setQueueSize(int queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    public int getDiscardingThreshold() {
+        return discardingThreshold;
+    }
+
+    public void setDiscardingThreshold(int discardingThreshold) {
+        this.discardingThreshold = discardingThreshold;
+    }
+
+    public int getMaxFlushTime() {
+        return maxFlushTime;
+    }
+
+    public void setMaxFlushTime(int maxFlushTime) {
+        this.maxFlushTime = maxFlushTime;
+    }
+
+    @Override
+    public void addAppender(Appender<ILoggingEvent> appender) {
+        appenders.addAppender(appender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(String name) {
+        return appenders.detachAppender(name);
+    }
+}
@@ -0,0 +1,31 @@
+package com.hendisantika.springbootaxonsample1.logging;
+
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.config.EventProcessingConfigurer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 12.50
+ */
+@Configuration
+public class LoggingInterceptorConfiguration {
+
+    @Autowired
+    public void registerCommandLogging(CommandBus commandBus, MessageLogging messageLogging) {
+        commandBus.registerHandlerInterceptor(messageLogging.commandLogInterceptor());
+    }
+
+    @Autowired
+    public void registerEventLogging(EventProcessingConfigurer eventProcessingConfigurer,
+                                     MessageLogging messageLogging) {
+        eventProcessingConfigurer.registerDefaultHandlerInterceptor(
+                (configuration, processorName) -> messageLogging.eventLogInterceptor());
+    }
+}
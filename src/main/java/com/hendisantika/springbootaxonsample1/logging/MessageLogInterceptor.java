@@ -0,0 +1,110 @@
+package com.hendisantika.springbootaxonsample1.logging;
+
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.Message;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.spi.LoggingEventBuilder;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 12.30
+ * <p>
+ * Logs handled messages at INFO as key-value pairs, to a logger per payload type named {@code orders.messages.}
+ * followed by the category and the simple name of the type, such as
+ * {@code orders.messages.events.ProductCountIncrementedEvent}. Of every type only one in its sample rate messages is
+ * logged; the rate is looked up by simple name and falls back to the default rate of the category. Messages that are
+ * not sampled cost a counter increment, and nothing at all is done while the logger is off.
+ */
+public class MessageLogInterceptor implements MessageHandlerInterceptor<Message<?>> {
+
+    private final String category;
+    private final int defaultRate;
+    private final Map<String, Integer> rates;
+    private final LongAdder sampledOut = new LongAdder();
+    private final ClassValue<TypeLog> typeLogs = new ClassValue<>() {
+        @Override
+        protected TypeLog computeValue(Class<?> type) {
+            return new TypeLog(LoggerFactory.getLogger("orders.messages." + category + "." + type.getSimpleName()),
+                               Math.max(1, rates.getOrDefault(type.getSimpleName(), defaultRate)));
+        }
+    };
+
+    public MessageLogInterceptor(String category, int defaultRate, Map<String, Integer> rates) {
+        this.category = category;
+        this.defaultRate = defaultRate;
+        this.rates = Map.copyOf(rates);
+    }
+
+    @Override
+    public Object handle(UnitOfWork<? extends Message<?>> unitOfWork,
+                         InterceptorChain interceptorChain) throws Exception {
+        Message<?> message = unitOfWork.getMessage();
+        TypeLog typeLog = typeLogs.get(message.getPayloadType());
+        if (!typeLog.logger.isInfoEnabled()) {
+            return interceptorChain.proceed();
+        }
+        if (typeLog.seen.getAndIncrement() % typeLog.rate != 0) {
+            sampledOut.increment();
+            return interceptorChain.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            Object result = interceptorChain.proceed();
+            log(typeLog, message, start, null);
+            return result;
+        } catch (Exception | Error e) {
+            log(typeLog, message, start, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of messages left out by sampling.
+     */
+    public long getSampledOutCount() {
+        return sampledOut.sum();
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    private static void log(TypeLog typeLog, Message<?> message, long start, Throwable failure) {
+        LoggingEventBuilder event = typeLog.logger.atInfo()
+                .addKeyValue("messageId", message.getIdentifier())
+                .addKeyValue("micros", (System.nanoTime() - start) / 1_000)
+                .addKeyValue("sampleRate", typeLog.rate);
+        if (message instanceof DomainEventMessage<?> domainEvent) {
+            event = event.addKeyValue("aggregateId", domainEvent.getAggregateIdentifier())
+                    .addKeyValue("sequenceNumber", domainEvent.getSequenceNumber());
+        }
+        if (failure != null) {
+            event = event.addKeyValue("failure", failure.getClass().getName());
+        }
+        event.log("Handled");
+    }
+
+    private static final class TypeLog {
+        private final Logger logger;
+        private final int rate;
+        private final AtomicLong seen = new AtomicLong();
+
+        private TypeLog(Logger logger, int rate) {
+            this.logger = logger;
+            this.rate = rate;
+        }
+    }
+}
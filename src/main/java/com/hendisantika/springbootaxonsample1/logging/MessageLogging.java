@@ -0,0 +1,110 @@
+package com.hendisantika.springbootaxonsample1.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.ILoggerFactory;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 12.45
+ * <p>
+ * Holds the {@link MessageLogInterceptor}s for commands and events, and publishes what the logging pipeline leaves
+ * out: the messages not sampled, and the events every {@link BoundedAsyncAppender} configured in Logback discarded
+ * or dropped.
+ */
+@Component
+public class MessageLogging implements MeterBinder {
+
+    private final MessageLogInterceptor commandLogInterceptor;
+    private final MessageLogInterceptor eventLogInterceptor;
+
+    public MessageLogging(@Value("${order.logging.commands.sample-rate:10}") int commandSampleRate,
+                          @Value("${order.logging.events.sample-rate:100}") int eventSampleRate,
+                          @Value("${order.logging.sample-rates:}") String[] sampleRates) {
+        Map<String, Integer> rates = new HashMap<>();
+        for (String sampleRate : sampleRates) {
+            if (sampleRate.isBlank()) {
+                continue;
+            }
+            int separator = sampleRate.indexOf(':');
+            if (separator < 0) {
+                throw new IllegalArgumentException(
+                        "Sample rate [" + sampleRate + "] is not of the form <payload type>:<rate>");
+            }
+            rates.put(sampleRate.substring(0, separator).trim(),
+                      Integer.parseInt(sampleRate.substring(separator + 1).trim()));
+        }
+        this.commandLogInterceptor = new MessageLogInterceptor("commands", commandSampleRate, rates);
+        this.eventLogInterceptor = new MessageLogInterceptor("events", eventSampleRate, rates);
+    }
+
+    public MessageLogInterceptor commandLogInterceptor() {
+        return commandLogInterceptor;
+    }
+
+    public MessageLogInterceptor eventLogInterceptor() {
+        return eventLogInterceptor;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (MessageLogInterceptor interceptor : new MessageLogInterceptor[]{commandLogInterceptor,
+                                                                             eventLogInterceptor}) {
+            FunctionCounter.builder("orders.logging.sampled-out", interceptor,
+                                    MessageLogInterceptor::getSampledOutCount)
+                    .description("Handled messages left out of the log by sampling")
+                    .tag("category", interceptor.getCategory())
+                    .register(registry);
+        }
+        for (BoundedAsyncAppender appender : asyncAppenders()) {
+            FunctionCounter.builder("orders.logging.dropped", appender, BoundedAsyncAppender::getDiscardedCount)
+                    .description("Log events dropped because the queue of the appender was nearly or entirely full")
+                    .tags("appender", appender.getName(), "reason", "discarded")
+                    .register(registry);
+            FunctionCounter.builder("orders.logging.dropped", appender, BoundedAsyncAppender::getOverflowedCount)
+                    .description("Log events dropped because the queue of the appender was nearly or entirely full")
+                    .tags("appender", appender.getName(), "reason", "overflowed")
+                    .register(registry);
+            Gauge.builder("orders.logging.queued", appender, BoundedAsyncAppender::getQueuedCount)
+                    .description("Log events waiting for the appender's worker")
+                    .tag("appender", appender.getName())
+                    .register(registry);
+        }
+    }
+
+    private static Set<BoundedAsyncAppender> asyncAppenders() {
+        Set<BoundedAsyncAppender> appenders = new LinkedHashSet<>();
+        ILoggerFactory loggerFactory = LoggerFactory.getILoggerFactory();
+        if (loggerFactory instanceof LoggerContext loggerContext) {
+            for (Logger logger : loggerContext.getLoggerList()) {
+                Iterator<Appender<ILoggingEvent>> iterator = logger.iteratorForAppenders();
+                while (iterator.hasNext()) {
+                    if (iterator.next() instanceof BoundedAsyncAppender appender) {
+                        appenders.add(appender);
+                    }
+                }
+            }
+        }
+        return appenders;
+    }
+}
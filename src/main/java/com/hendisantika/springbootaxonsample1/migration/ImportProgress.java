@@ -0,0 +1,136 @@
+package com.hendisantika.springbootaxonsample1.migration;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 18.55
+ * <p>
+ * How far an import got: the last line of the file whose order and every one before it were handled, and how many
+ * orders were imported, found to exist already or rejected, and how many events were appended for them. Written to a
+ * checkpoint file after every chunk, so an interrupted import resumes after that line.
+ */
+public final class ImportProgress {
+    private final long line;
+    private final long imported;
+    private final long existing;
+    private final long rejected;
+    private final long events;
+
+    ImportProgress(long line, long imported, long existing, long rejected, long events) {
+        this.line = line;
+        this.imported = imported;
+        this.existing = existing;
+        this.rejected = rejected;
+        this.events = events;
+    }
+
+    /**
+     * Reads the progress from the given checkpoint file, or returns the start of an import when there is none.
+     */
+    static ImportProgress read(Path checkpoint) {
+        if (!Files.exists(checkpoint)) {
+            return new ImportProgress(0, 0, 0, 0, 0);
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpoint, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read checkpoint [" + checkpoint + "]", e);
+        }
+        return new ImportProgress(Long.parseLong(properties.getProperty("line")),
+                                  Long.parseLong(properties.getProperty("imported")),
+                                  Long.parseLong(properties.getProperty("existing")),
+                                  Long.parseLong(properties.getProperty("rejected")),
+                                  Long.parseLong(properties.getProperty("events")));
+    }
+
+    /**
+     * Replaces the given checkpoint file with this progress at once, so a crash leaves either the old or the new one.
+     */
+    void write(Path checkpoint) {
+        Properties properties = new Properties();
+        properties.setProperty("line", Long.toString(line));
+        properties.setProperty("imported", Long.toString(imported));
+        properties.setProperty("existing", Long.toString(existing));
+        properties.setProperty("rejected", Long.toString(rejected));
+        properties.setProperty("events", Long.toString(events));
+        Path temporary = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Order import checkpoint");
+            }
+            Files.move(temporary, checkpoint, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write checkpoint [" + checkpoint + "]", e);
+        }
+    }
+
+    ImportProgress advance(long line, long imported, long existing, long rejected, long events) {
+        return new ImportProgress(line, this.imported + imported, this.existing + existing, this.rejected + rejected,
+                                  this.events + events);
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getExisting() {
+        return existing;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getEvents() {
+        return events;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ImportProgress that = (ImportProgress) o;
+        return line == that.line && imported == that.imported && existing == that.existing
+                && rejected == that.rejected && events == that.events;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(line, imported, existing, rejected, events);
+    }
+
+    @Override
+    public String toString() {
+        return "ImportProgress{" +
+                "line=" + line +
+                ", imported=" + imported +
+                ", existing=" + existing +
+                ", rejected=" + rejected +
+                ", events=" + events +
+                '}';
+    }
+}
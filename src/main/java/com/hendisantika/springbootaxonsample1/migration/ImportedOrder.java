@@ -0,0 +1,73 @@
+package com.hendisantika.springbootaxonsample1.migration;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 18.40
+ * <p>
+ * An order read from an import file, or the reason its line could not be read. Products are kept in file order and
+ * may repeat, so that the order aggregate rejects a duplicate line as it would a duplicate command.
+ */
+final class ImportedOrder {
+    private final long line;
+    private final Id orderId;
+    private final OrderStatus orderStatus;
+    private final List<Id> productIds;
+    private final List<Integer> counts;
+    private final String error;
+
+    private ImportedOrder(long line, Id orderId, OrderStatus orderStatus, List<Id> productIds, List<Integer> counts,
+                          String error) {
+        this.line = line;
+        this.orderId = orderId;
+        this.orderStatus = orderStatus;
+        this.productIds = productIds;
+        this.counts = counts;
+        this.error = error;
+    }
+
+    static ImportedOrder valid(long line, Id orderId, OrderStatus orderStatus, List<Id> productIds,
+                               List<Integer> counts) {
+        return new ImportedOrder(line, orderId, orderStatus, List.copyOf(productIds), List.copyOf(counts), null);
+    }
+
+    static ImportedOrder invalid(long line, String error) {
+        return new ImportedOrder(line, null, null, List.of(), List.of(), error);
+    }
+
+    long getLine() {
+        return line;
+    }
+
+    Id getOrderId() {
+        return orderId;
+    }
+
+    OrderStatus getOrderStatus() {
+        return orderStatus;
+    }
+
+    List<Id> getProductIds() {
+        return productIds;
+    }
+
+    List<Integer> getCounts() {
+        return counts;
+    }
+
+    /**
+     * Returns why the line could not be read, or null when it could.
+     */
+    String getError() {
+        return error;
+    }
+}
@@ -0,0 +1,183 @@
+package com.hendisantika.springbootaxonsample1.migration;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 18.45
+ * <p>
+ * Streams the orders of an import file one line at a time. Files ending in {@code .csv} hold a header line
+ * {@code order-id,order-status,products} and then one order per line, its products as {@code product-id:count} pairs
+ * separated by semicolons; fields are not quoted. Any other file holds one JSON order per line, in the form the order
+ * API answers with: {@code {"orderId":"...","orderStatus":"CONFIRMED","products":{"chair":2}}}. A missing status is
+ * CREATED and a product without a count is ordered once.
+ */
+final class OrderFileReader implements Closeable {
+
+    static final String CSV_HEADER = "order-id,order-status,products";
+
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
+    private final BufferedReader reader;
+    private final boolean csv;
+    private long line;
+
+    /**
+     * Opens the given file, skipping its first lines up to and including the given one.
+     */
+    OrderFileReader(Path file, long skipLines) {
+        this.csv = file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        try {
+            this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            if (csv && skipLines == 0) {
+                String header = reader.readLine();
+                line++;
+                if (header == null || !CSV_HEADER.equals(header.strip())) {
+                    throw new IllegalArgumentException("File [" + file + "] does not start with the header ["
+                                                               + CSV_HEADER + "]");
+                }
+            }
+            while (line < skipLines && reader.readLine() != null) {
+                line++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read [" + file + "]", e);
+        }
+    }
+
+    /**
+     * Returns the order on the next line that is not blank, or null at the end of the file.
+     */
+    ImportedOrder next() {
+        try {
+            String text;
+            do {
+                text = reader.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+            return csv ? parseCsv(line, text) : parseJson(line, text);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read line [" + (line + 1) + "]", e);
+        }
+    }
+
+    /**
+     * Returns the number of the last line read.
+     */
+    long getLine() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static ImportedOrder parseCsv(long line, String text) {
+        String[] fields = text.split(",", -1);
+        if (fields.length != 3) {
+            return ImportedOrder.invalid(line, "Expected 3 fields but found " + fields.length);
+        }
+        List<Id> productIds = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        if (!fields[2].isBlank()) {
+            for (String product : fields[2].split(";")) {
+                int separator = product.lastIndexOf(':');
+                String productId = separator < 0 ? product : product.substring(0, separator);
+                String count = separator < 0 ? "1" : product.substring(separator + 1);
+                try {
+                    productIds.add(Id.of(productId.strip()));
+                    counts.add(Integer.parseInt(count.strip()));
+                } catch (NumberFormatException e) {
+                    return ImportedOrder.invalid(line, "Product [" + product + "] has no valid count");
+                }
+            }
+        }
+        return order(line, fields[0].strip(), fields[1].strip(), productIds, counts);
+    }
+
+    private static ImportedOrder parseJson(long line, String text) {
+        String orderId = null;
+        String orderStatus = null;
+        List<Id> productIds = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        // Parses token by token rather than into a tree, which would silently keep only the last of repeated products.
+        try (JsonParser parser = JSON_MAPPER.createParser(text)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return ImportedOrder.invalid(line, "Expected a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "orderId" -> orderId = parser.getValueAsString();
+                    case "orderStatus" -> orderStatus = parser.getValueAsString();
+                    case "products" -> {
+                        if (value != JsonToken.START_OBJECT) {
+                            return ImportedOrder.invalid(line, "Expected the products as a JSON object");
+                        }
+                        while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                            productIds.add(Id.of(parser.currentName()));
+                            if (parser.nextToken() != JsonToken.VALUE_NUMBER_INT) {
+                                return ImportedOrder.invalid(line, "Product [" + parser.currentName()
+                                        + "] has no valid count");
+                            }
+                            counts.add(parser.getIntValue());
+                        }
+                    }
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (JacksonException e) {
+            return ImportedOrder.invalid(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+        return order(line, orderId, orderStatus, productIds, counts);
+    }
+
+    private static ImportedOrder order(long line, String orderId, String orderStatus, List<Id> productIds,
+                                       List<Integer> counts) {
+        if (orderId == null || orderId.isBlank()) {
+            return ImportedOrder.invalid(line, "The order has no identifier");
+        }
+        OrderStatus status = OrderStatus.CREATED;
+        if (orderStatus != null && !orderStatus.isBlank()) {
+            try {
+                status = OrderStatus.valueOf(orderStatus.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return ImportedOrder.invalid(line, "Unknown order status [" + orderStatus + "]");
+            }
+        }
+        for (int i = 0; i < counts.size(); i++) {
+            // Decrementing the last instance of a product removes its line, so every line holds at least one.
+            if (counts.get(i) < 1) {
+                return ImportedOrder.invalid(line, "Product [" + productIds.get(i) + "] has count " + counts.get(i)
+                        + ", but order lines hold at least one");
+            }
+        }
+        return ImportedOrder.valid(line, Id.of(orderId), status, productIds, counts);
+    }
+}
@@ -0,0 +1,51 @@
+package com.hendisantika.springbootaxonsample1.migration;
+
+import com.hendisantika.springbootaxonsample1.order.OrderIdIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 19.15
+ * <p>
+ * Imports the orders of {@code order.import.file} into the event store on startup, resuming after the line recorded
+ * in {@code order.import.checkpoint}, which defaults to the file name with {@code .checkpoint} appended.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.import.enabled", havingValue = "true")
+public class OrderImportConfiguration {
+
+    @Bean
+    public OrderImporter orderImporter(EventStore eventStore,
+                                       TransactionManager transactionManager,
+                                       OrderIdIndex orderIdIndex,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${order.import.workers:4}") int workers,
+                                       @Value("${order.import.chunk-size:20000}") int chunkSize,
+                                       @Value("${order.import.batch-size:5000}") int batchSize) {
+        return new OrderImporter(eventStore, transactionManager, orderIdIndex, meterRegistry, workers, chunkSize,
+                                 batchSize);
+    }
+
+    @Bean
+    public ApplicationRunner orderImport(OrderImporter orderImporter,
+                                         @Value("${order.import.file}") Path file,
+                                         @Value("${order.import.checkpoint:}") String checkpoint) {
+        return arguments -> orderImporter.importOrders(
+                file, checkpoint.isBlank() ? file.resolveSibling(file.getFileName() + ".checkpoint")
+                                           : Path.of(checkpoint));
+    }
+}
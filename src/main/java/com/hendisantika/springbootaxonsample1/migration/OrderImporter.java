@@ -0,0 +1,353 @@
+package com.hendisantika.springbootaxonsample1.migration;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.PlaceOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ShipOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import com.hendisantika.springbootaxonsample1.order.OrderAggregate;
+import com.hendisantika.springbootaxonsample1.order.OrderIdIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.SimpleEventBus;
+import org.axonframework.eventsourcing.EventSourcedAggregate;
+import org.axonframework.eventsourcing.NoSnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.modelling.command.AggregateStreamCreationException;
+import org.axonframework.modelling.command.ConcurrencyException;
+import org.axonframework.modelling.command.inspection.AggregateModel;
+import org.axonframework.modelling.command.inspection.AnnotatedAggregateMetaModelFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 19.05
+ * <p>
+ * Imports the orders of a legacy system straight into the event store, instead of sending every order as commands
+ * through the API. Each order is validated by the command handlers of the {@link OrderAggregate} itself: it is placed
+ * with its products, every instance beyond the first is an increment, and it is confirmed and shipped as its status
+ * says. An order those handlers reject is logged and skipped, the events they apply to the others are appended.
+ * <p>
+ * The file is read in chunks of orders, each split over the workers by order identifier, while the next chunk is
+ * read. A worker appends the events of many orders in one transaction, up to the batch size. Once every worker is done
+ * with a chunk, the last line of the chunk goes to the checkpoint file, which a later import of the same file resumes
+ * from. Orders of the chunk that were appended before an interruption then exist already: the transaction that finds
+ * one is rolled back, and its orders are appended one by one, skipping those the event store already holds events
+ * for. Engines report an existing stream differently, Axon Server with a {@link ConcurrencyException} and the JPA and
+ * mapped engines with an {@link AggregateStreamCreationException}; as every imported order starts a new stream,
+ * either means it exists.
+ * <p>
+ * Every imported order is registered with the {@link OrderIdIndex}, which may have been rebuilt before the import ran
+ * and would otherwise reject commands for it as unknown.
+ */
+public class OrderImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderImporter.class);
+
+    private final EventStore eventStore;
+    private final TransactionManager transactionManager;
+    private final OrderIdIndex orderIdIndex;
+    private final int workers;
+    private final int chunkSize;
+    private final int batchSize;
+    private final AggregateModel<OrderAggregate> aggregateModel =
+            AnnotatedAggregateMetaModelFactory.inspectAggregate(OrderAggregate.class);
+    private final Counter importedOrders;
+    private final Counter existingOrders;
+    private final Counter rejectedOrders;
+    private final Counter appendedEvents;
+    private final Timer appends;
+    private final AtomicLong checkpointedLine = new AtomicLong();
+
+    public OrderImporter(EventStore eventStore,
+                         TransactionManager transactionManager,
+                         OrderIdIndex orderIdIndex,
+                         MeterRegistry meterRegistry,
+                         int workers,
+                         int chunkSize,
+                         int batchSize) {
+        this.eventStore = eventStore;
+        this.transactionManager = transactionManager;
+        this.orderIdIndex = orderIdIndex;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+        this.batchSize = batchSize;
+        this.importedOrders = ordersCounter(meterRegistry, "imported", "Orders whose events were appended");
+        this.existingOrders = ordersCounter(meterRegistry, "existing", "Orders skipped as their events exist already");
+        this.rejectedOrders = ordersCounter(meterRegistry, "rejected", "Orders that could not be read or validated");
+        this.appendedEvents = Counter.builder("orders.import.events")
+                .description("Events appended for imported orders")
+                .register(meterRegistry);
+        this.appends = Timer.builder("orders.import.appends")
+                .description("Time to append the events of a batch of imported orders in one transaction")
+                .register(meterRegistry);
+        Gauge.builder("orders.import.line", checkpointedLine, AtomicLong::get)
+                .description("Last line of the import file up to which every order was handled")
+                .register(meterRegistry);
+    }
+
+    private static Counter ordersCounter(MeterRegistry meterRegistry, String outcome, String description) {
+        return Counter.builder("orders.import.orders")
+                .tag("outcome", outcome)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports the orders of the given file after the line recorded in the given checkpoint file, if there is one, and
+     * returns the progress of the whole import.
+     */
+    public ImportProgress importOrders(Path file, Path checkpoint) {
+        ImportProgress progress = ImportProgress.read(checkpoint);
+        checkpointedLine.set(progress.getLine());
+        if (progress.getLine() > 0) {
+            logger.info("Resuming the import of {} after line {}", file, progress.getLine());
+        }
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "order-import-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        long alreadyImported = progress.getImported();
+        try (OrderFileReader reader = new OrderFileReader(file, progress.getLine())) {
+            List<Future<Outcome>> running = List.of();
+            long runningLine = progress.getLine();
+            while (true) {
+                List<List<ImportedOrder>> chunk = readChunk(reader);
+                progress = complete(progress, running, runningLine, checkpoint);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                running = new ArrayList<>(chunk.size());
+                for (List<ImportedOrder> partition : chunk) {
+                    running.add(executor.submit(() -> importPartition(partition)));
+                }
+                runningLine = reader.getLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close [" + file + "]", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = Math.max(1e-9, (System.nanoTime() - start) / 1e9);
+        logger.info("Imported {} up to line {}: {} orders imported at {} orders/s, {} existing, {} rejected, {} events",
+                    file, progress.getLine(), progress.getImported(),
+                    Math.round((progress.getImported() - alreadyImported) / seconds), progress.getExisting(),
+                    progress.getRejected(), progress.getEvents());
+        return progress;
+    }
+
+    /**
+     * Reads up to a chunk of orders, partitioned by order identifier, or nothing at the end of the file.
+     */
+    private List<List<ImportedOrder>> readChunk(OrderFileReader reader) {
+        List<List<ImportedOrder>> partitions = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        int read = 0;
+        ImportedOrder order;
+        while (read < chunkSize && (order = reader.next()) != null) {
+            Id orderId = order.getOrderId();
+            partitions.get(orderId == null ? 0 : Math.floorMod(orderId.hashCode(), workers)).add(order);
+            read++;
+        }
+        return read == 0 ? List.of() : partitions;
+    }
+
+    /**
+     * Waits for the workers to finish the chunk up to the given line, then records it in the checkpoint file.
+     */
+    private ImportProgress complete(ImportProgress progress, List<Future<Outcome>> running, long line,
+                                    Path checkpoint) {
+        if (running.isEmpty()) {
+            return progress;
+        }
+        Outcome chunk = new Outcome();
+        try {
+            for (Future<Outcome> partition : running) {
+                Outcome outcome = partition.get();
+                chunk.imported += outcome.imported;
+                chunk.existing += outcome.existing;
+                chunk.rejected += outcome.rejected;
+                chunk.events += outcome.events;
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Importing the orders up to line " + line + " failed, a new import "
+                                                    + "resumes after line " + progress.getLine(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while importing the orders up to line " + line, e);
+        }
+        ImportProgress completed = progress.advance(line, chunk.imported, chunk.existing, chunk.rejected,
+                                                    chunk.events);
+        completed.write(checkpoint);
+        checkpointedLine.set(line);
+        logger.info("Imported orders up to line {}: {} imported, {} existing, {} rejected, {} events", line,
+                    completed.getImported(), completed.getExisting(), completed.getRejected(),
+                    completed.getEvents());
+        return completed;
+    }
+
+    private Outcome importPartition(List<ImportedOrder> orders) {
+        Outcome outcome = new Outcome();
+        List<EventMessage<?>> applied = new ArrayList<>();
+        SimpleEventBus eventBus = SimpleEventBus.builder().build();
+        eventBus.subscribe(applied::addAll);
+        List<List<EventMessage<?>>> batch = new ArrayList<>();
+        int batchEvents = 0;
+        for (ImportedOrder order : orders) {
+            String error = order.getError();
+            if (error == null) {
+                try {
+                    apply(order, eventBus);
+                } catch (Exception e) {
+                    error = e.getMessage() != null ? e.getMessage() : e.toString();
+                }
+            }
+            if (error != null) {
+                logger.warn("Rejected the order on line {}: {}", order.getLine(), error);
+                applied.clear();
+                outcome.rejected++;
+                rejectedOrders.increment();
+                continue;
+            }
+            batch.add(List.copyOf(applied));
+            batchEvents += applied.size();
+            applied.clear();
+            if (batchEvents >= batchSize) {
+                append(batch, outcome);
+                batch.clear();
+                batchEvents = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            append(batch, outcome);
+        }
+        return outcome;
+    }
+
+    /**
+     * Has the order aggregate handle the commands that build the given order, which publish their events on the given
+     * bus rather than appending them.
+     */
+    private void apply(ImportedOrder order, SimpleEventBus eventBus) throws Exception {
+        Id orderId = order.getOrderId();
+        EventSourcedAggregate<OrderAggregate> aggregate = EventSourcedAggregate.initialize(
+                (Callable<OrderAggregate>) () -> new OrderAggregate(
+                        new PlaceOrderCommand(orderId, order.getProductIds(), false, false)),
+                aggregateModel, eventBus, NoSnapshotTriggerDefinition.TRIGGER);
+        for (int i = 0; i < order.getProductIds().size(); i++) {
+            Id productId = order.getProductIds().get(i);
+            for (int count = 1; count < order.getCounts().get(i); count++) {
+                aggregate.handle(asCommandMessage(new IncrementProductCountCommand(orderId, productId)));
+            }
+        }
+        if (order.getOrderStatus() != OrderStatus.CREATED) {
+            aggregate.handle(asCommandMessage(new ConfirmOrderCommand(orderId)));
+        }
+        if (order.getOrderStatus() == OrderStatus.SHIPPED) {
+            aggregate.handle(asCommandMessage(new ShipOrderCommand(orderId)));
+        }
+    }
+
+    private void append(List<List<EventMessage<?>>> batch, Outcome outcome) {
+        List<EventMessage<?>> events = new ArrayList<>();
+        batch.forEach(events::addAll);
+        try {
+            publish(events);
+            batch.forEach(this::register);
+            imported(batch.size(), events.size(), outcome);
+        } catch (RuntimeException e) {
+            if (!isExistingOrder(e)) {
+                throw e;
+            }
+            for (List<EventMessage<?>> order : batch) {
+                String orderId = ((DomainEventMessage<?>) order.get(0)).getAggregateIdentifier();
+                try {
+                    if (eventStore.lastSequenceNumberFor(orderId).isPresent()) {
+                        existing(order, outcome);
+                        continue;
+                    }
+                    publish(order);
+                    register(order);
+                    imported(1, order.size(), outcome);
+                } catch (RuntimeException orderFailure) {
+                    if (!isExistingOrder(orderFailure)) {
+                        throw orderFailure;
+                    }
+                    existing(order, outcome);
+                }
+            }
+        }
+    }
+
+    private void existing(List<EventMessage<?>> order, Outcome outcome) {
+        register(order);
+        outcome.existing++;
+        existingOrders.increment();
+    }
+
+    private void register(List<EventMessage<?>> order) {
+        orderIdIndex.register(Id.of(((DomainEventMessage<?>) order.get(0)).getAggregateIdentifier()));
+    }
+
+    private void publish(List<EventMessage<?>> events) {
+        appends.record(() -> transactionManager.executeInTransaction(() -> eventStore.publish(events)));
+    }
+
+    private void imported(int orders, int events, Outcome outcome) {
+        outcome.imported += orders;
+        outcome.events += events;
+        importedOrders.increment(orders);
+        appendedEvents.increment(events);
+    }
+
+    private static boolean isExistingOrder(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof AggregateStreamCreationException || cause instanceof ConcurrencyException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * What a worker did with its part of a chunk.
+     */
+    private static final class Outcome {
+        private long imported;
+        private long existing;
+        private long rejected;
+        private long events;
+    }
+}
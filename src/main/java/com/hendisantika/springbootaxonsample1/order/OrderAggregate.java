@@ -1,25 +1,39 @@
 package com.hendisantika.springbootaxonsample1.order;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
 import com.hendisantika.springbootaxonsample1.coreapi.command.AddProductCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.BatchCommandFailure;
+import com.hendisantika.springbootaxonsample1.coreapi.command.BatchOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.CreateOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.DecrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.PlaceOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.ShipOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.events.OrderShippedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountDecrementedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountIncrementedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.events.ProductRemovedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.exceptions.DuplicateOrderLineException;
 import com.hendisantika.springbootaxonsample1.coreapi.exceptions.OrderAlreadyConfirmedException;
 import com.hendisantika.springbootaxonsample1.coreapi.exceptions.UnconfirmedOrderException;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
 import org.axonframework.commandhandling.CommandHandler;
 import org.axonframework.eventsourcing.EventSourcingHandler;
+import org.axonframework.modelling.command.AggregateEntityNotFoundException;
 import org.axonframework.modelling.command.AggregateIdentifier;
-import org.axonframework.modelling.command.AggregateMember;
+import org.axonframework.serialization.Revision;
 import org.axonframework.spring.stereotype.Aggregate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static org.axonframework.modelling.command.AggregateLifecycle.apply;
 
@@ -33,26 +47,57 @@ import static org.axonframework.modelling.command.AggregateLifecycle.apply;
  * Time: 06.29
  */
 @Aggregate(snapshotTriggerDefinition = "orderAggregateSnapshotTriggerDefinition")
+// Snapshots of an older revision are skipped and the order is sourced from its events: those from before identifiers
+// became Ids carry no revision, those of revision 2 still hold order lines with a confirmation flag of their own and
+// those of revision 3 do not know whether the order was shipped.
+@Revision("4")
 public class OrderAggregate {
     @AggregateIdentifier
-    private String orderId;
+    private Id orderId;
     private boolean orderConfirmed;
+    private boolean orderShipped;
 
-    @AggregateMember
-    private Map<String, OrderLine> orderLines;
+    // Not an aggregate member: Axon would pass every event to every line and look lines up by walking them all, which
+    // makes orders with thousands of lines slow to source and to command. Lines are found by product instead.
+    private Map<Id, OrderLine> orderLines;
 
     @CommandHandler
     public OrderAggregate(CreateOrderCommand command) {
         apply(new OrderCreatedEvent(command.getOrderId()));
     }
 
+    @CommandHandler
+    public OrderAggregate(PlaceOrderCommand command) {
+        // Events applied while constructing are only handled once the constructor returns, so the rules of the
+        // individual commands are checked against the known state of a new order up front.
+        Id orderId = command.getOrderId();
+        Set<Id> productIds = new HashSet<>();
+        for (Id productId : command.getProductIds()) {
+            if (!productIds.add(productId)) {
+                throw new DuplicateOrderLineException(productId);
+            }
+        }
+        if (command.isShip() && !command.isConfirm()) {
+            throw new UnconfirmedOrderException();
+        }
+
+        apply(new OrderCreatedEvent(orderId));
+        command.getProductIds().forEach(productId -> apply(new ProductAddedEvent(orderId, productId)));
+        if (command.isConfirm()) {
+            apply(new OrderConfirmedEvent(orderId));
+        }
+        if (command.isShip()) {
+            apply(new OrderShippedEvent(orderId));
+        }
+    }
+
     @CommandHandler
     public void handle(AddProductCommand command) {
         if (orderConfirmed) {
             throw new OrderAlreadyConfirmedException(orderId);
         }
 
-        String productId = command.getProductId();
+        Id productId = command.getProductId();
         if (orderLines.containsKey(productId)) {
             throw new DuplicateOrderLineException(productId);
         }
@@ -77,10 +122,71 @@ public class OrderAggregate {
         apply(new OrderShippedEvent(orderId));
     }
 
+    @CommandHandler
+    public void handle(IncrementProductCountCommand command) {
+        OrderLine orderLine = orderLine(command.getProductId());
+        if (orderConfirmed) {
+            throw new OrderAlreadyConfirmedException(orderId);
+        }
+
+        orderLine.handle(command);
+    }
+
+    @CommandHandler
+    public void handle(DecrementProductCountCommand command) {
+        OrderLine orderLine = orderLine(command.getProductId());
+        if (orderConfirmed) {
+            throw new OrderAlreadyConfirmedException(orderId);
+        }
+
+        orderLine.handle(command);
+    }
+
+    @CommandHandler
+    public List<BatchCommandFailure> handle(BatchOrderCommand batch) {
+        // Every handler checks its rules before applying anything, so a failed command leaves no trace on the order.
+        List<BatchCommandFailure> failures = new ArrayList<>(batch.getCommands().size());
+        for (Object command : batch.getCommands()) {
+            try {
+                handleBatched(command);
+                failures.add(null);
+            } catch (RuntimeException e) {
+                failures.add(BatchCommandFailure.of(e));
+            }
+        }
+        return failures;
+    }
+
+    private void handleBatched(Object command) {
+        if (command instanceof AddProductCommand addProduct) {
+            handle(addProduct);
+        } else if (command instanceof ConfirmOrderCommand confirmOrder) {
+            handle(confirmOrder);
+        } else if (command instanceof ShipOrderCommand shipOrder) {
+            handle(shipOrder);
+        } else if (command instanceof IncrementProductCountCommand incrementProductCount) {
+            handle(incrementProductCount);
+        } else if (command instanceof DecrementProductCountCommand decrementProductCount) {
+            handle(decrementProductCount);
+        } else {
+            throw new IllegalArgumentException("Command [" + command + "] cannot be part of a batch");
+        }
+    }
+
+    private OrderLine orderLine(Id productId) {
+        OrderLine orderLine = orderLines.get(productId);
+        if (orderLine == null) {
+            throw new AggregateEntityNotFoundException(
+                    "Order [" + orderId + "] has no order line for product [" + productId + "]");
+        }
+        return orderLine;
+    }
+
     @EventSourcingHandler
     public void on(OrderCreatedEvent event) {
         this.orderId = event.getOrderId();
         this.orderConfirmed = false;
+        this.orderShipped = false;
         this.orderLines = new HashMap<>();
     }
 
@@ -89,12 +195,27 @@ public class OrderAggregate {
         this.orderConfirmed = true;
     }
 
+    @EventSourcingHandler
+    public void on(OrderShippedEvent event) {
+        this.orderShipped = true;
+    }
+
     @EventSourcingHandler
     public void on(ProductAddedEvent event) {
-        String productId = event.getProductId();
+        Id productId = event.getProductId();
         this.orderLines.put(productId, new OrderLine(productId));
     }
 
+    @EventSourcingHandler
+    public void on(ProductCountIncrementedEvent event) {
+        this.orderLines.get(event.getProductId()).on(event);
+    }
+
+    @EventSourcingHandler
+    public void on(ProductCountDecrementedEvent event) {
+        this.orderLines.get(event.getProductId()).on(event);
+    }
+
     protected OrderAggregate() {
         // Required by Axon to build a default Aggregate prior to Event Sourcing
     }
@@ -103,4 +224,18 @@ public class OrderAggregate {
     public void on(ProductRemovedEvent event) {
         this.orderLines.remove(event.getProductId());
     }
+
+    /**
+     * Returns the order as the query model shows it, for past states sourced by {@link OrderHistory}.
+     */
+    Order toOrder() {
+        Order order = new Order(orderId);
+        orderLines.values().forEach(orderLine -> order.addProduct(orderLine.getProductId(), orderLine.getCount()));
+        if (orderShipped) {
+            order.setOrderShipped();
+        } else if (orderConfirmed) {
+            order.setOrderConfirmed();
+        }
+        return order;
+    }
 }
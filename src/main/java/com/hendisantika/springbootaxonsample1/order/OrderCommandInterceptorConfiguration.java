@@ -0,0 +1,31 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import org.axonframework.commandhandling.CommandBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 10.51
+ */
+@Configuration
+public class OrderCommandInterceptorConfiguration {
+
+    @Autowired
+    public void registerOrderIdIndex(CommandBus commandBus, OrderIdIndex orderIdIndex) {
+        commandBus.registerHandlerInterceptor(orderIdIndex);
+    }
+
+    /**
+     * Registered after the index, so commands for unknown orders do not crowd out the real ones.
+     */
+    @Autowired
+    public void registerOrderStreamTelemetry(CommandBus commandBus, OrderStreamTelemetry orderStreamTelemetry) {
+        commandBus.registerHandlerInterceptor(orderStreamTelemetry);
+    }
+}
@@ -0,0 +1,172 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrderAsOfQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import com.hendisantika.springbootaxonsample1.eventstore.MappedEventStorageEngine;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.DomainEventStream;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.modelling.command.inspection.AggregateModel;
+import org.axonframework.modelling.command.inspection.AnnotatedAggregateMetaModelFactory;
+import org.axonframework.queryhandling.QueryHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 17.30
+ * <p>
+ * Answers what an order looked like at a time or sequence number in the past. The {@link OrderAggregate} is sourced
+ * up to that point the way the repository sources it, by its own event sourcing handlers, but starting from the
+ * latest snapshot that lies before the point rather than the latest one overall. The {@link MappedEventStorageEngine}
+ * keeps every snapshot, so only the events since the nearest one are read and deserialized; other event stores only
+ * offer their latest snapshot, which serves points after it, and earlier ones are sourced from the first event.
+ * <p>
+ * Past points do not change once every event up to them is stored: a sequence number the order has reached, or a time
+ * longer ago than units of work take to commit their events. Answers for those are kept in a least recently used
+ * cache, the rest is sourced every time.
+ */
+@Component
+public class OrderHistory {
+
+    private final EventStore eventStore;
+    private final MappedEventStorageEngine snapshotHistory;
+    private final int cacheSize;
+    private final Duration settleTime;
+    private final Clock clock;
+    private final AggregateModel<OrderAggregate> aggregateModel =
+            AnnotatedAggregateMetaModelFactory.inspectAggregate(OrderAggregate.class);
+    private final Map<FindOrderAsOfQuery, Order> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Autowired
+    public OrderHistory(EventStore eventStore,
+                        ObjectProvider<MappedEventStorageEngine> snapshotHistory,
+                        @Value("${order.history.cache-size:10000}") int cacheSize,
+                        @Value("${order.history.settle-time:PT1M}") Duration settleTime) {
+        this(eventStore, snapshotHistory.getIfAvailable(), cacheSize, settleTime, Clock.systemUTC());
+    }
+
+    OrderHistory(EventStore eventStore, MappedEventStorageEngine snapshotHistory, int cacheSize, Duration settleTime,
+                 Clock clock) {
+        this.eventStore = eventStore;
+        this.snapshotHistory = snapshotHistory;
+        this.cacheSize = cacheSize;
+        this.settleTime = settleTime;
+        this.clock = clock;
+    }
+
+    @QueryHandler
+    public Optional<Order> handle(FindOrderAsOfQuery query) {
+        Order cached;
+        synchronized (cache) {
+            cached = cache.get(query);
+        }
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+
+        long maxSequenceNumber = query.getSequenceNumber() != null ? query.getSequenceNumber() : Long.MAX_VALUE;
+        Instant maxTimestamp = query.getTimestamp() != null ? query.getTimestamp() : Instant.MAX;
+        Instant settled = clock.instant().minus(settleTime);
+        Sourced sourced = source(query.getOrderId().toString(), maxSequenceNumber, maxTimestamp);
+        if (sourced.aggregate == null) {
+            return Optional.empty();
+        }
+        Order order = sourced.aggregate.toOrder();
+        boolean immutable = query.getSequenceNumber() != null
+                ? sourced.sequenceNumber == maxSequenceNumber
+                : !maxTimestamp.isAfter(settled);
+        if (immutable && cacheSize > 0) {
+            synchronized (cache) {
+                cache.put(query, order);
+                Iterator<Order> eldest = cache.values().iterator();
+                while (cache.size() > cacheSize) {
+                    eldest.next();
+                    eldest.remove();
+                }
+            }
+            return Optional.of(copy(order));
+        }
+        return Optional.of(order);
+    }
+
+    int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private Sourced source(String aggregateIdentifier, long maxSequenceNumber, Instant maxTimestamp) {
+        Sourced sourced = new Sourced();
+        DomainEventStream events;
+        if (snapshotHistory != null) {
+            snapshotHistory.readSnapshot(aggregateIdentifier, maxSequenceNumber, maxTimestamp)
+                    .ifPresent(sourced::start);
+            events = eventStore.readEvents(aggregateIdentifier, sourced.sequenceNumber + 1);
+        } else {
+            events = eventStore.readEvents(aggregateIdentifier);
+            if (events.hasNext() && OrderAggregate.class.equals(events.peek().getPayloadType())) {
+                DomainEventMessage<?> snapshot = events.next();
+                if (covers(snapshot, maxSequenceNumber, maxTimestamp)) {
+                    sourced.start(snapshot);
+                } else {
+                    events = eventStore.readEvents(aggregateIdentifier, 0);
+                }
+            }
+        }
+
+        while (events.hasNext() && covers(events.peek(), maxSequenceNumber, maxTimestamp)) {
+            DomainEventMessage<?> event = events.next();
+            if (sourced.aggregate == null) {
+                sourced.aggregate = new OrderAggregate();
+            }
+            aggregateModel.publish(event, sourced.aggregate);
+            sourced.sequenceNumber = event.getSequenceNumber();
+        }
+        return sourced;
+    }
+
+    private static boolean covers(DomainEventMessage<?> message, long maxSequenceNumber, Instant maxTimestamp) {
+        return message.getSequenceNumber() <= maxSequenceNumber && !message.getTimestamp().isAfter(maxTimestamp);
+    }
+
+    private static Order copy(Order order) {
+        Order copy = new Order(order.getOrderId());
+        order.getProducts().forEach(copy::addProduct);
+        if (order.getOrderStatus() == OrderStatus.SHIPPED) {
+            copy.setOrderShipped();
+        } else if (order.getOrderStatus() == OrderStatus.CONFIRMED) {
+            copy.setOrderConfirmed();
+        }
+        return copy;
+    }
+
+    /**
+     * The order sourced so far and the sequence number of the last event or snapshot applied to it.
+     */
+    private static final class Sourced {
+        private OrderAggregate aggregate;
+        private long sequenceNumber = -1;
+
+        private void start(DomainEventMessage<?> snapshot) {
+            this.aggregate = (OrderAggregate) snapshot.getPayload();
+            this.sequenceNumber = snapshot.getSequenceNumber();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 10.10
+ * <p>
+ * Thread-safe Bloom filter over order identifiers. Sized with the usual formulas, m = -n ln(p) / ln(2)^2 bits and
+ * k = m / n ln(2) hash functions, one million identifiers take 9.6 million bits (1.14 MiB, k = 7) at a 1% false
+ * positive rate and 14.4 million bits (1.71 MiB, k = 10) at 0.1%, against roughly 100 MiB for a set of the identifier
+ * strings themselves. Inserting more identifiers than expected keeps working, at a growing false positive rate.
+ */
+class OrderIdBloomFilter {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long GOLDEN_RATIO = 0x9e3779b97f4a7c15L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    OrderIdBloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+        this.bitCount = words.length() * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    void put(Id orderId) {
+        long h1 = hash(orderId, FNV_OFFSET_BASIS);
+        long h2 = hash(orderId, GOLDEN_RATIO);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(Id orderId) {
+        long h1 = hash(orderId, FNV_OFFSET_BASIS);
+        long h2 = hash(orderId, GOLDEN_RATIO);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashFunctions() {
+        return hashFunctions;
+    }
+
+    /**
+     * A UUID identifier is hashed from its two longs; any other one with FNV-1a over its characters. Both are
+     * finished with the MurmurHash3 64-bit mixer so that every input bit affects all output bits.
+     */
+    private static long hash(Id orderId, long seed) {
+        if (orderId.isUuid()) {
+            return mix(mix(seed ^ orderId.getMostSignificantBits()) ^ orderId.getLeastSignificantBits());
+        }
+        String value = orderId.toString();
+        long hash = seed;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,153 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.CreateOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.PlaceOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.exceptions.DuplicateOrderException;
+import com.hendisantika.springbootaxonsample1.coreapi.exceptions.UnknownOrderException;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.common.stream.BlockingStream;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.TrackedEventMessage;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.modelling.command.AnnotationCommandTargetResolver;
+import org.axonframework.modelling.command.CommandTargetResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 10.24
+ * <p>
+ * Command side index of existing order identifiers. Duplicate {@link CreateOrderCommand}s or
+ * {@link PlaceOrderCommand}s and commands for orders that were never created are rejected before the
+ * {@link OrderAggregate} is loaded. A Bloom filter answers "definitely unknown" in memory; a possible hit on a create
+ * is confirmed against the event store. Until the index is rebuilt from the event store at startup, all commands pass
+ * through unchecked. The rebuild runs as an application runner, so the service only reports ready once it is done.
+ * If it does not reach the head of the event store within the rebuild timeout, the index stays disabled.
+ * <p>
+ * When instances share the event store ({@code order.store.type=jpa}), orders are also created on other instances,
+ * which this index never hears about. There a miss is confirmed against the event store before the command is
+ * rejected, and an order found there is added to the filter.
+ */
+@Component
+public class OrderIdIndex implements MessageHandlerInterceptor<CommandMessage<?>>, ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdIndex.class);
+
+    private static final String AGGREGATE_TYPE = OrderAggregate.class.getSimpleName();
+
+    private final EventStore eventStore;
+    private final OrderIdBloomFilter filter;
+    private final CommandTargetResolver targetResolver = AnnotationCommandTargetResolver.builder().build();
+    private final Duration rebuildTimeout;
+    private final boolean shared;
+    private volatile boolean ready;
+
+    public OrderIdIndex(EventStore eventStore,
+                        @Value("${order.id-index.expected-orders:1000000}") long expectedOrders,
+                        @Value("${order.id-index.false-positive-probability:0.01}") double falsePositiveProbability,
+                        @Value("${order.id-index.rebuild-timeout:PT5M}") Duration rebuildTimeout,
+                        @Value("#{'${order.store.type:heap}' == 'jpa'}") boolean shared) {
+        this.eventStore = eventStore;
+        this.filter = new OrderIdBloomFilter(expectedOrders, falsePositiveProbability);
+        this.rebuildTimeout = rebuildTimeout;
+        this.shared = shared;
+    }
+
+    @Override
+    public void run(ApplicationArguments arguments) {
+        rebuild();
+    }
+
+    void rebuild() {
+        long orders = 0;
+        long deadline = System.nanoTime() + rebuildTimeout.toNanos();
+        try {
+            TrackingToken head = eventStore.createHeadToken();
+            if (head != null) {
+                try (BlockingStream<TrackedEventMessage<?>> events = eventStore.openStream(null)) {
+                    TrackedEventMessage<?> event = null;
+                    while (event == null || !event.trackingToken().covers(head)) {
+                        if (System.nanoTime() - deadline > 0) {
+                            logger.warn("Order identifier index did not reach the head of the event store within {}, "
+                                                + "it stays disabled", rebuildTimeout);
+                            return;
+                        }
+                        if (!events.hasNextAvailable(100, TimeUnit.MILLISECONDS)) {
+                            continue;
+                        }
+                        event = events.nextAvailable();
+                        if (event instanceof DomainEventMessage<?> domainEvent
+                                && domainEvent.getSequenceNumber() == 0
+                                && AGGREGATE_TYPE.equals(domainEvent.getType())) {
+                            filter.put(Id.of(domainEvent.getAggregateIdentifier()));
+                            orders++;
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Interrupted while rebuilding the order identifier index, it stays disabled");
+            return;
+        } catch (RuntimeException e) {
+            logger.warn("Could not rebuild the order identifier index, it stays disabled", e);
+            return;
+        }
+        ready = true;
+        logger.info("Order identifier index rebuilt with {} orders, {} bits and {} hash functions",
+                    orders, filter.bitCount(), filter.hashFunctions());
+    }
+
+    /**
+     * Registers an order whose events were appended without a command, such as an imported one.
+     */
+    public void register(Id orderId) {
+        filter.put(orderId);
+    }
+
+    @Override
+    public Object handle(UnitOfWork<? extends CommandMessage<?>> unitOfWork,
+                         InterceptorChain interceptorChain) throws Exception {
+        Object command = unitOfWork.getMessage().getPayload();
+        if (command instanceof CreateOrderCommand || command instanceof PlaceOrderCommand) {
+            Id orderId = orderIdOf(unitOfWork.getMessage());
+            if (ready && filter.mightContain(orderId)
+                    && eventStore.lastSequenceNumberFor(orderId.toString()).isPresent()) {
+                throw new DuplicateOrderException(orderId);
+            }
+            // Registered before handling, a failed create merely leaves a harmless false positive behind.
+            filter.put(orderId);
+        } else if (ready) {
+            Id orderId = orderIdOf(unitOfWork.getMessage());
+            if (!filter.mightContain(orderId)) {
+                if (!shared || eventStore.lastSequenceNumberFor(orderId.toString()).isEmpty()) {
+                    throw new UnknownOrderException(orderId);
+                }
+                filter.put(orderId);
+            }
+        }
+        return interceptorChain.proceed();
+    }
+
+    private Id orderIdOf(CommandMessage<?> command) {
+        return (Id) targetResolver.resolveTarget(command).getIdentifierValue();
+    }
+}
@@ -1,15 +1,11 @@
 package com.hendisantika.springbootaxonsample1.order;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
 import com.hendisantika.springbootaxonsample1.coreapi.command.DecrementProductCountCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
-import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountDecrementedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountIncrementedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.events.ProductRemovedEvent;
-import com.hendisantika.springbootaxonsample1.coreapi.exceptions.OrderAlreadyConfirmedException;
-import org.axonframework.commandhandling.CommandHandler;
-import org.axonframework.eventsourcing.EventSourcingHandler;
-import org.axonframework.modelling.command.EntityId;
 
 import java.util.Objects;
 
@@ -23,33 +19,33 @@ import static org.axonframework.modelling.command.AggregateLifecycle.apply;
  * Telegram : @hendisantika34
  * Date: 16/11/21
  * Time: 06.04
+ * <p>
+ * A line of an {@link OrderAggregate}, which looks it up by product and hands it the commands and events concerning
+ * it. Order-wide rules, such as no changes after confirmation, are checked by the order, so large orders need not
+ * pass order-level events on to every line.
  */
 public class OrderLine {
-    @EntityId
-    private final String productId;
+    private final Id productId;
     private Integer count;
-    private boolean orderConfirmed;
 
-    public OrderLine(String productId) {
+    public OrderLine(Id productId) {
         this.productId = productId;
         this.count = 1;
     }
 
-    @CommandHandler
-    public void handle(IncrementProductCountCommand command) {
-        if (orderConfirmed) {
-            throw new OrderAlreadyConfirmedException(command.getOrderId());
-        }
+    Id getProductId() {
+        return productId;
+    }
 
-        apply(new ProductCountIncrementedEvent(command.getOrderId(), productId));
+    int getCount() {
+        return count;
     }
 
-    @CommandHandler
-    public void handle(DecrementProductCountCommand command) {
-        if (orderConfirmed) {
-            throw new OrderAlreadyConfirmedException(command.getOrderId());
-        }
+    void handle(IncrementProductCountCommand command) {
+        apply(new ProductCountIncrementedEvent(command.getOrderId(), productId));
+    }
 
+    void handle(DecrementProductCountCommand command) {
         if (count <= 1) {
             apply(new ProductRemovedEvent(command.getOrderId(), productId));
         } else {
@@ -57,21 +53,14 @@ public class OrderLine {
         }
     }
 
-    @EventSourcingHandler
-    public void on(ProductCountIncrementedEvent event) {
+    void on(ProductCountIncrementedEvent event) {
         this.count++;
     }
 
-    @EventSourcingHandler
-    public void on(ProductCountDecrementedEvent event) {
+    void on(ProductCountDecrementedEvent event) {
         this.count--;
     }
 
-    @EventSourcingHandler
-    public void on(OrderConfirmedEvent event) {
-        this.orderConfirmed = true;
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) {
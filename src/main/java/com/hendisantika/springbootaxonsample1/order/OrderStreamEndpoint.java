@@ -0,0 +1,32 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 09.55
+ * <p>
+ * Actuator endpoint {@code /actuator/orderstreams} listing the heaviest and hottest orders of the last window.
+ */
+@Component
+@Endpoint(id = "orderstreams")
+public class OrderStreamEndpoint {
+
+    private final OrderStreamTelemetry telemetry;
+
+    public OrderStreamEndpoint(OrderStreamTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+
+    @ReadOperation
+    public OrderStreamReport orderStreams() {
+        return telemetry.report();
+    }
+}
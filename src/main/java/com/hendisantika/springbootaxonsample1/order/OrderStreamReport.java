@@ -0,0 +1,77 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 09.32
+ * <p>
+ * The orders that took longest to load in total, and the orders that received the most commands, within a window.
+ */
+public class OrderStreamReport {
+    private final Instant from;
+    private final Instant to;
+    private final List<OrderStreamSummary> heaviest;
+    private final List<OrderStreamSummary> hottest;
+
+    public OrderStreamReport(Instant from, Instant to, List<OrderStreamSummary> heaviest,
+                             List<OrderStreamSummary> hottest) {
+        this.from = from;
+        this.to = to;
+        this.heaviest = heaviest;
+        this.hottest = hottest;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public List<OrderStreamSummary> getHeaviest() {
+        return heaviest;
+    }
+
+    public List<OrderStreamSummary> getHottest() {
+        return hottest;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        OrderStreamReport that = (OrderStreamReport) o;
+        return Objects.equals(from, that.from)
+                && Objects.equals(to, that.to)
+                && Objects.equals(heaviest, that.heaviest)
+                && Objects.equals(hottest, that.hottest);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, heaviest, hottest);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderStreamReport{" +
+                "from=" + from +
+                ", to=" + to +
+                ", heaviest=" + heaviest +
+                ", hottest=" + hottest +
+                '}';
+    }
+}
@@ -0,0 +1,126 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 09.30
+ * <p>
+ * What one order cost to load and how many commands it received within a window. Load times and command counts may
+ * be overestimated by at most their error; an order that was never loaded, or received no commands, reports zeros.
+ */
+public class OrderStreamSummary {
+    private final String orderId;
+    private final long loads;
+    private final double loadMillis;
+    private final double loadMillisError;
+    private final double maxLoadMillis;
+    private final long streamLength;
+    private final long eventsSinceSnapshot;
+    private final long commands;
+    private final long commandsError;
+    private final double commandsPerSecond;
+
+    public OrderStreamSummary(String orderId, long loads, double loadMillis, double loadMillisError,
+                              double maxLoadMillis, long streamLength, long eventsSinceSnapshot, long commands,
+                              long commandsError, double commandsPerSecond) {
+        this.orderId = orderId;
+        this.loads = loads;
+        this.loadMillis = loadMillis;
+        this.loadMillisError = loadMillisError;
+        this.maxLoadMillis = maxLoadMillis;
+        this.streamLength = streamLength;
+        this.eventsSinceSnapshot = eventsSinceSnapshot;
+        this.commands = commands;
+        this.commandsError = commandsError;
+        this.commandsPerSecond = commandsPerSecond;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public long getLoads() {
+        return loads;
+    }
+
+    public double getLoadMillis() {
+        return loadMillis;
+    }
+
+    public double getLoadMillisError() {
+        return loadMillisError;
+    }
+
+    public double getMaxLoadMillis() {
+        return maxLoadMillis;
+    }
+
+    public long getStreamLength() {
+        return streamLength;
+    }
+
+    public long getEventsSinceSnapshot() {
+        return eventsSinceSnapshot;
+    }
+
+    public long getCommands() {
+        return commands;
+    }
+
+    public long getCommandsError() {
+        return commandsError;
+    }
+
+    public double getCommandsPerSecond() {
+        return commandsPerSecond;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        OrderStreamSummary that = (OrderStreamSummary) o;
+        return loads == that.loads
+                && Double.compare(loadMillis, that.loadMillis) == 0
+                && Double.compare(loadMillisError, that.loadMillisError) == 0
+                && Double.compare(maxLoadMillis, that.maxLoadMillis) == 0
+                && streamLength == that.streamLength
+                && eventsSinceSnapshot == that.eventsSinceSnapshot
+                && commands == that.commands
+                && commandsError == that.commandsError
+                && Double.compare(commandsPerSecond, that.commandsPerSecond) == 0
+                && Objects.equals(orderId, that.orderId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, loads, loadMillis, loadMillisError, maxLoadMillis, streamLength,
+                            eventsSinceSnapshot, commands, commandsError, commandsPerSecond);
+    }
+
+    @Override
+    public String toString() {
+        return "OrderStreamSummary{" +
+                "orderId='" + orderId + '\'' +
+                ", loads=" + loads +
+                ", loadMillis=" + loadMillis +
+                ", loadMillisError=" + loadMillisError +
+                ", maxLoadMillis=" + maxLoadMillis +
+                ", streamLength=" + streamLength +
+                ", eventsSinceSnapshot=" + eventsSinceSnapshot +
+                ", commands=" + commands +
+                ", commandsError=" + commandsError +
+                ", commandsPerSecond=" + commandsPerSecond +
+                '}';
+    }
+}
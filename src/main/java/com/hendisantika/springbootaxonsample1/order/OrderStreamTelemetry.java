@@ -0,0 +1,249 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventsourcing.SnapshotTrigger;
+import org.axonframework.eventsourcing.SnapshotTriggerDefinition;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.modelling.command.AnnotationCommandTargetResolver;
+import org.axonframework.modelling.command.CommandTargetResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 09.40
+ * <p>
+ * Tells which orders are expensive to load and which receive the most commands. Every time the {@link OrderAggregate}
+ * is sourced, the snapshot trigger wrapped by {@link #instrument} sees its events go by: it notes the length of the
+ * stream, the events read on top of the snapshot and the time from preparing the load to its end. Every command for
+ * an order passes the interceptor. Both go into {@link SpaceSavingSketch}es per window, one weighted by load time and
+ * one counting commands, so memory stays bounded by the capacity however many orders there are, and recording costs
+ * a short lock and a logarithmic update. Reports cover the last complete window, or the current one until there is.
+ */
+@Component
+public class OrderStreamTelemetry implements MessageHandlerInterceptor<CommandMessage<?>> {
+
+    private final int capacity;
+    private final long windowNanos;
+    private final int reportSize;
+    private final AtomicReference<Window> current;
+    private volatile Window previous;
+    private final CommandTargetResolver targetResolver = AnnotationCommandTargetResolver.builder().build();
+    private final Timer loadTimer;
+    private final DistributionSummary loadEvents;
+
+    @Autowired
+    public OrderStreamTelemetry(MeterRegistry meterRegistry,
+                                @Value("${order.stream-telemetry.capacity:100}") int capacity,
+                                @Value("${order.stream-telemetry.window:PT1M}") Duration window,
+                                @Value("${order.stream-telemetry.report-size:20}") int reportSize) {
+        this.capacity = capacity;
+        this.windowNanos = window.toNanos();
+        this.reportSize = reportSize;
+        this.current = new AtomicReference<>(new Window(capacity, System.nanoTime()));
+        this.loadTimer = Timer.builder("orders.aggregate.load")
+                .description("Time to source an order from its snapshot and events")
+                .register(meterRegistry);
+        this.loadEvents = DistributionSummary.builder("orders.aggregate.load.events")
+                .description("Events read on top of the snapshot when sourcing an order")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wraps the given definition, so the triggers it prepares for loading orders record what the loads cost.
+     */
+    public SnapshotTriggerDefinition instrument(SnapshotTriggerDefinition delegate) {
+        return new SnapshotTriggerDefinition() {
+            @Override
+            public SnapshotTrigger prepareTrigger(Class<?> aggregateType) {
+                return new LoadTrigger(OrderStreamTelemetry.this, delegate.prepareTrigger(aggregateType),
+                                       aggregateType);
+            }
+
+            @Override
+            public SnapshotTrigger reconfigure(Class<?> aggregateType, SnapshotTrigger trigger) {
+                if (trigger instanceof LoadTrigger loadTrigger) {
+                    loadTrigger.telemetry = OrderStreamTelemetry.this;
+                    loadTrigger.delegate = delegate.reconfigure(aggregateType, loadTrigger.delegate);
+                    return loadTrigger;
+                }
+                return delegate.reconfigure(aggregateType, trigger);
+            }
+        };
+    }
+
+    @Override
+    public Object handle(UnitOfWork<? extends CommandMessage<?>> unitOfWork,
+                         InterceptorChain interceptorChain) throws Exception {
+        String orderId = String.valueOf(targetResolver.resolveTarget(unitOfWork.getMessage()).getIdentifierValue());
+        window().commands.add(orderId, 1, null, (previousDetail, detail) -> null);
+        return interceptorChain.proceed();
+    }
+
+    public OrderStreamReport report() {
+        Window latest = window();
+        Window reported = previous != null ? previous : latest;
+        Instant to = reported.end != null ? reported.end : Instant.now();
+        double seconds = Math.max(Duration.between(reported.start, to).toNanos() / 1e9, 1e-3);
+        List<OrderStreamSummary> heaviest = new ArrayList<>();
+        for (SpaceSavingSketch.Entry<String, LoadDetail> load : reported.loads.top(reportSize)) {
+            heaviest.add(summary(load.getKey(), load, reported.commands.get(load.getKey()), seconds));
+        }
+        List<OrderStreamSummary> hottest = new ArrayList<>();
+        for (SpaceSavingSketch.Entry<String, Void> commands : reported.commands.top(reportSize)) {
+            hottest.add(summary(commands.getKey(), reported.loads.get(commands.getKey()), commands, seconds));
+        }
+        return new OrderStreamReport(reported.start, to, heaviest, hottest);
+    }
+
+    void loaded(String orderId, long nanos, long streamLength, long eventsSinceSnapshot) {
+        loadTimer.record(nanos, TimeUnit.NANOSECONDS);
+        loadEvents.record(eventsSinceSnapshot);
+        window().loads.add(orderId, nanos, new LoadDetail(1, nanos, streamLength, eventsSinceSnapshot),
+                           LoadDetail::merge);
+    }
+
+    /**
+     * Returns the current window, first rolling it over when it is over. A window older than two lengths says nothing
+     * about recent load, so it is dropped rather than reported.
+     */
+    private Window window() {
+        Window window = current.get();
+        long now = System.nanoTime();
+        if (now - window.startNanos < windowNanos) {
+            return window;
+        }
+        synchronized (current) {
+            window = current.get();
+            if (now - window.startNanos < windowNanos) {
+                return window;
+            }
+            Window next = new Window(capacity, now);
+            window.end = next.start;
+            previous = now - window.startNanos < 2 * windowNanos ? window : null;
+            current.set(next);
+            return next;
+        }
+    }
+
+    private static OrderStreamSummary summary(String orderId, SpaceSavingSketch.Entry<String, LoadDetail> load,
+                                              SpaceSavingSketch.Entry<String, Void> commands, double seconds) {
+        LoadDetail detail = load == null ? null : load.getDetail();
+        return new OrderStreamSummary(orderId,
+                                      detail == null ? 0 : detail.loads,
+                                      load == null ? 0 : load.getCount() / 1e6,
+                                      load == null ? 0 : load.getError() / 1e6,
+                                      detail == null ? 0 : detail.maxNanos / 1e6,
+                                      detail == null ? 0 : detail.streamLength,
+                                      detail == null ? 0 : detail.eventsSinceSnapshot,
+                                      commands == null ? 0 : commands.getCount(),
+                                      commands == null ? 0 : commands.getError(),
+                                      commands == null ? 0 : commands.getCount() / seconds);
+    }
+
+    private static final class Window {
+        private final long startNanos;
+        private final Instant start = Instant.now();
+        private volatile Instant end;
+        private final SpaceSavingSketch<String, LoadDetail> loads;
+        private final SpaceSavingSketch<String, Void> commands;
+
+        private Window(int capacity, long startNanos) {
+            this.startNanos = startNanos;
+            this.loads = new SpaceSavingSketch<>(capacity);
+            this.commands = new SpaceSavingSketch<>(capacity);
+        }
+    }
+
+    /**
+     * Loads of one order within a window. Loads after an order took over another's counter describe that order only.
+     */
+    private static final class LoadDetail {
+        private final long loads;
+        private final long maxNanos;
+        private final long streamLength;
+        private final long eventsSinceSnapshot;
+
+        private LoadDetail(long loads, long maxNanos, long streamLength, long eventsSinceSnapshot) {
+            this.loads = loads;
+            this.maxNanos = maxNanos;
+            this.streamLength = streamLength;
+            this.eventsSinceSnapshot = eventsSinceSnapshot;
+        }
+
+        private LoadDetail merge(LoadDetail latest) {
+            return new LoadDetail(loads + latest.loads, Math.max(maxNanos, latest.maxNanos), latest.streamLength,
+                                  latest.eventsSinceSnapshot);
+        }
+    }
+
+    /**
+     * Passes every event on to the wrapped trigger. The events seen until initialization finishes are the ones the
+     * order is sourced from, starting with its snapshot, whose payload is the aggregate itself, if there is one.
+     * <p>
+     * Triggers are serialized along with cached or remotely handled aggregates, so the telemetry is not part of it.
+     * Like Axon's own triggers, a deserialized one gets it back when the definition reconfigures it.
+     */
+    private static final class LoadTrigger implements SnapshotTrigger, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final long start = System.nanoTime();
+        private final Class<?> aggregateType;
+        private transient OrderStreamTelemetry telemetry;
+        private SnapshotTrigger delegate;
+        private boolean initializing = true;
+        private String orderId;
+        private long lastSequenceNumber = -1;
+        private long eventsSinceSnapshot;
+
+        private LoadTrigger(OrderStreamTelemetry telemetry, SnapshotTrigger delegate, Class<?> aggregateType) {
+            this.telemetry = telemetry;
+            this.delegate = delegate;
+            this.aggregateType = aggregateType;
+        }
+
+        @Override
+        public void eventHandled(EventMessage<?> event) {
+            delegate.eventHandled(event);
+            if (initializing && event instanceof DomainEventMessage<?> domainEvent) {
+                orderId = domainEvent.getAggregateIdentifier();
+                lastSequenceNumber = domainEvent.getSequenceNumber();
+                if (!aggregateType.isAssignableFrom(domainEvent.getPayloadType())) {
+                    eventsSinceSnapshot++;
+                }
+            }
+        }
+
+        @Override
+        public void initializationFinished() {
+            delegate.initializationFinished();
+            if (initializing) {
+                initializing = false;
+                if (orderId != null && telemetry != null) {
+                    telemetry.loaded(orderId, System.nanoTime() - start, lastSequenceNumber + 1, eventsSinceSnapshot);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 09.20
+ * <p>
+ * Space-saving sketch of the keys carrying the most weight in a stream, in memory bounded by its capacity. Once full,
+ * an unknown key takes over the counter of the lightest key, inheriting its weight as the error of its own count.
+ * Counts therefore never underestimate and overestimate by at most their error, and every key carrying more than
+ * the total weight divided by the capacity is kept. Counters sit in a min-heap, so an update takes logarithmic time
+ * in the capacity. Every counter carries a detail of its key, merged on updates and dropped on takeovers.
+ */
+class SpaceSavingSketch<K, V> {
+
+    private final Map<K, Counter<K, V>> counters;
+    private final Counter<K, V>[] heap;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1, but was [" + capacity + "]");
+        }
+        this.counters = new HashMap<>(capacity * 2);
+        this.heap = new Counter[capacity];
+    }
+
+    synchronized void add(K key, long weight, V detail, BinaryOperator<V> merge) {
+        Counter<K, V> counter = counters.get(key);
+        if (counter != null) {
+            counter.count += weight;
+            counter.detail = merge.apply(counter.detail, detail);
+        } else if (size < heap.length) {
+            counter = new Counter<>(key, weight, detail);
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.index);
+            return;
+        } else {
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.count;
+            counter.count += weight;
+            counter.detail = detail;
+            counters.put(key, counter);
+        }
+        siftDown(counter.index);
+    }
+
+    /**
+     * Returns at most the given number of the heaviest keys, heaviest first, as copies of their counters.
+     */
+    synchronized List<Entry<K, V>> top(int limit) {
+        Counter<K, V>[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, Comparator.comparingLong((Counter<K, V> counter) -> counter.count).reversed());
+        List<Entry<K, V>> entries = new ArrayList<>(Math.min(limit, size));
+        for (int i = 0; i < Math.min(limit, size); i++) {
+            entries.add(new Entry<>(sorted[i].key, sorted[i].count, sorted[i].error, sorted[i].detail));
+        }
+        return entries;
+    }
+
+    /**
+     * Returns the counter of the given key as a copy, or {@code null} when the key is not kept.
+     */
+    synchronized Entry<K, V> get(K key) {
+        Counter<K, V> counter = counters.get(key);
+        return counter == null ? null : new Entry<>(counter.key, counter.count, counter.error, counter.detail);
+    }
+
+    private void siftUp(int index) {
+        Counter<K, V> counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<K, V> counter = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter<K, V> counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    private static final class Counter<K, V> {
+        private K key;
+        private long count;
+        private long error;
+        private V detail;
+        private int index;
+
+        private Counter(K key, long count, V detail) {
+            this.key = key;
+            this.count = count;
+            this.detail = detail;
+        }
+    }
+
+    static final class Entry<K, V> {
+        private final K key;
+        private final long count;
+        private final long error;
+        private final V detail;
+
+        private Entry(K key, long count, long error, V detail) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+            this.detail = detail;
+        }
+
+        K getKey() {
+            return key;
+        }
+
+        long getCount() {
+            return count;
+        }
+
+        long getError() {
+            return error;
+        }
+
+        V getDetail() {
+            return detail;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 22.40
+ */
+public class DeadLetterSummary {
+    private final String orderId;
+    private final long sequenceNumber;
+    private final String eventType;
+    private final String cause;
+    private final Instant enqueuedAt;
+    private final Instant lastTouched;
+
+    public DeadLetterSummary(String orderId, long sequenceNumber, String eventType, String cause, Instant enqueuedAt,
+                             Instant lastTouched) {
+        this.orderId = orderId;
+        this.sequenceNumber = sequenceNumber;
+        this.eventType = eventType;
+        this.cause = cause;
+        this.enqueuedAt = enqueuedAt;
+        this.lastTouched = lastTouched;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public long getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getCause() {
+        return cause;
+    }
+
+    public Instant getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    public Instant getLastTouched() {
+        return lastTouched;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        DeadLetterSummary that = (DeadLetterSummary) o;
+        return sequenceNumber == that.sequenceNumber
+                && Objects.equals(orderId, that.orderId)
+                && Objects.equals(eventType, that.eventType)
+                && Objects.equals(cause, that.cause)
+                && Objects.equals(enqueuedAt, that.enqueuedAt)
+                && Objects.equals(lastTouched, that.lastTouched);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(orderId, sequenceNumber, eventType, cause, enqueuedAt, lastTouched);
+    }
+
+    @Override
+    public String toString() {
+        return "DeadLetterSummary{" +
+                "orderId='" + orderId + '\'' +
+                ", sequenceNumber=" + sequenceNumber +
+                ", eventType='" + eventType + '\'' +
+                ", cause='" + cause + '\'' +
+                ", enqueuedAt=" + enqueuedAt +
+                ", lastTouched=" + lastTouched +
+                '}';
+    }
+}
@@ -0,0 +1,84 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 17.12
+ * <p>
+ * Products recur across orders, so every product identifier is kept once and shared by all orders holding it.
+ */
+public class InMemoryOrderStore implements OrderStore {
+
+    private final Map<Id, Order> orders = new HashMap<>();
+    private final Map<Id, Id> products = new HashMap<>();
+
+    @Override
+    public void create(Id orderId) {
+        orders.put(orderId, new Order(orderId));
+    }
+
+    @Override
+    public void addProduct(Id orderId, Id productId) {
+        orders.computeIfPresent(orderId, (id, order) -> {
+            order.addProduct(products.computeIfAbsent(productId, product -> product));
+            return order;
+        });
+    }
+
+    @Override
+    public void incrementProduct(Id orderId, Id productId) {
+        orders.computeIfPresent(orderId, (id, order) -> {
+            order.incrementProductInstance(productId);
+            return order;
+        });
+    }
+
+    @Override
+    public void decrementProduct(Id orderId, Id productId) {
+        orders.computeIfPresent(orderId, (id, order) -> {
+            order.decrementProductInstance(productId);
+            return order;
+        });
+    }
+
+    @Override
+    public void removeProduct(Id orderId, Id productId) {
+        orders.computeIfPresent(orderId, (id, order) -> {
+            order.removeProduct(productId);
+            return order;
+        });
+    }
+
+    @Override
+    public void confirm(Id orderId) {
+        orders.computeIfPresent(orderId, (id, order) -> {
+            order.setOrderConfirmed();
+            return order;
+        });
+    }
+
+    @Override
+    public void ship(Id orderId) {
+        orders.computeIfPresent(orderId, (id, order) -> {
+            order.setOrderShipped();
+            return order;
+        });
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return new ArrayList<>(orders.values());
+    }
+}
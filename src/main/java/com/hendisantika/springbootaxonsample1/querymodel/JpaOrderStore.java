@@ -0,0 +1,116 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import jakarta.persistence.EntityManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.25
+ * <p>
+ * Keeps the orders in the application's database, so several instances sharing that database build one read model
+ * together, each from the events of the segments it has claimed. Changes join the transaction of the processor, which
+ * also stores its token, so an event is applied exactly once whichever instance handles it.
+ */
+@Transactional
+public class JpaOrderStore implements OrderStore {
+
+    private final EntityManager entityManager;
+
+    public JpaOrderStore(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void create(Id orderId) {
+        OrderView order = entityManager.find(OrderView.class, orderId.toString());
+        if (order == null) {
+            entityManager.persist(new OrderView(orderId.toString()));
+        } else {
+            order.setOrderStatus(OrderStatus.CREATED);
+            order.getProducts().clear();
+        }
+    }
+
+    @Override
+    public void addProduct(Id orderId, Id productId) {
+        OrderView order = entityManager.find(OrderView.class, orderId.toString());
+        if (order != null) {
+            order.getProducts().putIfAbsent(productId.toString(), 1);
+        }
+    }
+
+    @Override
+    public void incrementProduct(Id orderId, Id productId) {
+        OrderView order = entityManager.find(OrderView.class, orderId.toString());
+        if (order != null) {
+            order.getProducts().computeIfPresent(productId.toString(), (id, count) -> count + 1);
+        }
+    }
+
+    @Override
+    public void decrementProduct(Id orderId, Id productId) {
+        OrderView order = entityManager.find(OrderView.class, orderId.toString());
+        if (order != null) {
+            order.getProducts().computeIfPresent(productId.toString(), (id, count) -> count - 1);
+        }
+    }
+
+    @Override
+    public void removeProduct(Id orderId, Id productId) {
+        OrderView order = entityManager.find(OrderView.class, orderId.toString());
+        if (order != null) {
+            order.getProducts().remove(productId.toString());
+        }
+    }
+
+    @Override
+    public void confirm(Id orderId) {
+        setStatus(orderId, OrderStatus.CONFIRMED);
+    }
+
+    @Override
+    public void ship(Id orderId) {
+        setStatus(orderId, OrderStatus.SHIPPED);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Order> findAll() {
+        List<OrderView> views = entityManager
+                .createQuery("SELECT DISTINCT o FROM OrderView o LEFT JOIN FETCH o.products", OrderView.class)
+                .getResultList();
+        List<Order> orders = new ArrayList<>(views.size());
+        for (OrderView view : views) {
+            Order order = new Order(Id.of(view.getOrderId()));
+            if (view.getOrderStatus() == OrderStatus.CONFIRMED) {
+                order.setOrderConfirmed();
+            } else if (view.getOrderStatus() == OrderStatus.SHIPPED) {
+                order.setOrderShipped();
+            }
+            for (Map.Entry<String, Integer> product : view.getProducts().entrySet()) {
+                order.getProducts().put(Id.of(product.getKey()), product.getValue());
+            }
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    private void setStatus(Id orderId, OrderStatus status) {
+        OrderView order = entityManager.find(OrderView.class, orderId.toString());
+        if (order != null) {
+            order.setOrderStatus(status);
+        }
+    }
+}
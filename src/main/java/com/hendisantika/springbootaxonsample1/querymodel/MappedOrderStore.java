@@ -0,0 +1,383 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 17.30
+ * <p>
+ * Keeps orders outside the Java heap, in three memory-mapped files, so the garbage collector never has to trace them:
+ * <ul>
+ *     <li>{@code records}: one 32 byte record per order, in creation order, holding the address of its identifier,
+ *     the address of its product section and its status.</li>
+ *     <li>{@code data}: identifiers, 17 bytes for a UUID, and product sections. A section holds its capacity, the
+ *     bytes in use and the entries of one order, each a product identifier with its count; a section that runs full
+ *     is copied into one twice its size.</li>
+ *     <li>{@code index}: an open addressing hash table from identifier hash to record address, doubled when half
+ *     full.</li>
+ * </ul>
+ * The files are recreated on startup, as the projection is rebuilt from the events anyway. Space of outgrown product
+ * sections and index tables is not reused.
+ */
+public class MappedOrderStore implements OrderStore, Closeable {
+
+    private static final int RECORD_SIZE = 32;
+    private static final int RECORD_ID = 0;
+    private static final int RECORD_PRODUCTS = 8;
+    private static final int RECORD_STATUS = 16;
+
+    private static final int SLOT_SIZE = 16;
+    private static final int SLOT_RECORD = 8;
+
+    private static final int SECTION_CAPACITY = 0;
+    private static final int SECTION_USED = 4;
+    private static final int SECTION_HEADER = 8;
+    private static final int MIN_SECTION_SIZE = 64;
+
+    /**
+     * Marks an identifier stored as a UUID; no UTF-8 encoded string starts with this byte.
+     */
+    private static final byte UUID_TAG = (byte) 0xff;
+    private static final int UUID_SIZE = 17;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final MappedRegion records;
+    private final MappedRegion data;
+    private final MappedRegion index;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final long firstRecord;
+    private long table;
+    private long capacity;
+    private long size;
+
+    public MappedOrderStore(Path directory, int chunkSize, long initialCapacity) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create order store directory [" + directory + "]", e);
+        }
+        this.records = new MappedRegion(directory.resolve("records"), chunkSize);
+        this.data = new MappedRegion(directory.resolve("data"), chunkSize);
+        this.index = new MappedRegion(directory.resolve("index"), chunkSize);
+        this.firstRecord = records.size();
+        this.capacity = Long.highestOneBit(Math.max(8, initialCapacity * 2 - 1)) << 1;
+        this.table = index.allocate(capacity * SLOT_SIZE);
+    }
+
+    @Override
+    public void create(Id orderId) {
+        byte[] id = encode(orderId);
+        lock.writeLock().lock();
+        try {
+            long hash = hash(id);
+            long slot = slotOf(id, hash);
+            long record = index.getLong(slot + SLOT_RECORD);
+            if (record == 0) {
+                if ((size + 1) * 2 > capacity) {
+                    grow();
+                    slot = slotOf(id, hash);
+                }
+                record = records.allocate(RECORD_SIZE);
+                long idAddress = data.allocate(2 + id.length);
+                data.putShort(idAddress, (short) id.length);
+                data.put(idAddress + 2, id, id.length);
+                records.putLong(record + RECORD_ID, idAddress);
+                index.putLong(slot, hash);
+                index.putLong(slot + SLOT_RECORD, record);
+                size++;
+            }
+            records.putLong(record + RECORD_PRODUCTS, 0);
+            records.putByte(record + RECORD_STATUS, (byte) OrderStatus.CREATED.ordinal());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addProduct(Id orderId, Id productId) {
+        byte[] product = encode(productId);
+        lock.writeLock().lock();
+        try {
+            long record = recordOf(encode(orderId));
+            if (record == 0 || entryOf(record, product) != 0) {
+                return;
+            }
+            int entrySize = 2 + product.length + 4;
+            long section = records.getLong(record + RECORD_PRODUCTS);
+            int used = section == 0 ? 0 : data.getInt(section + SECTION_USED);
+            if (section == 0 || SECTION_HEADER + used + entrySize > data.getInt(section + SECTION_CAPACITY)) {
+                section = growSection(record, section, used, entrySize);
+            }
+            long entry = section + SECTION_HEADER + used;
+            data.putShort(entry, (short) product.length);
+            data.put(entry + 2, product, product.length);
+            data.putInt(entry + 2 + product.length, 1);
+            data.putInt(section + SECTION_USED, used + entrySize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void incrementProduct(Id orderId, Id productId) {
+        changeCount(orderId, productId, 1);
+    }
+
+    @Override
+    public void decrementProduct(Id orderId, Id productId) {
+        changeCount(orderId, productId, -1);
+    }
+
+    @Override
+    public void removeProduct(Id orderId, Id productId) {
+        byte[] product = encode(productId);
+        lock.writeLock().lock();
+        try {
+            long record = recordOf(encode(orderId));
+            long entry = record == 0 ? 0 : entryOf(record, product);
+            if (entry == 0) {
+                return;
+            }
+            long section = records.getLong(record + RECORD_PRODUCTS);
+            int used = data.getInt(section + SECTION_USED);
+            int entrySize = 2 + product.length + 4;
+            long end = section + SECTION_HEADER + used;
+            data.move(entry + entrySize, entry, (int) (end - entry - entrySize));
+            data.putInt(section + SECTION_USED, used - entrySize);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void confirm(Id orderId) {
+        changeStatus(orderId, OrderStatus.CONFIRMED);
+    }
+
+    @Override
+    public void ship(Id orderId) {
+        changeStatus(orderId, OrderStatus.SHIPPED);
+    }
+
+    @Override
+    public List<Order> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Order> orders = new ArrayList<>((int) size);
+            for (long record = firstRecord; record < records.size(); record += RECORD_SIZE) {
+                orders.add(read(record));
+            }
+            return orders;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bytes of mapped memory in use, for comparison with the heap the same orders would take.
+     */
+    public long mappedBytes() {
+        lock.readLock().lock();
+        try {
+            return records.size() + data.size() + index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            records.close();
+            data.close();
+            index.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void changeCount(Id orderId, Id productId, int delta) {
+        byte[] product = encode(productId);
+        lock.writeLock().lock();
+        try {
+            long record = recordOf(encode(orderId));
+            long entry = record == 0 ? 0 : entryOf(record, product);
+            if (entry != 0) {
+                long count = entry + 2 + product.length;
+                data.putInt(count, data.getInt(count) + delta);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void changeStatus(Id orderId, OrderStatus status) {
+        lock.writeLock().lock();
+        try {
+            long record = recordOf(encode(orderId));
+            if (record != 0) {
+                records.putByte(record + RECORD_STATUS, (byte) status.ordinal());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Order read(long record) {
+        Order order = new Order(readId(records.getLong(record + RECORD_ID)));
+        OrderStatus status = STATUSES[records.getByte(record + RECORD_STATUS)];
+        if (status == OrderStatus.CONFIRMED) {
+            order.setOrderConfirmed();
+        } else if (status == OrderStatus.SHIPPED) {
+            order.setOrderShipped();
+        }
+        long section = records.getLong(record + RECORD_PRODUCTS);
+        if (section != 0) {
+            long end = section + SECTION_HEADER + data.getInt(section + SECTION_USED);
+            for (long entry = section + SECTION_HEADER; entry < end; ) {
+                int length = data.getShort(entry);
+                order.getProducts().put(readId(entry), data.getInt(entry + 2 + length));
+                entry += 2 + length + 4;
+            }
+        }
+        return order;
+    }
+
+    private Id readId(long address) {
+        if (data.getShort(address) == UUID_SIZE && data.getByte(address + 2) == UUID_TAG) {
+            return Id.of(data.getLong(address + 3), data.getLong(address + 11));
+        }
+        byte[] bytes = new byte[data.getShort(address)];
+        data.get(address + 2, bytes, bytes.length);
+        return Id.of(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private long recordOf(byte[] id) {
+        return index.getLong(slotOf(id, hash(id)) + SLOT_RECORD);
+    }
+
+    /**
+     * Address of the index slot holding the given identifier, or of the empty slot where it belongs.
+     */
+    private long slotOf(byte[] id, long hash) {
+        long mask = capacity - 1;
+        for (long position = hash & mask; ; position = (position + 1) & mask) {
+            long slot = table + position * SLOT_SIZE;
+            long record = index.getLong(slot + SLOT_RECORD);
+            if (record == 0 || (index.getLong(slot) == hash && matches(records.getLong(record + RECORD_ID), id))) {
+                return slot;
+            }
+        }
+    }
+
+    private void grow() {
+        long oldTable = table;
+        long oldCapacity = capacity;
+        capacity = oldCapacity * 2;
+        table = index.allocate(capacity * SLOT_SIZE);
+        long mask = capacity - 1;
+        for (long oldSlot = oldTable; oldSlot < oldTable + oldCapacity * SLOT_SIZE; oldSlot += SLOT_SIZE) {
+            long record = index.getLong(oldSlot + SLOT_RECORD);
+            if (record == 0) {
+                continue;
+            }
+            long hash = index.getLong(oldSlot);
+            long position = hash & mask;
+            while (index.getLong(table + position * SLOT_SIZE + SLOT_RECORD) != 0) {
+                position = (position + 1) & mask;
+            }
+            index.putLong(table + position * SLOT_SIZE, hash);
+            index.putLong(table + position * SLOT_SIZE + SLOT_RECORD, record);
+        }
+    }
+
+    private long entryOf(long record, byte[] product) {
+        long section = records.getLong(record + RECORD_PRODUCTS);
+        if (section == 0) {
+            return 0;
+        }
+        long end = section + SECTION_HEADER + data.getInt(section + SECTION_USED);
+        for (long entry = section + SECTION_HEADER; entry < end; ) {
+            if (matches(entry, product)) {
+                return entry;
+            }
+            entry += 2 + data.getShort(entry) + 4;
+        }
+        return 0;
+    }
+
+    private long growSection(long record, long section, int used, int entrySize) {
+        int sectionSize = Math.max(MIN_SECTION_SIZE, 2 * (SECTION_HEADER + used + entrySize));
+        long grown = data.allocate(sectionSize);
+        data.putInt(grown + SECTION_CAPACITY, sectionSize);
+        if (section != 0) {
+            data.move(section + SECTION_HEADER, grown + SECTION_HEADER, used);
+        }
+        data.putInt(grown + SECTION_USED, used);
+        records.putLong(record + RECORD_PRODUCTS, grown);
+        return grown;
+    }
+
+    private boolean matches(long address, byte[] value) {
+        if (data.getShort(address) != value.length) {
+            return false;
+        }
+        for (int i = 0; i < value.length; i++) {
+            if (data.getByte(address + 2 + i) != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A UUID identifier is stored as a tag byte and its two longs, any other one as its UTF-8 bytes.
+     */
+    private static byte[] encode(Id id) {
+        if (id.isUuid()) {
+            return ByteBuffer.allocate(UUID_SIZE)
+                    .put(UUID_TAG)
+                    .putLong(id.getMostSignificantBits())
+                    .putLong(id.getLeastSignificantBits())
+                    .array();
+        }
+        byte[] bytes = id.toString().getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Identifier of " + bytes.length + " bytes is too long to store");
+        }
+        return bytes;
+    }
+
+    private static long hash(byte[] value) {
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : value) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash ^ (hash >>> 32);
+    }
+}
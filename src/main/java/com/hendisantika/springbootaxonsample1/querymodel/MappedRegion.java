@@ -0,0 +1,153 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 17.18
+ * <p>
+ * A file mapped into memory in chunks as it grows, addressed by long offsets, with a bump allocator on top. An
+ * allocation that fits in a chunk never straddles two of them, so its fields can be read and written without checking
+ * chunk boundaries; a larger one starts at a chunk boundary and may only be accessed in aligned longs. Offset 0 is never
+ * handed out and serves as null.
+ */
+final class MappedRegion implements Closeable {
+
+    private static final int RESERVED = 64;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int chunkShift;
+    private final long chunkMask;
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+    private long top = RESERVED;
+
+    MappedRegion(Path file, int chunkSize) {
+        if (Integer.bitCount(chunkSize) != 1 || chunkSize < RESERVED) {
+            throw new IllegalArgumentException("Chunk size must be a power of two, but was [" + chunkSize + "]");
+        }
+        this.file = file;
+        this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+        this.chunkMask = chunkSize - 1;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                                            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open region file [" + file + "]", e);
+        }
+    }
+
+    /**
+     * Reserves the given number of bytes, which are zero until written.
+     */
+    long allocate(long size) {
+        long chunkSize = chunkMask + 1;
+        long remaining = chunkSize - (top & chunkMask);
+        if (size > remaining) {
+            top += remaining;
+        }
+        long address = top;
+        top += size;
+        chunk(top - 1);
+        return address;
+    }
+
+    byte getByte(long address) {
+        return chunk(address).get(offset(address));
+    }
+
+    void putByte(long address, byte value) {
+        chunk(address).put(offset(address), value);
+    }
+
+    short getShort(long address) {
+        return chunk(address).getShort(offset(address));
+    }
+
+    void putShort(long address, short value) {
+        chunk(address).putShort(offset(address), value);
+    }
+
+    int getInt(long address) {
+        return chunk(address).getInt(offset(address));
+    }
+
+    void putInt(long address, int value) {
+        chunk(address).putInt(offset(address), value);
+    }
+
+    long getLong(long address) {
+        return chunk(address).getLong(offset(address));
+    }
+
+    void putLong(long address, long value) {
+        chunk(address).putLong(offset(address), value);
+    }
+
+    void get(long address, byte[] destination, int length) {
+        chunk(address).get(offset(address), destination, 0, length);
+    }
+
+    void put(long address, byte[] source, int length) {
+        chunk(address).put(offset(address), source, 0, length);
+    }
+
+    /**
+     * Moves bytes within one allocation, overlapping ranges included.
+     */
+    void move(long from, long to, int length) {
+        byte[] bytes = new byte[length];
+        get(from, bytes, length);
+        put(to, bytes, length);
+    }
+
+    /**
+     * Bytes handed out so far, including what was skipped to keep allocations within a chunk.
+     */
+    long size() {
+        return top;
+    }
+
+    @Override
+    public void close() {
+        // Mapped chunks are released once they are garbage collected; closing the channel does not unmap them.
+        chunks.clear();
+        try {
+            channel.close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot delete region file [" + file + "]", e);
+        }
+    }
+
+    private int offset(long address) {
+        return (int) (address & chunkMask);
+    }
+
+    private MappedByteBuffer chunk(long address) {
+        int index = (int) (address >>> chunkShift);
+        while (index >= chunks.size()) {
+            long position = (long) chunks.size() << chunkShift;
+            try {
+                chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, position, chunkMask + 1));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map [" + file + "] at [" + position + "]", e);
+            }
+        }
+        return chunks.get(index);
+    }
+}
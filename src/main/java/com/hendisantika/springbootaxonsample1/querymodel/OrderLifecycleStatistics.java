@@ -0,0 +1,240 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+
+import java.util.Arrays;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 15.58
+ * <p>
+ * Rolling order lifecycle counts and confirm-to-ship latencies in arrays sized once up front. Counts are kept per
+ * second and per minute, latencies per minute as log-linear histograms. Every slot of a ring remembers which second or
+ * minute it holds, so slots left over from a previous lap are recognised as stale rather than cleared by a timer.
+ * Confirmation times wait for their shipment in a set-associative table, where the oldest entry of a set makes way when
+ * it is full. Recording allocates nothing.
+ */
+class OrderLifecycleStatistics {
+
+    static final int CREATED = 0;
+    static final int CONFIRMED = 1;
+    static final int SHIPPED = 2;
+    private static final int SERIES = 3;
+
+    /**
+     * Latencies below 4 ms get a bucket each, above that every power of two is split in 4 buckets, so a reported
+     * percentile is at most 25% above the real value. Latencies beyond 2^36 ms are counted in the last bucket.
+     */
+    private static final int MAX_EXPONENT = 36;
+    static final int LATENCY_BUCKETS = 4 + (MAX_EXPONENT - 1) * 4;
+    private static final int WAYS = 4;
+
+    private final Ring seconds;
+    private final Ring minutes;
+    private final long[] latencyCounts;
+    private final long[] latencyMax;
+    private final long[] pendingOrders;
+    private final long[] pendingConfirmedAt;
+    private final int pendingSetMask;
+
+    OrderLifecycleStatistics(int secondSlots, int minuteSlots, int pendingConfirmations) {
+        this.seconds = new Ring(secondSlots, 1_000L);
+        this.minutes = new Ring(minuteSlots, 60_000L);
+        this.latencyCounts = new long[minuteSlots * LATENCY_BUCKETS];
+        this.latencyMax = new long[minuteSlots];
+        int sets = Integer.highestOneBit(Math.max(1, pendingConfirmations / WAYS));
+        this.pendingOrders = new long[sets * WAYS];
+        this.pendingConfirmedAt = new long[sets * WAYS];
+        this.pendingSetMask = sets - 1;
+    }
+
+    synchronized void created(long timestamp) {
+        seconds.increment(CREATED, timestamp);
+        minutes.increment(CREATED, timestamp);
+    }
+
+    synchronized void confirmed(Id orderId, long timestamp) {
+        seconds.increment(CONFIRMED, timestamp);
+        minutes.increment(CONFIRMED, timestamp);
+
+        long key = key(orderId);
+        int set = (int) key & pendingSetMask;
+        int target = set * WAYS;
+        for (int i = set * WAYS; i < (set + 1) * WAYS; i++) {
+            if (pendingConfirmedAt[i] == 0 || pendingOrders[i] == key) {
+                target = i;
+                break;
+            }
+            if (pendingConfirmedAt[i] < pendingConfirmedAt[target]) {
+                target = i;
+            }
+        }
+        pendingOrders[target] = key;
+        pendingConfirmedAt[target] = timestamp;
+    }
+
+    synchronized void shipped(Id orderId, long timestamp) {
+        seconds.increment(SHIPPED, timestamp);
+        minutes.increment(SHIPPED, timestamp);
+
+        long key = key(orderId);
+        int set = (int) key & pendingSetMask;
+        for (int i = set * WAYS; i < (set + 1) * WAYS; i++) {
+            if (pendingConfirmedAt[i] != 0 && pendingOrders[i] == key) {
+                recordLatency(timestamp, Math.max(0, timestamp - pendingConfirmedAt[i]));
+                pendingConfirmedAt[i] = 0;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Number of lifecycle events of the given series in the slots overlapping the window ending at {@code now}, at the
+     * finest resolution covering the whole window.
+     */
+    synchronized long count(int series, long windowMillis, long now) {
+        Ring ring = windowMillis <= seconds.span() ? seconds : minutes;
+        return ring.sum(series, windowMillis, now);
+    }
+
+    /**
+     * Confirm-to-ship latency histogram of the minutes overlapping the window ending at {@code now}; the element after
+     * the buckets holds the largest latency seen.
+     */
+    synchronized long[] latencies(long windowMillis, long now) {
+        long[] histogram = new long[LATENCY_BUCKETS + 1];
+        long last = now / minutes.slotMillis;
+        long first = minutes.firstSlot(windowMillis, now);
+        for (long slot = first; slot <= last; slot++) {
+            int index = minutes.indexOf(slot);
+            if (minutes.epochs[index] == slot) {
+                for (int bucket = 0; bucket < LATENCY_BUCKETS; bucket++) {
+                    histogram[bucket] += latencyCounts[index * LATENCY_BUCKETS + bucket];
+                }
+                histogram[LATENCY_BUCKETS] = Math.max(histogram[LATENCY_BUCKETS], latencyMax[index]);
+            }
+        }
+        return histogram;
+    }
+
+    long maxWindowMillis() {
+        return minutes.span();
+    }
+
+    static int bucketOf(long latencyMillis) {
+        if (latencyMillis < 4) {
+            return (int) latencyMillis;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(latencyMillis);
+        if (exponent > MAX_EXPONENT) {
+            return LATENCY_BUCKETS - 1;
+        }
+        int subBucket = (int) (latencyMillis >> (exponent - 2)) & 3;
+        return (exponent - 1) * 4 + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket < 4) {
+            return bucket;
+        }
+        int exponent = bucket / 4 + 1;
+        long lower = (4L + bucket % 4) << (exponent - 2);
+        return lower + (1L << (exponent - 2)) - 1;
+    }
+
+    private void recordLatency(long timestamp, long latencyMillis) {
+        long slot = timestamp / minutes.slotMillis;
+        int index = minutes.indexOf(slot);
+        if (minutes.claim(index, slot)) {
+            latencyCounts[index * LATENCY_BUCKETS + bucketOf(latencyMillis)]++;
+            latencyMax[index] = Math.max(latencyMax[index], latencyMillis);
+        }
+    }
+
+    private static long key(Id orderId) {
+        long hash = orderId.isUuid()
+                ? orderId.getMostSignificantBits() * 0x9E3779B97F4A7C15L ^ orderId.getLeastSignificantBits()
+                : orderId.hashCode() * 0x9E3779B97F4A7C15L ^ orderId.toString().length();
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Per-slot counters of all series, with the slot number each index currently holds.
+     */
+    private final class Ring {
+        private final int slots;
+        private final long slotMillis;
+        private final long[] epochs;
+        private final long[] counts;
+
+        private Ring(int slots, long slotMillis) {
+            this.slots = slots;
+            this.slotMillis = slotMillis;
+            this.epochs = new long[slots];
+            this.counts = new long[slots * SERIES];
+            Arrays.fill(epochs, -1);
+        }
+
+        private long span() {
+            return slots * slotMillis;
+        }
+
+        private int indexOf(long slot) {
+            return (int) (slot % slots);
+        }
+
+        private void increment(int series, long timestamp) {
+            long slot = timestamp / slotMillis;
+            int index = indexOf(slot);
+            if (claim(index, slot)) {
+                counts[index * SERIES + series]++;
+            }
+        }
+
+        /**
+         * Makes the index hold the given slot, resetting it if it still holds an older one. Returns false for a slot
+         * that has already been overwritten by a later lap.
+         */
+        private boolean claim(int index, long slot) {
+            if (epochs[index] == slot) {
+                return true;
+            }
+            if (epochs[index] > slot) {
+                return false;
+            }
+            epochs[index] = slot;
+            Arrays.fill(counts, index * SERIES, (index + 1) * SERIES, 0);
+            if (this == minutes) {
+                Arrays.fill(latencyCounts, index * LATENCY_BUCKETS, (index + 1) * LATENCY_BUCKETS, 0);
+                latencyMax[index] = 0;
+            }
+            return true;
+        }
+
+        /**
+         * First slot overlapping the window ending at {@code now}, no further back than the ring reaches.
+         */
+        private long firstSlot(long windowMillis, long now) {
+            long last = now / slotMillis;
+            return Math.max((now - windowMillis + 1) / slotMillis, last - slots + 1);
+        }
+
+        private long sum(int series, long windowMillis, long now) {
+            long last = now / slotMillis;
+            long first = firstSlot(windowMillis, now);
+            long sum = 0;
+            for (long slot = first; slot <= last; slot++) {
+                int index = indexOf(slot);
+                if (epochs[index] == slot) {
+                    sum += counts[index * SERIES + series];
+                }
+            }
+            return sum;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderShippedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrderStatisticsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatistics;
+import org.axonframework.config.ProcessingGroup;
+import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.eventhandling.Timestamp;
+import org.axonframework.queryhandling.QueryHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+
+import static com.hendisantika.springbootaxonsample1.querymodel.OrderLifecycleStatistics.CONFIRMED;
+import static com.hendisantika.springbootaxonsample1.querymodel.OrderLifecycleStatistics.CREATED;
+import static com.hendisantika.springbootaxonsample1.querymodel.OrderLifecycleStatistics.LATENCY_BUCKETS;
+import static com.hendisantika.springbootaxonsample1.querymodel.OrderLifecycleStatistics.SHIPPED;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 16.35
+ * <p>
+ * Events are counted at the time they were published rather than handled, so the statistics of a replay or of a
+ * lagging processor still land in the right second.
+ */
+@Service
+@ProcessingGroup("order-statistics")
+public class OrderStatisticsEventHandler {
+
+    private final OrderLifecycleStatistics statistics;
+    private final Clock clock;
+
+    @Autowired
+    public OrderStatisticsEventHandler(
+            @Value("${order.statistics.second-slots:3600}") int secondSlots,
+            @Value("${order.statistics.minute-slots:1440}") int minuteSlots,
+            @Value("${order.statistics.pending-confirmations:65536}") int pendingConfirmations) {
+        this(secondSlots, minuteSlots, pendingConfirmations, Clock.systemUTC());
+    }
+
+    OrderStatisticsEventHandler(int secondSlots, int minuteSlots, int pendingConfirmations, Clock clock) {
+        this.statistics = new OrderLifecycleStatistics(secondSlots, minuteSlots, pendingConfirmations);
+        this.clock = clock;
+    }
+
+    @EventHandler
+    public void on(OrderCreatedEvent event, @Timestamp Instant timestamp) {
+        statistics.created(timestamp.toEpochMilli());
+    }
+
+    @EventHandler
+    public void on(OrderConfirmedEvent event, @Timestamp Instant timestamp) {
+        statistics.confirmed(event.getOrderId(), timestamp.toEpochMilli());
+    }
+
+    @EventHandler
+    public void on(OrderShippedEvent event, @Timestamp Instant timestamp) {
+        statistics.shipped(event.getOrderId(), timestamp.toEpochMilli());
+    }
+
+    @QueryHandler
+    public OrderStatistics handle(FindOrderStatisticsQuery query) {
+        long now = clock.millis();
+        long windowMillis = Math.min(query.getWindow().toMillis(), statistics.maxWindowMillis());
+        long[] latencies = statistics.latencies(windowMillis, now);
+        long samples = 0;
+        for (int bucket = 0; bucket < LATENCY_BUCKETS; bucket++) {
+            samples += latencies[bucket];
+        }
+        long max = latencies[LATENCY_BUCKETS];
+        return new OrderStatistics(windowMillis / 1000,
+                                   statistics.count(CREATED, windowMillis, now),
+                                   statistics.count(CONFIRMED, windowMillis, now),
+                                   statistics.count(SHIPPED, windowMillis, now),
+                                   samples,
+                                   percentile(latencies, samples, 0.5, max),
+                                   percentile(latencies, samples, 0.9, max),
+                                   percentile(latencies, samples, 0.99, max),
+                                   max);
+    }
+
+    private static long percentile(long[] latencies, long samples, double percentile, long max) {
+        if (samples == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(samples * percentile);
+        long seen = 0;
+        for (int bucket = 0; bucket < LATENCY_BUCKETS; bucket++) {
+            seen += latencies[bucket];
+            if (seen >= rank) {
+                return Math.min(OrderLifecycleStatistics.upperBoundOf(bucket), max);
+            }
+        }
+        return max;
+    }
+}
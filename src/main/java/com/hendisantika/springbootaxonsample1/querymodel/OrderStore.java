@@ -0,0 +1,41 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 17.10
+ * <p>
+ * Storage of the orders read model. Changes to unknown orders or order lines are ignored.
+ */
+public interface OrderStore {
+
+    void create(Id orderId);
+
+    void addProduct(Id orderId, Id productId);
+
+    void incrementProduct(Id orderId, Id productId);
+
+    void decrementProduct(Id orderId, Id productId);
+
+    void removeProduct(Id orderId, Id productId);
+
+    void confirm(Id orderId);
+
+    void ship(Id orderId);
+
+    List<Order> findAll();
+
+    default List<Order> find(Predicate<Order> filter) {
+        return findAll().stream().filter(filter).toList();
+    }
+}
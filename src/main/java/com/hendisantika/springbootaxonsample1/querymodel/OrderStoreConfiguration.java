@@ -0,0 +1,52 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 17.52
+ */
+@Configuration
+public class OrderStoreConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "order.store.type", havingValue = "heap", matchIfMissing = true)
+    public OrderStore inMemoryOrderStore() {
+        return new InMemoryOrderStore();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "order.store.type", havingValue = "mapped")
+    public MappedOrderStore mappedOrderStore(@Value("${order.store.directory}") Path directory,
+                                             @Value("${order.store.chunk-size:64MB}") DataSize chunkSize,
+                                             @Value("${order.store.expected-orders:1000000}") long expectedOrders) {
+        return new MappedOrderStore(directory, Math.toIntExact(chunkSize.toBytes()), expectedOrders);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "order.store.type", havingValue = "jpa")
+    public JpaOrderStore jpaOrderStore(EntityManagerFactory entityManagerFactory) {
+        return new JpaOrderStore(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "order.store.type", havingValue = "sharded")
+    public ShardedOrderStore shardedOrderStore(@Value("${order.store.shards:0}") int shards) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int shardCount = shards > 0 ? shards : processors;
+        return new ShardedOrderStore(shardCount, Math.min(shardCount, processors));
+    }
+}
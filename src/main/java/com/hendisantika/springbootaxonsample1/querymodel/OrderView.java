@@ -0,0 +1,69 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.Table;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.20
+ * <p>
+ * Row of {@link JpaOrderStore}: an order with its status and the count per product, keyed by the string form of the
+ * identifiers.
+ */
+@Entity
+@Table(name = "order_view")
+public class OrderView {
+
+    @Id
+    private String orderId;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus orderStatus;
+
+    @ElementCollection
+    @CollectionTable(name = "order_view_product", joinColumns = @JoinColumn(name = "order_id"))
+    @MapKeyColumn(name = "product_id")
+    @Column(name = "product_count")
+    private Map<String, Integer> products = new HashMap<>();
+
+    public OrderView(String orderId) {
+        this.orderId = orderId;
+        this.orderStatus = OrderStatus.CREATED;
+    }
+
+    protected OrderView() {
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public OrderStatus getOrderStatus() {
+        return orderStatus;
+    }
+
+    public void setOrderStatus(OrderStatus orderStatus) {
+        this.orderStatus = orderStatus;
+    }
+
+    public Map<String, Integer> getProducts() {
+        return products;
+    }
+}
@@ -0,0 +1,188 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.axonframework.common.jpa.SimpleEntityManagerProvider;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.config.EventProcessingConfigurer;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.deadletter.jpa.DeadLetterEntry;
+import org.axonframework.eventhandling.deadletter.jpa.JpaSequencedDeadLetterQueue;
+import org.axonframework.messaging.deadletter.Cause;
+import org.axonframework.messaging.deadletter.DeadLetter;
+import org.axonframework.messaging.deadletter.SequencedDeadLetterProcessor;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.spring.messaging.unitofwork.SpringTransactionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 22.10
+ * <p>
+ * Dead-letter queue of the {@code orders} processing group, kept in the application's database. An event that makes an
+ * {@link OrdersEventHandler} method throw is parked together with every later event of the same order, so that order
+ * stays consistent, while the processor carries on with all other orders. Parked orders are listed, retried and
+ * evicted through this class; retrying hands their events to the handlers again in their original order.
+ * <p>
+ * The processor keeps the identifiers of parked orders in memory, so events of orders without parked events are
+ * handled without asking the database first.
+ */
+@Component
+@EntityScan(basePackageClasses = DeadLetterEntry.class)
+public class OrdersDeadLetters {
+
+    static final String PROCESSING_GROUP = "orders";
+
+    private final JpaSequencedDeadLetterQueue<EventMessage<?>> queue;
+    private final TransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final EventProcessingConfiguration eventProcessingConfiguration;
+
+    @Autowired
+    public OrdersDeadLetters(EntityManagerFactory entityManagerFactory,
+                             PlatformTransactionManager platformTransactionManager,
+                             EventProcessingConfiguration eventProcessingConfiguration,
+                             @Qualifier("serializer") Serializer serializer,
+                             @Qualifier("eventSerializer") Serializer eventSerializer,
+                             MeterRegistry meterRegistry,
+                             @Value("${order.dead-letters.max-sequences:1024}") int maxSequences,
+                             @Value("${order.dead-letters.max-sequence-size:1024}") int maxSequenceSize) {
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        this.transactionManager = new SpringTransactionManager(platformTransactionManager);
+        this.eventProcessingConfiguration = eventProcessingConfiguration;
+        this.queue = JpaSequencedDeadLetterQueue.builder()
+                .processingGroup(PROCESSING_GROUP)
+                .maxSequences(maxSequences)
+                .maxSequenceSize(maxSequenceSize)
+                .entityManagerProvider(new SimpleEntityManagerProvider(entityManager))
+                .transactionManager(transactionManager)
+                .genericSerializer(serializer)
+                .eventSerializer(eventSerializer)
+                .build();
+
+        Gauge.builder("orders.dead-letters.size", queue, JpaSequencedDeadLetterQueue::size)
+                .description("Events parked in the dead-letter queue of the orders processing group")
+                .register(meterRegistry);
+        Gauge.builder("orders.dead-letters.sequences", queue, JpaSequencedDeadLetterQueue::amountOfSequences)
+                .description("Orders with events parked in the dead-letter queue")
+                .register(meterRegistry);
+        Gauge.builder("orders.dead-letters.oldest.age", this, OrdersDeadLetters::oldestAgeSeconds)
+                .description("Time since the oldest parked event was parked")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Autowired
+    public void registerDeadLetterQueue(EventProcessingConfigurer eventProcessingConfigurer) {
+        eventProcessingConfigurer
+                .registerDeadLetterQueue(PROCESSING_GROUP, configuration -> queue)
+                // Retries run the handlers and update the queue in one transaction.
+                .registerDeadLetteringEventHandlerInvokerConfiguration(
+                        PROCESSING_GROUP, (configuration, builder) -> builder
+                                .transactionManager(transactionManager)
+                                .enableSequenceIdentifierCache());
+    }
+
+    /**
+     * Parked events, order by order, of at most the given number of orders.
+     */
+    public List<DeadLetterSummary> list(int maxOrders) {
+        List<DeadLetterSummary> summaries = new ArrayList<>();
+        int orders = 0;
+        for (Iterable<DeadLetter<? extends EventMessage<?>>> sequence : queue.deadLetters()) {
+            if (orders++ == maxOrders) {
+                break;
+            }
+            for (DeadLetter<? extends EventMessage<?>> letter : sequence) {
+                summaries.add(summarize(letter));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Hands the parked events of the order to the handlers again. Returns false if the order has no parked events or
+     * its first one failed again; events that fail again stay parked with their new cause.
+     */
+    public boolean retry(Id orderId) {
+        String sequenceIdentifier = orderId.toString();
+        return processor().process(letter -> sequenceIdentifier.equals(orderIdOf(letter)));
+    }
+
+    /**
+     * Retries the orders with parked events one after the other, each at most once. Returns the number of orders
+     * that were processed successfully.
+     */
+    public int retryAll() {
+        SequencedDeadLetterProcessor<EventMessage<?>> processor = processor();
+        long sequences = queue.amountOfSequences();
+        int processed = 0;
+        for (long i = 0; i < sequences; i++) {
+            if (processor.processAny()) {
+                processed++;
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Drops the parked events of the order without handling them. Returns the number of events dropped.
+     */
+    public int evict(Id orderId) {
+        List<DeadLetter<? extends EventMessage<?>>> letters = new ArrayList<>();
+        queue.deadLetterSequence(orderId.toString()).forEach(letters::add);
+        letters.forEach(queue::evict);
+        return letters.size();
+    }
+
+    private SequencedDeadLetterProcessor<EventMessage<?>> processor() {
+        return eventProcessingConfiguration.sequencedDeadLetterProcessor(PROCESSING_GROUP)
+                .orElseThrow(() -> new IllegalStateException("No dead-letter queue for " + PROCESSING_GROUP));
+    }
+
+    private double oldestAgeSeconds() {
+        Instant oldest = entityManager
+                .createQuery("SELECT MIN(e.enqueuedAt) FROM DeadLetterEntry e WHERE e.processingGroup = :group",
+                             Instant.class)
+                .setParameter("group", PROCESSING_GROUP)
+                .getSingleResult();
+        return oldest == null ? 0 : Duration.between(oldest, Instant.now()).toMillis() / 1000.0;
+    }
+
+    private static String orderIdOf(DeadLetter<? extends EventMessage<?>> letter) {
+        return letter.message() instanceof DomainEventMessage<?> event ? event.getAggregateIdentifier() : null;
+    }
+
+    private static DeadLetterSummary summarize(DeadLetter<? extends EventMessage<?>> letter) {
+        EventMessage<?> message = letter.message();
+        long sequenceNumber = message instanceof DomainEventMessage<?> event ? event.getSequenceNumber() : -1;
+        String cause = letter.cause().map(OrdersDeadLetters::describe).orElse(null);
+        return new DeadLetterSummary(orderIdOf(letter), sequenceNumber, message.getPayloadType().getSimpleName(),
+                                     cause, letter.enqueuedAt(), letter.lastTouched());
+    }
+
+    private static String describe(Cause cause) {
+        return cause.message() == null ? cause.type() : cause.type() + ": " + cause.message();
+    }
+}
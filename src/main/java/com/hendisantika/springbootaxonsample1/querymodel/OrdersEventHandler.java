@@ -8,16 +8,14 @@ import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountDecreme
 import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountIncrementedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.events.ProductRemovedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.queries.FindAllOrderedProductsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrdersQuery;
 import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
 import org.axonframework.config.ProcessingGroup;
 import org.axonframework.eventhandling.EventHandler;
 import org.axonframework.queryhandling.QueryHandler;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Created by IntelliJ IDEA.
@@ -32,64 +30,54 @@ import java.util.Map;
 @ProcessingGroup("orders")
 public class OrdersEventHandler {
 
-    private final Map<String, Order> orders = new HashMap<>();
+    private final OrderStore orderStore;
+
+    public OrdersEventHandler(OrderStore orderStore) {
+        this.orderStore = orderStore;
+    }
 
     @EventHandler
     public void on(OrderCreatedEvent event) {
-        String orderId = event.getOrderId();
-        orders.put(orderId, new Order(orderId));
+        orderStore.create(event.getOrderId());
     }
 
     @EventHandler
     public void on(ProductAddedEvent event) {
-        orders.computeIfPresent(event.getOrderId(), (orderId, order) -> {
-            order.addProduct(event.getProductId());
-            return order;
-        });
+        orderStore.addProduct(event.getOrderId(), event.getProductId());
     }
 
     @EventHandler
     public void on(ProductCountIncrementedEvent event) {
-        orders.computeIfPresent(event.getOrderId(), (orderId, order) -> {
-            order.incrementProductInstance(event.getProductId());
-            return order;
-        });
+        orderStore.incrementProduct(event.getOrderId(), event.getProductId());
     }
 
     @EventHandler
     public void on(ProductCountDecrementedEvent event) {
-        orders.computeIfPresent(event.getOrderId(), (orderId, order) -> {
-            order.decrementProductInstance(event.getProductId());
-            return order;
-        });
+        orderStore.decrementProduct(event.getOrderId(), event.getProductId());
     }
 
     @EventHandler
     public void on(ProductRemovedEvent event) {
-        orders.computeIfPresent(event.getOrderId(), (orderId, order) -> {
-            order.removeProduct(event.getProductId());
-            return order;
-        });
+        orderStore.removeProduct(event.getOrderId(), event.getProductId());
     }
 
     @EventHandler
     public void on(OrderConfirmedEvent event) {
-        orders.computeIfPresent(event.getOrderId(), (orderId, order) -> {
-            order.setOrderConfirmed();
-            return order;
-        });
+        orderStore.confirm(event.getOrderId());
     }
 
     @EventHandler
     public void on(OrderShippedEvent event) {
-        orders.computeIfPresent(event.getOrderId(), (orderId, order) -> {
-            order.setOrderShipped();
-            return order;
-        });
+        orderStore.ship(event.getOrderId());
     }
 
     @QueryHandler
     public List<Order> handle(FindAllOrderedProductsQuery query) {
-        return new ArrayList<>(orders.values());
+        return orderStore.findAll();
+    }
+
+    @QueryHandler
+    public List<Order> handle(FindOrdersQuery query) {
+        return orderStore.find(query::matches);
     }
 }
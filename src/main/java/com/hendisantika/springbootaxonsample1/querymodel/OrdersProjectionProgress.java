@@ -0,0 +1,219 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import jakarta.annotation.PreDestroy;
+import org.axonframework.eventhandling.EventTrackerStatus;
+import org.axonframework.eventhandling.EventTrackerStatusChangeListener;
+import org.axonframework.eventhandling.GapAwareTrackingToken;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventhandling.WrappedToken;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 20.10
+ * <p>
+ * Follows how far the {@code orders} processor got through the event stream, so that a query can wait until the
+ * orders read model holds the events of a command it follows. The processor reports every segment that advances, and
+ * the position the read model reached is the lowest over all segments. A segment reached the position before the
+ * first gap its token still waits for, not the highest one it handled: an event stored below that may yet arrive.
+ * Queries that wait for a later position are
+ * kept in order of position and released by the report that passes it. Those released together continue in one task
+ * on a small pool of threads of their own, never holding up the processor.
+ * <p>
+ * An instance only hears about the segments it processes itself. When instances share the read model, the tokens
+ * stored for the other segments are passed in through {@link #sharedTokensRead(Map)}; until then, or when no one
+ * does, a position only counts as reached once the segments of this instance cover every segment.
+ */
+public class OrdersProjectionProgress implements EventTrackerStatusChangeListener {
+
+    private static final long ALL_SEGMENTS = 1L << 32;
+
+    private final Duration timeout;
+    private final Map<Integer, EventTrackerStatus> statuses = new HashMap<>();
+    private Map<Integer, TrackingToken> sharedTokens = Map.of();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(Comparator.comparingLong(Waiter::position));
+    private final ExecutorService executor;
+    private long position = -1;
+
+    public OrdersProjectionProgress(Duration timeout, int threads) {
+        this.timeout = timeout;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "orders-read-your-writes-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Returns the position of the last event in the given store, or -1 when there is none. Once a command completed,
+     * its events lie at or before it.
+     */
+    public static long headPosition(EventStore eventStore) {
+        TrackingToken head = eventStore.createHeadToken();
+        return head == null ? -1 : head.position().orElse(-1);
+    }
+
+    /**
+     * Returns a future that completes once the orders read model holds every event up to the given position, or
+     * fails with a {@link ProjectionLagException} when it does not get there within the timeout.
+     */
+    public CompletableFuture<Void> awaitPosition(long minPosition) {
+        Waiter waiter = new Waiter(minPosition);
+        synchronized (this) {
+            if (minPosition <= position) {
+                return CompletableFuture.completedFuture(null);
+            }
+            waiters.add(waiter);
+        }
+        CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS, executor).execute(() -> {
+            long reachedPosition;
+            synchronized (this) {
+                // A waiter no longer queued was released by the processor just now.
+                if (!waiters.remove(waiter)) {
+                    return;
+                }
+                reachedPosition = position;
+            }
+            waiter.reached().completeExceptionally(new ProjectionLagException(minPosition, reachedPosition, timeout));
+        });
+        return waiter.reached();
+    }
+
+    /**
+     * Returns the position up to which the orders read model holds every event, or -1 when it is not known.
+     */
+    public synchronized long getPosition() {
+        return position;
+    }
+
+    /**
+     * Returns the number of queries waiting for a later position.
+     */
+    public synchronized int getWaiting() {
+        return waiters.size();
+    }
+
+    /**
+     * Asks the processor to report segments that advanced, not only those that changed state.
+     */
+    @Override
+    public boolean validatePositions() {
+        return true;
+    }
+
+    @Override
+    public void onEventTrackerStatusChange(Map<Integer, EventTrackerStatus> updatedTrackerStatus) {
+        List<Waiter> reached;
+        synchronized (this) {
+            updatedTrackerStatus.forEach((segmentId, status) -> {
+                if (status.trackerRemoved()) {
+                    statuses.remove(segmentId);
+                } else {
+                    statuses.put(segmentId, status);
+                }
+            });
+            reached = advance();
+        }
+        release(reached);
+    }
+
+    /**
+     * Takes the tokens stored for every segment, by segment identifier, as the instances sharing the read model last
+     * committed them. The segments this instance processes count with the position it reported instead, which is
+     * never behind the stored one.
+     */
+    public void sharedTokensRead(Map<Integer, TrackingToken> tokens) {
+        List<Waiter> reached;
+        synchronized (this) {
+            sharedTokens = Map.copyOf(tokens);
+            reached = advance();
+        }
+        release(reached);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<Waiter> advance() {
+        position = processedPosition();
+        List<Waiter> reached = new ArrayList<>();
+        while (!waiters.isEmpty() && waiters.peek().position() <= position) {
+            reached.add(waiters.poll());
+        }
+        return reached;
+    }
+
+    private void release(List<Waiter> reached) {
+        if (!reached.isEmpty()) {
+            executor.execute(() -> reached.forEach(waiter -> waiter.reached().complete(null)));
+        }
+    }
+
+    private long processedPosition() {
+        if (!sharedTokens.isEmpty()) {
+            long lowest = Long.MAX_VALUE;
+            for (Map.Entry<Integer, TrackingToken> shared : sharedTokens.entrySet()) {
+                EventTrackerStatus status = statuses.get(shared.getKey());
+                lowest = Math.min(lowest, processedPosition(
+                        status == null ? shared.getValue() : status.getTrackingToken()));
+            }
+            return lowest;
+        }
+        long covered = 0;
+        long lowest = Long.MAX_VALUE;
+        for (EventTrackerStatus status : statuses.values()) {
+            covered += ALL_SEGMENTS / (status.getSegment().getMask() + 1L);
+            lowest = Math.min(lowest, processedPosition(status.getTrackingToken()));
+        }
+        return covered == ALL_SEGMENTS ? lowest : -1;
+    }
+
+    /**
+     * Returns the position up to which the given token handled every event.
+     */
+    private static long processedPosition(TrackingToken token) {
+        TrackingToken lowerBound = WrappedToken.unwrapLowerBound(token);
+        if (lowerBound instanceof GapAwareTrackingToken gapAware) {
+            return gapAware.getGaps().isEmpty() ? gapAware.getIndex() : gapAware.getGaps().first() - 1;
+        }
+        return lowerBound == null ? -1 : lowerBound.position().orElse(-1);
+    }
+
+    private static final class Waiter {
+        private final long position;
+        private final CompletableFuture<Void> reached = new CompletableFuture<>();
+
+        private Waiter(long position) {
+            this.position = position;
+        }
+
+        long position() {
+            return position;
+        }
+
+        CompletableFuture<Void> reached() {
+            return reached;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.axonframework.config.EventProcessingConfigurer;
+import org.axonframework.eventhandling.TrackingEventProcessorConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 20.20
+ * <p>
+ * Reports the progress of the {@code orders} processor to {@link OrdersProjectionProgress}. The sharded and shared
+ * read models configure the processor themselves and add the listener there; the others run it on one thread.
+ */
+@Configuration
+public class OrdersProjectionProgressConfiguration {
+
+    @Bean
+    public OrdersProjectionProgress ordersProjectionProgress(
+            @Value("${order.consistency.timeout:PT5S}") Duration timeout,
+            @Value("${order.consistency.threads:2}") int threads) {
+        return new OrdersProjectionProgress(timeout, threads);
+    }
+
+    @Bean
+    public MeterBinder ordersProjectionProgressMetrics(OrdersProjectionProgress ordersProjectionProgress) {
+        return registry -> {
+            Gauge.builder("orders.projection.position", ordersProjectionProgress,
+                          OrdersProjectionProgress::getPosition)
+                    .description("Position up to which the orders read model holds every event")
+                    .register(registry);
+            Gauge.builder("orders.projection.waiting", ordersProjectionProgress,
+                          OrdersProjectionProgress::getWaiting)
+                    .description("Queries waiting for the orders read model to reach their min-position")
+                    .register(registry);
+        };
+    }
+
+    @Configuration
+    @ConditionalOnExpression("!'${order.store.type:heap}'.matches('sharded|jpa')")
+    static class SingleThreadedOrdersProcessor {
+
+        @Autowired
+        public void configureOrdersProcessor(EventProcessingConfigurer eventProcessingConfigurer,
+                                             OrdersProjectionProgress ordersProjectionProgress) {
+            eventProcessingConfigurer.registerTrackingEventProcessorConfiguration(
+                    "orders", configuration -> TrackingEventProcessorConfiguration
+                            .forSingleThreadedProcessing()
+                            .andEventTrackerStatusChangeListener(ordersProjectionProgress));
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventhandling.TrackingEventProcessor;
+import org.axonframework.eventhandling.tokenstore.TokenStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.40
+ * <p>
+ * Spreads the segments of the {@code orders} processor evenly over the instances sharing its token store. A tracking
+ * processor claims every unclaimed segment it has a thread for, so the first instance to start takes them all and
+ * never lets go by itself. Every instance therefore records a heartbeat, derives its fair share of the segments from
+ * the instances seen within the claim timeout, and releases the segments it holds beyond that share; the instances
+ * below their share claim them. An instance that stops releases its segments, and one that dies loses its claims and
+ * its heartbeat after the claim timeout, after which the remaining instances take over its segments.
+ */
+public class OrdersSegmentBalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrdersSegmentBalancer.class);
+
+    private static final String PROCESSOR_NAME = "orders";
+
+    private final String nodeId;
+    private final TokenStore tokenStore;
+    private final TransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final EventProcessingConfiguration eventProcessingConfiguration;
+    private final Duration claimTimeout;
+    private final Duration rebalanceInterval;
+    private final Duration releaseDuration;
+    private final ScheduledExecutorService executor;
+    private final AtomicInteger nodes = new AtomicInteger();
+    private final Map<Integer, Instant> releasedUntil = new HashMap<>();
+
+    public OrdersSegmentBalancer(String nodeId, TokenStore tokenStore, TransactionManager transactionManager,
+                                 EntityManager entityManager, EventProcessingConfiguration eventProcessingConfiguration,
+                                 MeterRegistry meterRegistry, Duration rebalanceInterval, Duration claimTimeout) {
+        this.nodeId = nodeId;
+        this.tokenStore = tokenStore;
+        this.transactionManager = transactionManager;
+        this.entityManager = entityManager;
+        this.eventProcessingConfiguration = eventProcessingConfiguration;
+        this.claimTimeout = claimTimeout;
+        this.rebalanceInterval = rebalanceInterval;
+        // Long enough for an instance below its share to claim the segment first.
+        this.releaseDuration = rebalanceInterval.multipliedBy(2);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "orders-segment-balancer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("orders.projection.nodes", nodes, AtomicInteger::get)
+                .description("Instances sharing the orders projection")
+                .register(meterRegistry);
+        Gauge.builder("orders.projection.segments", this, OrdersSegmentBalancer::claimedSegments)
+                .description("Segments of the orders projection claimed by this instance")
+                .register(meterRegistry);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Starts rebalancing once the processors run; asking for the processor any earlier would build it prematurely.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::rebalanceQuietly, 0, rebalanceInterval.toMillis(),
+                                        TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records the heartbeat of this instance and releases the segments it holds beyond its fair share.
+     */
+    public synchronized void rebalance() {
+        TrackingEventProcessor processor = processor();
+        if (processor == null || !processor.isRunning()) {
+            return;
+        }
+        int share = transactionManager.fetchInTransaction(this::fairShare);
+        int[] claimed = processor.processingStatus().keySet().stream()
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+        Instant now = Instant.now();
+        releasedUntil.values().removeIf(until -> until.isBefore(now));
+        for (int i = claimed.length - 1; i >= share; i--) {
+            // A released segment is reported until its worker has stopped; it need not be released again.
+            if (releasedUntil.putIfAbsent(claimed[i], now.plus(releaseDuration)) == null) {
+                logger.info("Node {} releases segment {} of the orders projection, its share is {} of {} nodes",
+                            nodeId, claimed[i], share, nodes.get());
+                processor.releaseSegment(claimed[i], releaseDuration.toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            transactionManager.executeInTransaction(
+                    () -> entityManager.createQuery("DELETE FROM ProjectionNode n WHERE n.nodeId = :nodeId")
+                            .setParameter("nodeId", nodeId)
+                            .executeUpdate());
+        } catch (RuntimeException e) {
+            logger.warn("Could not remove the heartbeat of node {}, it expires after {}", nodeId, claimTimeout, e);
+        }
+    }
+
+    /**
+     * Segments divided evenly over the live instances, the first ones in identifier order taking one more while
+     * segments remain.
+     */
+    private int fairShare() {
+        Instant now = Instant.now();
+        ProjectionNode self = entityManager.find(ProjectionNode.class, nodeId);
+        if (self == null) {
+            entityManager.persist(new ProjectionNode(nodeId, now));
+        } else {
+            self.setLastSeen(now);
+        }
+        entityManager.createQuery("DELETE FROM ProjectionNode n WHERE n.lastSeen < :cutoff")
+                .setParameter("cutoff", now.minus(claimTimeout))
+                .executeUpdate();
+        List<String> live = entityManager
+                .createQuery("SELECT n.nodeId FROM ProjectionNode n ORDER BY n.nodeId", String.class)
+                .getResultList();
+        int segments = tokenStore.fetchSegments(PROCESSOR_NAME).length;
+        nodes.set(live.size());
+        return segments / live.size() + (live.indexOf(nodeId) < segments % live.size() ? 1 : 0);
+    }
+
+    private void rebalanceQuietly() {
+        try {
+            rebalance();
+        } catch (RuntimeException e) {
+            logger.warn("Rebalancing the orders projection failed on node {}", nodeId, e);
+        }
+    }
+
+    private int claimedSegments() {
+        TrackingEventProcessor processor = processor();
+        return processor == null ? 0 : processor.processingStatus().size();
+    }
+
+    private TrackingEventProcessor processor() {
+        return eventProcessingConfiguration
+                .eventProcessor(PROCESSOR_NAME, TrackingEventProcessor.class)
+                .orElse(null);
+    }
+}
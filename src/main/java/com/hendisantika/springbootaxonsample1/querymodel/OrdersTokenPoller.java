@@ -0,0 +1,104 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventhandling.tokenstore.jpa.TokenEntry;
+import org.axonframework.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.35
+ * <p>
+ * Reads the tokens the instances sharing the orders read model stored for the {@code orders} processor and hands
+ * them to {@link OrdersProjectionProgress}, so that a query can wait for events projected by another instance. The
+ * tokens are stored in the same transaction as the orders they changed, so the read model holds every event they
+ * cover. They are only read while queries wait, without claiming any segment.
+ */
+public class OrdersTokenPoller {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrdersTokenPoller.class);
+
+    private static final String PROCESSOR_NAME = "orders";
+
+    private final OrdersProjectionProgress ordersProjectionProgress;
+    private final TransactionManager transactionManager;
+    private final EntityManager entityManager;
+    private final Serializer serializer;
+    private final Duration interval;
+    private final ScheduledExecutorService executor;
+
+    public OrdersTokenPoller(OrdersProjectionProgress ordersProjectionProgress, TransactionManager transactionManager,
+                             EntityManager entityManager, Serializer serializer, Duration interval) {
+        this.ordersProjectionProgress = ordersProjectionProgress;
+        this.transactionManager = transactionManager;
+        this.entityManager = entityManager;
+        this.serializer = serializer;
+        this.interval = interval;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "orders-token-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.scheduleWithFixedDelay(this::pollQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reads the stored tokens if any query waits for the read model.
+     */
+    public void poll() {
+        if (ordersProjectionProgress.getWaiting() == 0) {
+            return;
+        }
+        ordersProjectionProgress.sharedTokensRead(transactionManager.fetchInTransaction(this::storedTokens));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Map<Integer, TrackingToken> storedTokens() {
+        List<TokenEntry> entries = entityManager
+                .createQuery("SELECT t FROM TokenEntry t WHERE t.processorName = :processorName", TokenEntry.class)
+                .setParameter("processorName", PROCESSOR_NAME)
+                .getResultList();
+        Map<Integer, TrackingToken> tokens = new HashMap<>();
+        for (TokenEntry entry : entries) {
+            tokens.put(entry.getSegment(), entry.getToken(serializer));
+            // Only read, never changed; the entries need not stay in the persistence context.
+            entityManager.detach(entry);
+        }
+        return tokens;
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            logger.warn("Reading the tokens of the orders projection failed", e);
+        }
+    }
+}
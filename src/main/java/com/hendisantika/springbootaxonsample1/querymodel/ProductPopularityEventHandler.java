@@ -0,0 +1,55 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountDecrementedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountIncrementedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductRemovedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindTopProductsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.ProductPopularity;
+import org.axonframework.config.ProcessingGroup;
+import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.queryhandling.QueryHandler;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 15.20
+ */
+@Service
+@ProcessingGroup("product-popularity")
+public class ProductPopularityEventHandler {
+
+    private final ProductRanking ranking = new ProductRanking();
+
+    @EventHandler
+    public void on(ProductAddedEvent event) {
+        ranking.productAdded(event.getProductId());
+    }
+
+    @EventHandler
+    public void on(ProductCountIncrementedEvent event) {
+        ranking.quantityIncremented(event.getProductId());
+    }
+
+    @EventHandler
+    public void on(ProductCountDecrementedEvent event) {
+        ranking.quantityDecremented(event.getProductId());
+    }
+
+    @EventHandler
+    public void on(ProductRemovedEvent event) {
+        ranking.productRemoved(event.getProductId());
+    }
+
+    @QueryHandler
+    public List<ProductPopularity> handle(FindTopProductsQuery query) {
+        return ranking.top(query.getLimit());
+    }
+}
@@ -0,0 +1,170 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.ProductPopularity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 15.04
+ * <p>
+ * Products ranked by total ordered quantity. Quantities only ever change by one, so products are kept in buckets of
+ * equal quantity, chained from the highest quantity down: a change moves a product to the neighbouring bucket in
+ * constant time, and the top N are read off the head of the chain.
+ */
+class ProductRanking {
+
+    private final Map<Id, Product> products = new HashMap<>();
+    private Bucket highest;
+    private Bucket lowest;
+
+    synchronized void productAdded(Id productId) {
+        Product product = products.computeIfAbsent(productId, Product::new);
+        product.orders++;
+        increment(product);
+    }
+
+    synchronized void quantityIncremented(Id productId) {
+        Product product = products.get(productId);
+        if (product != null) {
+            increment(product);
+        }
+    }
+
+    synchronized void quantityDecremented(Id productId) {
+        Product product = products.get(productId);
+        if (product != null) {
+            decrement(product);
+        }
+    }
+
+    /**
+     * An order line is only removed once its count is down to one, which is therefore all it takes off the total.
+     */
+    synchronized void productRemoved(Id productId) {
+        Product product = products.get(productId);
+        if (product != null) {
+            product.orders--;
+            decrement(product);
+        }
+    }
+
+    synchronized List<ProductPopularity> top(int limit) {
+        List<ProductPopularity> top = new ArrayList<>(Math.min(limit, products.size()));
+        for (Bucket bucket = highest; bucket != null && top.size() < limit; bucket = bucket.lower) {
+            for (Product product : bucket.products) {
+                if (top.size() == limit) {
+                    break;
+                }
+                top.add(new ProductPopularity(product.productId, bucket.quantity, product.orders));
+            }
+        }
+        return top;
+    }
+
+    private void increment(Product product) {
+        Bucket current = product.bucket;
+        long quantity = current == null ? 1 : current.quantity + 1;
+        Bucket target;
+        if (current == null) {
+            target = lowest != null && lowest.quantity == quantity ? lowest : linkBetween(null, lowest, quantity);
+        } else {
+            target = current.higher != null && current.higher.quantity == quantity
+                    ? current.higher
+                    : linkBetween(current, current.higher, quantity);
+        }
+        move(product, target);
+    }
+
+    private void decrement(Product product) {
+        Bucket current = product.bucket;
+        if (current == null) {
+            return;
+        }
+        long quantity = current.quantity - 1;
+        if (quantity == 0) {
+            move(product, null);
+            products.remove(product.productId);
+            return;
+        }
+        Bucket target = current.lower != null && current.lower.quantity == quantity
+                ? current.lower
+                : linkBetween(current.lower, current, quantity);
+        move(product, target);
+    }
+
+    private void move(Product product, Bucket target) {
+        Bucket current = product.bucket;
+        if (current != null) {
+            current.products.remove(product);
+            if (current.products.isEmpty()) {
+                unlink(current);
+            }
+        }
+        if (target != null) {
+            target.products.add(product);
+        }
+        product.bucket = target;
+    }
+
+    private Bucket linkBetween(Bucket lower, Bucket higher, long quantity) {
+        Bucket bucket = new Bucket(quantity);
+        bucket.lower = lower;
+        bucket.higher = higher;
+        if (lower != null) {
+            lower.higher = bucket;
+        } else {
+            lowest = bucket;
+        }
+        if (higher != null) {
+            higher.lower = bucket;
+        } else {
+            highest = bucket;
+        }
+        return bucket;
+    }
+
+    private void unlink(Bucket bucket) {
+        if (bucket.lower != null) {
+            bucket.lower.higher = bucket.higher;
+        } else {
+            lowest = bucket.higher;
+        }
+        if (bucket.higher != null) {
+            bucket.higher.lower = bucket.lower;
+        } else {
+            highest = bucket.lower;
+        }
+    }
+
+    private static final class Product {
+        private final Id productId;
+        private long orders;
+        private Bucket bucket;
+
+        private Product(Id productId) {
+            this.productId = productId;
+        }
+    }
+
+    private static final class Bucket {
+        private final long quantity;
+        private final LinkedHashSet<Product> products = new LinkedHashSet<>();
+        private Bucket higher;
+        private Bucket lower;
+
+        private Bucket(long quantity) {
+            this.quantity = quantity;
+        }
+    }
+}
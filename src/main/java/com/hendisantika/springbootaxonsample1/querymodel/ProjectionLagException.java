@@ -0,0 +1,35 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import java.time.Duration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 20.05
+ * <p>
+ * Thrown when the orders read model did not reach the position a query asked for within the timeout.
+ */
+public class ProjectionLagException extends RuntimeException {
+
+    private final long minPosition;
+    private final long position;
+
+    public ProjectionLagException(long minPosition, long position, Duration timeout) {
+        super("The orders read model did not reach position " + minPosition + " within " + timeout
+                      + ", it is at " + position);
+        this.minPosition = minPosition;
+        this.position = position;
+    }
+
+    public long getMinPosition() {
+        return minPosition;
+    }
+
+    public long getPosition() {
+        return position;
+    }
+}
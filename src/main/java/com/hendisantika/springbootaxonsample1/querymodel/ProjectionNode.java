@@ -0,0 +1,48 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.35
+ * <p>
+ * Heartbeat of an instance taking part in the shared {@code orders} projection, also when it holds no segment.
+ */
+@Entity
+@Table(name = "projection_node")
+public class ProjectionNode {
+
+    @Id
+    private String nodeId;
+
+    private Instant lastSeen;
+
+    public ProjectionNode(String nodeId, Instant lastSeen) {
+        this.nodeId = nodeId;
+        this.lastSeen = lastSeen;
+    }
+
+    protected ProjectionNode() {
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Instant getLastSeen() {
+        return lastSeen;
+    }
+
+    public void setLastSeen(Instant lastSeen) {
+        this.lastSeen = lastSeen;
+    }
+}
@@ -0,0 +1,151 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 08.20
+ * <p>
+ * Splits the orders over shards by the hash of their identifier, each a map on the heap behind its own lock. Changes
+ * to orders in different shards proceed in parallel, and a query holds one shard at a time rather than all orders.
+ * Queries scatter over the shards on a fork-join pool, where every shard copies its matching orders, and the copies
+ * are gathered in parallel too. Being copies, the orders returned do not change when the store does.
+ */
+public class ShardedOrderStore implements OrderStore, AutoCloseable {
+
+    private final Shard[] shards;
+    private final ForkJoinPool pool;
+
+    public ShardedOrderStore(int shardCount, int parallelism) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1, but was [" + shardCount + "]");
+        }
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new Shard();
+        }
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    @Override
+    public void create(Id orderId) {
+        update(orderId, orders -> orders.create(orderId));
+    }
+
+    @Override
+    public void addProduct(Id orderId, Id productId) {
+        update(orderId, orders -> orders.addProduct(orderId, productId));
+    }
+
+    @Override
+    public void incrementProduct(Id orderId, Id productId) {
+        update(orderId, orders -> orders.incrementProduct(orderId, productId));
+    }
+
+    @Override
+    public void decrementProduct(Id orderId, Id productId) {
+        update(orderId, orders -> orders.decrementProduct(orderId, productId));
+    }
+
+    @Override
+    public void removeProduct(Id orderId, Id productId) {
+        update(orderId, orders -> orders.removeProduct(orderId, productId));
+    }
+
+    @Override
+    public void confirm(Id orderId) {
+        update(orderId, orders -> orders.confirm(orderId));
+    }
+
+    @Override
+    public void ship(Id orderId) {
+        update(orderId, orders -> orders.ship(orderId));
+    }
+
+    @Override
+    public List<Order> findAll() {
+        return find(order -> true);
+    }
+
+    @Override
+    public List<Order> find(Predicate<Order> filter) {
+        return pool.submit(() -> Arrays.stream(shards)
+                        .parallel()
+                        .flatMap(shard -> shard.copy(filter).stream())
+                        .toList())
+                .join();
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    private void update(Id orderId, Consumer<OrderStore> change) {
+        Shard shard = shards[Math.floorMod(spread(orderId.hashCode()), shards.length)];
+        shard.lock.writeLock().lock();
+        try {
+            change.accept(shard.orders);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Mixes the high bits into the low ones, which alone pick the shard for small shard counts.
+     */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Shard {
+        private final InMemoryOrderStore orders = new InMemoryOrderStore();
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private List<Order> copy(Predicate<Order> filter) {
+            lock.readLock().lock();
+            try {
+                List<Order> copies = new ArrayList<>();
+                for (Order order : orders.findAll()) {
+                    if (filter.test(order)) {
+                        copies.add(copyOf(order));
+                    }
+                }
+                return copies;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static Order copyOf(Order order) {
+            Order copy = new Order(order.getOrderId());
+            if (order.getOrderStatus() == OrderStatus.CONFIRMED) {
+                copy.setOrderConfirmed();
+            } else if (order.getOrderStatus() == OrderStatus.SHIPPED) {
+                copy.setOrderShipped();
+            }
+            copy.getProducts().putAll(order.getProducts());
+            return copy;
+        }
+    }
+}
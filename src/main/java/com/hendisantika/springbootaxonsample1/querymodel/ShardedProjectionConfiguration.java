@@ -0,0 +1,37 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import org.axonframework.config.EventProcessingConfigurer;
+import org.axonframework.eventhandling.TrackingEventProcessorConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 08.30
+ * <p>
+ * Lets the {@code orders} processor apply events on several threads, one segment each, as the {@link ShardedOrderStore}
+ * takes changes to different orders in parallel. The events of one order stay in one segment and in order.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.store.type", havingValue = "sharded")
+public class ShardedProjectionConfiguration {
+
+    @Autowired
+    public void configureOrdersProcessor(EventProcessingConfigurer eventProcessingConfigurer,
+                                         @Value("${order.projection.segments:4}") int segments,
+                                         @Value("${order.projection.threads:4}") int threads,
+                                         OrdersProjectionProgress ordersProjectionProgress) {
+        eventProcessingConfigurer.registerTrackingEventProcessorConfiguration(
+                "orders", configuration -> TrackingEventProcessorConfiguration
+                        .forParallelProcessing(threads)
+                        .andInitialSegmentsCount(segments)
+                        .andEventTrackerStatusChangeListener(ordersProjectionProgress));
+    }
+}
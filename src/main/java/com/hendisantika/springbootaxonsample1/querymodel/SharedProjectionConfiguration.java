@@ -0,0 +1,114 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.axonframework.common.jpa.SimpleEntityManagerProvider;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.config.EventProcessingConfigurer;
+import org.axonframework.eventhandling.TrackingEventProcessorConfiguration;
+import org.axonframework.eventhandling.tokenstore.jpa.JpaTokenStore;
+import org.axonframework.eventhandling.tokenstore.jpa.TokenEntry;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.spring.messaging.unitofwork.SpringTransactionManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.50
+ * <p>
+ * Lets several instances build the orders read model in their shared database. The {@code orders} processor keeps
+ * its tokens there too, split into segments that the instances claim between them, and stores the token in the same
+ * transaction as the changes to the orders. {@link OrdersTokenPoller} reads them back for queries waiting on events
+ * that another instance projects. The other processors keep their state and tokens in memory and see every event on
+ * every instance.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.store.type", havingValue = "jpa")
+@EntityScan(basePackageClasses = {OrderView.class, TokenEntry.class})
+public class SharedProjectionConfiguration {
+
+    private static final String PROCESSOR_NAME = "orders";
+
+    private final EntityManager entityManager;
+    private final TransactionManager transactionManager;
+    private final JpaTokenStore tokenStore;
+    private final Serializer serializer;
+    private final String nodeId;
+
+    public SharedProjectionConfiguration(EntityManagerFactory entityManagerFactory,
+                                         PlatformTransactionManager platformTransactionManager,
+                                         @Qualifier("serializer") Serializer serializer,
+                                         @Value("${order.projection.node-id:}") String nodeId,
+                                         @Value("${order.projection.claim-timeout:PT10S}") Duration claimTimeout) {
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        this.transactionManager = new SpringTransactionManager(platformTransactionManager);
+        this.serializer = serializer;
+        // Instances in one JVM share the runtime name, so it only identifies a node together with a random part.
+        this.nodeId = nodeId.isEmpty()
+                ? ManagementFactory.getRuntimeMXBean().getName() + "-" + UUID.randomUUID().toString().substring(0, 8)
+                : nodeId;
+        this.tokenStore = JpaTokenStore.builder()
+                .entityManagerProvider(new SimpleEntityManagerProvider(entityManager))
+                .serializer(serializer)
+                .nodeId(this.nodeId)
+                .claimTimeout(claimTimeout)
+                .build();
+    }
+
+    @Autowired
+    public void configureOrdersProcessor(EventProcessingConfigurer eventProcessingConfigurer,
+                                         @Value("${order.projection.segments:4}") int segments,
+                                         @Value("${order.projection.threads:4}") int threads,
+                                         @Value("${order.projection.batch-size:50}") int batchSize,
+                                         @Value("${order.projection.rebalance-interval:PT5S}") Duration interval,
+                                         OrdersProjectionProgress ordersProjectionProgress) {
+        eventProcessingConfigurer
+                .registerTokenStore(PROCESSOR_NAME, configuration -> tokenStore)
+                .registerTransactionManager(PROCESSOR_NAME, configuration -> transactionManager)
+                .registerTrackingEventProcessorConfiguration(
+                        PROCESSOR_NAME, configuration -> TrackingEventProcessorConfiguration
+                                .forParallelProcessing(threads)
+                                .andInitialSegmentsCount(segments)
+                                .andBatchSize(batchSize)
+                                .andTokenClaimInterval(interval.toMillis(), TimeUnit.MILLISECONDS)
+                                .andEventTrackerStatusChangeListener(ordersProjectionProgress));
+    }
+
+    @Bean
+    public OrdersSegmentBalancer ordersSegmentBalancer(
+            EventProcessingConfiguration eventProcessingConfiguration,
+            MeterRegistry meterRegistry,
+            @Value("${order.projection.rebalance-interval:PT5S}") Duration rebalanceInterval,
+            @Value("${order.projection.claim-timeout:PT10S}") Duration claimTimeout) {
+        return new OrdersSegmentBalancer(nodeId, tokenStore, transactionManager, entityManager,
+                                         eventProcessingConfiguration, meterRegistry, rebalanceInterval, claimTimeout);
+    }
+
+    @Bean
+    public OrdersTokenPoller ordersTokenPoller(
+            OrdersProjectionProgress ordersProjectionProgress,
+            @Value("${order.consistency.poll-interval:PT0.05S}") Duration pollInterval) {
+        return new OrdersTokenPoller(ordersProjectionProgress, transactionManager, entityManager, serializer,
+                                     pollInterval);
+    }
+}
@@ -0,0 +1,60 @@
+package com.hendisantika.springbootaxonsample1.serialization;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.thoughtworks.xstream.converters.SingleValueConverter;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 20.15
+ * <p>
+ * Writes an {@link Id} in XStream documents in its compact form: a UUID as the unpadded URL-safe Base64 of its 16
+ * bytes, 22 characters instead of 36, and any other identifier as itself behind a {@code ~} marker, which XML leaves
+ * unescaped. Plain strings without the marker, as in documents written before this converter existed, are read as
+ * they are.
+ */
+public class IdConverter implements SingleValueConverter {
+
+    private static final int COMPACT_UUID_LENGTH = 22;
+    private static final char STRING_MARKER = '~';
+
+    @Override
+    public boolean canConvert(Class type) {
+        return type == Id.class;
+    }
+
+    @Override
+    public String toString(Object object) {
+        return compact((Id) object);
+    }
+
+    @Override
+    public Object fromString(String value) {
+        if (!value.isEmpty() && value.charAt(0) == STRING_MARKER) {
+            return Id.of(value.substring(1));
+        }
+        if (value.length() == COMPACT_UUID_LENGTH) {
+            ByteBuffer bytes = ByteBuffer.wrap(Base64.getUrlDecoder().decode(value));
+            return Id.of(bytes.getLong(), bytes.getLong());
+        }
+        return Id.of(value);
+    }
+
+    static String compact(Id id) {
+        if (!id.isUuid()) {
+            return STRING_MARKER + id.toString();
+        }
+        byte[] bytes = ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
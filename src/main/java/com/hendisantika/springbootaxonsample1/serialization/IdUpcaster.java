@@ -0,0 +1,82 @@
+package com.hendisantika.springbootaxonsample1.serialization;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderShippedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountDecrementedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountIncrementedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductRemovedEvent;
+import org.axonframework.serialization.SimpleSerializedType;
+import org.axonframework.serialization.upcasting.event.IntermediateEventRepresentation;
+import org.axonframework.serialization.upcasting.event.SingleEventUpcaster;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 20.25
+ * <p>
+ * Brings order events stored before revision 2, with their identifiers as plain strings, to revision 2. In XStream
+ * documents the identifiers are rewritten into the compact form of {@link IdConverter}; JSON documents already hold
+ * identifiers in the form revision 2 uses and only get the new revision.
+ */
+@Component
+public class IdUpcaster extends SingleEventUpcaster {
+
+    static final String REVISION = "2";
+
+    private static final Set<String> EVENT_TYPES = Stream.of(
+                    OrderCreatedEvent.class, ProductAddedEvent.class, ProductCountIncrementedEvent.class,
+                    ProductCountDecrementedEvent.class, ProductRemovedEvent.class, OrderConfirmedEvent.class,
+                    OrderShippedEvent.class)
+            .map(Class::getName)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private static final Pattern IDENTIFIER_ELEMENT = Pattern.compile("<(orderId|productId)>([^<]*)</\\1>");
+
+    @Override
+    protected boolean canUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+        return intermediateRepresentation.getType().getRevision() == null
+                && EVENT_TYPES.contains(intermediateRepresentation.getType().getName());
+    }
+
+    @Override
+    protected IntermediateEventRepresentation doUpcast(IntermediateEventRepresentation intermediateRepresentation) {
+        return intermediateRepresentation.upcastPayload(
+                new SimpleSerializedType(intermediateRepresentation.getType().getName(), REVISION),
+                String.class, IdUpcaster::compactIdentifiers);
+    }
+
+    static String compactIdentifiers(String document) {
+        Matcher matcher = IDENTIFIER_ELEMENT.matcher(document);
+        StringBuilder upcast = new StringBuilder(document.length());
+        while (matcher.find()) {
+            String compact = IdConverter.compact(Id.of(unescape(matcher.group(2))));
+            String element = "<" + matcher.group(1) + ">" + escape(compact) + "</" + matcher.group(1) + ">";
+            matcher.appendReplacement(upcast, Matcher.quoteReplacement(element));
+        }
+        matcher.appendTail(upcast);
+        return upcast.toString();
+    }
+
+    private static String unescape(String text) {
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'")
+                .replace("&amp;", "&");
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
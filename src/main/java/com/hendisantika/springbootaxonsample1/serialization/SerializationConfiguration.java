@@ -0,0 +1,35 @@
+package com.hendisantika.springbootaxonsample1.serialization;
+
+import com.thoughtworks.xstream.XStream;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 20.35
+ * <p>
+ * Registers {@link IdConverter} with the XStream instance Axon serializes messages, events and snapshots with, before
+ * any serializer gets to use it.
+ */
+@Configuration
+public class SerializationConfiguration {
+
+    @Bean
+    static BeanPostProcessor idConverterRegistrar() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof XStream xStream) {
+                    xStream.registerConverter(new IdConverter());
+                }
+                return bean;
+            }
+        };
+    }
+}
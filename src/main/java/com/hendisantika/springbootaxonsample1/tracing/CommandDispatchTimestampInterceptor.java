@@ -0,0 +1,34 @@
+package com.hendisantika.springbootaxonsample1.tracing;
+
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.messaging.MessageDispatchInterceptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 08.20
+ */
+public class CommandDispatchTimestampInterceptor implements MessageDispatchInterceptor<CommandMessage<?>> {
+
+    /**
+     * Metadata key holding the epoch millis at which a command was dispatched. It is copied onto the resulting events,
+     * so projections can tell how long a command took to become visible.
+     */
+    public static final String DISPATCHED_AT = "dispatchedAt";
+
+    @Override
+    public BiFunction<Integer, CommandMessage<?>, CommandMessage<?>> handle(
+            List<? extends CommandMessage<?>> messages) {
+        return (index, command) -> command.getMetaData().containsKey(DISPATCHED_AT)
+                ? command
+                : command.andMetaData(Map.of(DISPATCHED_AT, System.currentTimeMillis()));
+    }
+}
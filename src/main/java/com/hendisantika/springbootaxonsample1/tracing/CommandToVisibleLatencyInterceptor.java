@@ -0,0 +1,58 @@
+package com.hendisantika.springbootaxonsample1.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.ReplayToken;
+import org.axonframework.messaging.InterceptorChain;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 08.31
+ * <p>
+ * Times how long the events of a command take to reach the orders projection. Replayed events were dispatched long
+ * ago, so they are not recorded.
+ */
+public class CommandToVisibleLatencyInterceptor implements MessageHandlerInterceptor<EventMessage<?>> {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Timer> timers = new ConcurrentHashMap<>();
+
+    public CommandToVisibleLatencyInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object handle(UnitOfWork<? extends EventMessage<?>> unitOfWork,
+                         InterceptorChain interceptorChain) throws Exception {
+        Object result = interceptorChain.proceed();
+        EventMessage<?> event = unitOfWork.getMessage();
+        if (ReplayToken.isReplay(event)) {
+            return result;
+        }
+        if (event.getMetaData().get(CommandDispatchTimestampInterceptor.DISPATCHED_AT) instanceof Number dispatchedAt) {
+            timers.computeIfAbsent(event.getPayloadType(), this::timer)
+                    .record(Duration.ofMillis(System.currentTimeMillis() - dispatchedAt.longValue()));
+        }
+        return result;
+    }
+
+    private Timer timer(Class<?> eventType) {
+        return Timer.builder("orders.command.visible.latency")
+                .description("Time from dispatching a command until its event is applied to the orders projection")
+                .tag("event", eventType.getSimpleName())
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,54 @@
+package com.hendisantika.springbootaxonsample1.tracing;
+
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.axonframework.messaging.correlation.CorrelationDataProvider;
+import org.axonframework.messaging.correlation.MessageOriginProvider;
+import org.axonframework.messaging.correlation.SimpleCorrelationDataProvider;
+import org.axonframework.tracing.SpanFactory;
+import org.axonframework.tracing.opentelemetry.OpenTelemetrySpanFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 08.12
+ */
+@Configuration
+public class TracingConfiguration {
+
+    /**
+     * Axon would otherwise trace through {@code GlobalOpenTelemetry}, which Spring Boot does not register, so hand it
+     * the OpenTelemetry instance that also traces the REST layer. The trace context travels in the message metadata.
+     */
+    @Bean
+    public SpanFactory spanFactory(OpenTelemetry openTelemetry) {
+        return OpenTelemetrySpanFactory.builder()
+                .tracer(openTelemetry.getTracer("AxonFramework-OpenTelemetry"))
+                .contextPropagators(openTelemetry.getPropagators().getTextMapPropagator())
+                .build();
+    }
+
+    @Bean
+    public CorrelationDataProvider messageOriginProvider() {
+        return new MessageOriginProvider();
+    }
+
+    @Bean
+    public CorrelationDataProvider commandDispatchTimestampProvider() {
+        return new SimpleCorrelationDataProvider(CommandDispatchTimestampInterceptor.DISPATCHED_AT);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "order.tracing.logging-exporter.enabled", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,32 @@
+package com.hendisantika.springbootaxonsample1.tracing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.axonframework.commandhandling.CommandBus;
+import org.axonframework.config.EventProcessingConfigurer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 08.40
+ */
+@Configuration
+public class TracingInterceptorConfiguration {
+
+    @Autowired
+    public void registerCommandDispatchTimestamp(CommandBus commandBus) {
+        commandBus.registerDispatchInterceptor(new CommandDispatchTimestampInterceptor());
+    }
+
+    @Autowired
+    public void registerCommandToVisibleLatency(EventProcessingConfigurer eventProcessingConfigurer,
+                                                MeterRegistry meterRegistry) {
+        eventProcessingConfigurer.registerHandlerInterceptor(
+                "orders", configuration -> new CommandToVisibleLatencyInterceptor(meterRegistry));
+    }
+}
@@ -0,0 +1,208 @@
+package com.hendisantika.springbootaxonsample1.warmup;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.AddProductCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.BatchOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.CreateOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.DecrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.PlaceOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ShipOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindAllOrderedProductsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrdersQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import com.hendisantika.springbootaxonsample1.order.OrderAggregate;
+import com.hendisantika.springbootaxonsample1.querymodel.InMemoryOrderStore;
+import com.hendisantika.springbootaxonsample1.querymodel.OrdersEventHandler;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.SimpleEventHandlerInvoker;
+import org.axonframework.eventhandling.SubscribingEventProcessor;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.responsetypes.ResponseTypes;
+import org.axonframework.modelling.command.AggregateAnnotationCommandHandler;
+import org.axonframework.queryhandling.DefaultQueryGateway;
+import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.SimpleQueryBus;
+import org.axonframework.queryhandling.annotation.AnnotationQueryHandlerAdapter;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 21.00
+ * <p>
+ * Runs the code that serves orders on made-up orders until the JIT compiler has little left to compile, so the first
+ * real requests do not pay for interpreting and compiling it. Every round wires the {@link OrderAggregate} and
+ * {@link OrdersEventHandler} to a command bus, query bus and event store of its own, kept in memory, and drops them
+ * afterwards; nothing reaches the real event store or read model. Each order is created or placed, has its products
+ * changed and is confirmed and mostly shipped, one change at a time or batched as the command dispatcher does. Its
+ * events are serialized and deserialized with the event serializer, and the orders found by the queries are written as
+ * JSON as the REST endpoints would.
+ * <p>
+ * Compilation has settled once it took less than a share of the time of a number of rounds in a row. An absolute
+ * amount does not work: the compiler keeps recompiling a little in most rounds long after the rounds stopped getting
+ * faster. Warming up also stops when the maximum duration passed.
+ */
+public class OrderWarmUp {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderWarmUp.class);
+
+    private static final Id CHAIR = Id.of("warm-up-chair");
+    private static final Id TABLE = Id.of("warm-up-table");
+    private static final Id LAMP = Id.of("warm-up-lamp");
+
+    private final Serializer eventSerializer;
+    private final JsonMapper jsonMapper;
+    private final int roundSize;
+    private final double settleShare;
+    private final int settleRounds;
+    private final Duration maxDuration;
+    private final CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+
+    public OrderWarmUp(Serializer eventSerializer,
+                       JsonMapper jsonMapper,
+                       int roundSize,
+                       double settleShare,
+                       int settleRounds,
+                       Duration maxDuration) {
+        this.eventSerializer = eventSerializer;
+        this.jsonMapper = jsonMapper;
+        this.roundSize = roundSize;
+        this.settleShare = settleShare;
+        this.settleRounds = settleRounds;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Runs rounds until compilation settled, and returns the number of rounds run.
+     */
+    public int run() {
+        boolean monitored = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        if (!monitored) {
+            logger.warn("The JVM does not report compilation time, warming up for {}", maxDuration);
+        }
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        long compiledAtStart = monitored ? compilation.getTotalCompilationTime() : 0;
+        int rounds = 0;
+        int quietRounds = 0;
+        while (quietRounds < settleRounds && System.nanoTime() < deadline) {
+            long compiledBefore = monitored ? compilation.getTotalCompilationTime() : 0;
+            long roundStart = System.nanoTime();
+            runRound(rounds);
+            rounds++;
+            if (monitored) {
+                long compiled = compilation.getTotalCompilationTime() - compiledBefore;
+                // Compilation time is only counted in milliseconds; the round is measured in nanoseconds, so that a
+                // round shorter than a millisecond without any compiling still counts as quiet.
+                long took = System.nanoTime() - roundStart;
+                logger.debug("Warm-up round {} took {} ms, compiling for {} ms", rounds,
+                             TimeUnit.NANOSECONDS.toMillis(took), compiled);
+                quietRounds = TimeUnit.MILLISECONDS.toNanos(compiled) < settleShare * took ? quietRounds + 1 : 0;
+            }
+        }
+        Duration took = Duration.ofNanos(System.nanoTime() - start);
+        if (quietRounds < settleRounds) {
+            logger.warn("Compilation did not settle within {}, stopped warming up after {} rounds", maxDuration, rounds);
+        } else {
+            logger.info("Compilation settled after {} rounds of {} orders in {} ms, compiling for {} ms", rounds,
+                        roundSize, took.toMillis(), compilation.getTotalCompilationTime() - compiledAtStart);
+        }
+        return rounds;
+    }
+
+    private void runRound(int round) {
+        EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+                .storageEngine(new InMemoryEventStorageEngine())
+                .build();
+        eventStore.subscribe(this::serialize);
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        AggregateAnnotationCommandHandler.<OrderAggregate>builder()
+                .aggregateType(OrderAggregate.class)
+                .repository(EventSourcingRepository.builder(OrderAggregate.class).eventStore(eventStore).build())
+                .build()
+                .subscribe(commandBus);
+        CommandGateway commandGateway = DefaultCommandGateway.builder().commandBus(commandBus).build();
+
+        OrdersEventHandler ordersEventHandler = new OrdersEventHandler(new InMemoryOrderStore());
+        SubscribingEventProcessor processor = SubscribingEventProcessor.builder()
+                .name("orders-warm-up")
+                .eventHandlerInvoker(SimpleEventHandlerInvoker.builder().eventHandlers(ordersEventHandler).build())
+                .messageSource(eventStore)
+                .build();
+        processor.start();
+        SimpleQueryBus queryBus = SimpleQueryBus.builder().build();
+        new AnnotationQueryHandlerAdapter<>(ordersEventHandler).subscribe(queryBus);
+        QueryGateway queryGateway = DefaultQueryGateway.builder().queryBus(queryBus).build();
+
+        try {
+            for (int i = 0; i < roundSize; i++) {
+                Id orderId = Id.of("warm-up-" + round + "-" + i);
+                if (i % 2 == 0) {
+                    commandGateway.sendAndWait(new CreateOrderCommand(orderId));
+                    commandGateway.sendAndWait(new AddProductCommand(orderId, CHAIR));
+                    commandGateway.sendAndWait(new AddProductCommand(orderId, TABLE));
+                } else {
+                    commandGateway.sendAndWait(new PlaceOrderCommand(orderId, List.of(CHAIR, TABLE), false, false));
+                }
+                if (i % 4 == 1) {
+                    commandGateway.sendAndWait(new BatchOrderCommand(orderId, List.of(
+                            new IncrementProductCountCommand(orderId, CHAIR),
+                            new AddProductCommand(orderId, LAMP),
+                            new DecrementProductCountCommand(orderId, CHAIR))));
+                } else {
+                    commandGateway.sendAndWait(new IncrementProductCountCommand(orderId, CHAIR));
+                    commandGateway.sendAndWait(new IncrementProductCountCommand(orderId, TABLE));
+                    commandGateway.sendAndWait(new DecrementProductCountCommand(orderId, CHAIR));
+                }
+                commandGateway.sendAndWait(new ConfirmOrderCommand(orderId));
+                if (i % 3 != 0) {
+                    commandGateway.sendAndWait(new ShipOrderCommand(orderId));
+                }
+                if (i % 10 == 0) {
+                    write(queryGateway.query(new FindOrdersQuery(OrderStatus.SHIPPED, LAMP),
+                                             ResponseTypes.multipleInstancesOf(Order.class)).join());
+                }
+            }
+            write(queryGateway.query(new FindAllOrderedProductsQuery(),
+                                     ResponseTypes.multipleInstancesOf(Order.class)).join());
+        } finally {
+            processor.shutDown();
+            eventStore.shutDown();
+        }
+    }
+
+    private void serialize(List<? extends EventMessage<?>> events) {
+        for (EventMessage<?> event : events) {
+            SerializedObject<byte[]> payload = eventSerializer.serialize(event.getPayload(), byte[].class);
+            SerializedObject<byte[]> metaData = eventSerializer.serialize(event.getMetaData(), byte[].class);
+            eventSerializer.deserialize(payload);
+            eventSerializer.deserialize(metaData);
+        }
+    }
+
+    private void write(List<Order> orders) {
+        jsonMapper.writeValueAsBytes(orders);
+    }
+}
@@ -0,0 +1,44 @@
+package com.hendisantika.springbootaxonsample1.warmup;
+
+import org.axonframework.serialization.Serializer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 21.20
+ * <p>
+ * Warms up the service on startup. Spring Boot only reports it ready to accept traffic once every application runner
+ * returned, so {@code /actuator/health/readiness} stays down until the warm-up is done, while liveness is already up.
+ */
+@Configuration
+@ConditionalOnProperty(name = "order.warm-up.enabled", havingValue = "true")
+public class WarmUpConfiguration {
+
+    @Bean
+    public OrderWarmUp orderWarmUp(@Qualifier("eventSerializer") Serializer eventSerializer,
+                                   JsonMapper jsonMapper,
+                                   @Value("${order.warm-up.round-size:500}") int roundSize,
+                                   @Value("${order.warm-up.settle-share:0.2}") double settleShare,
+                                   @Value("${order.warm-up.settle-rounds:3}") int settleRounds,
+                                   @Value("${order.warm-up.max-duration:PT60S}") Duration maxDuration) {
+        return new OrderWarmUp(eventSerializer, jsonMapper, roundSize, settleShare, settleRounds, maxDuration);
+    }
+
+    @Bean
+    public ApplicationRunner orderWarmUpRunner(OrderWarmUp orderWarmUp) {
+        return arguments -> orderWarmUp.run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.hendisantika.springbootaxonsample1;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 19.05
+ * <p>
+ * Records one phase of a workload with Java Flight Recorder. The bytes allocated by all threads during the phase come
+ * from the JVM's exact per-thread counters; the allocation samples of the recording are grouped by allocated type and
+ * allocating frame into a plain text report, sorted by their share of the sampled bytes.
+ */
+class AllocationRecorder implements AutoCloseable {
+
+    private static final int REPORTED_SITES = 30;
+
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Recording recording = new Recording();
+    private final long startBytes;
+
+    private AllocationRecorder() {
+        recording.enable("jdk.ObjectAllocationSample").with("throttle", "off").withStackTrace();
+        recording.setToDisk(true);
+        recording.start();
+        startBytes = threads.getTotalThreadAllocatedBytes();
+    }
+
+    static AllocationRecorder start() {
+        return new AllocationRecorder();
+    }
+
+    /**
+     * Stops the recording, keeps it next to the report and writes the report. Returns the bytes allocated since the
+     * recording started.
+     */
+    long stop(Path directory, String phase) throws IOException {
+        long allocatedBytes = threads.getTotalThreadAllocatedBytes() - startBytes;
+        recording.stop();
+        Files.createDirectories(directory);
+        Path file = directory.resolve(phase + ".jfr");
+        recording.dump(file);
+        Files.write(directory.resolve(phase + ".txt"), report(file, phase, allocatedBytes));
+        return allocatedBytes;
+    }
+
+    @Override
+    public void close() {
+        recording.close();
+    }
+
+    private static List<String> report(Path file, String phase, long allocatedBytes) throws IOException {
+        List<RecordedEvent> samples = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals("jdk.ObjectAllocationSample"))
+                .sorted(Comparator.comparing(RecordedEvent::getStartTime))
+                .toList();
+        Map<String, Long> weightBySite = new HashMap<>();
+        Set<Long> sampledThreads = new HashSet<>();
+        long totalWeight = 0;
+        for (RecordedEvent event : samples) {
+            // The weight is what the thread allocated since its previous sample, which for the first one goes back to
+            // before the recording started.
+            boolean first = sampledThreads.add(event.getThread("eventThread").getJavaThreadId());
+            if (first || isRecorder(event)) {
+                continue;
+            }
+            long weight = event.getLong("weight");
+            String site = event.getClass("objectClass").getName() + " at " + siteOf(event);
+            weightBySite.merge(site, weight, Long::sum);
+            totalWeight += weight;
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# " + phase + ": top allocation sites by share of sampled bytes (type at first non-JDK frame)");
+        lines.add("# total allocated: " + allocatedBytes + " bytes");
+        long sampledWeight = totalWeight;
+        weightBySite.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(REPORTED_SITES)
+                .forEach(site -> lines.add(String.format(Locale.ROOT, "%5.1f%%  %s",
+                                                         100.0 * site.getValue() / sampledWeight, site.getKey())));
+        return lines;
+    }
+
+    /**
+     * The frame that asked for the allocation, skipping the JDK classes it went through, such as collections.
+     */
+    private static String siteOf(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "<unknown>";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        RecordedFrame site = frames.stream()
+                .filter(frame -> frame.isJavaFrame() && !isJdk(frame.getMethod().getType().getName()))
+                .findFirst()
+                .orElse(frames.get(0));
+        return site.getMethod().getType().getName() + "." + site.getMethod().getName() + ":" + site.getLineNumber();
+    }
+
+    /**
+     * Buffers of the flight recorder itself, allocated while it starts and stops.
+     */
+    private static boolean isRecorder(RecordedEvent event) {
+        return event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+                .anyMatch(frame -> frame.getMethod().getType().getName().startsWith("jdk.jfr."));
+    }
+
+    private static boolean isJdk(String className) {
+        return className.startsWith("java.") || className.startsWith("javax.") || className.startsWith("jdk.")
+                || className.startsWith("sun.") || className.startsWith("com.sun.");
+    }
+}
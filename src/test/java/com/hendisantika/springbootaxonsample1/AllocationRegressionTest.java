@@ -0,0 +1,131 @@
+package com.hendisantika.springbootaxonsample1;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.gui.OrderRestEndpoint;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventhandling.EventProcessor;
+import org.axonframework.eventhandling.StreamingEventProcessor;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 19.20
+ * <p>
+ * Drives a fixed workload of orders through {@link OrderRestEndpoint} and afterwards through the {@code orders} event
+ * processor, and checks the bytes allocated per command and per event against {@code allocation-budgets.properties}.
+ * The top allocation sites of both phases are written to {@code target/allocation-report}. Runs against an embedded
+ * in-memory event store, with {@code mvn -Pallocation-tests test}.
+ */
+@Tag("allocation")
+@SpringBootTest(properties = {
+        "axon.axonserver.enabled=false",
+        "management.tracing.sampling.probability=0"
+})
+class AllocationRegressionTest {
+
+    private static final Path REPORT_DIRECTORY = Path.of("target", "allocation-report");
+    private static final int WARM_UP_ORDERS = 500;
+    private static final int ORDERS = 1_000;
+    private static final int MESSAGES_PER_ORDER = 7;
+    private static final Id DELUXE_CHAIR = Id.of("Deluxe Chair");
+    private static final Id DESK = Id.of("Desk");
+
+    @TestConfiguration
+    static class InMemoryEventStoreConfiguration {
+
+        @Bean
+        EventStore eventStore() {
+            return EmbeddedEventStore.builder().storageEngine(new InMemoryEventStorageEngine()).build();
+        }
+    }
+
+    @Autowired
+    private OrderRestEndpoint endpoint;
+
+    @Autowired
+    private EventStore eventStore;
+
+    @Autowired
+    private EventProcessingConfiguration eventProcessingConfiguration;
+
+    @Test
+    void givenOrderWorkload_whenRecorded_thenShouldStayWithinAllocationBudgets() throws Exception {
+        Properties budgets = budgets();
+        StreamingEventProcessor ordersProcessor = eventProcessingConfiguration
+                .eventProcessor("orders", StreamingEventProcessor.class)
+                .orElseThrow(() -> new IllegalStateException("No event processor for the orders processing group"));
+
+        placeOrders("warm-up", WARM_UP_ORDERS);
+        EventProcessors.awaitProcessed(ordersProcessor, eventStore, Duration.ofMinutes(1));
+        eventProcessingConfiguration.eventProcessors().values().forEach(EventProcessor::shutDown);
+
+        long commandBytes;
+        try (AllocationRecorder recorder = AllocationRecorder.start()) {
+            placeOrders("measured", ORDERS);
+            commandBytes = recorder.stop(REPORT_DIRECTORY, "commands");
+        }
+
+        long eventBytes;
+        try (AllocationRecorder recorder = AllocationRecorder.start()) {
+            ordersProcessor.start();
+            // Waits on the tokens rather than querying the read model, which would allocate more than the events.
+            EventProcessors.awaitProcessed(ordersProcessor, eventStore, Duration.ofMinutes(1));
+            eventBytes = recorder.stop(REPORT_DIRECTORY, "events");
+        }
+
+        assertWithinBudget("bytes per command", commandBytes / (ORDERS * MESSAGES_PER_ORDER),
+                           Long.parseLong(budgets.getProperty("command.bytes")));
+        assertWithinBudget("bytes per event", eventBytes / (ORDERS * MESSAGES_PER_ORDER),
+                           Long.parseLong(budgets.getProperty("event.bytes")));
+    }
+
+    /**
+     * Each order takes {@value MESSAGES_PER_ORDER} commands, each publishing one event.
+     */
+    private void placeOrders(String prefix, int orders) {
+        for (int i = 0; i < orders; i++) {
+            Id orderId = Id.of(prefix + "-" + i);
+            endpoint.createOrder(orderId, null).join();
+            endpoint.addProduct(orderId, DELUXE_CHAIR, null).join();
+            endpoint.addProduct(orderId, DESK, null).join();
+            endpoint.incrementProduct(orderId, DELUXE_CHAIR, null).join();
+            endpoint.decrementProduct(orderId, DELUXE_CHAIR, null).join();
+            endpoint.confirmOrder(orderId, null).join();
+            endpoint.shipOrder(orderId, null).join();
+        }
+    }
+
+    private static void assertWithinBudget(String measure, long actual, long budget) {
+        assertTrue(actual <= budget, measure + " were " + actual + ", over the budget of " + budget
+                + "; see " + REPORT_DIRECTORY.toAbsolutePath() + " for the top allocation sites");
+    }
+
+    private static Properties budgets() throws IOException {
+        Properties budgets = new Properties();
+        try (InputStream input = AllocationRegressionTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+            budgets.load(input);
+        }
+        return budgets;
+    }
+}
@@ -0,0 +1,60 @@
+package com.hendisantika.springbootaxonsample1;
+
+import org.axonframework.eventhandling.EventTrackerStatus;
+import org.axonframework.eventhandling.StreamingEventProcessor;
+import org.axonframework.eventhandling.TrackingToken;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 22.40
+ * <p>
+ * Lets tests wait for a streaming event processor to catch up with the event store.
+ */
+public final class EventProcessors {
+
+    private static final long ALL_SEGMENTS = 1L << 32;
+
+    private EventProcessors() {
+    }
+
+    /**
+     * Waits until every segment of the processor handled all events stored so far. A segment no thread claimed yet has
+     * not caught up, so the processor only has once its claimed segments cover all events between them.
+     */
+    public static void awaitProcessed(StreamingEventProcessor processor, EventStore eventStore, Duration timeout)
+            throws InterruptedException {
+        TrackingToken head = eventStore.createHeadToken();
+        if (head == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!caughtUp(processor.processingStatus().values(), head)) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Processor [" + processor.getName() + "] did not reach " + head
+                                                        + " within " + timeout);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static boolean caughtUp(Collection<EventTrackerStatus> statuses, TrackingToken head) {
+        long covered = 0;
+        for (EventTrackerStatus status : statuses) {
+            TrackingToken token = status.getTrackingToken();
+            if (token == null || !token.covers(head)) {
+                return false;
+            }
+            covered += ALL_SEGMENTS / (status.getSegment().getMask() + 1L);
+        }
+        return covered == ALL_SEGMENTS;
+    }
+}
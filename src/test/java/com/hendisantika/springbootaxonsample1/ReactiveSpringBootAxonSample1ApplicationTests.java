@@ -0,0 +1,21 @@
+package com.hendisantika.springbootaxonsample1;
+
+import com.hendisantika.springbootaxonsample1.gui.ReactiveOrderRestEndpoint;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+class ReactiveSpringBootAxonSample1ApplicationTests {
+
+    @Autowired
+    private ReactiveOrderRestEndpoint endpoint;
+
+    @Test
+    void contextLoads() {
+        assertNotNull(endpoint);
+    }
+
+}
@@ -0,0 +1,240 @@
+package com.hendisantika.springbootaxonsample1.dispatch;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.BatchCommandFailure;
+import com.hendisantika.springbootaxonsample1.coreapi.command.BatchOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.CreateOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.exceptions.OrderAlreadyConfirmedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.axonframework.commandhandling.CommandExecutionException;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 13.52
+ */
+class OrderCommandDispatcherTest {
+
+    private final BlockingQueue<Object> sent = new LinkedBlockingQueue<>();
+    private final BlockingQueue<CompletableFuture<Object>> pending = new LinkedBlockingQueue<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OrderCommandDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void givenBusyWorker_whenBulkAndPriorityCommandsQueued_thenShouldDispatchPriorityFirst() throws Exception {
+        dispatcher = dispatcher(100, 100, Duration.ofMinutes(1));
+        occupyWorker();
+
+        dispatcher.send(increment("order-b", "Deluxe Chair"));
+        dispatcher.send(new ConfirmOrderCommand(Id.of("order-c")));
+        completeNext();
+
+        assertEquals(new ConfirmOrderCommand(Id.of("order-c")), nextSent());
+        completeNext();
+        assertEquals(increment("order-b", "Deluxe Chair"), nextSent());
+    }
+
+    @Test
+    void givenHotOrder_whenOtherOrderQueuedBehindIt_thenShouldTakeTurns() throws Exception {
+        dispatcher = dispatcher(100, 100, Duration.ofMinutes(1));
+        occupyWorker();
+
+        dispatcher.send(increment("hot", "1"));
+        dispatcher.send(increment("hot", "2"));
+        dispatcher.send(increment("hot", "3"));
+        dispatcher.send(increment("other", "1"));
+        completeNext();
+
+        assertEquals(increment("hot", "1"), nextSent());
+        completeNext();
+        assertEquals(increment("other", "1"), nextSent());
+        completeNext();
+        assertEquals(increment("hot", "2"), nextSent());
+    }
+
+    @Test
+    void givenFullOrderQueue_whenCommandSent_thenShouldRejectAsOrderOverloaded() throws Exception {
+        dispatcher = dispatcher(100, 2, Duration.ofMinutes(1));
+        occupyWorker();
+
+        dispatcher.send(increment("hot", "1"));
+        dispatcher.send(increment("hot", "2"));
+        CompletableFuture<Object> rejected = dispatcher.send(increment("hot", "3"));
+
+        assertEquals(CommandRejectedException.Reason.ORDER_OVERLOADED, rejectionOf(rejected).getReason());
+        assertEquals(1, meterRegistry.get("orders.commands.rejected")
+                .tag("lane", "bulk").tag("reason", "order_overloaded").counter().count());
+    }
+
+    @Test
+    void givenFullLane_whenCommandSent_thenShouldRejectAsOverloaded() throws Exception {
+        dispatcher = dispatcher(2, 100, Duration.ofMinutes(1));
+        occupyWorker();
+
+        dispatcher.send(increment("order-a", "1"));
+        dispatcher.send(increment("order-b", "1"));
+        CompletableFuture<Object> rejected = dispatcher.send(increment("order-c", "1"));
+
+        assertEquals(CommandRejectedException.Reason.OVERLOADED, rejectionOf(rejected).getReason());
+        assertEquals(2, meterRegistry.get("orders.commands.queue.depth").tag("lane", "bulk").gauge().value());
+    }
+
+    @Test
+    void givenQueueExceedingLatencyBudget_whenCommandSent_thenShouldRejectWithRetryAfter() throws Exception {
+        // The service time estimate starts at one millisecond per command.
+        dispatcher = dispatcher(1000, 100, Duration.ofMillis(100));
+        occupyWorker();
+
+        for (int i = 0; i < 100; i++) {
+            dispatcher.send(increment("order-" + i, "Deluxe Chair"));
+        }
+        CompletableFuture<Object> rejected = dispatcher.send(increment("order-x", "1"));
+
+        CommandRejectedException rejection = rejectionOf(rejected);
+        assertEquals(CommandRejectedException.Reason.OVERLOADED, rejection.getReason());
+        assertEquals(Duration.ofMillis(101), rejection.getRetryAfter());
+    }
+
+    @Test
+    void givenBulkCommandQueuedForAnOrder_whenPriorityCommandFollowsForIt_thenShouldKeepTheirOrder() throws Exception {
+        dispatcher = dispatcher(100, 100, Duration.ofMinutes(1));
+        occupyWorker();
+
+        dispatcher.send(increment("order-a", "Deluxe Chair"));
+        dispatcher.send(new ConfirmOrderCommand(Id.of("order-a")));
+        dispatcher.send(new ConfirmOrderCommand(Id.of("order-b")));
+        completeNext();
+
+        assertEquals(new ConfirmOrderCommand(Id.of("order-b")), nextSent());
+        completeNext();
+        assertEquals(increment("order-a", "Deluxe Chair"), nextSent());
+        completeNext();
+        assertEquals(new ConfirmOrderCommand(Id.of("order-a")), nextSent());
+    }
+
+    @Test
+    void givenQueuedCommand_whenShutDown_thenShouldRejectIt() throws Exception {
+        dispatcher = dispatcher(100, 100, Duration.ofMinutes(1));
+        occupyWorker();
+        CompletableFuture<Object> queued = dispatcher.send(increment("order-a", "Deluxe Chair"));
+
+        dispatcher.shutdown();
+
+        assertEquals(CommandRejectedException.Reason.SHUTTING_DOWN, rejectionOf(queued).getReason());
+        assertEquals(CommandRejectedException.Reason.SHUTTING_DOWN,
+                     rejectionOf(dispatcher.send(increment("order-b", "Deluxe Chair"))).getReason());
+    }
+
+    private OrderCommandDispatcher dispatcher(int laneCapacity, int orderCapacity, Duration latencyBudget) {
+        return dispatcher(laneCapacity, orderCapacity, latencyBudget, false);
+    }
+
+    private OrderCommandDispatcher dispatcher(int laneCapacity, int orderCapacity, Duration latencyBudget,
+                                              boolean batching) {
+        CommandGateway commandGateway = mock(CommandGateway.class);
+        when(commandGateway.send(any())).thenAnswer(invocation -> {
+            CompletableFuture<Object> result = new CompletableFuture<>();
+            pending.add(result);
+            sent.add(invocation.getArgument(0));
+            return result;
+        });
+        return new OrderCommandDispatcher(commandGateway, meterRegistry, 1, laneCapacity, orderCapacity,
+                                          latencyBudget, batching, Duration.ZERO, 64);
+    }
+
+    @Test
+    void givenBatching_whenCommandsQueuedForSameOrder_thenShouldSendThemAsOneBatch() throws Exception {
+        dispatcher = dispatcher(100, 100, Duration.ofMinutes(1), true);
+        occupyWorker();
+
+        CompletableFuture<Object> first = dispatcher.send(increment("hot", "1"));
+        CompletableFuture<Object> second = dispatcher.send(increment("hot", "2"));
+        CompletableFuture<Object> third = dispatcher.send(increment("hot", "3"));
+        dispatcher.send(increment("other", "1"));
+        completeNext();
+
+        assertEquals(new BatchOrderCommand(Id.of("hot"), List.of(increment("hot", "1"),
+                                                                 increment("hot", "2"),
+                                                                 increment("hot", "3"))),
+                     nextSent());
+        BatchCommandFailure confirmed = BatchCommandFailure.of(new OrderAlreadyConfirmedException(Id.of("hot")));
+        pending.remove().complete(Arrays.asList(null, confirmed, null));
+
+        assertNull(first.join());
+        CompletionException failure = assertThrows(CompletionException.class, second::join);
+        CommandExecutionException executionFailure = assertInstanceOf(CommandExecutionException.class,
+                                                                      failure.getCause());
+        assertEquals(confirmed.getMessage(), executionFailure.getMessage());
+        assertEquals(Optional.of(confirmed), executionFailure.getDetails());
+        assertNull(third.join());
+        assertEquals(increment("other", "1"), nextSent());
+    }
+
+    @Test
+    void givenBatching_whenOrderCreatedWithCommandsQueuedBehind_thenShouldSendCreationOnItsOwn() throws Exception {
+        dispatcher = dispatcher(100, 100, Duration.ofMinutes(1), true);
+        occupyWorker();
+
+        dispatcher.send(new CreateOrderCommand(Id.of("new")));
+        dispatcher.send(new ConfirmOrderCommand(Id.of("new")));
+        completeNext();
+
+        assertEquals(new CreateOrderCommand(Id.of("new")), nextSent());
+        completeNext();
+        assertEquals(new ConfirmOrderCommand(Id.of("new")), nextSent());
+    }
+
+    private void occupyWorker() throws InterruptedException {
+        dispatcher.send(new ConfirmOrderCommand(Id.of("blocker")));
+        assertEquals(new ConfirmOrderCommand(Id.of("blocker")), nextSent());
+    }
+
+    private Object nextSent() throws InterruptedException {
+        return sent.poll(5, TimeUnit.SECONDS);
+    }
+
+    private void completeNext() {
+        pending.remove().complete(null);
+    }
+
+    private static CommandRejectedException rejectionOf(CompletableFuture<Object> result) {
+        CompletionException exception = assertThrows(CompletionException.class, result::join);
+        return assertInstanceOf(CommandRejectedException.class, exception.getCause());
+    }
+
+    private static IncrementProductCountCommand increment(String orderId, String productId) {
+        return new IncrementProductCountCommand(Id.of(orderId), Id.of(productId));
+    }
+}
@@ -0,0 +1,170 @@
+package com.hendisantika.springbootaxonsample1.dispatch;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.tracing.CommandDispatchTimestampInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.axonframework.commandhandling.CommandExecutionException;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.modelling.command.AggregateStreamCreationException;
+import org.axonframework.modelling.command.ConcurrencyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 21.55
+ */
+class OrderConflictRetrySchedulerTest {
+    private static final CommandMessage<?> HOT_ORDER_COMMAND = command("hot");
+    private static final ConcurrencyException CONFLICT = new ConcurrencyException("conflict");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private OrderConflictRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new OrderConflictRetryScheduler(meterRegistry, 3, Duration.ofMillis(1), Duration.ofMillis(8), 4,
+                                                    Duration.ofSeconds(1), 100, now::get,
+                                                    Executors.newSingleThreadScheduledExecutor());
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void givenConflictingCommand_whenSentThroughGateway_thenShouldSucceedAfterRetries() {
+        AtomicInteger attempts = new AtomicInteger();
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.subscribe(IncrementProductCountCommand.class.getName(), message -> {
+            if (attempts.incrementAndGet() <= 2) {
+                throw CONFLICT;
+            }
+            return "incremented";
+        });
+        CommandGateway gateway = DefaultCommandGateway.builder()
+                .commandBus(commandBus)
+                .retryScheduler(scheduler)
+                .build();
+
+        Object result = gateway.send(HOT_ORDER_COMMAND.getPayload()).join();
+
+        assertEquals("incremented", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2, meterRegistry.get("orders.commands.conflicts").counter().count());
+        assertEquals(2, meterRegistry.get("orders.commands.retries").counter().count());
+    }
+
+    @Test
+    void givenConflictingCommand_whenRetried_thenShouldKeepTheTimeOfItsFirstDispatch() {
+        List<Object> dispatchedAt = new ArrayList<>();
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.registerDispatchInterceptor(new CommandDispatchTimestampInterceptor());
+        commandBus.subscribe(IncrementProductCountCommand.class.getName(), message -> {
+            dispatchedAt.add(message.getMetaData().get(CommandDispatchTimestampInterceptor.DISPATCHED_AT));
+            if (dispatchedAt.size() == 1) {
+                Thread.sleep(20);
+                throw CONFLICT;
+            }
+            return "incremented";
+        });
+        CommandGateway gateway = new CommandGatewayConfiguration().commandGateway(commandBus, scheduler);
+
+        gateway.send(HOT_ORDER_COMMAND.getPayload()).join();
+
+        assertEquals(2, dispatchedAt.size());
+        assertNotNull(dispatchedAt.get(0));
+        assertEquals(dispatchedAt.get(0), dispatchedAt.get(1));
+    }
+
+    @Test
+    void givenFailures_whenScheduling_thenShouldRetryConflictsOnly() {
+        assertFalse(scheduleAfter(1, new IllegalStateException("Order is confirmed")));
+        assertFalse(scheduleAfter(1, new AggregateStreamCreationException("Order already exists")));
+        assertTrue(scheduleAfter(1, new CommandExecutionException("Remote conflict", CONFLICT)));
+        assertTrue(scheduleAfter(1, new CompletionException(CONFLICT)));
+    }
+
+    @Test
+    void givenCommandOutOfRetries_whenConflictingAgain_thenShouldGiveUp() {
+        assertTrue(scheduleAfter(3, CONFLICT));
+        assertFalse(scheduleAfter(4, CONFLICT));
+        assertEquals(1, meterRegistry.get("orders.commands.retries.exhausted").tag("reason", "attempts")
+                .counter().count());
+    }
+
+    @Test
+    void givenOrderOverItsBudget_whenConflicting_thenShouldStopRetryingOnlyThatOrderForTheWindow() {
+        for (int i = 0; i < 4; i++) {
+            assertTrue(scheduleAfter(1, CONFLICT));
+        }
+        assertEquals(1, meterRegistry.get("orders.commands.retry.contended").gauge().value());
+
+        assertFalse(scheduleAfter(1, CONFLICT));
+        assertTrue(scheduler.scheduleRetry(command("other"), CONFLICT, failures(1), () -> {
+        }));
+        assertEquals(1, meterRegistry.get("orders.commands.retries.exhausted").tag("reason", "order-budget")
+                .counter().count());
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(scheduleAfter(1, CONFLICT));
+    }
+
+    @Test
+    void givenRepeatedRetries_whenBackingOff_thenShouldStayBelowTheGrowingCeiling() {
+        long firstMax = 0;
+        long laterMax = 0;
+        for (int i = 0; i < 1_000; i++) {
+            firstMax = Math.max(firstMax, scheduler.backoffNanos(1));
+            laterMax = Math.max(laterMax, scheduler.backoffNanos(10));
+        }
+
+        assertTrue(firstMax <= Duration.ofMillis(1).toNanos());
+        assertTrue(laterMax <= Duration.ofMillis(8).toNanos());
+        assertTrue(laterMax > Duration.ofMillis(1).toNanos());
+    }
+
+    private boolean scheduleAfter(int failureCount, RuntimeException failure) {
+        return scheduler.scheduleRetry(HOT_ORDER_COMMAND, failure, failures(failureCount), () -> {
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Class<? extends Throwable>[]> failures(int count) {
+        List<Class<? extends Throwable>[]> failures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            failures.add(new Class[]{ConcurrencyException.class});
+        }
+        return failures;
+    }
+
+    private static CommandMessage<?> command(String orderId) {
+        return asCommandMessage(new IncrementProductCountCommand(Id.of(orderId), Id.of("Deluxe Chair")));
+    }
+}
@@ -0,0 +1,198 @@
+package com.hendisantika.springbootaxonsample1.eventstore;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountIncrementedEvent;
+import com.hendisantika.springbootaxonsample1.serialization.IdConverter;
+import com.thoughtworks.xstream.XStream;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.axonframework.common.jpa.SimpleEntityManagerProvider;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.EventStorageEngine;
+import org.axonframework.eventsourcing.eventstore.jpa.JpaEventStorageEngine;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.axonframework.spring.messaging.unitofwork.SpringTransactionManager;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 16.50
+ * <p>
+ * Compares the mapped event storage engine, syncing to disk and not, with the JPA engine on a file-based H2 database,
+ * which by default writes its commits out in the background rather than syncing each of them. For each: the events
+ * per second appended by several client threads, one event per transaction as a command on an order appends it; the
+ * mean and 99th percentile time per append; the mean time to source an order of 200 events; and the events per second
+ * a tracking processor reads from the start, deserializing every payload as handling it would. Run through
+ * {@code scripts/event-store-benchmark.sh}.
+ */
+public class EventStoreBenchmark {
+
+    private static final String TYPE = "OrderAggregate";
+    private static final int SOURCED_ORDERS = 100;
+    private static final int EVENTS_PER_SOURCED_ORDER = 200;
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 4 * Runtime.getRuntime().availableProcessors();
+        Path directory = Path.of(args.length > 2 ? args[2] : "target/event-store-benchmark");
+        XStream xStream = new XStream();
+        xStream.allowTypesByWildcard(new String[]{"com.hendisantika.**"});
+        xStream.registerConverter(new IdConverter());
+        XStreamSerializer serializer = XStreamSerializer.builder().xStream(xStream).build();
+        System.out.printf("%d client(s), %d s of appends per engine, %d core(s)%n", clients, seconds,
+                          Runtime.getRuntime().availableProcessors());
+
+        for (boolean sync : new boolean[]{true, false}) {
+            FileSystemUtils.deleteRecursively(directory);
+            try (MappedEventStorageEngine engine = MappedEventStorageEngine.builder()
+                    .eventSerializer(serializer)
+                    .snapshotSerializer(serializer)
+                    .directory(directory)
+                    .sync(sync)
+                    .build()) {
+                run(sync ? "mapped, synced" : "mapped, not synced", engine, Runnable::run, seconds, clients);
+                System.out.printf("%-20s %,d batches in %,d syncs%n", "", engine.getBatchCount(),
+                                  engine.getSyncCount());
+            }
+        }
+
+        FileSystemUtils.deleteRecursively(directory);
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setJdbcUrl("jdbc:h2:file:" + directory.toAbsolutePath().resolve("events"));
+            dataSource.setMaximumPoolSize(clients);
+            LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+            factoryBean.setDataSource(dataSource);
+            factoryBean.setPackagesToScan("org.axonframework.eventsourcing.eventstore.jpa");
+            factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create"));
+            factoryBean.afterPropertiesSet();
+            EntityManagerFactory entityManagerFactory = factoryBean.getObject();
+            TransactionManager transactionManager =
+                    new SpringTransactionManager(new JpaTransactionManager(entityManagerFactory));
+            JpaEventStorageEngine engine = JpaEventStorageEngine.builder()
+                    .entityManagerProvider(new SimpleEntityManagerProvider(
+                            SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory)))
+                    .transactionManager(transactionManager)
+                    .eventSerializer(serializer)
+                    .snapshotSerializer(serializer)
+                    .build();
+            run("jpa, h2 file", engine, transactionManager::executeInTransaction, seconds, clients);
+            factoryBean.destroy();
+        }
+    }
+
+    private static void run(String name, EventStorageEngine engine, Transactions transactions, int seconds,
+                            int clients) throws Exception {
+        // Warms up before measuring.
+        append(engine, transactions, clients, Math.max(1, seconds / 5));
+        long[] latencies = append(engine, transactions, clients, seconds);
+        Arrays.sort(latencies);
+        long total = Arrays.stream(latencies).sum();
+        System.out.printf("%-20s appends %,9d events/s, mean %.3f ms, p99 %.3f ms%n", name,
+                          latencies.length / seconds, total / 1e6 / latencies.length,
+                          latencies[(int) (latencies.length * 0.99)] / 1e6);
+
+        List<Id> orderIds = new ArrayList<>();
+        for (int i = 0; i < SOURCED_ORDERS; i++) {
+            orderIds.add(Id.random());
+        }
+        for (int sequenceNumber = 0; sequenceNumber < EVENTS_PER_SOURCED_ORDER; sequenceNumber++) {
+            for (Id orderId : orderIds) {
+                long next = sequenceNumber;
+                transactions.execute(() -> engine.appendEvents(event(orderId, next)));
+            }
+        }
+        long start = 0;
+        // The first round warms up sourcing before measuring.
+        for (int round = 0; round <= 3; round++) {
+            if (round == 1) {
+                start = System.nanoTime();
+            }
+            for (Id orderId : orderIds) {
+                transactions.execute(() -> engine.readEvents(orderId.toString()).asStream()
+                        .forEach(EventMessage::getPayload));
+            }
+        }
+        long sourceNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long[] read = new long[1];
+        transactions.execute(() -> engine.readEvents(null, false).forEach(event -> {
+            event.getPayload();
+            read[0]++;
+        }));
+        long readNanos = System.nanoTime() - start;
+        System.out.printf("%-20s sources %d events in %.3f ms; tracks %,d events at %,.0f events/s%n", "",
+                          EVENTS_PER_SOURCED_ORDER, sourceNanos / 1e6 / (3 * SOURCED_ORDERS), read[0],
+                          read[0] / (readNanos / 1e9));
+    }
+
+    private static long[] append(EventStorageEngine engine, Transactions transactions, int clients, int seconds)
+            throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<long[]>> results = new ArrayList<>();
+            for (int client = 0; client < clients; client++) {
+                results.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    Id orderId = Id.random();
+                    while (running.get()) {
+                        long sequenceNumber = count;
+                        long start = System.nanoTime();
+                        transactions.execute(() -> engine.appendEvents(event(orderId, sequenceNumber)));
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            Thread.sleep(seconds * 1_000L);
+            running.set(false);
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] latencies = result.get();
+                int size = all.length;
+                all = Arrays.copyOf(all, size + latencies.length);
+                System.arraycopy(latencies, 0, all, size, latencies.length);
+            }
+            return all;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static GenericDomainEventMessage<?> event(Id orderId, long sequenceNumber) {
+        return new GenericDomainEventMessage<>(TYPE, orderId.toString(), sequenceNumber,
+                                               new ProductCountIncrementedEvent(orderId, Id.of("Deluxe Chair")));
+    }
+
+    private interface Transactions {
+
+        void execute(Runnable task);
+    }
+}
@@ -0,0 +1,202 @@
+package com.hendisantika.springbootaxonsample1.eventstore;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.hendisantika.springbootaxonsample1.serialization.IdConverter;
+import com.thoughtworks.xstream.XStream;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.TrackedEventMessage;
+import org.axonframework.modelling.command.AggregateStreamCreationException;
+import org.axonframework.modelling.command.ConcurrencyException;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 16.30
+ */
+class MappedEventStorageEngineTest {
+
+    private static final String TYPE = "OrderAggregate";
+
+    @TempDir
+    Path directory;
+
+    private XStreamSerializer serializer;
+    private MappedEventStorageEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        XStream xStream = new XStream();
+        xStream.allowTypesByWildcard(new String[]{"com.hendisantika.**"});
+        xStream.registerConverter(new IdConverter());
+        serializer = XStreamSerializer.builder().xStream(xStream).build();
+        engine = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
+    @Test
+    void givenEventsOverSeveralSegments_whenReopened_thenShouldReadThemByAggregateAndInOrder() throws IOException {
+        List<Id> orderIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            orderIds.add(Id.of("order-" + i));
+        }
+        // Interleaves the orders, one batch per order and round, so that every segment holds several of them.
+        for (int round = 0; round < 5; round++) {
+            for (Id orderId : orderIds) {
+                engine.appendEvents(event(orderId, round));
+            }
+        }
+        assertTrue(Files.list(directory.resolve("events")).count() > 4, "Expected several segments");
+        verifyEvents(orderIds);
+
+        engine.close();
+        // A missing index is rebuilt from its segment.
+        Files.delete(directory.resolve("events").resolve("events-0000000001.idx"));
+        engine = open();
+        verifyEvents(orderIds);
+        engine.appendEvents(event(orderIds.get(0), 5));
+        assertEquals(Optional.of(5L), engine.lastSequenceNumberFor(orderIds.get(0).toString()));
+        assertEquals(new GlobalSequenceTrackingToken(100), engine.createHeadToken());
+    }
+
+    @Test
+    void givenTornTail_whenReopened_thenShouldDropTheIncompleteBatchOnly() throws IOException {
+        Id orderId = Id.of("order-1");
+        engine.appendEvents(event(orderId, 0), event(orderId, 1));
+        engine.appendEvents(event(orderId, 2), event(orderId, 3));
+        engine.close();
+        corruptLastByte(directory.resolve("events").resolve("events-0000000000.log"));
+
+        engine = open();
+        assertEquals(List.of(0L, 1L), sequenceNumbers(orderId));
+        assertEquals(new GlobalSequenceTrackingToken(1), engine.createHeadToken());
+        engine.appendEvents(event(orderId, 2));
+        assertEquals(List.of(0L, 1L, 2L), sequenceNumbers(orderId));
+        assertEquals(List.of(0L, 1L, 2L), engine.readEvents(null, false)
+                .map(event -> ((GlobalSequenceTrackingToken) event.trackingToken()).getGlobalIndex())
+                .toList());
+    }
+
+    @Test
+    void givenTakenSequenceNumber_whenAppending_thenShouldRejectTheConflict() {
+        Id orderId = Id.of("order-1");
+        engine.appendEvents(event(orderId, 0));
+        assertThrows(AggregateStreamCreationException.class, () -> engine.appendEvents(event(orderId, 0)));
+        engine.appendEvents(event(orderId, 1));
+        assertThrows(ConcurrencyException.class, () -> engine.appendEvents(event(orderId, 2), event(orderId, 1)));
+
+        assertEquals(List.of(0L, 1L), sequenceNumbers(orderId));
+        assertEquals(Optional.of(1L), engine.lastSequenceNumberFor(orderId.toString()));
+        assertEquals(Optional.empty(), engine.lastSequenceNumberFor("unknown"));
+    }
+
+    @Test
+    void givenSnapshots_whenReopened_thenShouldReadTheLatestOneAndEarlierOnesByPoint() {
+        Id orderId = Id.of("order-1");
+        assertFalse(engine.readSnapshot(orderId.toString()).isPresent());
+        Instant taken = Instant.now();
+        engine.storeSnapshot(new GenericDomainEventMessage<>(TYPE, orderId.toString(), 3, "first"));
+        engine.storeSnapshot(new GenericDomainEventMessage<>(TYPE, orderId.toString(), 7, "second"));
+        engine.close();
+
+        engine = open();
+        DomainEventMessage<?> snapshot = engine.readSnapshot(orderId.toString()).orElseThrow();
+        assertEquals(7, snapshot.getSequenceNumber());
+        assertEquals("second", snapshot.getPayload());
+        assertEquals("first", engine.readSnapshot(orderId.toString(), 6, Instant.MAX).orElseThrow().getPayload());
+        assertEquals("second", engine.readSnapshot(orderId.toString(), 7, Instant.MAX).orElseThrow().getPayload());
+        assertFalse(engine.readSnapshot(orderId.toString(), 2, Instant.MAX).isPresent());
+        assertFalse(engine.readSnapshot(orderId.toString(), 7, taken.minusSeconds(1)).isPresent());
+        assertNull(engine.createHeadToken());
+    }
+
+    private MappedEventStorageEngine open() {
+        return MappedEventStorageEngine.builder()
+                .eventSerializer(serializer)
+                .snapshotSerializer(serializer)
+                .directory(directory)
+                .segmentSize(4096)
+                .build();
+    }
+
+    private void verifyEvents(List<Id> orderIds) {
+        for (Id orderId : orderIds) {
+            assertEquals(List.of(0L, 1L, 2L, 3L, 4L), sequenceNumbers(orderId));
+            assertEquals(List.of(3L, 4L), engine.readEvents(orderId.toString(), 3).asStream()
+                    .map(DomainEventMessage::getSequenceNumber)
+                    .toList());
+        }
+        List<? extends TrackedEventMessage<?>> all = engine.readEvents(null, false).toList();
+        assertEquals(100, all.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(new GlobalSequenceTrackingToken(i), all.get(i).trackingToken());
+            DomainEventMessage<?> event = (DomainEventMessage<?>) all.get(i);
+            assertEquals(orderIds.get(i % 20).toString(), event.getAggregateIdentifier());
+            assertEquals(i / 20, event.getSequenceNumber());
+        }
+        try (Stream<? extends TrackedEventMessage<?>> rest = engine.readEvents(new GlobalSequenceTrackingToken(89),
+                                                                               false)) {
+            assertEquals(10, rest.count());
+        }
+    }
+
+    private List<Long> sequenceNumbers(Id orderId) {
+        return engine.readEvents(orderId.toString()).asStream().map(DomainEventMessage::getSequenceNumber).toList();
+    }
+
+    private static DomainEventMessage<?> event(Id orderId, long sequenceNumber) {
+        Object payload = switch ((int) sequenceNumber) {
+            case 0 -> new OrderCreatedEvent(orderId);
+            case 4 -> new OrderConfirmedEvent(orderId);
+            default -> new ProductAddedEvent(orderId, Id.of("product-" + sequenceNumber));
+        };
+        return new GenericDomainEventMessage<>(TYPE, orderId.toString(), sequenceNumber, payload);
+    }
+
+    private static void corruptLastByte(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer bytes = ByteBuffer.allocate((int) channel.size());
+            channel.read(bytes, 0);
+            int last = bytes.capacity() - 1;
+            while (bytes.get(last) == 0) {
+                last--;
+            }
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) ~bytes.get(last)}), last);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.hendisantika.springbootaxonsample1.gui;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 09.40
+ */
+class IdempotencyStoreTest {
+    private static final String KEY = "retry-1";
+    private static final ConfirmOrderCommand COMMAND = new ConfirmOrderCommand(Id.of("order-1"));
+
+    private MutableClock clock;
+    private IdempotencyStore store;
+    private AtomicInteger invocations;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        store = new IdempotencyStore(2, Duration.ofMinutes(10), clock);
+        invocations = new AtomicInteger();
+    }
+
+    @Test
+    void givenCompletedRequest_whenRetried_thenShouldAnswerFromStoreWithoutInvokingAgain() {
+        store.execute(KEY, COMMAND, this::succeed).join();
+
+        assertEquals("result-1", store.execute(KEY, COMMAND, this::succeed).join());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void givenPendingRequest_whenDuplicateArrives_thenShouldWaitForFirstResult() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> first = store.execute(KEY, COMMAND, () -> {
+            invocations.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> duplicate = store.execute(KEY, COMMAND, this::succeed);
+
+        assertFalse(duplicate.isDone());
+        pending.complete("done");
+        assertEquals("done", first.join());
+        assertEquals("done", duplicate.join());
+        assertEquals(1, invocations.get());
+    }
+
+    @Test
+    void givenSameKey_whenDifferentCommand_thenShouldInvokeAgain() {
+        store.execute(KEY, COMMAND, this::succeed).join();
+        store.execute(KEY, new ConfirmOrderCommand(Id.of("order-2")), this::succeed).join();
+
+        assertEquals(2, invocations.get());
+    }
+
+    @Test
+    void givenFailedRequest_whenRetried_thenShouldInvokeAgain() {
+        CompletableFuture<String> failed = store.execute(KEY, COMMAND, () -> {
+            invocations.incrementAndGet();
+            return CompletableFuture.failedFuture(new IllegalStateException("boom"));
+        });
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals("result-2", store.execute(KEY, COMMAND, this::succeed).join());
+    }
+
+    @Test
+    void givenExpiredEntry_whenRetried_thenShouldInvokeAgain() {
+        store.execute(KEY, COMMAND, this::succeed).join();
+        clock.advance(Duration.ofMinutes(11));
+
+        assertEquals("result-2", store.execute(KEY, COMMAND, this::succeed).join());
+    }
+
+    @Test
+    void givenFullStore_whenNewKeyArrives_thenShouldEvictOldestEntry() {
+        store.execute("key-1", COMMAND, this::succeed).join();
+        store.execute("key-2", COMMAND, this::succeed).join();
+        store.execute("key-3", COMMAND, this::succeed).join();
+
+        assertEquals(2, store.size());
+        assertEquals("result-4", store.execute("key-1", COMMAND, this::succeed).join());
+    }
+
+    @Test
+    void givenPendingRequest_whenStoreFillsUp_thenShouldKeepItUntilItCompletes() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        store.execute(KEY, COMMAND, () -> {
+            invocations.incrementAndGet();
+            return pending;
+        });
+        store.execute("key-2", COMMAND, this::succeed).join();
+        store.execute("key-3", COMMAND, this::succeed).join();
+
+        CompletableFuture<String> duplicate = store.execute(KEY, COMMAND, this::succeed);
+        assertFalse(duplicate.isDone());
+        assertEquals(3, invocations.get());
+
+        pending.complete("done");
+        assertEquals("done", duplicate.join());
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void givenPendingRequest_whenItOutlivesItsTimeToLive_thenShouldKeepItUntilItCompletes() {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        store.execute(KEY, COMMAND, () -> {
+            invocations.incrementAndGet();
+            return pending;
+        });
+        clock.advance(Duration.ofMinutes(11));
+
+        CompletableFuture<String> duplicate = store.execute(KEY, COMMAND, this::succeed);
+        assertFalse(duplicate.isDone());
+        pending.complete("done");
+        assertEquals("done", duplicate.join());
+        assertEquals(1, invocations.get());
+    }
+
+    private CompletableFuture<String> succeed() {
+        return CompletableFuture.completedFuture("result-" + invocations.incrementAndGet());
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now = Instant.parse("2026-10-19T09:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.hendisantika.springbootaxonsample1.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 13.05
+ */
+class BoundedAsyncAppenderTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private final Logger logger = loggerContext.getLogger("test");
+
+    @BeforeEach
+    void setUp() {
+        loggerContext.setMDCAdapter(new LogbackMDCAdapter());
+    }
+
+    @Test
+    void givenStartedAppender_whenStopped_thenShouldHaveDeliveredEveryEventInOrder() {
+        RecordingAppender recording = new RecordingAppender(new CountDownLatch(0));
+        BoundedAsyncAppender appender = start(recording, 100, 0);
+
+        for (int i = 0; i < 50; i++) {
+            appender.doAppend(event(Level.INFO, "event " + i));
+        }
+        appender.stop();
+
+        assertEquals(50, recording.events.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("event " + i, recording.events.get(i).getMessage());
+        }
+        assertEquals(0, appender.getOverflowedCount() + appender.getDiscardedCount());
+    }
+
+    @Test
+    void givenBlockedAppender_whenQueueIsFull_thenShouldDropAndCountInsteadOfBlocking() {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAppender recording = new RecordingAppender(release);
+        BoundedAsyncAppender appender = start(recording, 4, 0);
+
+        for (int i = 0; i < 20; i++) {
+            appender.doAppend(event(Level.ERROR, "event " + i));
+        }
+        release.countDown();
+        appender.stop();
+
+        // At most the queue and the one event the worker holds get through.
+        assertTrue(appender.getOverflowedCount() >= 15);
+        assertEquals(20, recording.events.size() + appender.getOverflowedCount());
+        assertEquals(0, appender.getDiscardedCount());
+    }
+
+    @Test
+    void givenQueueBelowDiscardingThreshold_whenAppending_thenShouldDiscardInfoButKeepWarnings() {
+        RecordingAppender recording = new RecordingAppender(new CountDownLatch(0));
+        BoundedAsyncAppender appender = start(recording, 10, 11);
+
+        appender.doAppend(event(Level.DEBUG, "debug"));
+        appender.doAppend(event(Level.INFO, "info"));
+        appender.doAppend(event(Level.WARN, "warn"));
+        appender.stop();
+
+        assertEquals(List.of("warn"), recording.events.stream().map(ILoggingEvent::getMessage).toList());
+        assertEquals(2, appender.getDiscardedCount());
+    }
+
+    @Test
+    void givenMutableArgument_whenChangedAfterLogging_thenShouldWriteItAsItWasLogged() {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAppender recording = new RecordingAppender(release);
+        BoundedAsyncAppender appender = start(recording, 10, 0);
+        StringBuilder status = new StringBuilder("pending");
+
+        appender.doAppend(new LoggingEvent(Logger.FQCN, logger, Level.WARN, "order is {}", null,
+                                           new Object[]{status}));
+        status.replace(0, status.length(), "confirmed");
+        release.countDown();
+        appender.stop();
+
+        assertEquals("order is pending", recording.events.get(0).getFormattedMessage());
+    }
+
+    private BoundedAsyncAppender start(RecordingAppender recording, int queueSize, int discardingThreshold) {
+        recording.setContext(loggerContext);
+        recording.start();
+        BoundedAsyncAppender appender = new BoundedAsyncAppender();
+        appender.setContext(loggerContext);
+        appender.setName("test");
+        appender.setQueueSize(queueSize);
+        appender.setDiscardingThreshold(discardingThreshold);
+        appender.setMaxFlushTime(10_000);
+        appender.addAppender(recording);
+        appender.start();
+        return appender;
+    }
+
+    private ILoggingEvent event(Level level, String message) {
+        return new LoggingEvent(Logger.FQCN, logger, level, message, null, null);
+    }
+
+    private static final class RecordingAppender extends AppenderBase<ILoggingEvent> {
+        private final List<ILoggingEvent> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        private RecordingAppender(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.hendisantika.springbootaxonsample1.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.joran.JoranConfigurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.joran.spi.JoranException;
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.callbacks.NoOpCallback;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 13.40
+ * <p>
+ * Measures the commands per second a command bus handles from several client threads while every handled command is
+ * logged, for the logging configuration before the asynchronous pipeline (a synchronous console appender with a
+ * pattern) and for the current one (a bounded asynchronous appender with a JSON encoder), unsampled and with the
+ * default sample rate; and without any message logging for reference. What the configurations write to the console is
+ * written to a log file instead, as a console would be redirected to one in production; the results are printed. Run
+ * through {@code scripts/logging-benchmark.sh}.
+ */
+public class LoggingBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 4 * Runtime.getRuntime().availableProcessors();
+        Path log = Path.of(args.length > 2 ? args[2] : "target/logging-benchmark.log");
+        Files.deleteIfExists(log);
+        System.out.printf("%d client(s), %d s per configuration, logs in %s%n", clients, seconds, log);
+        run("no message logging", "/logback.xml", null, seconds, clients, log);
+        run("synchronous pattern, unsampled", "/logback-benchmark-sync.xml", 1, seconds, clients, log);
+        run("asynchronous JSON, unsampled", "/logback.xml", 1, seconds, clients, log);
+        run("asynchronous JSON, 1 in 10", "/logback.xml", 10, seconds, clients, log);
+    }
+
+    private static void run(String name, String configuration, Integer sampleRate, int seconds, int clients,
+                            Path log) throws Exception {
+        configure(LoggingBenchmark.class.getResource(configuration), log);
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        MessageLogInterceptor interceptor = null;
+        if (sampleRate != null) {
+            interceptor = new MessageLogInterceptor("commands", sampleRate, Map.of());
+            commandBus.registerHandlerInterceptor(interceptor);
+        }
+        commandBus.subscribe(ConfirmOrderCommand.class.getName(), command -> null);
+
+        // Warms up before measuring.
+        measure(commandBus, clients, Math.max(1, seconds / 5));
+        long commands = measure(commandBus, clients, seconds);
+        BoundedAsyncAppender appender = (BoundedAsyncAppender) ((LoggerContext) LoggerFactory.getILoggerFactory())
+                .getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).getAppender("ASYNC");
+        System.out.printf("%-32s %,10d commands/s; dropped %,d, sampled out %,d%n", name, commands / seconds,
+                          appender == null ? 0 : appender.getDiscardedCount() + appender.getOverflowedCount(),
+                          interceptor == null ? 0 : interceptor.getSampledOutCount());
+    }
+
+    private static long measure(SimpleCommandBus commandBus, int clients, int seconds) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<Long>> counts = new ArrayList<>();
+            for (int client = 0; client < clients; client++) {
+                counts.add(executor.submit(() -> {
+                    long count = 0;
+                    Id orderId = Id.random();
+                    while (running.get()) {
+                        commandBus.dispatch(asCommandMessage(new ConfirmOrderCommand(orderId)), NoOpCallback.INSTANCE);
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            Thread.sleep(seconds * 1_000L);
+            running.set(false);
+            long total = 0;
+            for (Future<Long> count : counts) {
+                total += count.get();
+            }
+            return total;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void configure(URL configuration, Path log) throws JoranException, IOException {
+        LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+        JoranConfigurator configurator = new JoranConfigurator();
+        configurator.setContext(loggerContext);
+        configurator.doConfigure(configuration);
+        for (Logger logger : loggerContext.getLoggerList()) {
+            for (Iterator<Appender<ILoggingEvent>> appenders = logger.iteratorForAppenders(); appenders.hasNext(); ) {
+                redirect(appenders.next(), log);
+            }
+        }
+    }
+
+    /**
+     * Points the console appenders, including those behind the asynchronous appender, at the log file. Resetting the
+     * logger context closes the file again.
+     */
+    private static void redirect(Appender<ILoggingEvent> appender, Path log) throws IOException {
+        if (appender instanceof ConsoleAppender<ILoggingEvent> console) {
+            console.setOutputStream(new BufferedOutputStream(new FileOutputStream(log.toFile(), true)));
+        } else if (appender instanceof BoundedAsyncAppender async) {
+            for (Iterator<Appender<ILoggingEvent>> appenders = async.iteratorForAppenders(); appenders.hasNext(); ) {
+                redirect(appenders.next(), log);
+            }
+        }
+    }
+}
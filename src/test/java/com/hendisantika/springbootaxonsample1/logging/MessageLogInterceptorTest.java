@@ -0,0 +1,91 @@
+package com.hendisantika.springbootaxonsample1.logging;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ShipOrderCommand;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.KeyValuePair;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 13.20
+ */
+class MessageLogInterceptorTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger("orders.messages.commands");
+    private final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    private final MessageLogInterceptor interceptor =
+            new MessageLogInterceptor("commands", 10, Map.of("ShipOrderCommand", 1));
+
+    @BeforeEach
+    void setUp() {
+        appender.setContext(logger.getLoggerContext());
+        appender.start();
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setAdditive(true);
+    }
+
+    @Test
+    void givenDefaultSampleRate_whenHandlingCommands_thenShouldLogOneInEveryTen() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            handle(new ConfirmOrderCommand(Id.random()));
+        }
+
+        assertEquals(3, appender.list.size());
+        assertEquals("orders.messages.commands.ConfirmOrderCommand", appender.list.get(0).getLoggerName());
+        assertEquals(22, interceptor.getSampledOutCount());
+    }
+
+    @Test
+    void givenSampleRateForPayloadType_whenHandlingCommands_thenShouldLogAtThatRate() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            handle(new ShipOrderCommand(Id.random()));
+        }
+
+        assertEquals(5, appender.list.size());
+        assertEquals(0, interceptor.getSampledOutCount());
+    }
+
+    @Test
+    void givenFailingHandler_whenHandlingCommand_thenShouldLogTheFailureAndRethrow() {
+        DefaultUnitOfWork<?> unitOfWork = new DefaultUnitOfWork<>(asCommandMessage(new ShipOrderCommand(Id.random())));
+
+        assertThrows(IllegalStateException.class, () -> interceptor.handle(unitOfWork, () -> {
+            throw new IllegalStateException("Rejected");
+        }));
+
+        List<String> keys = appender.list.get(0).getKeyValuePairs().stream().map(pair -> pair.key).toList();
+        assertEquals(List.of("messageId", "micros", "sampleRate", "failure"), keys);
+        KeyValuePair failure = appender.list.get(0).getKeyValuePairs().get(3);
+        assertEquals(IllegalStateException.class.getName(), failure.value);
+    }
+
+    private void handle(Object command) throws Exception {
+        interceptor.handle(new DefaultUnitOfWork<>(asCommandMessage(command)), () -> null);
+    }
+}
@@ -0,0 +1,98 @@
+package com.hendisantika.springbootaxonsample1.migration;
+
+import com.hendisantika.springbootaxonsample1.eventstore.MappedEventStorageEngine;
+import com.hendisantika.springbootaxonsample1.order.OrderIdIndex;
+import com.hendisantika.springbootaxonsample1.serialization.IdConverter;
+import com.thoughtworks.xstream.XStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.axonframework.common.transaction.NoTransactionManager;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 19.40
+ * <p>
+ * Imports a generated NDJSON file of orders into a synced {@link MappedEventStorageEngine}, once appending every order
+ * in a transaction of its own as migrating it command by command would, and then in batches with one to four workers.
+ * Prints the orders and events imported per second of each. Run through {@code scripts/order-import-benchmark.sh}.
+ */
+public class OrderImportBenchmark {
+
+    private static final String[] STATUSES = {"CREATED", "CONFIRMED", "SHIPPED"};
+
+    public static void main(String[] args) throws IOException {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        Path directory = Path.of(args.length > 2 ? args[2] : "target/order-import-benchmark");
+        FileSystemUtils.deleteRecursively(directory);
+        Files.createDirectories(directory);
+        Path file = generate(directory.resolve("orders.ndjson"), orders);
+        System.out.printf("%,d orders, %d core(s)%n", orders, Runtime.getRuntime().availableProcessors());
+
+        run("one order per transaction", directory.resolve("per-order"), file, 1, 1);
+        for (int workers = 1; workers <= 4; workers *= 2) {
+            run(workers + " worker(s), " + batchSize + " events per transaction",
+                directory.resolve("batched-" + workers), file, workers, batchSize);
+        }
+    }
+
+    /**
+     * Writes orders of one to five products, ordered one to three times each, in every status.
+     */
+    private static Path generate(Path file, int orders) throws IOException {
+        Random random = new Random(42);
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < orders; i++) {
+                StringBuilder line = new StringBuilder("{\"orderId\":\"order-").append(i)
+                        .append("\",\"orderStatus\":\"").append(STATUSES[random.nextInt(STATUSES.length)])
+                        .append("\",\"products\":{");
+                int products = 1 + random.nextInt(5);
+                for (int product = 0; product < products; product++) {
+                    line.append(product == 0 ? "" : ",").append("\"product-").append(product).append("\":")
+                            .append(1 + random.nextInt(3));
+                }
+                writer.write(line.append("}}\n").toString());
+            }
+        }
+        return file;
+    }
+
+    private static void run(String name, Path directory, Path file, int workers, int batchSize) {
+        XStream xStream = new XStream();
+        xStream.allowTypesByWildcard(new String[]{"com.hendisantika.**"});
+        xStream.registerConverter(new IdConverter());
+        XStreamSerializer serializer = XStreamSerializer.builder().xStream(xStream).build();
+        try (MappedEventStorageEngine engine = MappedEventStorageEngine.builder()
+                .eventSerializer(serializer)
+                .snapshotSerializer(serializer)
+                .directory(directory)
+                .build()) {
+            EmbeddedEventStore eventStore = EmbeddedEventStore.builder().storageEngine(engine).build();
+            OrderIdIndex orderIdIndex = new OrderIdIndex(eventStore, 1_000_000, 0.01, Duration.ofMinutes(1), false);
+            OrderImporter importer = new OrderImporter(eventStore, NoTransactionManager.INSTANCE, orderIdIndex,
+                                                       new SimpleMeterRegistry(), workers, 20_000, batchSize);
+            long start = System.nanoTime();
+            ImportProgress progress = importer.importOrders(file, directory.resolve("orders.checkpoint"));
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-45s %8.0f orders/s %9.0f events/s, %,d syncs%n", name,
+                              progress.getImported() / seconds, progress.getEvents() / seconds,
+                              engine.getSyncCount());
+            eventStore.shutDown();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.hendisantika.springbootaxonsample1.migration;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderShippedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountIncrementedEvent;
+import com.hendisantika.springbootaxonsample1.eventstore.MappedEventStorageEngine;
+import com.hendisantika.springbootaxonsample1.order.OrderIdIndex;
+import com.hendisantika.springbootaxonsample1.serialization.IdConverter;
+import com.thoughtworks.xstream.XStream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.common.transaction.NoTransactionManager;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.modelling.command.AggregateStreamCreationException;
+import org.axonframework.modelling.command.ConcurrencyException;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 19.25
+ */
+class OrderImporterTest {
+
+    @TempDir
+    Path directory;
+
+    private MappedEventStorageEngine engine;
+    private EmbeddedEventStore eventStore;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderIdIndex orderIdIndex;
+    private OrderImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        XStream xStream = new XStream();
+        xStream.allowTypesByWildcard(new String[]{"com.hendisantika.**"});
+        xStream.registerConverter(new IdConverter());
+        XStreamSerializer serializer = XStreamSerializer.builder().xStream(xStream).build();
+        engine = MappedEventStorageEngine.builder()
+                .eventSerializer(serializer)
+                .snapshotSerializer(serializer)
+                .directory(directory.resolve("events"))
+                .segmentSize(1024 * 1024)
+                .sync(false)
+                .build();
+        eventStore = EmbeddedEventStore.builder().storageEngine(engine).build();
+        meterRegistry = new SimpleMeterRegistry();
+        orderIdIndex = new OrderIdIndex(eventStore, 1000, 0.01, Duration.ofSeconds(5), false);
+        importer = importer(eventStore);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventStore.shutDown();
+        engine.close();
+    }
+
+    @Test
+    void givenJsonOrders_whenImported_thenShouldAppendTheEventsOfTheValidOnes() throws IOException {
+        engine.appendEvents(new GenericDomainEventMessage<>("OrderAggregate", "existing", 0,
+                                                            new OrderCreatedEvent(Id.of("existing"))));
+        Path file = write("orders.ndjson",
+                          "{\"orderId\":\"order-1\",\"products\":{\"chair\":2,\"table\":1}}",
+                          "{\"orderId\":\"order-2\",\"orderStatus\":\"confirmed\",\"products\":{\"lamp\":1}}",
+                          "",
+                          "{\"orderId\":\"order-3\",\"orderStatus\":\"SHIPPED\",\"products\":{}}",
+                          "{\"orderId\":\"order-4\",\"products\":{\"chair\":1,\"chair\":2}}",
+                          "{\"orderId\":\"order-5\",\"orderStatus\":\"LOST\"}",
+                          "{\"orderId\":\"order-6\",",
+                          "{\"orderId\":\"existing\",\"products\":{\"chair\":1}}",
+                          "{\"orderId\":\"order-7\",\"products\":{\"chair\":0}}");
+
+        ImportProgress progress = importer.importOrders(file, directory.resolve("orders.checkpoint"));
+
+        assertEquals(new ImportProgress(9, 3, 1, 4, 10), progress);
+        assertEquals(progress, ImportProgress.read(directory.resolve("orders.checkpoint")));
+        assertEquals(List.of(new OrderCreatedEvent(Id.of("order-1")),
+                             new ProductAddedEvent(Id.of("order-1"), Id.of("chair")),
+                             new ProductAddedEvent(Id.of("order-1"), Id.of("table")),
+                             new ProductCountIncrementedEvent(Id.of("order-1"), Id.of("chair"))),
+                     payloads("order-1"));
+        assertEquals(List.of(new OrderCreatedEvent(Id.of("order-2")),
+                             new ProductAddedEvent(Id.of("order-2"), Id.of("lamp")),
+                             new OrderConfirmedEvent(Id.of("order-2"))),
+                     payloads("order-2"));
+        assertEquals(List.of(new OrderCreatedEvent(Id.of("order-3")),
+                             new OrderConfirmedEvent(Id.of("order-3")),
+                             new OrderShippedEvent(Id.of("order-3"))),
+                     payloads("order-3"));
+        assertEquals(List.of(), payloads("order-4"));
+        assertEquals(List.of(new OrderCreatedEvent(Id.of("existing"))), payloads("existing"));
+        assertEquals(3.0, meterRegistry.get("orders.import.orders").tag("outcome", "imported").counter().count());
+        assertEquals(4.0, meterRegistry.get("orders.import.orders").tag("outcome", "rejected").counter().count());
+        assertEquals(10.0, meterRegistry.get("orders.import.events").counter().count());
+        assertEquals(9.0, meterRegistry.get("orders.import.line").gauge().value());
+    }
+
+    @Test
+    void givenCsvOrdersAndACheckpoint_whenImportedAgain_thenShouldResumeAfterTheCheckpointedLine()
+            throws IOException {
+        Path file = write("orders.csv",
+                          OrderFileReader.CSV_HEADER,
+                          "order-1,CREATED,chair:3",
+                          "order-2,,chair:1;table:1",
+                          "order-3,CONFIRMED,lamp");
+        Path checkpoint = directory.resolve("orders.csv.checkpoint");
+
+        assertEquals(new ImportProgress(4, 3, 0, 0, 10), importer.importOrders(file, checkpoint));
+
+        Files.writeString(file, "order-4,SHIPPED,chair:1\norder-5,CREATED\n", StandardCharsets.UTF_8,
+                          StandardOpenOption.APPEND);
+        assertEquals(new ImportProgress(6, 4, 0, 1, 14), importer.importOrders(file, checkpoint));
+        assertEquals(4, payloads("order-4").size());
+
+        // Without the checkpoint every order is read again, and found to exist already.
+        Files.delete(checkpoint);
+        assertEquals(new ImportProgress(6, 0, 4, 1, 0), importer.importOrders(file, checkpoint));
+    }
+
+    @Test
+    void givenARebuiltOrderIdIndex_whenOrdersImported_thenShouldAcceptCommandsForThem() throws Exception {
+        orderIdIndex.run(null);
+        Path file = write("orders.csv",
+                          OrderFileReader.CSV_HEADER,
+                          "order-1,CREATED,chair:3",
+                          "order-2,CONFIRMED,lamp");
+
+        importer.importOrders(file, directory.resolve("orders.csv.checkpoint"));
+
+        assertEquals("handled", handle(new ConfirmOrderCommand(Id.of("order-1"))));
+        assertEquals("handled", handle(new ConfirmOrderCommand(Id.of("order-2"))));
+    }
+
+    @Test
+    void givenOrdersOfAnInterruptedImport_whenImportedAgainWithoutCheckpoint_thenShouldSkipThemOnEveryEngine()
+            throws IOException {
+        assertSkipsExistingOrders(importer, "mapped");
+
+        // Axon Server reports an existing aggregate stream as a plain concurrency conflict.
+        EmbeddedEventStore axonServerLike = new ConflictReportingEventStore(
+                EmbeddedEventStore.builder().storageEngine(engine));
+        try {
+            assertSkipsExistingOrders(importer(axonServerLike), "axon-server");
+        } finally {
+            axonServerLike.shutDown();
+        }
+    }
+
+    private void assertSkipsExistingOrders(OrderImporter importer, String prefix) throws IOException {
+        Path interrupted = write(prefix + "-interrupted.csv",
+                                 OrderFileReader.CSV_HEADER,
+                                 prefix + "-1,CREATED,chair:3",
+                                 prefix + "-2,CONFIRMED,lamp");
+        importer.importOrders(interrupted, directory.resolve(prefix + "-interrupted.csv.checkpoint"));
+        Path file = write(prefix + ".csv",
+                          OrderFileReader.CSV_HEADER,
+                          prefix + "-1,CREATED,chair:3",
+                          prefix + "-2,CONFIRMED,lamp",
+                          prefix + "-3,SHIPPED,chair:1",
+                          prefix + "-4,CREATED,table");
+
+        assertEquals(new ImportProgress(5, 2, 2, 0, 6),
+                     importer.importOrders(file, directory.resolve(prefix + ".csv.checkpoint")));
+        assertEquals(4, payloads(prefix + "-1").size());
+        assertEquals(4, payloads(prefix + "-3").size());
+    }
+
+    private OrderImporter importer(EmbeddedEventStore eventStore) {
+        // Small chunks and batches, so that a file spans several of each.
+        return new OrderImporter(eventStore, NoTransactionManager.INSTANCE, orderIdIndex, meterRegistry, 2, 3, 4);
+    }
+
+    private Object handle(Object command) throws Exception {
+        DefaultUnitOfWork<CommandMessage<?>> unitOfWork = DefaultUnitOfWork.startAndGet(asCommandMessage(command));
+        try {
+            return orderIdIndex.handle(unitOfWork, () -> "handled");
+        } finally {
+            unitOfWork.rollback();
+        }
+    }
+
+    private Path write(String name, String... lines) throws IOException {
+        return Files.write(directory.resolve(name), List.of(lines), StandardCharsets.UTF_8);
+    }
+
+    private List<Object> payloads(String orderId) {
+        return eventStore.readEvents(orderId).asStream().<Object>map(DomainEventMessage::getPayload).toList();
+    }
+
+    private static class ConflictReportingEventStore extends EmbeddedEventStore {
+
+        ConflictReportingEventStore(EmbeddedEventStore.Builder builder) {
+            super(builder);
+        }
+
+        @Override
+        protected void prepareCommit(List<? extends EventMessage<?>> events) {
+            try {
+                super.prepareCommit(events);
+            } catch (AggregateStreamCreationException e) {
+                throw new ConcurrencyException(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.PlaceOrderCommand;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.config.Configuration;
+import org.axonframework.config.DefaultConfigurer;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 11.10
+ * <p>
+ * Measures the command side for orders with a growing number of lines, on an in-memory event store without snapshots:
+ * the time to place an order with all its lines at once, then, for a fixed period, the mean time of incrementing the
+ * count of a random line, and finally the time to confirm the order. Every command sources the order from all of its
+ * events first, so the mean increment time is dominated by replaying them. Run through
+ * {@code scripts/large-order-benchmark.sh}.
+ */
+public class LargeOrderBenchmark {
+
+    public static void main(String[] args) {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int[] lineCounts = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{10, 1_000, 50_000};
+        Configuration configuration = DefaultConfigurer.defaultConfiguration(false)
+                .configureEmbeddedEventStore(c -> new InMemoryEventStorageEngine())
+                .configureAggregate(OrderAggregate.class)
+                .buildConfiguration();
+        configuration.start();
+        try {
+            CommandGateway commandGateway = configuration.commandGateway();
+            // Warms up the handlers on small orders before measuring.
+            for (int i = 0; i < 200; i++) {
+                run(commandGateway, 10, 0, false);
+            }
+            System.out.printf("%d s of increments per order%n", seconds);
+            for (int lineCount : lineCounts) {
+                run(commandGateway, lineCount, seconds, true);
+            }
+        } finally {
+            configuration.shutdown();
+        }
+    }
+
+    private static void run(CommandGateway commandGateway, int lineCount, int seconds, boolean print) {
+        Id orderId = Id.random();
+        List<Id> productIds = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            productIds.add(Id.of("product-" + i));
+        }
+        long start = System.nanoTime();
+        commandGateway.sendAndWait(new PlaceOrderCommand(orderId, productIds, false, false));
+        long placeNanos = System.nanoTime() - start;
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int increments = 0;
+        start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        do {
+            commandGateway.sendAndWait(new IncrementProductCountCommand(orderId,
+                                                                        productIds.get(random.nextInt(lineCount))));
+            increments++;
+        } while (System.nanoTime() < end);
+        long incrementNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        commandGateway.sendAndWait(new ConfirmOrderCommand(orderId));
+        long confirmNanos = System.nanoTime() - start;
+        if (print) {
+            System.out.printf("%,6d line(s): place %.2f ms; %,d increment(s), mean %.3f ms; confirm %.3f ms%n",
+                              lineCount, placeNanos / 1e6, increments, incrementNanos / 1e6 / increments,
+                              confirmNanos / 1e6);
+        }
+    }
+}
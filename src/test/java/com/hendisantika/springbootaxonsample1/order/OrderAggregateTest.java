@@ -1,10 +1,14 @@
 package com.hendisantika.springbootaxonsample1.order;
 
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
 import com.hendisantika.springbootaxonsample1.coreapi.command.AddProductCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.BatchCommandFailure;
+import com.hendisantika.springbootaxonsample1.coreapi.command.BatchOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.CreateOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.DecrementProductCountCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.IncrementProductCountCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.PlaceOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.command.ShipOrderCommand;
 import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
 import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
@@ -16,13 +20,21 @@ import com.hendisantika.springbootaxonsample1.coreapi.events.ProductRemovedEvent
 import com.hendisantika.springbootaxonsample1.coreapi.exceptions.DuplicateOrderLineException;
 import com.hendisantika.springbootaxonsample1.coreapi.exceptions.OrderAlreadyConfirmedException;
 import com.hendisantika.springbootaxonsample1.coreapi.exceptions.UnconfirmedOrderException;
+import com.hendisantika.springbootaxonsample1.serialization.IdConverter;
+import com.thoughtworks.xstream.XStream;
+import org.axonframework.modelling.command.AggregateEntityNotFoundException;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.serialization.xml.XStreamSerializer;
 import org.axonframework.test.aggregate.AggregateTestFixture;
 import org.axonframework.test.aggregate.FixtureConfiguration;
 import org.axonframework.test.matchers.Matchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
-import java.util.UUID;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Created by IntelliJ IDEA.
@@ -34,8 +46,8 @@ import java.util.UUID;
  * Time: 05.58
  */
 class OrderAggregateTest {
-    private static final String ORDER_ID = UUID.randomUUID().toString();
-    private static final String PRODUCT_ID = UUID.randomUUID().toString();
+    private static final Id ORDER_ID = Id.random();
+    private static final Id PRODUCT_ID = Id.random();
 
     private FixtureConfiguration<OrderAggregate> fixture;
 
@@ -63,7 +75,7 @@ class OrderAggregateTest {
         fixture.given(new OrderCreatedEvent(ORDER_ID), new ProductAddedEvent(ORDER_ID, PRODUCT_ID))
                 .when(new AddProductCommand(ORDER_ID, PRODUCT_ID))
                 .expectException(DuplicateOrderLineException.class)
-                .expectExceptionMessage(Matchers.predicate(message -> ((String) message).contains(PRODUCT_ID)));
+                .expectExceptionMessage(Matchers.predicate(message -> ((String) message).contains(PRODUCT_ID.toString())));
     }
 
     @Test
@@ -89,6 +101,23 @@ class OrderAggregateTest {
                 .expectEvents(new ProductRemovedEvent(ORDER_ID, PRODUCT_ID));
     }
 
+    @Test
+    void givenCountOfAnotherLineIncremented_whenDecrementProductCountCommand_thenShouldPublishProductRemovedEvent() {
+        Id otherProductId = Id.random();
+        fixture.given(new OrderCreatedEvent(ORDER_ID), new ProductAddedEvent(ORDER_ID, PRODUCT_ID),
+                      new ProductAddedEvent(ORDER_ID, otherProductId),
+                      new ProductCountIncrementedEvent(ORDER_ID, otherProductId))
+                .when(new DecrementProductCountCommand(ORDER_ID, PRODUCT_ID))
+                .expectEvents(new ProductRemovedEvent(ORDER_ID, PRODUCT_ID));
+    }
+
+    @Test
+    void givenOrderCreatedEvent_whenIncrementProductCountCommandForUnknownLine_thenShouldThrowAggregateEntityNotFoundException() {
+        fixture.given(new OrderCreatedEvent(ORDER_ID))
+                .when(new IncrementProductCountCommand(ORDER_ID, PRODUCT_ID))
+                .expectException(AggregateEntityNotFoundException.class);
+    }
+
     @Test
     void givenOrderCreatedEvent_whenConfirmOrderCommand_thenShouldPublishOrderConfirmedEvent() {
         fixture.given(new OrderCreatedEvent(ORDER_ID))
@@ -122,7 +151,7 @@ class OrderAggregateTest {
         fixture.given(new OrderCreatedEvent(ORDER_ID), new OrderConfirmedEvent(ORDER_ID))
                 .when(new AddProductCommand(ORDER_ID, PRODUCT_ID))
                 .expectException(OrderAlreadyConfirmedException.class)
-                .expectExceptionMessage(Matchers.predicate(message -> ((String) message).contains(ORDER_ID)));
+                .expectExceptionMessage(Matchers.predicate(message -> ((String) message).contains(ORDER_ID.toString())));
     }
 
     @Test
@@ -132,7 +161,7 @@ class OrderAggregateTest {
                         new OrderConfirmedEvent(ORDER_ID))
                 .when(new IncrementProductCountCommand(ORDER_ID, PRODUCT_ID))
                 .expectException(OrderAlreadyConfirmedException.class)
-                .expectExceptionMessage(Matchers.predicate(message -> ((String) message).contains(ORDER_ID)));
+                .expectExceptionMessage(Matchers.predicate(message -> ((String) message).contains(ORDER_ID.toString())));
     }
 
     @Test
@@ -142,6 +171,80 @@ class OrderAggregateTest {
                         new OrderConfirmedEvent(ORDER_ID))
                 .when(new DecrementProductCountCommand(ORDER_ID, PRODUCT_ID))
                 .expectException(OrderAlreadyConfirmedException.class)
-                .expectExceptionMessage(Matchers.predicate(message -> ((String) message).contains(ORDER_ID)));
+                .expectExceptionMessage(Matchers.predicate(message -> ((String) message).contains(ORDER_ID.toString())));
+    }
+
+    @Test
+    void giveNoPriorActivity_whenPlaceOrderCommandWithConfirmAndShip_thenShouldPublishAllEventsAtOnce() {
+        fixture.givenNoPriorActivity()
+                .when(new PlaceOrderCommand(ORDER_ID, List.of(PRODUCT_ID), true, true))
+                .expectEvents(new OrderCreatedEvent(ORDER_ID),
+                              new ProductAddedEvent(ORDER_ID, PRODUCT_ID),
+                              new OrderConfirmedEvent(ORDER_ID),
+                              new OrderShippedEvent(ORDER_ID));
+    }
+
+    @Test
+    void giveNoPriorActivity_whenPlaceOrderCommandWithShipButNotConfirm_thenShouldThrowUnconfirmedOrderException() {
+        fixture.givenNoPriorActivity()
+                .when(new PlaceOrderCommand(ORDER_ID, List.of(PRODUCT_ID), false, true))
+                .expectException(UnconfirmedOrderException.class);
+    }
+
+    @Test
+    void giveNoPriorActivity_whenPlaceOrderCommandWithDuplicateProduct_thenShouldThrowDuplicateOrderLineException() {
+        fixture.givenNoPriorActivity()
+                .when(new PlaceOrderCommand(ORDER_ID, List.of(PRODUCT_ID, PRODUCT_ID), false, false))
+                .expectException(DuplicateOrderLineException.class);
+    }
+
+    @Test
+    void givenOrderCreatedEventAndProductAddedEvent_whenBatchOrderCommand_thenShouldPublishEventsOfSucceededCommandsOnly() {
+        fixture.given(new OrderCreatedEvent(ORDER_ID), new ProductAddedEvent(ORDER_ID, PRODUCT_ID))
+                .when(new BatchOrderCommand(ORDER_ID, List.of(new IncrementProductCountCommand(ORDER_ID, PRODUCT_ID),
+                                                              new AddProductCommand(ORDER_ID, PRODUCT_ID),
+                                                              new ShipOrderCommand(ORDER_ID),
+                                                              new ConfirmOrderCommand(ORDER_ID),
+                                                              new ShipOrderCommand(ORDER_ID))))
+                .expectEvents(new ProductCountIncrementedEvent(ORDER_ID, PRODUCT_ID),
+                              new OrderConfirmedEvent(ORDER_ID),
+                              new OrderShippedEvent(ORDER_ID))
+                .expectResultMessagePayloadMatching(Matchers.predicate(result -> failureTypes(result).equals(
+                        Arrays.asList(null, DuplicateOrderLineException.class.getName(),
+                                      UnconfirmedOrderException.class.getName(), null, null))));
+    }
+
+    @Test
+    void givenOrderCreatedEvent_whenBatchOrderCommandForUnknownOrderLine_thenShouldFailThatCommandOnly() {
+        fixture.given(new OrderCreatedEvent(ORDER_ID))
+                .when(new BatchOrderCommand(ORDER_ID, List.of(new DecrementProductCountCommand(ORDER_ID, PRODUCT_ID),
+                                                              new AddProductCommand(ORDER_ID, PRODUCT_ID))))
+                .expectEvents(new ProductAddedEvent(ORDER_ID, PRODUCT_ID))
+                .expectResultMessagePayloadMatching(Matchers.predicate(result -> failureTypes(result).equals(
+                        Arrays.asList(AggregateEntityNotFoundException.class.getName(), null))));
+    }
+
+    @Test
+    void givenOrderCreatedEvent_whenBatchOrderCommandFails_thenShouldAnswerWithAResultTheSenderCanDeserialize() {
+        // Allows only the application's own types, as Axon's auto-configured XStream does.
+        XStream xStream = new XStream();
+        xStream.allowTypesByWildcard(new String[]{"com.hendisantika.springbootaxonsample1.**"});
+        xStream.registerConverter(new IdConverter());
+        Serializer serializer = XStreamSerializer.builder().xStream(xStream).build();
+
+        fixture.given(new OrderCreatedEvent(ORDER_ID))
+                .when(new BatchOrderCommand(ORDER_ID, List.of(new DecrementProductCountCommand(ORDER_ID, PRODUCT_ID),
+                                                              new AddProductCommand(ORDER_ID, PRODUCT_ID),
+                                                              new AddProductCommand(ORDER_ID, PRODUCT_ID))))
+                .expectResultMessagePayloadMatching(Matchers.predicate(result -> {
+                    SerializedObject<String> serialized = serializer.serialize(result, String.class);
+                    return result.equals(serializer.deserialize(serialized));
+                }));
+    }
+
+    private static List<String> failureTypes(Object batchResult) {
+        return ((List<?>) batchResult).stream()
+                .map(failure -> failure == null ? null : ((BatchCommandFailure) failure).getType())
+                .collect(Collectors.toList());
     }
 }
@@ -0,0 +1,165 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountDecrementedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountIncrementedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrderAsOfQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.eventstore.MappedEventStorageEngine;
+import com.hendisantika.springbootaxonsample1.serialization.IdConverter;
+import com.thoughtworks.xstream.XStream;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.DomainEventStream;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.modelling.command.inspection.AggregateModel;
+import org.axonframework.modelling.command.inspection.AnnotatedAggregateMetaModelFactory;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 18.10
+ * <p>
+ * Compares asking {@link OrderHistory} for an order as of a past sequence number with sourcing it naively from its
+ * first event, on one long-lived order in a {@link MappedEventStorageEngine} that was snapshotted every so many events
+ * as the snapshot trigger would. Points lie at a tenth, half, nine tenths and the end of the stream; for each the mean
+ * time of the naive replay, of the history sourcing from the nearest earlier snapshot, of one only offered the latest
+ * snapshot as other event stores do, and of the history answering from its cache. Run through
+ * {@code scripts/order-history-benchmark.sh}.
+ */
+public class OrderHistoryBenchmark {
+
+    private static final String TYPE = "OrderAggregate";
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+    private static final int PRODUCTS = 20;
+    private static final int REPETITIONS = 5;
+
+    public static void main(String[] args) throws IOException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int snapshotThreshold = args.length > 1 ? Integer.parseInt(args[1]) : 250;
+        Path directory = Path.of(args.length > 2 ? args[2] : "target/order-history-benchmark");
+        XStream xStream = new XStream();
+        xStream.allowTypesByWildcard(new String[]{"com.hendisantika.**"});
+        xStream.registerConverter(new IdConverter());
+        XStreamSerializer serializer = XStreamSerializer.builder().xStream(xStream).build();
+        AggregateModel<OrderAggregate> aggregateModel =
+                AnnotatedAggregateMetaModelFactory.inspectAggregate(OrderAggregate.class);
+
+        FileSystemUtils.deleteRecursively(directory);
+        try (MappedEventStorageEngine engine = MappedEventStorageEngine.builder()
+                .eventSerializer(serializer)
+                .snapshotSerializer(serializer)
+                .directory(directory)
+                .sync(false)
+                .build()) {
+            EmbeddedEventStore eventStore = EmbeddedEventStore.builder().storageEngine(engine).build();
+            Id orderId = Id.random();
+            append(engine, aggregateModel, orderId, events, snapshotThreshold);
+            System.out.printf("one order of %,d events, snapshotted every %d, %d core(s)%n", events,
+                              snapshotThreshold, Runtime.getRuntime().availableProcessors());
+
+            OrderHistory nearest = new OrderHistory(eventStore, engine, 0, Duration.ZERO, Clock.systemUTC());
+            OrderHistory latest = new OrderHistory(eventStore, null, 0, Duration.ZERO, Clock.systemUTC());
+            OrderHistory cached = new OrderHistory(eventStore, engine, 1000, Duration.ZERO, Clock.systemUTC());
+            for (long target : new long[]{events / 10, events / 2, events * 9L / 10, events - 1}) {
+                Order expected = replay(eventStore, aggregateModel, orderId, target);
+                LongFunction<Order> naive = sequenceNumber -> replay(eventStore, aggregateModel, orderId,
+                                                                     sequenceNumber);
+                LongFunction<Order> fromNearest = sequenceNumber -> find(nearest, orderId, sequenceNumber);
+                LongFunction<Order> fromLatest = sequenceNumber -> find(latest, orderId, sequenceNumber);
+                LongFunction<Order> fromCache = sequenceNumber -> find(cached, orderId, sequenceNumber);
+                System.out.printf("as of %,7d: naive %8.3f ms, nearest snapshot %7.3f ms, latest snapshot %8.3f ms, "
+                                          + "cached %6.3f ms%n", target,
+                                  measure(naive, target, expected), measure(fromNearest, target, expected),
+                                  measure(fromLatest, target, expected), measure(fromCache, target, expected));
+            }
+            eventStore.shutDown();
+        }
+    }
+
+    /**
+     * Creates the order with its products, then increments and decrements them in turn, storing a snapshot of the
+     * state sourced so far after every threshold events.
+     */
+    private static void append(MappedEventStorageEngine engine, AggregateModel<OrderAggregate> aggregateModel,
+                               Id orderId, int events, int snapshotThreshold) {
+        OrderAggregate aggregate = new OrderAggregate();
+        List<DomainEventMessage<?>> batch = new ArrayList<>();
+        for (int sequenceNumber = 0; sequenceNumber < events; sequenceNumber++) {
+            Id productId = Id.of("product-" + sequenceNumber % PRODUCTS);
+            Object payload;
+            if (sequenceNumber == 0) {
+                payload = new OrderCreatedEvent(orderId);
+            } else if (sequenceNumber <= PRODUCTS) {
+                payload = new ProductAddedEvent(orderId, productId);
+            } else if (sequenceNumber / PRODUCTS % 2 == 1) {
+                payload = new ProductCountIncrementedEvent(orderId, productId);
+            } else {
+                payload = new ProductCountDecrementedEvent(orderId, productId);
+            }
+            DomainEventMessage<?> event = message(orderId, sequenceNumber, payload);
+            aggregateModel.publish(event, aggregate);
+            batch.add(event);
+            if ((sequenceNumber + 1) % snapshotThreshold == 0) {
+                engine.storeSnapshot(message(orderId, sequenceNumber, aggregate));
+            }
+            if (batch.size() == 1000) {
+                engine.appendEvents(batch);
+                batch.clear();
+            }
+        }
+        engine.appendEvents(batch);
+    }
+
+    private static DomainEventMessage<?> message(Id orderId, long sequenceNumber, Object payload) {
+        return new GenericDomainEventMessage<>(TYPE, orderId.toString(), sequenceNumber,
+                                               new GenericMessage<>(payload), START.plusMillis(sequenceNumber));
+    }
+
+    private static Order replay(EmbeddedEventStore eventStore, AggregateModel<OrderAggregate> aggregateModel,
+                                Id orderId, long sequenceNumber) {
+        OrderAggregate aggregate = new OrderAggregate();
+        DomainEventStream events = eventStore.readEvents(orderId.toString(), 0);
+        while (events.hasNext() && events.peek().getSequenceNumber() <= sequenceNumber) {
+            aggregateModel.publish(events.next(), aggregate);
+        }
+        return aggregate.toOrder();
+    }
+
+    private static Order find(OrderHistory history, Id orderId, long sequenceNumber) {
+        return history.handle(new FindOrderAsOfQuery(orderId, null, sequenceNumber)).orElseThrow();
+    }
+
+    /**
+     * Returns the mean milliseconds to get the order as of the given sequence number, after a first run that warms up
+     * and checks the answer.
+     */
+    private static double measure(LongFunction<Order> asOf, long sequenceNumber, Order expected) {
+        if (!expected.equals(asOf.apply(sequenceNumber))) {
+            throw new IllegalStateException("Wrong order as of [" + sequenceNumber + "]");
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            asOf.apply(sequenceNumber);
+        }
+        return (System.nanoTime() - start) / 1e6 / REPETITIONS;
+    }
+}
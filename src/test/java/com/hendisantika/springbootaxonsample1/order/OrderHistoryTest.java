@@ -0,0 +1,187 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderShippedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrderAsOfQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import com.hendisantika.springbootaxonsample1.eventstore.MappedEventStorageEngine;
+import com.hendisantika.springbootaxonsample1.serialization.IdConverter;
+import com.thoughtworks.xstream.XStream;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.messaging.GenericMessage;
+import org.axonframework.modelling.command.inspection.AggregateModel;
+import org.axonframework.modelling.command.inspection.AnnotatedAggregateMetaModelFactory;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 17.50
+ * <p>
+ * The order is created at sequence number 0, gets product-1 to product-29 added at the sequence number of the same
+ * name, and is confirmed at 30 and shipped at 31, each event a second after the one before. Snapshots are trusted as
+ * they are, so the marker product added to each shows which one sourcing started from.
+ */
+class OrderHistoryTest {
+
+    private static final String TYPE = "OrderAggregate";
+    private static final Instant START = Instant.parse("2026-10-19T10:00:00Z");
+    private static final Id ORDER_ID = Id.of("order-1");
+
+    @TempDir
+    Path directory;
+
+    private MappedEventStorageEngine engine;
+    private EmbeddedEventStore eventStore;
+    private final AggregateModel<OrderAggregate> aggregateModel =
+            AnnotatedAggregateMetaModelFactory.inspectAggregate(OrderAggregate.class);
+
+    @BeforeEach
+    void setUp() {
+        XStream xStream = new XStream();
+        xStream.allowTypesByWildcard(new String[]{"com.hendisantika.**"});
+        xStream.registerConverter(new IdConverter());
+        XStreamSerializer serializer = XStreamSerializer.builder().xStream(xStream).build();
+        engine = MappedEventStorageEngine.builder()
+                .eventSerializer(serializer)
+                .snapshotSerializer(serializer)
+                .directory(directory)
+                .segmentSize(1024 * 1024)
+                .build();
+        eventStore = EmbeddedEventStore.builder().storageEngine(engine).build();
+
+        List<DomainEventMessage<?>> events = new ArrayList<>();
+        for (int sequenceNumber = 0; sequenceNumber < 32; sequenceNumber++) {
+            events.add(event(sequenceNumber));
+            if (sequenceNumber == 10 || sequenceNumber == 20) {
+                engine.storeSnapshot(snapshot(events));
+            }
+        }
+        engine.appendEvents(events);
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventStore.shutDown();
+        engine.close();
+    }
+
+    @Test
+    void givenSnapshotHistory_whenAskedForPastPoints_thenShouldSourceFromTheNearestEarlierSnapshot() {
+        OrderHistory history = history(engine, Clock.systemUTC());
+
+        assertEquals(products(15, "snapshot-10"), findBySequenceNumber(history, 15).getProducts().keySet());
+        assertEquals(products(25, "snapshot-20"), findBySequenceNumber(history, 25).getProducts().keySet());
+        assertEquals(products(5, null), findBySequenceNumber(history, 5).getProducts().keySet());
+        assertEquals(products(17, "snapshot-10"), findByTimestamp(history, START.plusMillis(17_500)).getProducts()
+                .keySet());
+        assertEquals(OrderStatus.CREATED, findBySequenceNumber(history, 29).getOrderStatus());
+        assertEquals(OrderStatus.CONFIRMED, findBySequenceNumber(history, 30).getOrderStatus());
+        assertEquals(OrderStatus.SHIPPED, findBySequenceNumber(history, 31).getOrderStatus());
+    }
+
+    @Test
+    void givenOnlyTheLatestSnapshot_whenAskedForPastPoints_thenShouldUseItOnlyForLaterOnes() {
+        OrderHistory history = history(null, Clock.systemUTC());
+
+        assertEquals(products(25, "snapshot-20"), findBySequenceNumber(history, 25).getProducts().keySet());
+        assertEquals(products(15, null), findBySequenceNumber(history, 15).getProducts().keySet());
+        assertEquals(products(12, null), findByTimestamp(history, START.plusSeconds(12)).getProducts().keySet());
+    }
+
+    @Test
+    void givenPointsBeforeTheOrder_whenAskedFor_thenShouldFindNothing() {
+        OrderHistory history = history(engine, Clock.systemUTC());
+
+        assertEquals(Optional.empty(), history.handle(new FindOrderAsOfQuery(ORDER_ID, START.minusSeconds(1), null)));
+        assertEquals(Optional.empty(), history.handle(new FindOrderAsOfQuery(Id.of("unknown"), null, 0L)));
+    }
+
+    @Test
+    void givenPointsWhoseEventsAreAllStored_whenAskedFor_thenShouldCacheOnlyThose() {
+        Clock clock = Clock.fixed(START.plusSeconds(100), ZoneOffset.UTC);
+        OrderHistory history = history(engine, clock);
+
+        // Sequence numbers the order has not reached yet and times within the settle time may still change.
+        findBySequenceNumber(history, 40);
+        findByTimestamp(history, START.plusSeconds(95));
+        assertEquals(0, history.cacheSize());
+
+        Order shipped = findBySequenceNumber(history, 31);
+        findByTimestamp(history, START.plusSeconds(50));
+        assertEquals(2, history.cacheSize());
+
+        shipped.removeProduct(Id.of("product-1"));
+        assertEquals(products(29, "snapshot-20"), findBySequenceNumber(history, 31).getProducts().keySet());
+        assertEquals(2, history.cacheSize());
+    }
+
+    private OrderHistory history(MappedEventStorageEngine snapshotHistory, Clock clock) {
+        return new OrderHistory(eventStore, snapshotHistory, 100, Duration.ofSeconds(10), clock);
+    }
+
+    private static Order findBySequenceNumber(OrderHistory history, long sequenceNumber) {
+        return history.handle(new FindOrderAsOfQuery(ORDER_ID, null, sequenceNumber)).orElseThrow();
+    }
+
+    private static Order findByTimestamp(OrderHistory history, Instant timestamp) {
+        return history.handle(new FindOrderAsOfQuery(ORDER_ID, timestamp, null)).orElseThrow();
+    }
+
+    private static Set<Id> products(int last, String marker) {
+        List<Id> products = new ArrayList<>();
+        for (int i = 1; i <= last; i++) {
+            products.add(Id.of("product-" + i));
+        }
+        if (marker != null) {
+            products.add(Id.of(marker));
+        }
+        return Set.copyOf(products);
+    }
+
+    private DomainEventMessage<?> snapshot(List<DomainEventMessage<?>> events) {
+        OrderAggregate aggregate = new OrderAggregate();
+        events.forEach(event -> aggregateModel.publish(event, aggregate));
+        long sequenceNumber = events.size() - 1;
+        aggregate.on(new ProductAddedEvent(ORDER_ID, Id.of("snapshot-" + sequenceNumber)));
+        return new GenericDomainEventMessage<>(TYPE, ORDER_ID.toString(), sequenceNumber,
+                                               new GenericMessage<>(aggregate), START.plusSeconds(sequenceNumber));
+    }
+
+    private static DomainEventMessage<?> event(int sequenceNumber) {
+        Object payload = switch (sequenceNumber) {
+            case 0 -> new OrderCreatedEvent(ORDER_ID);
+            case 30 -> new OrderConfirmedEvent(ORDER_ID);
+            case 31 -> new OrderShippedEvent(ORDER_ID);
+            default -> new ProductAddedEvent(ORDER_ID, Id.of("product-" + sequenceNumber));
+        };
+        return new GenericDomainEventMessage<>(TYPE, ORDER_ID.toString(), sequenceNumber,
+                                               new GenericMessage<>(payload), START.plusSeconds(sequenceNumber));
+    }
+}
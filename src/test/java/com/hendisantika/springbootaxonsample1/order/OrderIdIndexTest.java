@@ -0,0 +1,145 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.CreateOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.exceptions.DuplicateOrderException;
+import com.hendisantika.springbootaxonsample1.coreapi.exceptions.UnknownOrderException;
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.spy;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 11.05
+ */
+class OrderIdIndexTest {
+    private static final Id ORDER_ID = Id.random();
+
+    private EventStore eventStore;
+    private OrderIdIndex index;
+
+    @BeforeEach
+    void setUp() {
+        eventStore = EmbeddedEventStore.builder().storageEngine(new InMemoryEventStorageEngine()).build();
+        eventStore.publish(new GenericDomainEventMessage<>("OrderAggregate", ORDER_ID.toString(), 0, new OrderCreatedEvent(ORDER_ID)));
+        index = new OrderIdIndex(eventStore, 1000, 0.01, Duration.ofSeconds(5), false);
+    }
+
+    @Test
+    void givenIndexNotRebuilt_whenCommandForUnknownOrder_thenShouldPassThrough() throws Exception {
+        assertEquals("handled", handle(new ConfirmOrderCommand(Id.random())));
+    }
+
+    @Test
+    void givenRebuiltIndex_whenCreateOrderCommandForExistingOrder_thenShouldThrowDuplicateOrderException() {
+        index.rebuild();
+
+        assertThrows(DuplicateOrderException.class, () -> handle(new CreateOrderCommand(ORDER_ID)));
+    }
+
+    @Test
+    void givenRebuiltIndex_whenCommandForUnknownOrder_thenShouldThrowUnknownOrderException() {
+        index.rebuild();
+
+        assertThrows(UnknownOrderException.class,
+                     () -> handle(new ConfirmOrderCommand(Id.random())));
+    }
+
+    @Test
+    void givenRebuiltIndex_whenOrderCreated_thenShouldAcceptCommandsForIt() throws Exception {
+        index.rebuild();
+        Id orderId = Id.random();
+
+        assertEquals("handled", handle(new CreateOrderCommand(orderId)));
+        assertEquals("handled", handle(new ConfirmOrderCommand(orderId)));
+        assertEquals("handled", handle(new ConfirmOrderCommand(ORDER_ID)));
+    }
+
+    @Test
+    void givenSharedEventStore_whenCommandForOrderCreatedElsewhereAfterRebuild_thenShouldAcceptIt() throws Exception {
+        index = new OrderIdIndex(eventStore, 1000, 0.01, Duration.ofSeconds(5), true);
+        index.rebuild();
+        Id createdElsewhere = Id.random();
+        eventStore.publish(new GenericDomainEventMessage<>("OrderAggregate", createdElsewhere.toString(), 0,
+                                                           new OrderCreatedEvent(createdElsewhere)));
+
+        assertEquals("handled", handle(new ConfirmOrderCommand(createdElsewhere)));
+        assertThrows(UnknownOrderException.class, () -> handle(new ConfirmOrderCommand(Id.random())));
+    }
+
+    @Test
+    void givenAStreamThatNeverReachesTheHead_whenRebuilt_thenShouldGiveUpAndLetCommandsPass() throws Exception {
+        EventStore stalling = spy(eventStore);
+        doReturn(new GlobalSequenceTrackingToken(100)).when(stalling).createHeadToken();
+        index = new OrderIdIndex(stalling, 1000, 0.01, Duration.ofMillis(300), false);
+
+        index.rebuild();
+
+        assertEquals("handled", handle(new ConfirmOrderCommand(Id.random())));
+    }
+
+    @Test
+    void givenBloomFilter_whenQueryingUnseenIdentifiers_thenFalsePositiveRateShouldStayNearTarget() {
+        OrderIdBloomFilter filter = new OrderIdBloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put(Id.of("order-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain(Id.of("order-" + i)));
+            if (filter.mightContain(Id.of("other-" + i))) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void givenBloomFilter_whenQueryingUnseenSequentialUuids_thenFalsePositiveRateShouldStayNearTarget() {
+        OrderIdBloomFilter filter = new OrderIdBloomFilter(100_000, 0.01);
+        for (int i = 0; i < 100_000; i++) {
+            filter.put(Id.of(0, i));
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(filter.mightContain(Id.of(0, i)));
+            if (filter.mightContain(Id.of(1, i))) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+    }
+
+    private Object handle(Object command) throws Exception {
+        DefaultUnitOfWork<CommandMessage<?>> unitOfWork = DefaultUnitOfWork.startAndGet(asCommandMessage(command));
+        try {
+            return index.handle(unitOfWork, () -> "handled");
+        } finally {
+            unitOfWork.rollback();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.ConfirmOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.NoSnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.SnapshotTrigger;
+import org.axonframework.eventsourcing.SnapshotTriggerDefinition;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Duration;
+import java.util.List;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 10.15
+ */
+class OrderStreamTelemetryTest {
+
+    private static final String AGGREGATE_TYPE = OrderAggregate.class.getSimpleName();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderStreamTelemetry telemetry = new OrderStreamTelemetry(meterRegistry, 10, Duration.ofHours(1),
+                                                                            5);
+    private final SnapshotTriggerDefinition definition =
+            telemetry.instrument(NoSnapshotTriggerDefinition.INSTANCE);
+
+    @Test
+    void givenOrderSourcedFromSnapshot_whenLoaded_thenShouldReportStreamLengthAndEventsSinceSnapshot() {
+        Id orderId = Id.random();
+        SnapshotTrigger trigger = definition.prepareTrigger(OrderAggregate.class);
+        trigger.eventHandled(new GenericDomainEventMessage<>(AGGREGATE_TYPE, orderId.toString(), 249,
+                                                             new OrderAggregate()));
+        trigger.eventHandled(new GenericDomainEventMessage<>(AGGREGATE_TYPE, orderId.toString(), 250,
+                                                             new ProductAddedEvent(orderId, Id.of("chair"))));
+        trigger.eventHandled(new GenericDomainEventMessage<>(AGGREGATE_TYPE, orderId.toString(), 251,
+                                                             new OrderConfirmedEvent(orderId)));
+        trigger.initializationFinished();
+        // Events applied by the command after loading do not count towards the load.
+        trigger.eventHandled(new GenericDomainEventMessage<>(AGGREGATE_TYPE, orderId.toString(), 252,
+                                                             new OrderConfirmedEvent(orderId)));
+
+        List<OrderStreamSummary> heaviest = telemetry.report().getHeaviest();
+
+        assertEquals(1, heaviest.size());
+        OrderStreamSummary summary = heaviest.get(0);
+        assertEquals(orderId.toString(), summary.getOrderId());
+        assertEquals(1, summary.getLoads());
+        assertEquals(252, summary.getStreamLength());
+        assertEquals(2, summary.getEventsSinceSnapshot());
+        assertTrue(summary.getLoadMillis() > 0);
+        assertEquals(1, meterRegistry.get("orders.aggregate.load").timer().count());
+        assertEquals(2, meterRegistry.get("orders.aggregate.load.events").summary().totalAmount());
+    }
+
+    @Test
+    void givenPreparedTrigger_whenSerializedAndReconfigured_thenShouldRecordLoadsAgain() throws Exception {
+        Id orderId = Id.random();
+        SnapshotTrigger prepared = definition.prepareTrigger(OrderAggregate.class);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(prepared);
+        }
+        SnapshotTrigger deserialized;
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (SnapshotTrigger) input.readObject();
+        }
+
+        SnapshotTrigger trigger = definition.reconfigure(OrderAggregate.class, deserialized);
+        trigger.eventHandled(new GenericDomainEventMessage<>(AGGREGATE_TYPE, orderId.toString(), 0,
+                                                             new OrderConfirmedEvent(orderId)));
+        trigger.initializationFinished();
+
+        assertEquals(orderId.toString(), telemetry.report().getHeaviest().get(0).getOrderId());
+    }
+
+    @Test
+    void givenLoadsOfSeveralOrders_whenReport_thenShouldRankTheSlowestToLoadFirst() {
+        for (int i = 0; i < 3; i++) {
+            telemetry.loaded("light", 1_000_000, 3, 3);
+        }
+        telemetry.loaded("heavy", 40_000_000, 400, 150);
+        telemetry.loaded("medium", 5_000_000, 60, 60);
+
+        List<OrderStreamSummary> heaviest = telemetry.report().getHeaviest();
+
+        assertEquals(List.of("heavy", "medium", "light"),
+                     heaviest.stream().map(OrderStreamSummary::getOrderId).toList());
+        assertEquals(3, heaviest.get(2).getLoads());
+        assertEquals(3.0, heaviest.get(2).getLoadMillis());
+        assertEquals(40.0, heaviest.get(0).getMaxLoadMillis());
+    }
+
+    @Test
+    void givenCommandsForSeveralOrders_whenReport_thenShouldRankTheBusiestFirst() throws Exception {
+        Id busy = Id.random();
+        Id quiet = Id.random();
+        for (Id orderId : List.of(busy, busy, busy, quiet)) {
+            telemetry.handle(new DefaultUnitOfWork<>(asCommandMessage(new ConfirmOrderCommand(orderId))),
+                             () -> null);
+        }
+
+        List<OrderStreamSummary> hottest = telemetry.report().getHottest();
+
+        assertEquals(List.of(busy.toString(), quiet.toString()),
+                     hottest.stream().map(OrderStreamSummary::getOrderId).toList());
+        assertEquals(3, hottest.get(0).getCommands());
+        assertTrue(hottest.get(0).getCommandsPerSecond() > 0);
+    }
+}
@@ -0,0 +1,81 @@
+package com.hendisantika.springbootaxonsample1.order;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 10.05
+ */
+class SpaceSavingSketchTest {
+
+    @Test
+    void givenFewerKeysThanCapacity_whenTop_thenShouldReturnExactCountsHeaviestFirst() {
+        SpaceSavingSketch<String, Integer> sketch = new SpaceSavingSketch<>(10);
+        sketch.add("a", 5, 1, Integer::sum);
+        sketch.add("b", 7, 1, Integer::sum);
+        sketch.add("a", 3, 1, Integer::sum);
+        sketch.add("c", 1, 1, Integer::sum);
+
+        List<SpaceSavingSketch.Entry<String, Integer>> top = sketch.top(2);
+
+        assertEquals(List.of("a", "b"), top.stream().map(SpaceSavingSketch.Entry::getKey).toList());
+        assertEquals(8, top.get(0).getCount());
+        assertEquals(0, top.get(0).getError());
+        assertEquals(2, top.get(0).getDetail());
+    }
+
+    @Test
+    void givenFullSketch_whenUnknownKeyArrives_thenShouldTakeOverTheLightestCounter() {
+        SpaceSavingSketch<String, Integer> sketch = new SpaceSavingSketch<>(2);
+        sketch.add("a", 10, 1, Integer::sum);
+        sketch.add("b", 3, 1, Integer::sum);
+
+        sketch.add("c", 1, 7, Integer::sum);
+
+        assertNull(sketch.get("b"));
+        SpaceSavingSketch.Entry<String, Integer> c = sketch.get("c");
+        assertEquals(4, c.getCount());
+        assertEquals(3, c.getError());
+        assertEquals(7, c.getDetail());
+    }
+
+    @Test
+    void givenSkewedStream_whenTop_thenShouldKeepHeavyKeysWithinTheirErrorBounds() {
+        SpaceSavingSketch<Integer, Void> sketch = new SpaceSavingSketch<>(20);
+        Map<Integer, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        long total = 0;
+        for (int i = 0; i < 100_000; i++) {
+            // Keys 0 to 4 carry half of the weight, the other half is spread over 10,000 keys.
+            int key = random.nextBoolean() ? random.nextInt(5) : 5 + random.nextInt(10_000);
+            long weight = 1 + random.nextInt(3);
+            sketch.add(key, weight, null, (previous, detail) -> null);
+            exact.merge(key, weight, Long::sum);
+            total += weight;
+        }
+
+        List<SpaceSavingSketch.Entry<Integer, Void>> top = sketch.top(5);
+
+        assertEquals(List.of(0, 1, 2, 3, 4), top.stream().map(SpaceSavingSketch.Entry::getKey).sorted().toList());
+        for (SpaceSavingSketch.Entry<Integer, Void> entry : top) {
+            long count = exact.get(entry.getKey());
+            assertTrue(entry.getCount() >= count);
+            assertTrue(entry.getCount() - entry.getError() <= count);
+            assertTrue(entry.getError() <= total / 20);
+        }
+    }
+}
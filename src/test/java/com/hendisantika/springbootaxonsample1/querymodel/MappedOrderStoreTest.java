@@ -0,0 +1,134 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 18.05
+ */
+class MappedOrderStoreTest {
+
+    private static final Id ORDER = Id.of("order-1");
+    private static final Id UNKNOWN_ORDER = Id.of("unknown");
+    private static final Id CHAIR = Id.of("chair");
+    private static final Id TABLE = Id.of("table");
+    private static final Id UNKNOWN_PRODUCT = Id.of("unknown-product");
+
+    @TempDir
+    Path directory;
+
+    private MappedOrderStore store;
+
+    @BeforeEach
+    void setUp() {
+        // Small chunks and index, so that growing both is exercised.
+        store = new MappedOrderStore(directory, 4096, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void givenOrderLifecycle_whenFindAll_thenShouldReturnOrderAsStored() {
+        store.create(ORDER);
+        store.addProduct(ORDER, CHAIR);
+        store.addProduct(ORDER, TABLE);
+        store.incrementProduct(ORDER, CHAIR);
+        store.incrementProduct(ORDER, CHAIR);
+        store.decrementProduct(ORDER, CHAIR);
+        store.removeProduct(ORDER, TABLE);
+        store.confirm(ORDER);
+
+        List<Order> orders = store.findAll();
+
+        assertEquals(1, orders.size());
+        assertEquals(ORDER, orders.get(0).getOrderId());
+        assertEquals(Map.of(CHAIR, 2), orders.get(0).getProducts());
+        assertEquals(OrderStatus.CONFIRMED, orders.get(0).getOrderStatus());
+    }
+
+    @Test
+    void givenUnknownOrder_whenChanged_thenShouldIgnoreIt() {
+        store.addProduct(UNKNOWN_ORDER, CHAIR);
+        store.confirm(UNKNOWN_ORDER);
+        store.create(ORDER);
+        store.incrementProduct(ORDER, UNKNOWN_PRODUCT);
+        store.removeProduct(ORDER, UNKNOWN_PRODUCT);
+
+        assertEquals(List.of(new Order(ORDER)), store.findAll());
+    }
+
+    @Test
+    void givenRandomEvents_whenFindAll_thenShouldMatchHeapStore() {
+        InMemoryOrderStore expected = new InMemoryOrderStore();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            // Both encodings: UUID identifiers as two longs, others as their characters.
+            Id orderId = random.nextBoolean()
+                    ? Id.of(0, random.nextInt(1_000))
+                    : Id.of("order-" + random.nextInt(1_000));
+            Id productId = random.nextBoolean()
+                    ? Id.of(1, random.nextInt(10))
+                    : Id.of("product-" + random.nextInt(10) + "-" + "x".repeat(random.nextInt(40)));
+            switch (random.nextInt(8)) {
+                case 0 -> {
+                    expected.create(orderId);
+                    store.create(orderId);
+                }
+                case 1, 2 -> {
+                    expected.addProduct(orderId, productId);
+                    store.addProduct(orderId, productId);
+                }
+                case 3 -> {
+                    expected.incrementProduct(orderId, productId);
+                    store.incrementProduct(orderId, productId);
+                }
+                case 4 -> {
+                    expected.decrementProduct(orderId, productId);
+                    store.decrementProduct(orderId, productId);
+                }
+                case 5 -> {
+                    expected.removeProduct(orderId, productId);
+                    store.removeProduct(orderId, productId);
+                }
+                case 6 -> {
+                    expected.confirm(orderId);
+                    store.confirm(orderId);
+                }
+                default -> {
+                    expected.ship(orderId);
+                    store.ship(orderId);
+                }
+            }
+        }
+
+        assertEquals(sorted(expected.findAll()), sorted(store.findAll()));
+        assertTrue(store.mappedBytes() > 4096);
+    }
+
+    private static List<Order> sorted(List<Order> orders) {
+        return orders.stream().sorted(Comparator.comparing(order -> order.getOrderId().toString())).toList();
+    }
+}
@@ -0,0 +1,92 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderShippedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrderStatisticsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 16.50
+ */
+class OrderStatisticsEventHandlerTest {
+    private static final Instant NOW = Instant.parse("2026-10-19T12:00:00.500Z");
+
+    private OrderStatisticsEventHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new OrderStatisticsEventHandler(60, 10, 16, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void givenLifecycleEvents_whenStatisticsQueried_thenShouldCountOnlyEventsWithinWindow() {
+        handler.on(new OrderCreatedEvent(Id.of("old")), NOW.minusSeconds(30));
+        handler.on(new OrderCreatedEvent(Id.of("order-1")), NOW.minusSeconds(5));
+        handler.on(new OrderCreatedEvent(Id.of("order-2")), NOW.minusSeconds(1));
+        handler.on(new OrderConfirmedEvent(Id.of("order-1")), NOW);
+
+        OrderStatistics statistics = handler.handle(new FindOrderStatisticsQuery(Duration.ofSeconds(10)));
+
+        assertEquals(10, statistics.getWindowSeconds());
+        assertEquals(2, statistics.getCreated());
+        assertEquals(1, statistics.getConfirmed());
+        assertEquals(0, statistics.getShipped());
+        assertEquals(0.2, statistics.getCreatedPerSecond(), 1e-9);
+        assertEquals(3, handler.handle(new FindOrderStatisticsQuery(Duration.ofMinutes(5))).getCreated());
+    }
+
+    @Test
+    void givenEventsOlderThanTheRing_whenStatisticsQueried_thenShouldNotCountThem() {
+        handler.on(new OrderCreatedEvent(Id.of("ancient")), NOW.minus(Duration.ofHours(1)));
+        handler.on(new OrderCreatedEvent(Id.of("recent")), NOW.minusSeconds(2));
+
+        assertEquals(1, handler.handle(new FindOrderStatisticsQuery(Duration.ofSeconds(30))).getCreated());
+        assertEquals(1, handler.handle(new FindOrderStatisticsQuery(Duration.ofDays(1))).getCreated());
+    }
+
+    @Test
+    void givenShippedOrders_whenStatisticsQueried_thenShouldReportConfirmToShipPercentiles() {
+        for (int i = 1; i <= 100; i++) {
+            Id orderId = Id.of("order-" + i);
+            Instant shippedAt = NOW.minusSeconds(1);
+            handler.on(new OrderConfirmedEvent(orderId), shippedAt.minusMillis(i * 100L));
+            handler.on(new OrderShippedEvent(orderId), shippedAt);
+        }
+
+        OrderStatistics statistics = handler.handle(new FindOrderStatisticsQuery(Duration.ofMinutes(1)));
+
+        assertEquals(100, statistics.getShipped());
+        assertEquals(10_000, statistics.getConfirmToShipMaxMillis());
+        assertTrue(statistics.getConfirmToShipSamples() > 0);
+        assertTrue(statistics.getConfirmToShipP50Millis() >= 5_000 && statistics.getConfirmToShipP50Millis() <= 6_250,
+                   "p50 was " + statistics.getConfirmToShipP50Millis());
+        assertTrue(statistics.getConfirmToShipP99Millis() >= 9_900,
+                   "p99 was " + statistics.getConfirmToShipP99Millis());
+    }
+
+    @Test
+    void givenLatency_whenBucketed_thenUpperBoundShouldBeWithinAQuarter() {
+        for (long latency = 0; latency < 1_000_000; latency += 997) {
+            long upperBound = OrderLifecycleStatistics.upperBoundOf(OrderLifecycleStatistics.bucketOf(latency));
+            assertTrue(upperBound >= latency && upperBound <= latency * 1.25 + 1, "latency " + latency);
+        }
+    }
+}
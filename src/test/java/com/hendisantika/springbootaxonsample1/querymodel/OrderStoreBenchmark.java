@@ -0,0 +1,123 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 18.20
+ * <p>
+ * Compares the heap and the memory-mapped order store: fills one with orders and reports the live heap and the mapped
+ * bytes, then the garbage collection pauses while a steady stream of garbage is allocated next to the store, first
+ * without and then with {@code findAll} queries, together with their latency. Run each store in a fresh JVM through
+ * {@code scripts/read-model-benchmark.sh}.
+ */
+public class OrderStoreBenchmark {
+
+    private static final int PRODUCTS_PER_ORDER = 3;
+    private static final int GARBAGE_PER_ROUND = 2_000_000;
+
+    private static final byte[][] garbage = new byte[65_536][];
+
+    public static void main(String[] args) throws Exception {
+        String type = args.length > 0 ? args[0] : "heap";
+        int orders = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        OrderStore store = switch (type) {
+            case "heap" -> new InMemoryOrderStore();
+            case "mapped" -> new MappedOrderStore(Files.createTempDirectory("order-store"), 64 << 20, orders);
+            default -> throw new IllegalArgumentException("Unknown store type [" + type + "]");
+        };
+        AtomicLong maxPauseMillis = new AtomicLong();
+        AtomicLong totalPauseMillis = new AtomicLong();
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) collector).addNotificationListener((notification, handback) -> {
+                if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    long duration = GarbageCollectionNotificationInfo
+                            .from((CompositeData) notification.getUserData()).getGcInfo().getDuration();
+                    totalPauseMillis.addAndGet(duration);
+                    maxPauseMillis.accumulateAndGet(duration, Math::max);
+                }
+            }, null, null);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            Id orderId = Id.random();
+            store.create(orderId);
+            for (int product = 0; product < PRODUCTS_PER_ORDER; product++) {
+                store.addProduct(orderId, Id.of("product-" + (i + product) % 10_000));
+            }
+            store.incrementProduct(orderId, Id.of("product-" + i % 10_000));
+            if (i % 2 == 0) {
+                store.confirm(orderId);
+            }
+        }
+        long fillMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.gc();
+        // Notifications are delivered asynchronously; let the one of the explicit collection arrive before resetting.
+        Thread.sleep(500);
+        long heapBytes = usedHeap();
+        System.out.printf("%s: %d orders filled in %d ms, live heap %d MiB, mapped %d MiB%n",
+                          type, orders, fillMillis, heapBytes >> 20,
+                          store instanceof MappedOrderStore mapped ? mapped.mappedBytes() >> 20 : 0);
+
+        // Garbage from event handling and requests elsewhere in the service, with the store only kept alive.
+        maxPauseMillis.set(0);
+        totalPauseMillis.set(0);
+        long churnStart = System.nanoTime();
+        for (int round = 0; round < queries; round++) {
+            allocateGarbage();
+        }
+        Thread.sleep(500);
+        System.out.printf("%s: without queries, GC pauses total %d ms, max %d ms in %d ms%n",
+                          type, totalPauseMillis.get(), maxPauseMillis.get(),
+                          (System.nanoTime() - churnStart) / 1_000_000);
+
+        maxPauseMillis.set(0);
+        totalPauseMillis.set(0);
+        long[] latencies = new long[queries];
+        for (int query = 0; query < queries; query++) {
+            allocateGarbage();
+            long queryStart = System.nanoTime();
+            int size = store.findAll().size();
+            latencies[query] = (System.nanoTime() - queryStart) / 1_000_000;
+            if (size != orders) {
+                throw new IllegalStateException("Expected " + orders + " orders, found " + size);
+            }
+        }
+        Thread.sleep(500);
+        Arrays.sort(latencies);
+        System.out.printf("%s: findAll p50 %d ms, max %d ms over %d queries; GC pauses total %d ms, max %d ms%n",
+                          type, latencies[queries / 2], latencies[queries - 1], queries,
+                          totalPauseMillis.get(), maxPauseMillis.get());
+        if (store instanceof MappedOrderStore mapped) {
+            mapped.close();
+        }
+    }
+
+    private static void allocateGarbage() {
+        for (int i = 0; i < GARBAGE_PER_ROUND; i++) {
+            garbage[i % garbage.length] = new byte[256];
+        }
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
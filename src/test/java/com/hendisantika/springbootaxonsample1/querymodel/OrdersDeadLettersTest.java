@@ -0,0 +1,157 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.EventProcessors;
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventhandling.StreamingEventProcessor;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.05
+ */
+@SpringBootTest(properties = {
+        "axon.axonserver.enabled=false",
+        "order.store.type=poisoned"
+})
+class OrdersDeadLettersTest {
+    private static final Id DESK = Id.of("Desk");
+    private static final Set<Id> POISONED = ConcurrentHashMap.newKeySet();
+
+    @TestConfiguration
+    static class PoisonedOrderStoreConfiguration {
+
+        @Bean
+        EventStore eventStore() {
+            return EmbeddedEventStore.builder().storageEngine(new InMemoryEventStorageEngine()).build();
+        }
+
+        @Bean
+        OrderStore poisonedOrderStore() {
+            return new InMemoryOrderStore() {
+                @Override
+                public void create(Id orderId) {
+                    if (POISONED.contains(orderId)) {
+                        throw new IllegalStateException("Poisoned order " + orderId);
+                    }
+                    super.create(orderId);
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private OrdersDeadLetters deadLetters;
+
+    @Autowired
+    private OrderStore orderStore;
+
+    @Autowired
+    private EventStore eventStore;
+
+    @Autowired
+    private EventProcessingConfiguration eventProcessingConfiguration;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void givenFailingOrder_whenProcessed_thenShouldParkItsEventsAndRetryThemOnceFixed() throws Exception {
+        Id poisoned = Id.of("poisoned-retried");
+        Id healthy = Id.of("healthy-retried");
+        POISONED.add(poisoned);
+        publishOrderWithDesk(poisoned);
+        publishOrderWithDesk(healthy);
+        awaitProcessed();
+
+        assertTrue(containsOrderWithDesk(healthy));
+        assertFalse(contains(poisoned));
+        List<DeadLetterSummary> parked = parkedEventsOf(poisoned);
+        assertEquals(List.of("OrderCreatedEvent", "ProductAddedEvent"),
+                     parked.stream().map(DeadLetterSummary::getEventType).toList());
+        assertEquals("java.lang.IllegalStateException: Poisoned order " + poisoned, parked.get(0).getCause());
+        assertTrue(meterRegistry.get("orders.dead-letters.size").gauge().value() >= 2);
+
+        assertFalse(deadLetters.retry(poisoned));
+        POISONED.remove(poisoned);
+        assertTrue(deadLetters.retry(poisoned));
+
+        assertTrue(containsOrderWithDesk(poisoned));
+        assertTrue(parkedEventsOf(poisoned).isEmpty());
+    }
+
+    @Test
+    void givenParkedOrder_whenEvicted_thenShouldDropItsEventsOnly() throws Exception {
+        Id evicted = Id.of("poisoned-evicted");
+        Id kept = Id.of("poisoned-kept");
+        POISONED.add(evicted);
+        POISONED.add(kept);
+        publishOrderWithDesk(evicted);
+        publishOrderWithDesk(kept);
+        awaitProcessed();
+
+        assertEquals(2, deadLetters.evict(evicted));
+        assertEquals(0, deadLetters.evict(evicted));
+
+        assertTrue(parkedEventsOf(evicted).isEmpty());
+        assertEquals(2, parkedEventsOf(kept).size());
+        assertFalse(contains(evicted));
+    }
+
+    private void publishOrderWithDesk(Id orderId) {
+        eventStore.publish(new GenericDomainEventMessage<>("OrderAggregate", orderId.toString(), 0,
+                                                           new OrderCreatedEvent(orderId)),
+                           new GenericDomainEventMessage<>("OrderAggregate", orderId.toString(), 1,
+                                                           new ProductAddedEvent(orderId, DESK)));
+    }
+
+    private List<DeadLetterSummary> parkedEventsOf(Id orderId) {
+        return deadLetters.list(Integer.MAX_VALUE).stream()
+                .filter(summary -> orderId.toString().equals(summary.getOrderId()))
+                .toList();
+    }
+
+    private boolean contains(Id orderId) {
+        return orderStore.findAll().stream().anyMatch(order -> order.getOrderId().equals(orderId));
+    }
+
+    private boolean containsOrderWithDesk(Id orderId) {
+        return orderStore.findAll().stream()
+                .filter(order -> order.getOrderId().equals(orderId))
+                .map(Order::getProducts)
+                .anyMatch(products -> products.containsKey(DESK));
+    }
+
+    private void awaitProcessed() throws InterruptedException {
+        StreamingEventProcessor processor = eventProcessingConfiguration
+                .eventProcessor(OrdersDeadLetters.PROCESSING_GROUP, StreamingEventProcessor.class)
+                .orElseThrow();
+        EventProcessors.awaitProcessed(processor, eventStore, Duration.ofSeconds(30));
+    }
+}
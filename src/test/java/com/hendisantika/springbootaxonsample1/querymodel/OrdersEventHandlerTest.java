@@ -0,0 +1,92 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderConfirmedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindAllOrderedProductsQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrdersQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import org.axonframework.queryhandling.GenericQueryMessage;
+import org.axonframework.queryhandling.GenericStreamingQueryMessage;
+import org.axonframework.queryhandling.QueryResponseMessage;
+import org.axonframework.queryhandling.SimpleQueryBus;
+import org.axonframework.queryhandling.annotation.AnnotationQueryHandlerAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.axonframework.messaging.responsetypes.ResponseTypes.multipleInstancesOf;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.55
+ */
+class OrdersEventHandlerTest {
+
+    private SimpleQueryBus queryBus;
+
+    @BeforeEach
+    void setUp() {
+        OrdersEventHandler handler = new OrdersEventHandler(new InMemoryOrderStore());
+        for (int i = 0; i < 5; i++) {
+            handler.on(new OrderCreatedEvent(Id.of("order-" + i)));
+        }
+        handler.on(new OrderConfirmedEvent(Id.of("order-3")));
+        queryBus = SimpleQueryBus.builder().build();
+        new AnnotationQueryHandlerAdapter<>(handler).subscribe(queryBus);
+    }
+
+    @Test
+    void givenOrders_whenQueriedForAList_thenShouldAnswerWithAllOfThem() throws Exception {
+        QueryResponseMessage<List<Order>> response = queryBus.query(
+                new GenericQueryMessage<>(new FindAllOrderedProductsQuery(), multipleInstancesOf(Order.class))).get();
+
+        assertEquals(5, response.getPayload().size());
+    }
+
+    @Test
+    void givenOrders_whenStreamed_thenShouldEmitOnlyTheRequestedOrders() {
+        List<Order> received = new ArrayList<>();
+        BaseSubscriber<QueryResponseMessage<Order>> subscriber = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                subscription.request(2);
+            }
+
+            @Override
+            protected void hookOnNext(QueryResponseMessage<Order> response) {
+                received.add(response.getPayload());
+            }
+        };
+
+        Flux.from(queryBus.streamingQuery(new GenericStreamingQueryMessage<>(
+                new FindAllOrderedProductsQuery(), Order.class))).subscribe(subscriber);
+        assertEquals(2, received.size());
+
+        subscriber.request(10);
+        assertEquals(5, received.size());
+    }
+
+    @Test
+    void givenOrders_whenStreamedWithAFilter_thenShouldEmitOnlyTheMatchingOrders() {
+        List<Order> orders = Flux.from(queryBus.streamingQuery(new GenericStreamingQueryMessage<>(
+                        new FindOrdersQuery(OrderStatus.CONFIRMED, null), Order.class)))
+                .map(QueryResponseMessage::getPayload)
+                .collectList()
+                .block();
+
+        assertEquals(List.of(Id.of("order-3")), orders.stream().map(Order::getOrderId).toList());
+    }
+}
@@ -0,0 +1,120 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import org.axonframework.eventhandling.AddedTrackerStatus;
+import org.axonframework.eventhandling.GapAwareTrackingToken;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.RemovedTrackerStatus;
+import org.axonframework.eventhandling.Segment;
+import org.axonframework.eventhandling.TrackerStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 20.35
+ */
+class OrdersProjectionProgressTest {
+
+    private static final Segment[] HALVES = Segment.ROOT_SEGMENT.split();
+
+    private final OrdersProjectionProgress progress = new OrdersProjectionProgress(Duration.ofMillis(200), 1);
+
+    @AfterEach
+    void tearDown() {
+        progress.shutdown();
+    }
+
+    @Test
+    void givenSegmentsAtDifferentPositions_whenAwaited_thenShouldCompleteOnceTheSlowestPassesIt() throws Exception {
+        progress.onEventTrackerStatusChange(Map.of(0, new AddedTrackerStatus(status(HALVES[0], 10)),
+                                                   1, new AddedTrackerStatus(status(HALVES[1], 5))));
+        assertEquals(5, progress.getPosition());
+        progress.awaitPosition(5).get(1, TimeUnit.SECONDS);
+
+        CompletableFuture<Void> reached = progress.awaitPosition(8);
+        progress.onEventTrackerStatusChange(Map.of(0, status(HALVES[0], 12)));
+        assertFalse(reached.isDone());
+        assertEquals(1, progress.getWaiting());
+
+        progress.onEventTrackerStatusChange(Map.of(1, status(HALVES[1], 9)));
+        reached.get(1, TimeUnit.SECONDS);
+        assertEquals(9, progress.getPosition());
+        assertEquals(0, progress.getWaiting());
+    }
+
+    @Test
+    void givenGapBelowTheAwaitedPosition_whenAwaited_thenShouldCompleteOnlyOnceTheGapCloses() throws Exception {
+        progress.onEventTrackerStatusChange(Map.of(0, new AddedTrackerStatus(
+                new TrackerStatus(Segment.ROOT_SEGMENT, GapAwareTrackingToken.newInstance(10, Set.of(7L))))));
+        assertEquals(6, progress.getPosition());
+
+        CompletableFuture<Void> reached = progress.awaitPosition(8);
+        progress.onEventTrackerStatusChange(Map.of(0, new TrackerStatus(
+                Segment.ROOT_SEGMENT, GapAwareTrackingToken.newInstance(11, Set.of(7L)))));
+        assertFalse(reached.isDone());
+
+        progress.onEventTrackerStatusChange(Map.of(0, new TrackerStatus(
+                Segment.ROOT_SEGMENT, GapAwareTrackingToken.newInstance(11, Set.of()))));
+        reached.get(1, TimeUnit.SECONDS);
+        assertEquals(11, progress.getPosition());
+    }
+
+    @Test
+    void givenSegmentsOfAnotherInstance_whenAwaited_thenShouldNotCountAnyPositionAsReached() {
+        progress.onEventTrackerStatusChange(Map.of(0, new AddedTrackerStatus(status(HALVES[0], 10)),
+                                                   1, new AddedTrackerStatus(status(HALVES[1], 10))));
+        progress.onEventTrackerStatusChange(Map.of(1, new RemovedTrackerStatus(status(HALVES[1], 10))));
+
+        assertEquals(-1, progress.getPosition());
+    }
+
+    @Test
+    void givenSharedTokens_whenAwaited_thenShouldCountTheSegmentsOfOtherInstancesByTheirStoredTokens()
+            throws Exception {
+        progress.onEventTrackerStatusChange(Map.of(0, new AddedTrackerStatus(status(HALVES[0], 10))));
+        assertEquals(-1, progress.getPosition());
+
+        CompletableFuture<Void> reached = progress.awaitPosition(8);
+        progress.sharedTokensRead(Map.of(0, new GlobalSequenceTrackingToken(4), 1, new GlobalSequenceTrackingToken(6)));
+        assertEquals(6, progress.getPosition());
+        assertFalse(reached.isDone());
+
+        progress.sharedTokensRead(Map.of(0, new GlobalSequenceTrackingToken(4), 1, new GlobalSequenceTrackingToken(9)));
+        reached.get(1, TimeUnit.SECONDS);
+        assertEquals(9, progress.getPosition());
+    }
+
+    @Test
+    void givenAProcessorThatFallsBehind_whenAwaited_thenShouldFailAfterTheTimeout() {
+        progress.onEventTrackerStatusChange(Map.of(0, status(Segment.ROOT_SEGMENT, 3)));
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                                                  () -> progress.awaitPosition(4).get(1, TimeUnit.SECONDS));
+
+        ProjectionLagException lag = assertInstanceOf(ProjectionLagException.class, failure.getCause());
+        assertEquals(4, lag.getMinPosition());
+        assertEquals(3, lag.getPosition());
+        assertEquals(0, progress.getWaiting());
+    }
+
+    private static TrackerStatus status(Segment segment, long position) {
+        return new TrackerStatus(segment, new GlobalSequenceTrackingToken(position));
+    }
+}
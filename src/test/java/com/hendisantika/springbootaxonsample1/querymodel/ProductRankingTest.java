@@ -0,0 +1,104 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.ProductPopularity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 15.35
+ */
+class ProductRankingTest {
+    private static final Id CHAIR = Id.of("chair");
+    private static final Id TABLE = Id.of("table");
+    private static final Id LAMP = Id.of("lamp");
+
+    private ProductRanking ranking;
+
+    @BeforeEach
+    void setUp() {
+        ranking = new ProductRanking();
+    }
+
+    @Test
+    void givenProductsInSeveralOrders_whenTopRequested_thenShouldRankByTotalQuantity() {
+        ranking.productAdded(CHAIR);
+        ranking.productAdded(TABLE);
+        ranking.quantityIncremented(TABLE);
+        ranking.productAdded(CHAIR);
+        ranking.productAdded(LAMP);
+        ranking.quantityIncremented(CHAIR);
+
+        assertEquals(List.of(new ProductPopularity(CHAIR, 3, 2),
+                             new ProductPopularity(TABLE, 2, 1)),
+                     ranking.top(2));
+    }
+
+    @Test
+    void givenRankedProduct_whenDecrementedAndRemoved_thenShouldMoveDownAndDisappear() {
+        ranking.productAdded(CHAIR);
+        ranking.quantityIncremented(CHAIR);
+        ranking.productAdded(TABLE);
+
+        ranking.quantityDecremented(CHAIR);
+        ranking.productAdded(TABLE);
+        assertEquals(List.of(new ProductPopularity(TABLE, 2, 2),
+                             new ProductPopularity(CHAIR, 1, 1)),
+                     ranking.top(10));
+
+        ranking.productRemoved(CHAIR);
+        assertEquals(List.of(new ProductPopularity(TABLE, 2, 2)), ranking.top(10));
+    }
+
+    @Test
+    void givenUnknownProduct_whenChanged_thenShouldIgnoreIt() {
+        ranking.quantityIncremented(CHAIR);
+        ranking.quantityDecremented(CHAIR);
+        ranking.productRemoved(CHAIR);
+
+        assertTrue(ranking.top(10).isEmpty());
+    }
+
+    @Test
+    void givenRandomChanges_whenTopRequested_thenShouldMatchSortedQuantities() {
+        Random random = new Random(42);
+        Map<Id, Long> quantities = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            Id productId = Id.of("product-" + random.nextInt(50));
+            long quantity = quantities.getOrDefault(productId, 0L);
+            if (quantity == 0) {
+                ranking.productAdded(productId);
+                quantities.put(productId, 1L);
+            } else if (random.nextInt(3) == 0) {
+                ranking.quantityDecremented(productId);
+                quantities.put(productId, quantity - 1);
+            } else {
+                ranking.quantityIncremented(productId);
+                quantities.put(productId, quantity + 1);
+            }
+        }
+
+        List<Long> expected = new ArrayList<>(quantities.values());
+        expected.removeIf(quantity -> quantity == 0);
+        expected.sort(Comparator.reverseOrder());
+        assertEquals(expected.subList(0, 10),
+                     ranking.top(10).stream().map(ProductPopularity::getQuantity).toList());
+        assertEquals(expected.size(), ranking.top(100).size());
+    }
+}
@@ -0,0 +1,115 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrdersQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 08.50
+ * <p>
+ * Measures the sharded order store for a growing number of shards: first the updates per second while a writer per
+ * core fills it with orders, then, for a fixed period, the updates per second of the same writers together with the
+ * queries per second and their latency of a thread asking for the confirmed orders holding a product. Run through
+ * {@code scripts/sharded-read-model-benchmark.sh}.
+ */
+public class ShardedOrderStoreBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int[] shardCounts = args.length > 2
+                ? Arrays.stream(args, 2, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 2, 4, 8, 16};
+        int writers = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d orders, %d writer(s), %d s of queries%n", orders, writers, seconds);
+        for (int shardCount : shardCounts) {
+            run(orders, seconds, writers, shardCount);
+        }
+    }
+
+    private static void run(int orders, int seconds, int writers, int shardCount) throws Exception {
+        Id[] orderIds = new Id[orders];
+        for (int i = 0; i < orders; i++) {
+            orderIds[i] = Id.random();
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try (ShardedOrderStore store = new ShardedOrderStore(
+                shardCount, Math.min(shardCount, Runtime.getRuntime().availableProcessors()))) {
+            long start = System.nanoTime();
+            List<Future<?>> fills = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int first = writer;
+                fills.add(executor.submit(() -> {
+                    for (int i = first; i < orders; i += writers) {
+                        store.create(orderIds[i]);
+                        store.addProduct(orderIds[i], Id.of("product-" + i % PRODUCTS));
+                        store.addProduct(orderIds[i], Id.of("product-" + (i + 1) % PRODUCTS));
+                        store.incrementProduct(orderIds[i], Id.of("product-" + i % PRODUCTS));
+                        if (i % 2 == 0) {
+                            store.confirm(orderIds[i]);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> fill : fills) {
+                fill.get();
+            }
+            long fillUpdates = orders * 4L + (orders + 1) / 2;
+            long fillUpdatesPerSecond = fillUpdates * 1_000_000_000L / (System.nanoTime() - start);
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<Future<Long>> updates = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                updates.add(executor.submit(() -> {
+                    long count = 0;
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        int i = random.nextInt(orders);
+                        store.incrementProduct(orderIds[i], Id.of("product-" + i % PRODUCTS));
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            FindOrdersQuery query = new FindOrdersQuery(OrderStatus.CONFIRMED, Id.of("product-42"));
+            List<Long> latencies = new ArrayList<>();
+            long end = System.nanoTime() + seconds * 1_000_000_000L;
+            while (System.nanoTime() < end) {
+                long queryStart = System.nanoTime();
+                store.find(query::matches);
+                latencies.add(System.nanoTime() - queryStart);
+            }
+            running.set(false);
+            long updateCount = 0;
+            for (Future<Long> update : updates) {
+                updateCount += update.get();
+            }
+            latencies.sort(null);
+            System.out.printf("%2d shard(s): fill %,d updates/s; with queries %,d updates/s, %.1f queries/s, "
+                                      + "p50 %.2f ms, p99 %.2f ms%n",
+                              shardCount, fillUpdatesPerSecond, updateCount / seconds,
+                              latencies.size() / (double) seconds,
+                              latencies.get(latencies.size() / 2) / 1e6,
+                              latencies.get((int) (latencies.size() * 0.99)) / 1e6);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
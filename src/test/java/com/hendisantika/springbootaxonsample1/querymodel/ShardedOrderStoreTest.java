@@ -0,0 +1,139 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.FindOrdersQuery;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.OrderStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 08.40
+ */
+class ShardedOrderStoreTest {
+
+    private static final Id CHAIR = Id.of("chair");
+    private static final Id TABLE = Id.of("table");
+
+    private final ShardedOrderStore store = new ShardedOrderStore(4, 2);
+
+    @AfterEach
+    void tearDown() {
+        store.close();
+    }
+
+    @Test
+    void givenOrdersAcrossShards_whenFindAll_thenShouldReturnTheSameOrdersAsOneMap() {
+        InMemoryOrderStore reference = new InMemoryOrderStore();
+        for (OrderStore orders : List.of(store, reference)) {
+            for (int i = 0; i < 100; i++) {
+                Id orderId = Id.of("order-" + i);
+                orders.create(orderId);
+                orders.addProduct(orderId, CHAIR);
+                if (i % 2 == 0) {
+                    orders.addProduct(orderId, TABLE);
+                    orders.incrementProduct(orderId, TABLE);
+                    orders.confirm(orderId);
+                }
+                if (i % 10 == 0) {
+                    orders.removeProduct(orderId, CHAIR);
+                    orders.ship(orderId);
+                }
+            }
+        }
+
+        assertEquals(new HashSet<>(reference.findAll()), new HashSet<>(store.findAll()));
+        assertEquals(100, store.findAll().size());
+    }
+
+    @Test
+    void givenFilteredQuery_whenFind_thenShouldReturnMatchingOrdersOnly() {
+        Id confirmedWithTable = Id.random();
+        Id confirmedWithChair = Id.random();
+        Id createdWithTable = Id.random();
+        store.create(confirmedWithTable);
+        store.addProduct(confirmedWithTable, TABLE);
+        store.confirm(confirmedWithTable);
+        store.create(confirmedWithChair);
+        store.addProduct(confirmedWithChair, CHAIR);
+        store.confirm(confirmedWithChair);
+        store.create(createdWithTable);
+        store.addProduct(createdWithTable, TABLE);
+
+        List<Order> found = store.find(new FindOrdersQuery(OrderStatus.CONFIRMED, TABLE)::matches);
+
+        assertEquals(List.of(confirmedWithTable), found.stream().map(Order::getOrderId).toList());
+        assertEquals(3, store.find(new FindOrdersQuery(null, null)::matches).size());
+    }
+
+    @Test
+    void givenReturnedOrder_whenStoreChangesAfterwards_thenShouldKeepItsState() {
+        Id orderId = Id.random();
+        store.create(orderId);
+        store.addProduct(orderId, CHAIR);
+        Order before = store.findAll().get(0);
+
+        store.incrementProduct(orderId, CHAIR);
+        store.confirm(orderId);
+
+        assertEquals(Map.of(CHAIR, 1), before.getProducts());
+        assertEquals(OrderStatus.CREATED, before.getOrderStatus());
+        assertEquals(Map.of(CHAIR, 2), store.findAll().get(0).getProducts());
+    }
+
+    @Test
+    void givenConcurrentWritersAndQueries_whenDone_thenShouldHoldEveryChange() throws Exception {
+        int writers = 4;
+        int ordersPerWriter = 500;
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            List<Future<?>> writes = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int first = writer * ordersPerWriter;
+                writes.add(executor.submit(() -> {
+                    for (int i = first; i < first + ordersPerWriter; i++) {
+                        Id orderId = Id.of("order-" + i);
+                        store.create(orderId);
+                        store.addProduct(orderId, CHAIR);
+                        store.incrementProduct(orderId, CHAIR);
+                    }
+                }));
+            }
+            Future<?> queries = executor.submit(() -> {
+                do {
+                    store.findAll();
+                } while (writing.get());
+            });
+            for (Future<?> write : writes) {
+                write.get();
+            }
+            writing.set(false);
+
+            queries.get();
+            List<Order> orders = store.findAll();
+            assertEquals(writers * ordersPerWriter, orders.size());
+            assertTrue(orders.stream().allMatch(order -> order.getProducts().equals(Map.of(CHAIR, 2))));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
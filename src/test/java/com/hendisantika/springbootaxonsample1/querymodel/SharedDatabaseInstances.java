@@ -0,0 +1,154 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.SpringBootAxonSample1Application;
+import jakarta.persistence.EntityManagerFactory;
+import org.axonframework.common.jpa.SimpleEntityManagerProvider;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventhandling.TrackingEventProcessor;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.eventsourcing.eventstore.jpa.DomainEventEntry;
+import org.axonframework.eventsourcing.eventstore.jpa.JpaEventStorageEngine;
+import org.axonframework.serialization.Serializer;
+import org.axonframework.spring.messaging.unitofwork.SpringTransactionManager;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.55
+ * <p>
+ * Starts instances of the service within this JVM that share a file-based H2 database for their events, their
+ * {@code orders} tokens and the orders read model, standing in for instances deployed next to Axon Server and a
+ * shared database.
+ */
+class SharedDatabaseInstances implements AutoCloseable {
+
+    private final Map<String, String> properties = new LinkedHashMap<>();
+    private final List<ConfigurableApplicationContext> instances = new ArrayList<>();
+
+    SharedDatabaseInstances(Path directory, Map<String, String> properties) throws IOException {
+        FileSystemUtils.deleteRecursively(directory);
+        this.properties.put("axon.axonserver.enabled", "false");
+        this.properties.put("spring.main.web-application-type", "none");
+        this.properties.put("spring.main.banner-mode", "off");
+        this.properties.put("management.tracing.sampling.probability", "0");
+        this.properties.put("spring.datasource.url", "jdbc:h2:file:" + directory.toAbsolutePath().resolve("orders"));
+        this.properties.put("spring.jpa.hibernate.ddl-auto", "update");
+        this.properties.put("order.store.type", "jpa");
+        this.properties.putAll(properties);
+    }
+
+    ConfigurableApplicationContext start(String nodeId) {
+        ConfigurableApplicationContext instance = new SpringApplicationBuilder(
+                SpringBootAxonSample1Application.class, SharedEventStoreConfiguration.class)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("testConfigurationExcludeFilter", new TestConfigurationExcludeFilter()))
+                .run(arguments(nodeId));
+        instances.add(instance);
+        return instance;
+    }
+
+    /**
+     * The properties as command line arguments, which take precedence over {@code application.properties}.
+     */
+    private String[] arguments(String nodeId) {
+        List<String> arguments = new ArrayList<>();
+        properties.forEach((name, value) -> arguments.add("--" + name + "=" + value));
+        arguments.add("--order.projection.node-id=" + nodeId);
+        return arguments.toArray(String[]::new);
+    }
+
+    static TrackingEventProcessor ordersProcessor(ConfigurableApplicationContext instance) {
+        return instance.getBean(EventProcessingConfiguration.class)
+                .eventProcessor("orders", TrackingEventProcessor.class)
+                .orElseThrow();
+    }
+
+    static int claimedSegments(ConfigurableApplicationContext instance) {
+        return ordersProcessor(instance).processingStatus().size();
+    }
+
+    @Override
+    public void close() {
+        for (int i = instances.size() - 1; i >= 0; i--) {
+            instances.get(i).close();
+        }
+        instances.clear();
+    }
+
+    @TestConfiguration
+    @EntityScan(basePackageClasses = {DomainEventEntry.class, OrderView.class})
+    static class SharedEventStoreConfiguration {
+
+        @Bean(destroyMethod = "shutDown")
+        EventStore eventStore(EntityManagerFactory entityManagerFactory,
+                              PlatformTransactionManager transactionManager,
+                              @Qualifier("serializer") Serializer serializer,
+                              @Qualifier("eventSerializer") Serializer eventSerializer) {
+            return EmbeddedEventStore.builder()
+                    .storageEngine(JpaEventStorageEngine.builder()
+                                           .entityManagerProvider(new SimpleEntityManagerProvider(
+                                                   SharedEntityManagerCreator.createSharedEntityManager(
+                                                           entityManagerFactory)))
+                                           .transactionManager(new SpringTransactionManager(transactionManager))
+                                           .snapshotSerializer(serializer)
+                                           .eventSerializer(eventSerializer)
+                                           .build())
+                    .build();
+        }
+    }
+
+    /**
+     * Keeps the test configurations of other tests out of the component scan, as {@code @SpringBootTest} does.
+     */
+    private static class TestConfigurationExcludeFilter extends TypeExcludeFilter {
+
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory)
+                throws IOException {
+            for (MetadataReader reader = metadataReader; ; ) {
+                if (reader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName())) {
+                    return true;
+                }
+                String enclosingClassName = reader.getClassMetadata().getEnclosingClassName();
+                if (enclosingClassName == null) {
+                    return false;
+                }
+                reader = metadataReaderFactory.getMetadataReader(enclosingClassName);
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o != null && getClass() == o.getClass();
+        }
+
+        @Override
+        public int hashCode() {
+            return getClass().hashCode();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountIncrementedEvent;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventhandling.TrackingEventProcessor;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.hendisantika.springbootaxonsample1.querymodel.SharedDatabaseInstances.claimedSegments;
+import static com.hendisantika.springbootaxonsample1.querymodel.SharedDatabaseInstances.ordersProcessor;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.59
+ * <p>
+ * Measures the throughput of the shared orders projection for a growing number of instances, each running a single
+ * processor thread on one of as many segments as there are instances. The instances are started and have claimed
+ * their segment before the orders are appended in one transaction, so the time until every instance has reached the
+ * head of the event stream is spent on handling events only. Run through {@code scripts/projection-benchmark.sh}.
+ */
+public class SharedProjectionBenchmark {
+
+    private static final Path DIRECTORY = Path.of("target", "shared-projection-benchmark");
+    private static final Id DESK = Id.of("Desk");
+
+    public static void main(String[] args) throws Exception {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int[] instanceCounts = args.length > 1
+                ? Arrays.stream(args, 1, args.length).mapToInt(Integer::parseInt).toArray()
+                : new int[]{1, 2, 4};
+        for (int instanceCount : instanceCounts) {
+            run(orders, instanceCount);
+        }
+        System.exit(0);
+    }
+
+    private static void run(int orders, int instanceCount) throws Exception {
+        try (SharedDatabaseInstances instances = new SharedDatabaseInstances(DIRECTORY, Map.of(
+                "order.projection.segments", Integer.toString(instanceCount),
+                "order.projection.threads", "1",
+                "order.projection.rebalance-interval", "PT1S",
+                "logging.level.root", "WARN"))) {
+            List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+            for (int i = 1; i <= instanceCount; i++) {
+                nodes.add(instances.start("node-" + i));
+            }
+            for (ConfigurableApplicationContext node : nodes) {
+                while (claimedSegments(node) != 1) {
+                    Thread.sleep(50);
+                }
+            }
+
+            EventStore eventStore = nodes.get(0).getBean(EventStore.class);
+            eventStore.publish(orderEvents(orders));
+            long start = System.nanoTime();
+            long head = eventStore.createHeadToken().position().orElseThrow();
+            for (ConfigurableApplicationContext node : nodes) {
+                TrackingEventProcessor processor = ordersProcessor(node);
+                while (processor.processingStatus().values().stream()
+                        .anyMatch(status -> status.getCurrentPosition().orElse(-1) < head)) {
+                    Thread.sleep(5);
+                }
+            }
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            System.out.printf("%d instance(s): %d events projected in %d ms, %d events/s%n",
+                              instanceCount, orders * 3, millis, orders * 3 * 1000L / millis);
+        }
+    }
+
+    private static List<EventMessage<?>> orderEvents(int orders) {
+        List<EventMessage<?>> events = new ArrayList<>(orders * 3);
+        for (int i = 0; i < orders; i++) {
+            Id orderId = Id.random();
+            events.add(new GenericDomainEventMessage<>("OrderAggregate", orderId.toString(), 0,
+                                                       new OrderCreatedEvent(orderId)));
+            events.add(new GenericDomainEventMessage<>("OrderAggregate", orderId.toString(), 1,
+                                                       new ProductAddedEvent(orderId, DESK)));
+            events.add(new GenericDomainEventMessage<>("OrderAggregate", orderId.toString(), 2,
+                                                       new ProductCountIncrementedEvent(orderId, DESK)));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,127 @@
+package com.hendisantika.springbootaxonsample1.querymodel;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.command.AddProductCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.command.CreateOrderCommand;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductCountIncrementedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.queries.Order;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.hendisantika.springbootaxonsample1.querymodel.SharedDatabaseInstances.claimedSegments;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.58
+ */
+class SharedProjectionTest {
+    private static final Path DIRECTORY = Path.of("target", "shared-projection-test");
+    private static final Id DESK = Id.of("Desk");
+
+    @Test
+    void givenInstancesJoiningAndLeaving_whenProjecting_thenShouldShareSegmentsAndApplyEveryEventOnce()
+            throws Exception {
+        try (SharedDatabaseInstances instances = new SharedDatabaseInstances(DIRECTORY, Map.of(
+                "order.projection.segments", "4",
+                "order.projection.rebalance-interval", "PT0.2S",
+                "order.projection.claim-timeout", "PT2S"))) {
+            ConfigurableApplicationContext first = instances.start("node-1");
+            await(() -> claimedSegments(first) == 4, "node-1 to claim all segments");
+
+            ConfigurableApplicationContext second = instances.start("node-2");
+            await(() -> claimedSegments(first) == 2 && claimedSegments(second) == 2, "the segments to be shared");
+
+            List<Id> orders = new ArrayList<>(publishOrders(first.getBean(EventStore.class), 100));
+            // Each node waits for the segments the other one projects through the tokens it stored.
+            long head = OrdersProjectionProgress.headPosition(first.getBean(EventStore.class));
+            first.getBean(OrdersProjectionProgress.class).awaitPosition(head).get(30, TimeUnit.SECONDS);
+            second.getBean(OrdersProjectionProgress.class).awaitPosition(head).get(30, TimeUnit.SECONDS);
+            OrderStore store = second.getBean(OrderStore.class);
+            await(() -> projected(store, orders), "the orders to be projected by both nodes");
+
+            second.close();
+            await(() -> claimedSegments(first) == 4, "node-1 to take over the segments of node-2");
+
+            orders.addAll(publishOrders(first.getBean(EventStore.class), 50));
+            await(() -> projected(first.getBean(OrderStore.class), orders), "the orders to be projected by node-1");
+            assertEquals(150, first.getBean(OrderStore.class).findAll().size());
+        }
+    }
+
+    @Test
+    void givenOrderCreatedOnOneInstance_whenNextCommandSentToAnother_thenShouldHandleIt() throws Exception {
+        try (SharedDatabaseInstances instances = new SharedDatabaseInstances(DIRECTORY.resolveSibling(
+                "shared-commands-test"), Map.of())) {
+            ConfigurableApplicationContext first = instances.start("node-1");
+            ConfigurableApplicationContext second = instances.start("node-2");
+            Id orderId = Id.random();
+
+            first.getBean(CommandGateway.class).sendAndWait(new CreateOrderCommand(orderId));
+            second.getBean(CommandGateway.class).sendAndWait(new AddProductCommand(orderId, DESK));
+
+            await(() -> projected(first.getBean(OrderStore.class), orderId), "the order to be projected");
+        }
+    }
+
+    private static boolean projected(OrderStore store, Id orderId) {
+        return store.findAll().stream()
+                .anyMatch(order -> order.getOrderId().equals(orderId) && order.getProducts().containsKey(DESK));
+    }
+
+    private static List<Id> publishOrders(EventStore eventStore, int count) {
+        List<Id> orders = new ArrayList<>();
+        List<EventMessage<?>> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Id orderId = Id.random();
+            orders.add(orderId);
+            events.add(new GenericDomainEventMessage<>("OrderAggregate", orderId.toString(), 0,
+                                                       new OrderCreatedEvent(orderId)));
+            events.add(new GenericDomainEventMessage<>("OrderAggregate", orderId.toString(), 1,
+                                                       new ProductAddedEvent(orderId, DESK)));
+            events.add(new GenericDomainEventMessage<>("OrderAggregate", orderId.toString(), 2,
+                                                       new ProductCountIncrementedEvent(orderId, DESK)));
+        }
+        eventStore.publish(events);
+        return orders;
+    }
+
+    /**
+     * Whether every order is in the read model with two desks, which it would not be had any of its events been
+     * applied twice or not at all.
+     */
+    private static boolean projected(OrderStore store, List<Id> orders) {
+        List<Order> projected = store.findAll();
+        return projected.size() == orders.size() && projected.stream()
+                .allMatch(order -> orders.contains(order.getOrderId())
+                        && Integer.valueOf(2).equals(order.getProducts().get(DESK)));
+    }
+
+    private static void await(BooleanSupplier condition, String description) throws InterruptedException {
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Timed out waiting for " + description);
+            }
+            Thread.sleep(50);
+        }
+    }
+}
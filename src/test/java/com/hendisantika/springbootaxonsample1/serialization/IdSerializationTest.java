@@ -0,0 +1,110 @@
+package com.hendisantika.springbootaxonsample1.serialization;
+
+import com.hendisantika.springbootaxonsample1.coreapi.Id;
+import com.hendisantika.springbootaxonsample1.coreapi.events.OrderCreatedEvent;
+import com.hendisantika.springbootaxonsample1.coreapi.events.ProductAddedEvent;
+import com.thoughtworks.xstream.XStream;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventEntry;
+import org.axonframework.eventsourcing.EventStreamUtils;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.serialization.SerializedObject;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 20.50
+ */
+class IdSerializationTest {
+    private static final Id ORDER_ID = Id.of("3f1c2a9e-8b4d-4e6f-9a0b-1c2d3e4f5a6b");
+    private static final Id PRODUCT_ID = Id.of("Deluxe Chair");
+
+    private XStreamSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        XStream xStream = new XStream();
+        xStream.allowTypesByWildcard(new String[]{"com.hendisantika.**"});
+        xStream.registerConverter(new IdConverter());
+        serializer = XStreamSerializer.builder().xStream(xStream).build();
+    }
+
+    @Test
+    void givenIdentifierStrings_whenParsed_thenShouldPrintTheSameString() {
+        assertTrue(ORDER_ID.isUuid());
+        assertEquals("3f1c2a9e-8b4d-4e6f-9a0b-1c2d3e4f5a6b", ORDER_ID.toString());
+        assertFalse(PRODUCT_ID.isUuid());
+        assertEquals("Deluxe Chair", PRODUCT_ID.toString());
+
+        Id upperCase = Id.of("3F1C2A9E-8B4D-4E6F-9A0B-1C2D3E4F5A6B");
+        assertFalse(upperCase.isUuid());
+        assertEquals("3F1C2A9E-8B4D-4E6F-9A0B-1C2D3E4F5A6B", upperCase.toString());
+
+        Id random = Id.random();
+        assertEquals(random, Id.of(random.toString()));
+        assertEquals(random.hashCode(), Id.of(random.toString()).hashCode());
+    }
+
+    @Test
+    void givenIdentifiers_whenWrittenAsJson_thenShouldBePlainStrings() {
+        JsonMapper mapper = JsonMapper.builder().build();
+
+        assertEquals("\"" + ORDER_ID + "\"", mapper.writeValueAsString(ORDER_ID));
+        assertEquals("\"Deluxe Chair\"", mapper.writeValueAsString(PRODUCT_ID));
+        assertEquals(ORDER_ID, mapper.readValue("\"" + ORDER_ID + "\"", Id.class));
+        assertEquals(PRODUCT_ID, mapper.readValue("\"Deluxe Chair\"", Id.class));
+    }
+
+    @Test
+    void givenEvent_whenSerialized_thenShouldWriteIdentifiersCompactly() {
+        ProductAddedEvent event = new ProductAddedEvent(ORDER_ID, PRODUCT_ID);
+
+        SerializedObject<String> serialized = serializer.serialize(event, String.class);
+
+        assertEquals("2", serialized.getType().getRevision());
+        assertTrue(serialized.getData().contains("<orderId>PxwqnotNTm-aCxwtPk9aaw</orderId>"),
+                serialized.getData());
+        assertTrue(serialized.getData().contains("<productId>~Deluxe Chair</productId>"), serialized.getData());
+        assertEquals(event, serializer.deserialize(serialized));
+    }
+
+    @Test
+    void givenEventsStoredBeforeRevision2_whenRead_thenShouldBeUpcast() {
+        String metaData = serializer.serialize(MetaData.emptyInstance(), String.class).getData();
+        GenericDomainEventEntry<String> created = oldEntry(0, OrderCreatedEvent.class.getName(),
+                "<" + OrderCreatedEvent.class.getName() + "><orderId>" + ORDER_ID + "</orderId></"
+                        + OrderCreatedEvent.class.getName() + ">", metaData);
+        GenericDomainEventEntry<String> added = oldEntry(1, ProductAddedEvent.class.getName(),
+                "<" + ProductAddedEvent.class.getName() + "><orderId>" + ORDER_ID + "</orderId>"
+                        + "<productId>Chair &amp; Table</productId></" + ProductAddedEvent.class.getName() + ">",
+                metaData);
+
+        List<? extends DomainEventMessage<?>> events = EventStreamUtils.upcastAndDeserializeDomainEvents(
+                Stream.of(created, added), serializer, new IdUpcaster()).asStream().toList();
+
+        assertEquals(new OrderCreatedEvent(ORDER_ID), events.get(0).getPayload());
+        assertEquals(new ProductAddedEvent(ORDER_ID, Id.of("Chair & Table")), events.get(1).getPayload());
+    }
+
+    private static GenericDomainEventEntry<String> oldEntry(long sequenceNumber, String type, String payload,
+                                                           String metaData) {
+        return new GenericDomainEventEntry<>("OrderAggregate", ORDER_ID.toString(), sequenceNumber,
+                "event-" + sequenceNumber, Instant.now(), type, null, payload, metaData);
+    }
+}
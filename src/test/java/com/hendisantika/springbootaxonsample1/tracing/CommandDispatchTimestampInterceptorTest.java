@@ -0,0 +1,76 @@
+package com.hendisantika.springbootaxonsample1.tracing;
+
+import org.axonframework.commandhandling.CommandMessage;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.messaging.MetaData;
+import org.axonframework.messaging.correlation.SimpleCorrelationDataProvider;
+import org.axonframework.messaging.interceptors.CorrelationDataInterceptor;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.axonframework.commandhandling.GenericCommandMessage.asCommandMessage;
+import static org.axonframework.eventhandling.GenericEventMessage.asEventMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.58
+ */
+class CommandDispatchTimestampInterceptorTest {
+
+    private final CommandDispatchTimestampInterceptor interceptor = new CommandDispatchTimestampInterceptor();
+
+    @Test
+    void givenACommand_whenDispatched_thenShouldStampItWithTheDispatchTime() {
+        long before = System.currentTimeMillis();
+
+        CommandMessage<?> command = interceptor.handle(asCommandMessage("confirm"));
+
+        long dispatchedAt = (Long) command.getMetaData().get(CommandDispatchTimestampInterceptor.DISPATCHED_AT);
+        assertTrue(dispatchedAt >= before && dispatchedAt <= System.currentTimeMillis());
+    }
+
+    @Test
+    void givenAStampedCommand_whenDispatchedAgain_thenShouldKeepTheFirstTimestamp() {
+        CommandMessage<?> command = asCommandMessage("confirm")
+                .andMetaData(Map.of(CommandDispatchTimestampInterceptor.DISPATCHED_AT, 42L));
+
+        Object dispatchedAt = interceptor.handle(command).getMetaData()
+                .get(CommandDispatchTimestampInterceptor.DISPATCHED_AT);
+        assertEquals(42L, dispatchedAt);
+    }
+
+    @Test
+    void givenADispatchedCommand_whenItsHandlerPublishesEvents_thenShouldCopyTheTimestampOntoEachOfThem() {
+        SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+        commandBus.registerDispatchInterceptor(interceptor);
+        commandBus.registerHandlerInterceptor(new CorrelationDataInterceptor<>(
+                new SimpleCorrelationDataProvider(CommandDispatchTimestampInterceptor.DISPATCHED_AT)));
+        List<EventMessage<?>> events = new ArrayList<>();
+        List<MetaData> commandMetaData = new ArrayList<>();
+        commandBus.subscribe(String.class.getName(), command -> {
+            commandMetaData.add(command.getMetaData());
+            events.add(asEventMessage("product added"));
+            events.add(asEventMessage("product count incremented"));
+            return null;
+        });
+
+        commandBus.dispatch(asCommandMessage("add product"));
+
+        Object dispatchedAt = commandMetaData.get(0).get(CommandDispatchTimestampInterceptor.DISPATCHED_AT);
+        assertEquals(2, events.size());
+        for (EventMessage<?> event : events) {
+            assertEquals(dispatchedAt, event.getMetaData().get(CommandDispatchTimestampInterceptor.DISPATCHED_AT));
+        }
+    }
+}
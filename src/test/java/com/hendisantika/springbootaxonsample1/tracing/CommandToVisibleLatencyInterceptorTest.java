@@ -0,0 +1,86 @@
+package com.hendisantika.springbootaxonsample1.tracing;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.GenericTrackedEventMessage;
+import org.axonframework.eventhandling.GlobalSequenceTrackingToken;
+import org.axonframework.eventhandling.ReplayToken;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.axonframework.eventhandling.GenericEventMessage.asEventMessage;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 23.59
+ */
+class CommandToVisibleLatencyInterceptorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CommandToVisibleLatencyInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new CommandToVisibleLatencyInterceptor(meterRegistry);
+    }
+
+    @Test
+    void givenEventsOfADispatchedCommand_whenApplied_thenShouldRecordEachOnce() throws Exception {
+        long dispatchedAt = System.currentTimeMillis() - 250;
+
+        assertEquals("applied", handle(stamped("product added", dispatchedAt)));
+        handle(stamped("product added", dispatchedAt));
+        handle(stamped(1, dispatchedAt));
+
+        Timer timer = meterRegistry.get("orders.command.visible.latency").tag("event", "String").timer();
+        assertEquals(2, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 500);
+        assertEquals(1, meterRegistry.get("orders.command.visible.latency").tag("event", "Integer").timer().count());
+    }
+
+    @Test
+    void givenAnEventWithoutDispatchTime_whenApplied_thenShouldNotRecordIt() throws Exception {
+        assertEquals("applied", handle(asEventMessage("imported")));
+
+        assertNull(meterRegistry.find("orders.command.visible.latency").timer());
+    }
+
+    @Test
+    void givenAReplayedEvent_whenApplied_thenShouldNotRecordIt() throws Exception {
+        EventMessage<?> replayed = new GenericTrackedEventMessage<>(
+                ReplayToken.createReplayToken(new GlobalSequenceTrackingToken(10), new GlobalSequenceTrackingToken(2)),
+                stamped("product added", System.currentTimeMillis() - 60_000));
+
+        assertEquals("applied", handle(replayed));
+
+        assertNull(meterRegistry.find("orders.command.visible.latency").timer());
+    }
+
+    private static EventMessage<?> stamped(Object payload, long dispatchedAt) {
+        return asEventMessage(payload).andMetaData(Map.of(CommandDispatchTimestampInterceptor.DISPATCHED_AT,
+                                                          dispatchedAt));
+    }
+
+    private Object handle(EventMessage<?> event) throws Exception {
+        DefaultUnitOfWork<EventMessage<?>> unitOfWork = DefaultUnitOfWork.startAndGet(event);
+        try {
+            return interceptor.handle(unitOfWork, () -> "applied");
+        } finally {
+            unitOfWork.rollback();
+        }
+    }
+}
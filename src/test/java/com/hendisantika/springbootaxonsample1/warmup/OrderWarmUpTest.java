@@ -0,0 +1,50 @@
+package com.hendisantika.springbootaxonsample1.warmup;
+
+import com.hendisantika.springbootaxonsample1.serialization.IdConverter;
+import com.thoughtworks.xstream.XStream;
+import org.axonframework.serialization.xml.XStreamSerializer;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 22.10
+ */
+class OrderWarmUpTest {
+
+    @Test
+    void givenCompilationThatAlwaysCountsAsSettled_whenRun_thenShouldStopAfterTheSettleRounds() {
+        OrderWarmUp warmUp = warmUp(Double.MAX_VALUE, Duration.ofMinutes(1));
+
+        assertEquals(2, warmUp.run());
+    }
+
+    @Test
+    void givenCompilationThatNeverSettles_whenRun_thenShouldStopAfterTheMaxDuration() {
+        OrderWarmUp warmUp = warmUp(0, Duration.ofMillis(300));
+
+        long start = System.nanoTime();
+        int rounds = warmUp.run();
+
+        assertTrue(rounds >= 1);
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(300).toNanos());
+    }
+
+    private static OrderWarmUp warmUp(double settleShare, Duration maxDuration) {
+        XStream xStream = new XStream();
+        xStream.allowTypesByWildcard(new String[]{"com.hendisantika.**"});
+        xStream.registerConverter(new IdConverter());
+        XStreamSerializer serializer = XStreamSerializer.builder().xStream(xStream).build();
+        return new OrderWarmUp(serializer, JsonMapper.builder().build(), 20, settleShare, 2, maxDuration);
+    }
+}
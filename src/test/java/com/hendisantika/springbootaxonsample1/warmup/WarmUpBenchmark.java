@@ -0,0 +1,178 @@
+package com.hendisantika.springbootaxonsample1.warmup;
+
+import com.hendisantika.springbootaxonsample1.SpringBootAxonSample1Application;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : spring-boot-axon-sample1
+ * User: hendisantika
+ * Email: hendisantika@gmail.com
+ * Telegram : @hendisantika34
+ * Date: 19/10/26
+ * Time: 21.40
+ * <p>
+ * Starts the service in a fresh JVM once without and once with the warm-up, each on the mapped event store, and
+ * sends it traffic from the moment its readiness probe passes. Every iteration creates an order, adds a product,
+ * increments it, confirms the order and then finds it by product, waiting for the read model to hold the confirmation.
+ * Iterations are started at a fixed rate; a request that starts late because the ones before it were slow counts
+ * from when its iteration should have started. Prints the time until ready and the latency percentiles of the first
+ * ten seconds and the whole run. Run through {@code scripts/warm-up-benchmark.sh}.
+ */
+public class WarmUpBenchmark {
+
+    private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int rate = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path directory = Path.of(args.length > 2 ? args[2] : "target/warm-up-benchmark");
+        FileSystemUtils.deleteRecursively(directory);
+        Files.createDirectories(directory);
+        System.out.printf("%d s of traffic, %d orders/s (%d requests/s), %d core(s)%n", seconds, rate, rate * 5,
+                          Runtime.getRuntime().availableProcessors());
+        for (boolean warmUp : new boolean[]{false, true}) {
+            run(warmUp, seconds, rate, directory.resolve(warmUp ? "warm" : "cold"));
+        }
+    }
+
+    private static void run(boolean warmUp, int seconds, int rate, Path directory) throws Exception {
+        Files.createDirectories(directory);
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        String classPath = Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> !entry.endsWith("test-classes"))
+                .collect(Collectors.joining(File.pathSeparator));
+        Process service = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xms1g", "-Xmx1g", "-Ddisable-axoniq-console-message=true", "-cp", classPath,
+                SpringBootAxonSample1Application.class.getName(),
+                "--server.port=" + port,
+                "--axon.axonserver.enabled=false",
+                "--order.event-store.type=mapped",
+                "--order.event-store.directory=" + directory.resolve("events").toAbsolutePath(),
+                "--order.warm-up.enabled=" + warmUp)
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve("service.log").toFile())
+                .start();
+        try {
+            String base = "http://localhost:" + port;
+            long launched = System.nanoTime();
+            awaitReady(base, service);
+            double readySeconds = (System.nanoTime() - launched) / 1e9;
+            List<long[]> latencies = drive(base, seconds, rate);
+            System.out.printf("%-10s ready after %5.1f s, first 10 s: %s%n", warmUp ? "warm-up" : "no warm-up",
+                              readySeconds, percentiles(latencies.get(0)));
+            System.out.printf("%-10s %20s whole run: %s%n", "", "", percentiles(latencies.get(1)));
+        } finally {
+            service.destroy();
+            service.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void awaitReady(String base, Process service) throws Exception {
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(base + "/actuator/health/readiness")).build();
+        while (true) {
+            if (!service.isAlive()) {
+                throw new IllegalStateException("The service stopped, see its log");
+            }
+            try {
+                if (CLIENT.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet.
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * Returns the latencies in nanoseconds of the first ten seconds and of the whole run.
+     */
+    private static List<long[]> drive(String base, int seconds, int rate) throws Exception {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long firstTenSeconds = start + TimeUnit.SECONDS.toNanos(10);
+        List<Long> early = new ArrayList<>();
+        List<Long> all = new ArrayList<>();
+        for (long iteration = 0; ; iteration++) {
+            long intended = start + iteration * interval;
+            if (intended >= end) {
+                break;
+            }
+            long now = System.nanoTime();
+            if (now < intended) {
+                TimeUnit.NANOSECONDS.sleep(intended - now);
+            }
+            long requestStart = intended;
+            String orderId = null;
+            String position = null;
+            for (int step = 0; step < 5; step++) {
+                HttpRequest request = switch (step) {
+                    case 0 -> post(base + "/order");
+                    case 1 -> post(base + "/order/" + orderId + "/product/product-" + iteration);
+                    case 2 -> post(base + "/order/" + orderId + "/product/product-" + iteration + "/increment");
+                    case 3 -> post(base + "/order/" + orderId + "/confirm");
+                    default -> HttpRequest.newBuilder(URI.create(
+                            base + "/orders?product-id=product-" + iteration + "&min-position=" + position)).build();
+                };
+                HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+                long finished = System.nanoTime();
+                if (response.statusCode() != 200) {
+                    throw new IllegalStateException("Request " + request.uri() + " answered " + response.statusCode()
+                                                            + ": " + response.body());
+                }
+                if (step == 0) {
+                    orderId = response.body();
+                }
+                position = response.headers().firstValue("Event-Position").orElse(position);
+                long latency = finished - requestStart;
+                all.add(latency);
+                if (intended < firstTenSeconds) {
+                    early.add(latency);
+                }
+                requestStart = finished;
+            }
+        }
+        return List.of(toArray(early), toArray(all));
+    }
+
+    private static HttpRequest post(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private static long[] toArray(List<Long> latencies) {
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    private static String percentiles(long[] sorted) {
+        return String.format("p50 %7.2f ms, p90 %7.2f ms, p99 %8.2f ms, p99.9 %8.2f ms, max %8.2f ms (%,d requests)",
+                             percentile(sorted, 0.5), percentile(sorted, 0.9), percentile(sorted, 0.99),
+                             percentile(sorted, 0.999), sorted[sorted.length - 1] / 1e6, sorted.length);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+}